@@ -0,0 +1,65 @@
+package sk.bocko.matrixcalc.benchmark;
+
+import java.util.Optional;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import sk.bocko.matrixcalc.model.Axis;
+import sk.bocko.matrixcalc.model.Matrix;
+import sk.bocko.matrixcalc.model.Range;
+import sk.bocko.matrixcalc.model.RangedOperation;
+
+/**
+ * Reduction of every column by the single row-major sweep of {@link Axis}
+ * and by a strided reduction of one column range after another, as
+ * separate requests per column did.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class AxisBenchmark {
+
+    @Param({"SUM", "MINIMUM"})
+    private RangedOperation operation;
+
+    @Param({"100x100", "1000x1000", "4000x4000"})
+    private String shape;
+
+    private Matrix matrix;
+    private Range[] columns;
+
+    @Setup
+    public void setUp() {
+        matrix = Matrices.random(shape);
+        columns = new Range[matrix.getColumns()];
+        for (int j = 0; j < columns.length; j++) {
+            columns[j] = Range.valueOf(Optional.of("x-" + (j + 1)));
+        }
+    }
+
+    @Benchmark
+    public Matrix sweep() {
+        return Axis.COLUMNS.apply(operation, matrix);
+    }
+
+    @Benchmark
+    public double[] perColumn() {
+        double[] result = new double[columns.length];
+        for (int j = 0; j < columns.length; j++) {
+            result[j] = operation.apply(matrix, columns[j]);
+        }
+        return result;
+    }
+}
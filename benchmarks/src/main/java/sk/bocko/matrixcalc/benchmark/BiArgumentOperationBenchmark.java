@@ -0,0 +1,73 @@
+package sk.bocko.matrixcalc.benchmark;
+
+import java.util.Optional;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import sk.bocko.matrixcalc.model.BiArgumentOperation;
+import sk.bocko.matrixcalc.model.Matrix;
+import sk.bocko.matrixcalc.model.MatrixView;
+import sk.bocko.matrixcalc.model.Range;
+
+/**
+ * Every {@link BiArgumentOperation} on two elements, element-wise on two
+ * rows and two columns, and on two whole matrices.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 1, jvmArgsAppend = "-Xmx4g")
+public class BiArgumentOperationBenchmark {
+
+    @Param({"ADDITION", "SUBTRACTION", "MULTIPLICATION", "DIVISION"})
+    private BiArgumentOperation operation;
+
+    @Param({"2x2", "10x10", "100x100", "1000x1000", "4000x4000"})
+    private String shape;
+
+    private Matrix matrix;
+    private double first, second;
+    private MatrixView firstRow, secondRow, firstColumn, secondColumn;
+
+    @Setup
+    public void setUp() {
+        matrix = Matrices.random(shape);
+        first = matrix.getRange(Range.valueOf(Optional.empty())).get(0);
+        second = matrix.getRange(Range.valueOf(Optional.empty())).get(1);
+        firstRow = matrix.getRange(Range.valueOf(Optional.of("1-x")));
+        secondRow = matrix.getRange(Range.valueOf(Optional.of("2-x")));
+        firstColumn = matrix.getRange(Range.valueOf(Optional.of("x-1")));
+        secondColumn = matrix.getRange(Range.valueOf(Optional.of("x-2")));
+    }
+
+    @Benchmark
+    public double elements() {
+        return operation.apply(first, second);
+    }
+
+    @Benchmark
+    public double[] rows() {
+        return operation.apply(firstRow, secondRow);
+    }
+
+    @Benchmark
+    public double[] columns() {
+        return operation.apply(firstColumn, secondColumn);
+    }
+
+    @Benchmark
+    public Matrix matrices() {
+        return operation.apply(matrix, matrix);
+    }
+}
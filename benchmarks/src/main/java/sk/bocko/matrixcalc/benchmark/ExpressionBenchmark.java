@@ -0,0 +1,49 @@
+package sk.bocko.matrixcalc.benchmark;
+
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import sk.bocko.matrixcalc.cache.ExpressionCache;
+import sk.bocko.matrixcalc.model.Expression;
+import sk.bocko.matrixcalc.model.Matrix;
+
+/**
+ * A formula over cells evaluated from the {@link ExpressionCache} and
+ * compiled again for every evaluation, as an uncached request would.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ExpressionBenchmark {
+    private static final String FORMULA = "(1-1 + 2-3) * 4-4 / 5-5 - (10-10 - 3-7) * 2";
+
+    private Matrix matrix;
+    private ExpressionCache cache;
+
+    @Setup
+    public void setUp() {
+        matrix = Matrices.random("100x100");
+        cache = new ExpressionCache(1000);
+    }
+
+    @Benchmark
+    public double cached() {
+        return cache.get(FORMULA).evaluate(matrix);
+    }
+
+    @Benchmark
+    public double compiled() {
+        return Expression.compile(FORMULA).evaluate(matrix);
+    }
+}
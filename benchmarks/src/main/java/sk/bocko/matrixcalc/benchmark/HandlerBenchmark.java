@@ -0,0 +1,104 @@
+package sk.bocko.matrixcalc.benchmark;
+
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.TimeUnit;
+import org.json.JSONObject;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import sk.bocko.matrixcalc.controller.BinaryOperationRequestHandlerImpl;
+import sk.bocko.matrixcalc.controller.RangedOperationRequestHandler;
+import sk.bocko.matrixcalc.metrics.StageMetrics;
+import sk.bocko.matrixcalc.model.Matrix;
+import sk.bocko.matrixcalc.model.ParallelReduction;
+
+/**
+ * Full calls of the uncached request handlers, from the request arguments
+ * to the json result, with the default parallel threshold.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 1, jvmArgsAppend = "-Xmx4g")
+public class HandlerBenchmark {
+    private static final int PARALLEL_THRESHOLD = 262144;
+
+    @State(Scope.Benchmark)
+    public static class Ranged {
+        @Param({"sum", "product", "min", "max", "average"})
+        private String operation;
+
+        @Param({"2x2", "10x10", "100x100", "1000x1000", "4000x4000"})
+        private String shape;
+
+        @Param({"row", "column", "whole"})
+        private String range;
+
+        private Matrix matrix;
+        private String rangeParameter;
+        private ForkJoinPool pool;
+        private RangedOperationRequestHandler handler;
+
+        @Setup
+        public void setUp() {
+            matrix = Matrices.random(shape);
+            rangeParameter = Matrices.rangeParameter(range);
+            pool = new ForkJoinPool();
+            handler = new RangedOperationRequestHandler(
+                new ParallelReduction(pool, PARALLEL_THRESHOLD), new StageMetrics());
+        }
+
+        @TearDown
+        public void tearDown() {
+            pool.shutdown();
+        }
+    }
+
+    @State(Scope.Benchmark)
+    public static class Binary {
+        @Param({"add", "subtract", "multiply", "divide"})
+        private String operation;
+
+        @Param({"2x2", "10x10", "100x100", "1000x1000", "4000x4000"})
+        private String shape;
+
+        private Matrix matrix;
+        private final BinaryOperationRequestHandlerImpl handler =
+            new BinaryOperationRequestHandlerImpl();
+
+        @Setup
+        public void setUp() {
+            matrix = Matrices.random(shape);
+        }
+    }
+
+    @Benchmark
+    public JSONObject ranged(Ranged state) {
+        return state.handler.handle(state.matrix, state.rangeParameter, state.operation);
+    }
+
+    @Benchmark
+    public JSONObject binaryPositions(Binary state) {
+        return state.handler.handle(state.matrix, "1-1", "2-2", state.operation);
+    }
+
+    @Benchmark
+    public JSONObject binaryRows(Binary state) {
+        return state.handler.handle(state.matrix, "1-x", "2-x", state.operation);
+    }
+
+    @Benchmark
+    public JSONObject binaryColumns(Binary state) {
+        return state.handler.handle(state.matrix, "x-1", "x-2", state.operation);
+    }
+}
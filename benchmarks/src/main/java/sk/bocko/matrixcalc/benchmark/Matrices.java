@@ -0,0 +1,60 @@
+package sk.bocko.matrixcalc.benchmark;
+
+import java.util.Optional;
+import java.util.Random;
+import sk.bocko.matrixcalc.model.Matrix;
+import sk.bocko.matrixcalc.model.Range;
+
+/**
+ * Matrices shared by the benchmarks.
+ */
+final class Matrices {
+    private Matrices() {
+    }
+
+    static int rows(String shape) {
+        return Integer.parseInt(shape.substring(0, shape.indexOf('x')));
+    }
+
+    static int columns(String shape) {
+        return Integer.parseInt(shape.substring(shape.indexOf('x') + 1));
+    }
+
+    /**
+     * @param shape rows x columns, e.g. 100x100
+     * @return a matrix of values between 0.5 and 1.5 with 4 decimal places,
+     * so products stay finite and the json is of realistic length
+     */
+    static Matrix random(String shape) {
+        Random random = new Random(42);
+        double[] values = new double[rows(shape) * columns(shape)];
+        for (int i = 0; i < values.length; i++) {
+            values[i] = 0.5 + random.nextInt(10000) / 10000.0;
+        }
+        return Matrix.from(rows(shape), columns(shape), values);
+    }
+
+    /**
+     * @param range row, column or whole
+     * @return the first row, the first column or the whole matrix
+     */
+    static Range range(String range) {
+        switch (range) {
+            case "row":
+                return Range.valueOf(Optional.of("1-x"));
+            case "column":
+                return Range.valueOf(Optional.of("x-1"));
+            case "whole":
+                return Range.valueOf(Optional.empty());
+            default:
+                throw new IllegalArgumentException(range);
+        }
+    }
+
+    /**
+     * @return the range as a request parameter, null for the whole matrix
+     */
+    static String rangeParameter(String range) {
+        return "whole".equals(range) ? null : range(range).toString();
+    }
+}
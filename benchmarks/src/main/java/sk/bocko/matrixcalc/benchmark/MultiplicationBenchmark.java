@@ -0,0 +1,118 @@
+package sk.bocko.matrixcalc.benchmark;
+
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.AuxCounters;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import sk.bocko.matrixcalc.model.Matrix;
+import sk.bocko.matrixcalc.model.MatrixMultiplication;
+
+/**
+ * Product of two square matrices by a naive i-j-k triple loop, by the
+ * {@link MatrixMultiplication} kernel on the calling thread and by the
+ * kernel splitting the rows on a pool with a thread per processor.
+ *
+ * Besides the products per second, the {@code gflop} counter reports the
+ * throughput in GFLOP/s (2 * n^3 floating point operations per product).
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = "-Xmx4g")
+public class MultiplicationBenchmark {
+
+    @Param({"64", "256", "512", "1024"})
+    private int size;
+
+    private Matrix left, right;
+    private double[] a, b;
+    private ForkJoinPool pool;
+    private MatrixMultiplication sequential, parallel;
+
+    @Setup
+    public void setUp() {
+        String shape = size + "x" + size;
+        left = Matrices.random(shape);
+        right = Matrices.random(shape);
+        a = flatten(left.getMatrix());
+        b = flatten(right.getMatrix());
+        pool = new ForkJoinPool();
+        sequential = new MatrixMultiplication(pool, Long.MAX_VALUE, Integer.MAX_VALUE);
+        parallel = new MatrixMultiplication(pool, 1, Integer.MAX_VALUE);
+    }
+
+    @TearDown
+    public void tearDown() {
+        pool.shutdown();
+    }
+
+    @Benchmark
+    public double[] naive(Flops flops) {
+        flops.add(size);
+        int n = size;
+        double[] c = new double[n * n];
+        for (int i = 0; i < n; i++) {
+            for (int j = 0; j < n; j++) {
+                double sum = 0;
+                for (int p = 0; p < n; p++) {
+                    sum += a[i * n + p] * b[p * n + j];
+                }
+                c[i * n + j] = sum;
+            }
+        }
+        return c;
+    }
+
+    @Benchmark
+    public Matrix blocked(Flops flops) {
+        flops.add(size);
+        return sequential.apply(left, right);
+    }
+
+    @Benchmark
+    public Matrix blockedParallel(Flops flops) {
+        flops.add(size);
+        return parallel.apply(left, right);
+    }
+
+    private static double[] flatten(double[][] rows) {
+        int columns = rows[0].length;
+        double[] values = new double[rows.length * columns];
+        for (int i = 0; i < rows.length; i++) {
+            System.arraycopy(rows[i], 0, values, i * columns, columns);
+        }
+        return values;
+    }
+
+    /**
+     * Floating point operations done, reported per second.
+     */
+    @State(Scope.Thread)
+    @AuxCounters(AuxCounters.Type.OPERATIONS)
+    public static class Flops {
+        public double gflop;
+
+        @Setup(Level.Iteration)
+        public void reset() {
+            gflop = 0;
+        }
+
+        void add(int size) {
+            gflop += 2.0 * size * size * size / 1e9;
+        }
+    }
+}
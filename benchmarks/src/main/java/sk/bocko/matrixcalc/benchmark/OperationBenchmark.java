@@ -0,0 +1,71 @@
+package sk.bocko.matrixcalc.benchmark;
+
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import sk.bocko.matrixcalc.model.Matrix;
+import sk.bocko.matrixcalc.model.ParallelReduction;
+import sk.bocko.matrixcalc.model.Range;
+import sk.bocko.matrixcalc.model.RangedOperation;
+
+/**
+ * Every {@link RangedOperation} on a range of the matrix, sequentially and
+ * with a {@link ParallelReduction} which splits every range regardless of
+ * its length, on a pool with a thread per processor.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 1, jvmArgsAppend = "-Xmx4g")
+public class OperationBenchmark {
+
+    @Param({"SUM", "PRODUCT", "MINIMUM", "MAXIMUM", "AVERAGE"})
+    private RangedOperation operation;
+
+    @Param({"2x2", "10x10", "100x100", "1000x1000", "4000x4000"})
+    private String shape;
+
+    @Param({"row", "column", "whole"})
+    private String range;
+
+    private Matrix matrix;
+    private Range parsed;
+    private ForkJoinPool pool;
+    private ParallelReduction reduction;
+
+    @Setup
+    public void setUp() {
+        matrix = Matrices.random(shape);
+        parsed = Matrices.range(range);
+        pool = new ForkJoinPool();
+        reduction = new ParallelReduction(pool, 1);
+    }
+
+    @TearDown
+    public void tearDown() {
+        pool.shutdown();
+    }
+
+    @Benchmark
+    public double sequential() {
+        return operation.apply(matrix, parsed);
+    }
+
+    @Benchmark
+    public double parallel() {
+        return reduction.apply(operation, matrix, parsed);
+    }
+}
@@ -0,0 +1,78 @@
+package sk.bocko.matrixcalc.benchmark;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.TimeUnit;
+import org.json.JSONArray;
+import org.json.JSONObject;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import sk.bocko.matrixcalc.io.MatrixBinaryFormat;
+import sk.bocko.matrixcalc.io.MatrixJsonReader;
+import sk.bocko.matrixcalc.model.Matrix;
+
+/**
+ * Reading a matrix from a request body: {@link Matrix#from(JSONArray)} on a
+ * parsed json array, {@link Matrix#from(double[][])}, the streaming
+ * {@link MatrixJsonReader} and the application/x-matrix format.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = "-Xmx4g")
+public class ParseBenchmark {
+
+    @Param({"2x2", "10x10", "100x100", "1000x1000", "4000x4000"})
+    private String shape;
+
+    private double[][] rows;
+    private String array;
+    private byte[] json;
+    private byte[] binary;
+
+    @Setup
+    public void setUp() throws IOException {
+        Matrix matrix = Matrices.random(shape);
+        rows = matrix.getMatrix();
+        array = new JSONArray(rows).toString();
+        json = new JSONObject().put(MatrixJsonReader.MATRIX, new JSONArray(array))
+            .toString().getBytes(StandardCharsets.UTF_8);
+
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        MatrixBinaryFormat.write(matrix, out);
+        binary = out.toByteArray();
+    }
+
+    @Benchmark
+    public Matrix fromJsonArray() {
+        return Matrix.from(new JSONArray(array));
+    }
+
+    @Benchmark
+    public Matrix fromRows() {
+        return Matrix.from(rows);
+    }
+
+    @Benchmark
+    public Matrix jsonReader() throws IOException {
+        return MatrixJsonReader.read(new ByteArrayInputStream(json));
+    }
+
+    @Benchmark
+    public Matrix binaryFormat() throws IOException {
+        return MatrixBinaryFormat.read(new ByteArrayInputStream(binary), binary.length);
+    }
+}
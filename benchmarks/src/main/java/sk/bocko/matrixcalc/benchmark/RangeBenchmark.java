@@ -0,0 +1,55 @@
+package sk.bocko.matrixcalc.benchmark;
+
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import sk.bocko.matrixcalc.model.Matrix;
+import sk.bocko.matrixcalc.model.MatrixView;
+import sk.bocko.matrixcalc.model.Range;
+
+/**
+ * {@link Matrix#getRange} of a row, a column and the whole matrix, and the
+ * cost of copying the range into an array, as it was done before views.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 1, jvmArgsAppend = "-Xmx4g")
+public class RangeBenchmark {
+
+    @Param({"2x2", "10x10", "100x100", "1000x1000", "4000x4000"})
+    private String shape;
+
+    @Param({"row", "column", "whole"})
+    private String range;
+
+    private Matrix matrix;
+    private Range parsed;
+
+    @Setup
+    public void setUp() {
+        matrix = Matrices.random(shape);
+        parsed = Matrices.range(range);
+    }
+
+    @Benchmark
+    public MatrixView getRange() {
+        return matrix.getRange(parsed);
+    }
+
+    @Benchmark
+    public double[] copy() {
+        return matrix.getRange(parsed).toArray();
+    }
+}
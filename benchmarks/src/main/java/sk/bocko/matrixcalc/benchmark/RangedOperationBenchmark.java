@@ -0,0 +1,104 @@
+package sk.bocko.matrixcalc.benchmark;
+
+import java.util.Arrays;
+import java.util.Optional;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Function;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import sk.bocko.matrixcalc.model.Matrix;
+import sk.bocko.matrixcalc.model.MatrixView;
+import sk.bocko.matrixcalc.model.Range;
+import sk.bocko.matrixcalc.model.RangedOperation;
+
+/**
+ * Compares the primitive {@link RangedOperation} kernels with the stream
+ * pipelines they replaced. The stream baseline gets the values as a ready
+ * array, so only the reduction itself is compared. The baseline of the
+ * variance takes two passes and the one of the median sorts a copy.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class RangedOperationBenchmark {
+
+    @Param({"SUM", "PRODUCT", "MINIMUM", "MAXIMUM", "AVERAGE", "VARIANCE", "MEDIAN"})
+    private RangedOperation operation;
+
+    @Param({"1000"})
+    private int size;
+
+    @Param({"1-x", "x-1", "2:999-2:999"})
+    private String range;
+
+    private MatrixView view;
+    private double[] values;
+    private Function<double[], Double> stream;
+
+    @Setup
+    public void setUp() {
+        Random random = new Random(42);
+        double[] storage = new double[size * size];
+        for (int i = 0; i < storage.length; i++) {
+            storage[i] = 0.5 + random.nextDouble();
+        }
+
+        view = Matrix.from(size, size, storage).getRange(Range.valueOf(Optional.of(range)));
+        values = view.toArray();
+        stream = streamOf(operation);
+    }
+
+    @Benchmark
+    public double kernel() {
+        return operation.apply(view);
+    }
+
+    @Benchmark
+    public Double stream() {
+        return stream.apply(values);
+    }
+
+    private static Function<double[], Double> streamOf(RangedOperation operation) {
+        switch (operation) {
+            case SUM:
+                return values -> Arrays.stream(values).sum();
+            case PRODUCT:
+                return values -> Arrays.stream(values).reduce((x, y) -> x * y).getAsDouble();
+            case MINIMUM:
+                return values -> Arrays.stream(values).min().getAsDouble();
+            case MAXIMUM:
+                return values -> Arrays.stream(values).max().getAsDouble();
+            case AVERAGE:
+                return values -> Arrays.stream(values).average().getAsDouble();
+            case VARIANCE:
+                return values -> {
+                    double mean = Arrays.stream(values).average().getAsDouble();
+                    return Arrays.stream(values).map(x -> (x - mean) * (x - mean)).average()
+                        .getAsDouble();
+                };
+            case MEDIAN:
+                return values -> {
+                    double[] sorted = Arrays.stream(values).sorted().toArray();
+                    int middle = sorted.length / 2;
+                    return sorted.length % 2 == 1
+                        ? sorted[middle]
+                        : (sorted[middle - 1] + sorted[middle]) / 2;
+                };
+            default:
+                throw new IllegalArgumentException(operation.toString());
+        }
+    }
+}
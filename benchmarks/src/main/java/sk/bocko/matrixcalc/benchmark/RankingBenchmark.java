@@ -0,0 +1,76 @@
+package sk.bocko.matrixcalc.benchmark;
+
+import java.util.Arrays;
+import java.util.Optional;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import sk.bocko.matrixcalc.model.Matrix;
+import sk.bocko.matrixcalc.model.ParallelReduction;
+import sk.bocko.matrixcalc.model.Range;
+import sk.bocko.matrixcalc.model.Ranking;
+
+/**
+ * The k largest values of the whole matrix by the bounded heap of
+ * {@link Ranking}, sequentially and split by {@link ParallelReduction},
+ * and by sorting a copy of the values.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class RankingBenchmark {
+    private static final Range WHOLE = Range.valueOf(Optional.empty());
+
+    @Param({"1000x1000", "4000x4000"})
+    private String shape;
+
+    @Param({"1", "100"})
+    private int k;
+
+    private Matrix matrix;
+    private ForkJoinPool pool;
+    private ParallelReduction reduction;
+
+    @Setup
+    public void setUp() {
+        matrix = Matrices.random(shape);
+        pool = new ForkJoinPool();
+        reduction = new ParallelReduction(pool, 1);
+    }
+
+    @TearDown
+    public void tearDown() {
+        pool.shutdown();
+    }
+
+    @Benchmark
+    public Ranking heap() {
+        return Ranking.of(matrix, WHOLE, k, true);
+    }
+
+    @Benchmark
+    public Ranking parallelHeap() {
+        return reduction.rank(matrix, WHOLE, k, true);
+    }
+
+    @Benchmark
+    public double sortedCopy() {
+        double[] values = matrix.getRange(WHOLE).toArray();
+        Arrays.sort(values);
+        return values[values.length - k];
+    }
+}
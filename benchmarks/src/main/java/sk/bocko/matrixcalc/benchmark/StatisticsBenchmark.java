@@ -0,0 +1,65 @@
+package sk.bocko.matrixcalc.benchmark;
+
+import java.util.Optional;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import sk.bocko.matrixcalc.model.Matrix;
+import sk.bocko.matrixcalc.model.Range;
+import sk.bocko.matrixcalc.model.RangedOperation;
+import sk.bocko.matrixcalc.model.Statistics;
+
+/**
+ * All the statistics of a range by the single pass of {@link Statistics}
+ * and by a pass of every {@link RangedOperation} they include, as separate
+ * requests did.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class StatisticsBenchmark {
+    private static final RangedOperation[] OPERATIONS = {RangedOperation.SUM,
+        RangedOperation.PRODUCT, RangedOperation.MINIMUM, RangedOperation.MAXIMUM,
+        RangedOperation.AVERAGE, RangedOperation.VARIANCE};
+
+    @Param({"1000x1000", "4000x4000"})
+    private String shape;
+
+    @Param({"x-2", "2:999-2:999"})
+    private String range;
+
+    private Matrix matrix;
+    private Range parsed;
+
+    @Setup
+    public void setUp() {
+        matrix = Matrices.random(shape);
+        parsed = Range.valueOf(Optional.of(range));
+    }
+
+    @Benchmark
+    public Statistics fused() {
+        return Statistics.of(matrix, parsed);
+    }
+
+    @Benchmark
+    public double[] perOperation() {
+        double[] result = new double[OPERATIONS.length];
+        for (int i = 0; i < OPERATIONS.length; i++) {
+            result[i] = OPERATIONS[i].apply(matrix, parsed);
+        }
+        return result;
+    }
+}
@@ -0,0 +1,85 @@
+package sk.bocko.matrixcalc;
+
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.SynchronousQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+import sk.bocko.matrixcalc.model.MatrixMultiplication;
+import sk.bocko.matrixcalc.model.ParallelReduction;
+
+/**
+ * Thread pools used by the calculations.
+ */
+@Configuration
+public class ComputeConfiguration {
+
+    /**
+     * Dedicated pool for reductions and matrix products, so they do not
+     * compete with other users of the common pool.
+     */
+    @Bean(destroyMethod = "shutdown")
+    public ForkJoinPool reductionPool(
+        @Value("${matrixcalc.parallel.parallelism:0}") int parallelism) {
+        return new ForkJoinPool(parallelism > 0
+            ? parallelism
+            : Runtime.getRuntime().availableProcessors());
+    }
+
+    /**
+     * Bounded pool which parses and calculates the requests, see
+     * {@link sk.bocko.matrixcalc.controller.ComputeExecutor}. Work which does
+     * not fit into the queue is rejected.
+     */
+    @Bean(destroyMethod = "shutdown")
+    public ThreadPoolExecutor computePool(
+        @Value("${matrixcalc.compute.threads:0}") int threads,
+        @Value("${matrixcalc.compute.queue-capacity:64}") int queueCapacity) {
+        int size = threads > 0 ? threads : Runtime.getRuntime().availableProcessors();
+        BlockingQueue<Runnable> queue = queueCapacity > 0
+            ? new ArrayBlockingQueue<>(queueCapacity)
+            : new SynchronousQueue<>();
+        return new ThreadPoolExecutor(size, size, 0, TimeUnit.MILLISECONDS, queue,
+            new ThreadFactoryBuilder().setNameFormat("compute-%d").setDaemon(true).build(),
+            new ThreadPoolExecutor.AbortPolicy());
+    }
+
+    /**
+     * Bounded pool which writes streamed responses, e.g. the vectors of
+     * axis reductions. Without it Spring MVC starts a new thread for every
+     * streamed response.
+     */
+    @Bean
+    public ThreadPoolTaskExecutor streamingPool(
+        @Value("${matrixcalc.streaming.threads:8}") int threads,
+        @Value("${matrixcalc.streaming.queue-capacity:256}") int queueCapacity) {
+        ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
+        executor.setCorePoolSize(threads);
+        executor.setMaxPoolSize(threads);
+        executor.setQueueCapacity(queueCapacity);
+        executor.setThreadNamePrefix("streaming-");
+        executor.setDaemon(true);
+        return executor;
+    }
+
+    @Bean
+    public ParallelReduction parallelReduction(
+        ForkJoinPool reductionPool,
+        @Value("${matrixcalc.parallel.threshold:262144}") int threshold) {
+        return new ParallelReduction(reductionPool, threshold);
+    }
+
+    @Bean
+    public MatrixMultiplication matrixMultiplication(
+        ForkJoinPool reductionPool,
+        @Value("${matrixcalc.matmul.threshold:1000000}") long threshold,
+        @Value("${matrixcalc.matrix.max-elements:67108864}") long maxElements) {
+        return new MatrixMultiplication(reductionPool, threshold, maxElements);
+    }
+}
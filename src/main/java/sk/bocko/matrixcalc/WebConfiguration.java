@@ -0,0 +1,48 @@
+package sk.bocko.matrixcalc;
+
+import java.util.List;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.http.converter.HttpMessageConverter;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+import org.springframework.web.method.support.HandlerMethodArgumentResolver;
+import org.springframework.web.servlet.config.annotation.AsyncSupportConfigurer;
+import org.springframework.web.servlet.config.annotation.WebMvcConfigurerAdapter;
+import sk.bocko.matrixcalc.controller.MatrixArgumentResolver;
+import sk.bocko.matrixcalc.controller.MatrixHttpMessageConverter;
+
+/**
+ * Spring MVC customizations.
+ */
+@Configuration
+public class WebConfiguration extends WebMvcConfigurerAdapter {
+    private final MatrixHttpMessageConverter matrixConverter = new MatrixHttpMessageConverter();
+
+    @Autowired
+    private ThreadPoolTaskExecutor streamingPool;
+
+    // maximum number of elements of a matrix sent as entries
+    @Value("${matrixcalc.matrix.max-elements:67108864}")
+    private long maxElements;
+
+    // maximum size of a body received before it is parsed on the compute pool
+    @Value("${matrixcalc.request.max-body-bytes:268435456}")
+    private int maxBodyBytes;
+
+    @Override
+    public void addArgumentResolvers(List<HandlerMethodArgumentResolver> argumentResolvers) {
+        argumentResolvers.add(new MatrixArgumentResolver(matrixConverter, maxElements,
+            maxBodyBytes));
+    }
+
+    @Override
+    public void extendMessageConverters(List<HttpMessageConverter<?>> converters) {
+        converters.add(matrixConverter);
+    }
+
+    @Override
+    public void configureAsyncSupport(AsyncSupportConfigurer configurer) {
+        configurer.setTaskExecutor(streamingPool);
+    }
+}
@@ -0,0 +1,66 @@
+package sk.bocko.matrixcalc.cache;
+
+import static com.google.common.base.Preconditions.checkArgument;
+import static com.google.common.base.Preconditions.checkNotNull;
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import com.google.common.cache.CacheStats;
+import org.apache.http.annotation.ThreadSafe;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import sk.bocko.matrixcalc.model.Expression;
+
+/**
+ * Compiled {@link Expression}s keyed by their text, so a repeated formula
+ * is evaluated without parsing it again.
+ *
+ * The cache is bounded by the number of expressions, the least recently
+ * used ones are evicted. Invalid expressions are not cached.
+ */
+@Component
+@ThreadSafe
+public class ExpressionCache {
+    private final Cache<String, Expression> expressions;
+
+    @Autowired
+    public ExpressionCache(
+        @Value("${matrixcalc.expression-cache.max-entries:1000}") final long maxEntries) {
+        checkArgument(maxEntries >= 0, "cache size is negative");
+        this.expressions = CacheBuilder.newBuilder()
+            .maximumSize(maxEntries)
+            .recordStats()
+            .build();
+    }
+
+    /**
+     * Get a cached expression or compile and cache it. Throws
+     * IllegalArgumentException if the text is not a valid expression.
+     * @param text expression to compile
+     * @return compiled expression
+     */
+    public Expression get(String text) {
+        checkNotNull(text, "expression is null");
+
+        Expression expression = expressions.getIfPresent(text);
+        if (expression == null) {
+            expression = Expression.compile(text);
+            expressions.put(text, expression);
+        }
+        return expression;
+    }
+
+    /**
+     * @return hit, miss and eviction counters of the cache
+     */
+    public CacheStats stats() {
+        return expressions.stats();
+    }
+
+    /**
+     * @return approximate number of cached expressions
+     */
+    public long size() {
+        return expressions.size();
+    }
+}
@@ -0,0 +1,112 @@
+package sk.bocko.matrixcalc.cache;
+
+import static com.google.common.base.Preconditions.checkArgument;
+import static com.google.common.base.Preconditions.checkNotNull;
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import com.google.common.cache.CacheStats;
+import java.util.Arrays;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+import org.apache.http.annotation.ThreadSafe;
+import org.json.JSONObject;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import sk.bocko.matrixcalc.model.Fingerprint;
+import sk.bocko.matrixcalc.model.Matrix;
+
+/**
+ * Results of operations keyed by the {@link Fingerprint} of the matrix,
+ * the operation and its arguments, so a repeated request is answered
+ * without calculating it again.
+ *
+ * The cache is bounded by the number of results and by their age. Only
+ * successful results are cached. Cached results are shared between
+ * requests and must not be modified.
+ */
+@Component
+@ThreadSafe
+public class ResultCache {
+    private final Cache<Key, JSONObject> results;
+
+    @Autowired
+    public ResultCache(
+        @Value("${matrixcalc.cache.max-entries:10000}") final long maxEntries,
+        @Value("${matrixcalc.cache.expire-after-write-seconds:600}") final long expireAfterWriteSeconds) {
+        checkArgument(maxEntries >= 0, "cache size is negative");
+        checkArgument(expireAfterWriteSeconds > 0, "cache expiration must be positive");
+        this.results = CacheBuilder.newBuilder()
+            .maximumSize(maxEntries)
+            .expireAfterWrite(expireAfterWriteSeconds, TimeUnit.SECONDS)
+            .recordStats()
+            .build();
+    }
+
+    /**
+     * Get a cached result or calculate and cache it.
+     * Exceptions thrown by the calculation are propagated and not cached.
+     * @param matrix matrix the operation is performed on
+     * @param calculation calculates the result on a cache miss
+     * @param operation operation and its arguments, null arguments are allowed
+     * @return cached or calculated result
+     */
+    public JSONObject get(Matrix matrix, Supplier<JSONObject> calculation,
+        String... operation) {
+        checkNotNull(matrix, "matrix is null");
+        checkNotNull(calculation, "calculation is null");
+
+        Key key = new Key(matrix.fingerprint(), operation);
+        JSONObject result = results.getIfPresent(key);
+        if (result == null) {
+            result = checkNotNull(calculation.get(), "result is null");
+            results.put(key, result);
+        }
+        return result;
+    }
+
+    /**
+     * @return hit, miss and eviction counters of the cache
+     */
+    public CacheStats stats() {
+        return results.stats();
+    }
+
+    /**
+     * @return approximate number of cached results
+     */
+    public long size() {
+        return results.size();
+    }
+
+    private static final class Key {
+        private final Fingerprint fingerprint;
+        private final String[] operation;
+        private final int hash;
+
+        private Key(final Fingerprint fingerprint, final String[] operation) {
+            this.fingerprint = fingerprint;
+            this.operation = operation.clone();
+            this.hash = 31 * fingerprint.hashCode() + Arrays.hashCode(operation);
+        }
+
+        @Override
+        public boolean equals(Object other) {
+            if (this == other) {
+                return true;
+            }
+            if (!(other instanceof Key)) {
+                return false;
+            }
+            Key that = (Key) other;
+            return hash == that.hash
+                && fingerprint.equals(that.fingerprint)
+                && Arrays.equals(operation, that.operation);
+        }
+
+        @Override
+        public int hashCode() {
+            return hash;
+        }
+    }
+}
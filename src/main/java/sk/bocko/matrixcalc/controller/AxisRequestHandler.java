@@ -0,0 +1,20 @@
+package sk.bocko.matrixcalc.controller;
+
+import sk.bocko.matrixcalc.model.Matrix;
+
+/**
+ * Handles requests for an operation applied on every row or every column.
+ */
+public interface AxisRequestHandler {
+
+    /**
+     * Handle request.
+     *
+     * @param matrix matrix from the request body
+     * @param axis rows or columns
+     * @param operation operation to perform on every row or column
+     * @return column vector with a result per row or row vector with
+     * a result per column
+     */
+    Matrix handle(Matrix matrix, String axis, String operation);
+}
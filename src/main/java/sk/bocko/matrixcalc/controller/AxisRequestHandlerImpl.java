@@ -0,0 +1,44 @@
+package sk.bocko.matrixcalc.controller;
+
+import static com.google.common.base.Preconditions.checkNotNull;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+import sk.bocko.matrixcalc.metrics.Stage;
+import sk.bocko.matrixcalc.metrics.StageMetrics;
+import sk.bocko.matrixcalc.model.Axis;
+import sk.bocko.matrixcalc.model.Matrix;
+import sk.bocko.matrixcalc.model.MatrixView;
+import sk.bocko.matrixcalc.model.RangedOperation;
+
+/**
+ * Matrix implementation of {@link AxisRequestHandler}.
+ */
+@Service("axis_operation")
+public class AxisRequestHandlerImpl implements AxisRequestHandler {
+    private final StageMetrics metrics;
+
+    @Autowired
+    public AxisRequestHandlerImpl(StageMetrics metrics) {
+        this.metrics = checkNotNull(metrics, "metrics are null");
+    }
+
+    @Override
+    public Matrix handle(final Matrix matrix, final String axis, final String operation) {
+        checkNotNull(matrix, "matrix is null");
+
+        RangedOperation toApply = RangedOperation.from(operation);
+        Axis matrixAxis = Axis.from(axis);
+
+        long start = System.nanoTime();
+        Matrix result = matrixAxis.apply(toApply, matrix);
+        metrics.record(Stage.REDUCE, operation, matrix, start);
+
+        MatrixView values = result.getRange(Results.WHOLE);
+        for (int i = 0; i < values.length(); i++) {
+            if (!Double.isFinite(values.get(i))) {
+                throw new IllegalArgumentException("result is not a finite number");
+            }
+        }
+        return result;
+    }
+}
@@ -0,0 +1,83 @@
+package sk.bocko.matrixcalc.controller;
+
+import static com.google.common.base.Preconditions.checkNotNull;
+import javax.servlet.http.HttpServletRequest;
+import org.json.JSONException;
+import org.json.JSONObject;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.converter.HttpMessageNotReadableException;
+import org.springframework.web.bind.annotation.ExceptionHandler;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestMethod;
+import org.springframework.web.bind.annotation.ResponseStatus;
+import org.springframework.web.bind.annotation.RestController;
+import sk.bocko.matrixcalc.io.MatrixRequest;
+import sk.bocko.matrixcalc.log.AccessLog;
+import sk.bocko.matrixcalc.log.RequestLogger;
+import sk.bocko.matrixcalc.model.ErrorResponse;
+
+/**
+ * Performs many binary and ranged operations on one matrix, which is sent
+ * and parsed only once.
+ */
+@RestController
+public class BatchController {
+    private static final String OPERATIONS = "operations";
+
+    private final BatchRequestHandler handler;
+    private final RequestLogger log;
+
+    @Autowired
+    public BatchController(
+        @Qualifier(value = "batch_matrix_operation")
+            BatchRequestHandler handler,
+        AccessLog accessLog) {
+        this.handler = checkNotNull(handler, "handler is null");
+        this.log = new RequestLogger(BatchController.class, accessLog);
+    }
+
+    /**
+     * Process a batch of operations, e.g.
+     * {"matrix": [[1,2],[3,4]], "operations": [
+     * {"operation":"sum","range":"1-x"},
+     * {"operation":"add","first":"1-1","second":"2-2"},
+     * {"operation":"percentile","p":50,"range":"x-2"}]}.
+     * @return json with a result or an error for every operation, e.g.
+     * {"results": [{"result":3},{"result":5},{"result":3}]}
+     */
+    @RequestMapping(
+        value = "/rest/batch",
+        produces = "application/json",
+        method = RequestMethod.POST)
+    public String process(HttpServletRequest request, MatrixRequest body) {
+        JSONObject result = handler.handle(body.getMatrix(),
+            body.getMembers().optJSONArray(OPERATIONS));
+
+        log.logSuccessfulResponse(request, body, result);
+        return result.toString();
+    }
+
+    @ExceptionHandler(HttpMessageNotReadableException.class)
+    @ResponseStatus(HttpStatus.UNPROCESSABLE_ENTITY)
+    ErrorResponse handleMissingContent(HttpServletRequest request, HttpMessageNotReadableException e) {
+        log.logError(request, e);
+        return new ErrorResponse("Matrix is not present in request body.");
+    }
+
+    @ExceptionHandler(JSONException.class)
+    @ResponseStatus(HttpStatus.UNPROCESSABLE_ENTITY)
+    ErrorResponse handleInvalidContent(HttpServletRequest request, JSONException e) {
+        log.logError(request, e);
+        return new ErrorResponse("Request body is not a valid json: "
+            + e.getMessage());
+    }
+
+    @ExceptionHandler(IllegalArgumentException.class)
+    @ResponseStatus(HttpStatus.UNPROCESSABLE_ENTITY)
+    ErrorResponse handleInvalidMatrix(HttpServletRequest request, Exception e) {
+        log.logError(request, e);
+        return new ErrorResponse(e.getMessage());
+    }
+}
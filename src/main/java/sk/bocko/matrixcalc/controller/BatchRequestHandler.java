@@ -0,0 +1,23 @@
+package sk.bocko.matrixcalc.controller;
+
+import org.json.JSONArray;
+import org.json.JSONObject;
+import sk.bocko.matrixcalc.model.Matrix;
+
+/**
+ * Handles requests with many operations on one matrix.
+ */
+public interface BatchRequestHandler {
+
+    /**
+     * Handle request.
+     *
+     * @param matrix matrix from the request body
+     * @param operations operations to perform on the matrix, e.g.
+     * [{"operation":"sum","range":"3-x"},
+     * {"operation":"multiply","first":"1-1","second":"2-2"}]
+     * @return json with a result or an error for every operation,
+     * in the order of operations
+     */
+    JSONObject handle(Matrix matrix, JSONArray operations);
+}
@@ -0,0 +1,181 @@
+package sk.bocko.matrixcalc.controller;
+
+import static com.google.common.base.Preconditions.checkArgument;
+import static com.google.common.base.Preconditions.checkNotNull;
+import java.util.Optional;
+import org.json.JSONArray;
+import org.json.JSONException;
+import org.json.JSONObject;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import sk.bocko.matrixcalc.model.BiArgumentOperation;
+import sk.bocko.matrixcalc.model.Matrix;
+import sk.bocko.matrixcalc.model.Range;
+import sk.bocko.matrixcalc.model.RangedOperation;
+
+/**
+ * Matrix implementation of {@link BatchRequestHandler}.
+ *
+ * Every operation is handled by the binary, unary or expression handler,
+ * so it has the same result (or error) as a separate request. When the ranged operations
+ * together would read more values than the matrix has, the matrix is
+ * indexed first: a single row-major sweep then answers all the row, column
+ * and whole matrix sums, minimums, maximums and averages.
+ */
+@Service("batch_matrix_operation")
+public class BatchRequestHandlerImpl implements BatchRequestHandler {
+    private static final String OPERATION = "operation";
+    private static final String RANGE = "range";
+    private static final String FIRST = "first";
+    private static final String SECOND = "second";
+    private static final String PERCENTILE = "percentile";
+    private static final String STATISTICS = "stats";
+    private static final String ARGMIN = "argmin";
+    private static final String ARGMAX = "argmax";
+    private static final String TOP = "topk";
+    private static final String K = "k";
+    private static final String EVAL = "eval";
+    private static final String EXPRESSION = "expression";
+    private static final String P = "p";
+    private static final String RESULTS = "results";
+    private static final String ERROR = "error";
+
+    private final BinaryOperationRequestHandler binaryHandler;
+    private final UnaryOperationRequestHandler unaryHandler;
+    private final ExpressionRequestHandler expressionHandler;
+    private final int maxOperations;
+
+    @Autowired
+    public BatchRequestHandlerImpl(
+        @Qualifier(value = "binary_matrix_operation")
+            BinaryOperationRequestHandler binaryHandler,
+        @Qualifier(value = "unary_matrix_operation")
+            UnaryOperationRequestHandler unaryHandler,
+        @Qualifier(value = "expression")
+            ExpressionRequestHandler expressionHandler,
+        @Value("${matrixcalc.batch.max-operations:1000}") int maxOperations) {
+        this.binaryHandler = checkNotNull(binaryHandler, "binary handler is null");
+        this.unaryHandler = checkNotNull(unaryHandler, "unary handler is null");
+        this.expressionHandler = checkNotNull(expressionHandler, "expression handler is null");
+        checkArgument(maxOperations > 0, "maximum number of operations must be positive");
+        this.maxOperations = maxOperations;
+    }
+
+    @Override
+    public JSONObject handle(final Matrix matrix, final JSONArray operations) {
+        checkNotNull(matrix, "matrix is null");
+        if (operations == null) {
+            throw new IllegalArgumentException(
+                "Operations are not present in request body.");
+        }
+        if (operations.length() > maxOperations) {
+            throw new IllegalArgumentException(String.format(
+                "Batch of %d operations exceeds the limit of %d operations.",
+                operations.length(), maxOperations));
+        }
+
+        Matrix target = shouldIndex(matrix, operations) ? matrix.indexed() : matrix;
+
+        JSONArray results = new JSONArray();
+        for (int i = 0; i < operations.length(); i++) {
+            try {
+                results.put(handle(target, operation(operations, i)));
+            } catch (IllegalArgumentException | JSONException e) {
+                results.put(new JSONObject().put(ERROR, e.getMessage()));
+            }
+        }
+        return new JSONObject().put(RESULTS, results);
+    }
+
+    private JSONObject handle(Matrix matrix, JSONObject operation) {
+        String name = operation.optString(OPERATION, null);
+        if (name == null) {
+            throw new IllegalArgumentException("Operation is not present.");
+        }
+
+        if (isRanged(name)) {
+            return unaryHandler.handle(matrix, operation.optString(RANGE, null), name);
+        }
+        if (ARGMIN.equals(name) || ARGMAX.equals(name)) {
+            return unaryHandler.handlePosition(matrix, operation.optString(RANGE, null), name);
+        }
+        if (TOP.equals(name)) {
+            required(operation, K);
+            return unaryHandler.handleTop(matrix, operation.optString(RANGE, null),
+                operation.getInt(K));
+        }
+        if (STATISTICS.equals(name)) {
+            return unaryHandler.handleStatistics(matrix, operation.optString(RANGE, null));
+        }
+        if (PERCENTILE.equals(name)) {
+            return unaryHandler.handlePercentile(matrix, operation.optString(RANGE, null),
+                percentile(operation));
+        }
+        if (EVAL.equals(name)) {
+            return expressionHandler.handle(matrix, required(operation, EXPRESSION));
+        }
+        BiArgumentOperation.from(name);
+        return binaryHandler.handle(matrix,
+            required(operation, FIRST), required(operation, SECOND), name);
+    }
+
+    /**
+     * Index the matrix when the indexed ranged operations would read more
+     * values than the matrix has.
+     */
+    private static boolean shouldIndex(Matrix matrix, JSONArray operations) {
+        long size = (long) matrix.getRows() * matrix.getColumns();
+        long toRead = 0;
+        for (int i = 0; i < operations.length() && toRead <= size; i++) {
+            JSONObject operation = operations.optJSONObject(i);
+            if (operation == null) {
+                continue;
+            }
+            String name = operation.optString(OPERATION, null);
+            if (name == null || !isRanged(name) || !RangedOperation.from(name).isIndexed()) {
+                continue;
+            }
+            try {
+                Range range = Range.valueOf(Optional.ofNullable(operation.optString(RANGE, null)));
+                toRead += matrix.getRange(range).length();
+            } catch (IllegalArgumentException ignored) {
+                // reported when the operation is handled
+            }
+        }
+        return toRead > size;
+    }
+
+    private static boolean isRanged(String name) {
+        try {
+            RangedOperation.from(name);
+            return true;
+        } catch (IllegalArgumentException e) {
+            return false;
+        }
+    }
+
+    private static JSONObject operation(JSONArray operations, int index) {
+        JSONObject operation = operations.optJSONObject(index);
+        if (operation == null) {
+            throw new IllegalArgumentException(
+                String.format("Operation %d is not a json object.", index));
+        }
+        return operation;
+    }
+
+    private static double percentile(JSONObject operation) {
+        required(operation, P);
+        return operation.getDouble(P);
+    }
+
+    private static String required(JSONObject operation, String key) {
+        String value = operation.optString(key, null);
+        if (value == null) {
+            throw new IllegalArgumentException(
+                String.format("Argument '%s' is not present.", key));
+        }
+        return value;
+    }
+}
@@ -2,68 +2,138 @@ package sk.bocko.matrixcalc.controller;
 
 import static com.google.common.base.Preconditions.checkNotNull;
 import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
 import org.json.JSONException;
 import org.json.JSONObject;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.converter.HttpMessageNotReadableException;
 import org.springframework.web.bind.annotation.ExceptionHandler;
 import org.springframework.web.bind.annotation.PathVariable;
-import org.springframework.web.bind.annotation.RequestBody;
 import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RequestMethod;
 import org.springframework.web.bind.annotation.ResponseStatus;
 import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.context.request.async.DeferredResult;
+import sk.bocko.matrixcalc.io.MatrixBinaryFormat;
+import sk.bocko.matrixcalc.log.AccessLog;
 import sk.bocko.matrixcalc.log.RequestLogger;
+import sk.bocko.matrixcalc.metrics.Stage;
+import sk.bocko.matrixcalc.metrics.StageMetrics;
 import sk.bocko.matrixcalc.model.ErrorResponse;
+import sk.bocko.matrixcalc.model.Matrix;
 
 @RestController
 public class BinaryOperationController {
-    private static final RequestLogger LOG = new RequestLogger(BinaryOperationController.class);
-
-    private BinaryOperationRequestHandler handler;
+    private final BinaryOperationRequestHandler handler;
+    private final ComputeExecutor executor;
+    private final StageMetrics metrics;
+    private final RequestLogger log;
 
     @Autowired
     public BinaryOperationController(
         @Qualifier(value = "binary_matrix_operation")
-            BinaryOperationRequestHandler handler) {
+            BinaryOperationRequestHandler handler,
+        ComputeExecutor executor,
+        StageMetrics metrics,
+        AccessLog accessLog) {
         this.handler = checkNotNull(handler, "handler is null");
+        this.executor = checkNotNull(executor, "executor is null");
+        this.metrics = checkNotNull(metrics, "metrics are null");
+        this.log = new RequestLogger(BinaryOperationController.class, accessLog);
     }
 
     /**
      * Process requests for binary operations as specified here:
      * http://docs.matrixcalc.apiary.io/#reference/simple-operations-with-two-operands/
+     * Operands can also be two rows or columns (e.g. 1-x, x-2), the operation
+     * is then applied element-wise.
      */
     @RequestMapping(
         value = "/rest/{operation:add|subtract|multiply|divide}/{firstAddentIndex}/{secondAddentIndex}",
         produces = "application/json",
         method = RequestMethod.GET)
-    public String process(
+    public DeferredResult<String> process(
+        HttpServletRequest request,
+        MatrixBody body,
+        @PathVariable("operation") String operation,
+        @PathVariable("firstAddentIndex") String firstAddentIndex,
+        @PathVariable("secondAddentIndex") String secondAddentIndex) {
+
+        return executor.submit(() -> {
+            long start = System.nanoTime();
+            Matrix matrix = body.read();
+            metrics.record(Stage.PARSE, operation, matrix, start);
+            JSONObject result = handler
+                .handle(matrix, firstAddentIndex, secondAddentIndex, operation);
+
+            log.logSuccessfulResponse(request, matrix, result);
+            start = System.nanoTime();
+            String response = result.toString();
+            metrics.record(Stage.SERIALIZE, operation, matrix, start);
+            return response;
+        });
+    }
+
+    /**
+     * Same as {@link #process}, the result is sent as application/x-matrix,
+     * a 1x1 matrix for two positions and a 1xn matrix for two ranges.
+     */
+    @RequestMapping(
+        value = "/rest/{operation:add|subtract|multiply|divide}/{firstAddentIndex}/{secondAddentIndex}",
+        produces = MatrixBinaryFormat.MEDIA_TYPE,
+        method = RequestMethod.GET)
+    public DeferredResult<Matrix> processToMatrix(
         HttpServletRequest request,
-        @RequestBody String content,
+        MatrixBody body,
         @PathVariable("operation") String operation,
         @PathVariable("firstAddentIndex") String firstAddentIndex,
         @PathVariable("secondAddentIndex") String secondAddentIndex) {
 
-        JSONObject result = handler
-            .handle(content, firstAddentIndex, secondAddentIndex, operation);
+        return executor.submit(() -> {
+            long start = System.nanoTime();
+            Matrix matrix = body.read();
+            metrics.record(Stage.PARSE, operation, matrix, start);
+            JSONObject result = handler
+                .handle(matrix, firstAddentIndex, secondAddentIndex, operation);
+
+            log.logSuccessfulResponse(request, matrix, result);
+            start = System.nanoTime();
+            Matrix response = Results.asMatrix(result);
+            metrics.record(Stage.SERIALIZE, operation, matrix, start);
+            return response;
+        });
+    }
 
-        LOG.logSuccessfulResponse(request, content, result.toString());
-        return result.toString();
+    @ExceptionHandler(ComputeSaturatedException.class)
+    @ResponseStatus(HttpStatus.SERVICE_UNAVAILABLE)
+    ErrorResponse handleSaturation(HttpServletRequest request,
+        HttpServletResponse response, ComputeSaturatedException e) {
+        log.logError(request, e);
+        response.setHeader(HttpHeaders.RETRY_AFTER, String.valueOf(e.getRetryAfterSeconds()));
+        return new ErrorResponse(e.getMessage());
+    }
+
+    @ExceptionHandler(ComputeTimeoutException.class)
+    @ResponseStatus(HttpStatus.GATEWAY_TIMEOUT)
+    ErrorResponse handleTimeout(HttpServletRequest request, ComputeTimeoutException e) {
+        log.logError(request, e);
+        return new ErrorResponse(e.getMessage());
     }
 
     @ExceptionHandler(HttpMessageNotReadableException.class)
     @ResponseStatus(HttpStatus.UNPROCESSABLE_ENTITY)
     ErrorResponse handleMissingContent(HttpServletRequest request, HttpMessageNotReadableException e) {
-        LOG.logError(request, e);
+        log.logError(request, e);
         return new ErrorResponse("Matrix is not present in request body.");
     }
 
     @ExceptionHandler(JSONException.class)
     @ResponseStatus(HttpStatus.UNPROCESSABLE_ENTITY)
     ErrorResponse handleInvalidContent(HttpServletRequest request, JSONException e) {
-        LOG.logError(request, e);
+        log.logError(request, e);
         return new ErrorResponse("Request body is not a valid json: "
             + e.getMessage());
     }
@@ -71,7 +141,7 @@ public class BinaryOperationController {
     @ExceptionHandler(IllegalArgumentException.class)
     @ResponseStatus(HttpStatus.UNPROCESSABLE_ENTITY)
     ErrorResponse handleInvalidMatrix(HttpServletRequest request, Exception e) {
-        LOG.logError(request, e);
+        log.logError(request, e);
         return new ErrorResponse(e.getMessage());
     }
 }
@@ -1,6 +1,7 @@
 package sk.bocko.matrixcalc.controller;
 
 import org.json.JSONObject;
+import sk.bocko.matrixcalc.model.Matrix;
 
 /**
  * Handles two argument operation requests.
@@ -10,14 +11,14 @@ public interface BinaryOperationRequestHandler {
     /**
      * Handle request.
      *
-     * @param body request body
+     * @param matrix matrix from the request body
      * @param firstArgument first argument of the request
      * @param secondArgument second argument of the request
      * @param operation operation to perform on operands
      * @return json with result
      */
     JSONObject handle(
-        String body,
+        Matrix matrix,
         String firstArgument,
         String secondArgument,
         String operation);
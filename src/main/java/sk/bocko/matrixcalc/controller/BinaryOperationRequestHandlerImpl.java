@@ -1,47 +1,56 @@
 package sk.bocko.matrixcalc.controller;
 
-import java.util.function.BiFunction;
+import static com.google.common.base.Preconditions.checkNotNull;
+import java.util.Optional;
+import org.json.JSONArray;
 import org.json.JSONObject;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.stereotype.Service;
 import sk.bocko.matrixcalc.model.BiArgumentOperation;
 import sk.bocko.matrixcalc.model.Matrix;
+import sk.bocko.matrixcalc.model.MatrixView;
 import sk.bocko.matrixcalc.model.Position;
+import sk.bocko.matrixcalc.model.Range;
 
 /**
  * Matrix implementation of {@link BinaryOperationRequestHandler}.
  */
-@Service("binary_matrix_operation")
+@Service("uncached_binary_matrix_operation")
 public class BinaryOperationRequestHandlerImpl
     implements BinaryOperationRequestHandler{
 
     private static final Logger LOG =
         LoggerFactory.getLogger(BinaryOperationRequestHandlerImpl.class);
-    private static final String MATRIX = "matrix";
     private static final String RESULT = "result";
 
     /**
      * Parse request arguments, calculate result and return a json response.
+     * When both arguments are positions the operation is applied on the two
+     * elements, when they are ranges (e.g. 1-x, x-2) it is applied on them
+     * element-wise and the result is an array.
      *
-     * @param body request body with matrix to perform operations on
-     * @param firstOperandIndex position of first operand in a matrix
-     * @param secondOperandIndex position of second operand in a matrix
+     * @param matrix matrix to perform operations on
+     * @param firstOperandIndex position or range of first operand in a matrix
+     * @param secondOperandIndex position or range of second operand in a matrix
      * @param operation operation to perform on operands
      * @return json with result
      */
     @Override
     public JSONObject handle(
-        String body,
+        Matrix matrix,
         String firstOperandIndex,
         String secondOperandIndex,
         String operation) {
+        checkNotNull(matrix, "matrix is null");
+
+        if (isRange(firstOperandIndex) || isRange(secondOperandIndex)) {
+            return handleRanges(matrix, firstOperandIndex, secondOperandIndex, operation);
+        }
 
-        Matrix matrix = parseMatrix(body);
         double first = getElementForIndex(firstOperandIndex, matrix);
         double second = getElementForIndex(secondOperandIndex, matrix);
-        BiFunction<Double, Double, Double> toApply =
-            BiArgumentOperation.from(operation).getOperation();
+        BiArgumentOperation toApply = BiArgumentOperation.from(operation);
 
         double result = toApply.apply(first, second);
         JSONObject response = new JSONObject();
@@ -51,15 +60,27 @@ public class BinaryOperationRequestHandlerImpl
         throw new IllegalArgumentException("result is not a finite number");
     }
 
-    private Matrix parseMatrix(final String content) {
-        JSONObject json = new JSONObject(content);
+    private JSONObject handleRanges(
+        Matrix matrix,
+        String firstRange,
+        String secondRange,
+        String operation) {
 
-        if (!json.has(MATRIX)) {
-            throw new IllegalArgumentException(String.format(
-                "Matrix is not present in request body [%s].", content));
+        MatrixView first = matrix.getRange(Range.valueOf(Optional.of(firstRange)));
+        MatrixView second = matrix.getRange(Range.valueOf(Optional.of(secondRange)));
+        BiArgumentOperation toApply = BiArgumentOperation.from(operation);
+
+        double[] result = toApply.apply(first, second);
+        for (double element : result) {
+            if (!Double.isFinite(element)) {
+                throw new IllegalArgumentException("result is not a finite number");
+            }
         }
+        return new JSONObject().put(RESULT, new JSONArray(result));
+    }
 
-        return Matrix.from(json.getJSONArray(MATRIX));
+    private boolean isRange(String index) {
+        return index != null && index.contains(Range.WILDCARD);
     }
 
     private double getElementForIndex(String index, Matrix matrix) {
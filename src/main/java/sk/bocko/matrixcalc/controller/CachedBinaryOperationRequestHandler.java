@@ -0,0 +1,43 @@
+package sk.bocko.matrixcalc.controller;
+
+import static com.google.common.base.Preconditions.checkNotNull;
+import org.json.JSONObject;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.stereotype.Service;
+import sk.bocko.matrixcalc.cache.ResultCache;
+import sk.bocko.matrixcalc.model.Matrix;
+
+/**
+ * {@link BinaryOperationRequestHandler} that answers repeated requests
+ * from the {@link ResultCache}.
+ */
+@Service("binary_matrix_operation")
+public class CachedBinaryOperationRequestHandler
+    implements BinaryOperationRequestHandler {
+    private static final String KIND = "binary";
+
+    private final BinaryOperationRequestHandler handler;
+    private final ResultCache cache;
+
+    @Autowired
+    public CachedBinaryOperationRequestHandler(
+        @Qualifier(value = "uncached_binary_matrix_operation")
+            BinaryOperationRequestHandler handler,
+        ResultCache cache) {
+        this.handler = checkNotNull(handler, "handler is null");
+        this.cache = checkNotNull(cache, "cache is null");
+    }
+
+    @Override
+    public JSONObject handle(final Matrix matrix,
+        final String firstArgument,
+        final String secondArgument,
+        final String operation) {
+        checkNotNull(matrix, "matrix is null");
+
+        return cache.get(matrix,
+            () -> handler.handle(matrix, firstArgument, secondArgument, operation),
+            KIND, operation, firstArgument, secondArgument);
+    }
+}
@@ -0,0 +1,85 @@
+package sk.bocko.matrixcalc.controller;
+
+import static com.google.common.base.Preconditions.checkNotNull;
+import org.json.JSONObject;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.stereotype.Service;
+import sk.bocko.matrixcalc.cache.ResultCache;
+import sk.bocko.matrixcalc.model.Matrix;
+
+/**
+ * {@link UnaryOperationRequestHandler} that answers repeated requests
+ * from the {@link ResultCache}.
+ */
+@Service("unary_matrix_operation")
+public class CachedUnaryOperationRequestHandler
+    implements UnaryOperationRequestHandler {
+    private static final String KIND = "unary";
+    private static final String PERCENTILE = "percentile";
+    private static final String STATISTICS = "stats";
+    private static final String TOP = "topk";
+
+    private final UnaryOperationRequestHandler handler;
+    private final ResultCache cache;
+
+    @Autowired
+    public CachedUnaryOperationRequestHandler(
+        @Qualifier(value = "uncached_unary_matrix_operation")
+            UnaryOperationRequestHandler handler,
+        ResultCache cache) {
+        this.handler = checkNotNull(handler, "handler is null");
+        this.cache = checkNotNull(cache, "cache is null");
+    }
+
+    @Override
+    public JSONObject handle(final Matrix matrix,
+        final String range,
+        final String operation) {
+        checkNotNull(matrix, "matrix is null");
+
+        return cache.get(matrix,
+            () -> handler.handle(matrix, range, operation),
+            KIND, operation, range);
+    }
+
+    @Override
+    public JSONObject handlePercentile(final Matrix matrix,
+        final String range,
+        final double percentile) {
+        checkNotNull(matrix, "matrix is null");
+
+        return cache.get(matrix,
+            () -> handler.handlePercentile(matrix, range, percentile),
+            KIND, PERCENTILE, range, String.valueOf(percentile));
+    }
+
+    @Override
+    public JSONObject handleStatistics(final Matrix matrix, final String range) {
+        checkNotNull(matrix, "matrix is null");
+
+        return cache.get(matrix,
+            () -> handler.handleStatistics(matrix, range),
+            KIND, STATISTICS, range);
+    }
+
+    @Override
+    public JSONObject handlePosition(final Matrix matrix,
+        final String range,
+        final String operation) {
+        checkNotNull(matrix, "matrix is null");
+
+        return cache.get(matrix,
+            () -> handler.handlePosition(matrix, range, operation),
+            KIND, operation, range);
+    }
+
+    @Override
+    public JSONObject handleTop(final Matrix matrix, final String range, final int k) {
+        checkNotNull(matrix, "matrix is null");
+
+        return cache.get(matrix,
+            () -> handler.handleTop(matrix, range, k),
+            KIND, TOP, range, String.valueOf(k));
+    }
+}
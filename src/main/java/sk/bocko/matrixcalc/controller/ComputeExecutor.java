@@ -0,0 +1,77 @@
+package sk.bocko.matrixcalc.controller;
+
+import static com.google.common.base.Preconditions.checkArgument;
+import static com.google.common.base.Preconditions.checkNotNull;
+import java.util.concurrent.Callable;
+import java.util.concurrent.Executor;
+import java.util.concurrent.FutureTask;
+import java.util.concurrent.RejectedExecutionException;
+import org.apache.http.annotation.ThreadSafe;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.web.context.request.async.DeferredResult;
+
+/**
+ * Runs the parsing and calculation of requests on the bounded compute pool,
+ * so the request threads are free to handle I/O.
+ *
+ * When the pool and its queue are full, the work is rejected immediately
+ * with {@link ComputeSaturatedException} instead of waiting. Work which is
+ * not done within the timeout is answered with
+ * {@link ComputeTimeoutException} and cancelled: it is skipped if it has not
+ * started by then, otherwise its thread is interrupted.
+ */
+@Component
+@ThreadSafe
+public class ComputeExecutor {
+    private final Executor executor;
+    private final int retryAfterSeconds;
+    private final long timeoutMillis;
+
+    @Autowired
+    public ComputeExecutor(
+        @Qualifier(value = "computePool") Executor executor,
+        @Value("${matrixcalc.compute.retry-after-seconds:1}") int retryAfterSeconds,
+        @Value("${matrixcalc.compute.timeout-millis:30000}") long timeoutMillis) {
+        this.executor = checkNotNull(executor, "executor is null");
+        checkArgument(retryAfterSeconds > 0, "retry after must be positive");
+        checkArgument(timeoutMillis > 0, "timeout must be positive");
+        this.retryAfterSeconds = retryAfterSeconds;
+        this.timeoutMillis = timeoutMillis;
+    }
+
+    /**
+     * Submit work to the compute pool.
+     * @param work work to do, exceptions it throws are the error result
+     * @return result which is set when the work is done
+     * @throws ComputeSaturatedException if the compute pool is saturated
+     */
+    public <T> DeferredResult<T> submit(Callable<T> work) {
+        checkNotNull(work, "work is null");
+
+        DeferredResult<T> result = new DeferredResult<>(timeoutMillis);
+        FutureTask<Void> task = new FutureTask<>(() -> {
+            if (result.isSetOrExpired()) {
+                return;
+            }
+            try {
+                result.setResult(work.call());
+            } catch (Exception | Error e) {
+                result.setErrorResult(e);
+            }
+        }, null);
+        result.onTimeout(() -> {
+            // the error is set first, the interrupted work must not replace it
+            result.setErrorResult(new ComputeTimeoutException(timeoutMillis));
+            task.cancel(true);
+        });
+        try {
+            executor.execute(task);
+        } catch (RejectedExecutionException e) {
+            throw new ComputeSaturatedException(retryAfterSeconds, e);
+        }
+        return result;
+    }
+}
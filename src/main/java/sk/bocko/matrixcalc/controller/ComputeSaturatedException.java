@@ -0,0 +1,22 @@
+package sk.bocko.matrixcalc.controller;
+
+/**
+ * Thrown when the compute executor can not accept more work.
+ */
+public class ComputeSaturatedException extends RuntimeException {
+    private static final long serialVersionUID = 1L;
+
+    private final int retryAfterSeconds;
+
+    public ComputeSaturatedException(int retryAfterSeconds, Throwable cause) {
+        super("The server is busy, retry the request later.", cause);
+        this.retryAfterSeconds = retryAfterSeconds;
+    }
+
+    /**
+     * @return seconds after which the request should be retried
+     */
+    public int getRetryAfterSeconds() {
+        return retryAfterSeconds;
+    }
+}
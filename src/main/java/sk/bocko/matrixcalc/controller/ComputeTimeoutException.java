@@ -0,0 +1,12 @@
+package sk.bocko.matrixcalc.controller;
+
+/**
+ * Thrown when the compute executor does not finish work within its timeout.
+ */
+public class ComputeTimeoutException extends RuntimeException {
+    private static final long serialVersionUID = 1L;
+
+    public ComputeTimeoutException(long timeoutMillis) {
+        super(String.format("The request was not computed within %d ms.", timeoutMillis));
+    }
+}
@@ -0,0 +1,33 @@
+package sk.bocko.matrixcalc.controller;
+
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+import org.springframework.core.Ordered;
+import org.springframework.stereotype.Component;
+import org.springframework.web.servlet.HandlerExceptionResolver;
+import org.springframework.web.servlet.HandlerMapping;
+import org.springframework.web.servlet.ModelAndView;
+
+/**
+ * Lets the exception handlers report errors as json even when the request
+ * was mapped to a method producing only application/x-matrix.
+ *
+ * Spring restricts the response of an exception handler to the media types
+ * produced by the mapped method. This resolver runs first, removes the
+ * restriction and leaves the exception to the other resolvers.
+ */
+@Component
+public class ErrorMediaTypeResolver implements HandlerExceptionResolver, Ordered {
+
+    @Override
+    public ModelAndView resolveException(HttpServletRequest request,
+        HttpServletResponse response, Object handler, Exception ex) {
+        request.removeAttribute(HandlerMapping.PRODUCIBLE_MEDIA_TYPES_ATTRIBUTE);
+        return null;
+    }
+
+    @Override
+    public int getOrder() {
+        return Ordered.HIGHEST_PRECEDENCE;
+    }
+}
@@ -0,0 +1,112 @@
+package sk.bocko.matrixcalc.controller;
+
+import static com.google.common.base.Preconditions.checkNotNull;
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+import org.json.JSONException;
+import org.json.JSONObject;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.converter.HttpMessageNotReadableException;
+import org.springframework.web.bind.annotation.ExceptionHandler;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestMethod;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.ResponseStatus;
+import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.context.request.async.DeferredResult;
+import sk.bocko.matrixcalc.log.AccessLog;
+import sk.bocko.matrixcalc.log.RequestLogger;
+import sk.bocko.matrixcalc.metrics.Stage;
+import sk.bocko.matrixcalc.metrics.StageMetrics;
+import sk.bocko.matrixcalc.model.ErrorResponse;
+import sk.bocko.matrixcalc.model.Matrix;
+
+@RestController
+public class ExpressionController {
+    private static final String EVAL = "eval";
+
+    private final ExpressionRequestHandler handler;
+    private final ComputeExecutor executor;
+    private final StageMetrics metrics;
+    private final RequestLogger log;
+
+    @Autowired
+    public ExpressionController(
+        @Qualifier(value = "expression")
+            ExpressionRequestHandler handler,
+        ComputeExecutor executor,
+        StageMetrics metrics,
+        AccessLog accessLog) {
+        this.handler = checkNotNull(handler, "handler is null");
+        this.executor = checkNotNull(executor, "executor is null");
+        this.metrics = checkNotNull(metrics, "metrics are null");
+        this.log = new RequestLogger(ExpressionController.class, accessLog);
+    }
+
+    /**
+     * Evaluate an expression over the cells of the matrix, e.g.
+     * {"result":3.5} for (1-1 + 2-2) / 2-1 * sum(1-x) of [[1,2],[3,4]],
+     * see {@link sk.bocko.matrixcalc.model.Expression}. The expression is
+     * a query parameter, so its + must be sent encoded as %2B.
+     */
+    @RequestMapping(
+        value = "/rest/eval",
+        produces = "application/json",
+        method = RequestMethod.GET)
+    public DeferredResult<String> process(
+        HttpServletRequest request,
+        MatrixBody body,
+        @RequestParam(value = "expression") String expression) {
+
+        return executor.submit(() -> {
+            long start = System.nanoTime();
+            Matrix matrix = body.read();
+            metrics.record(Stage.PARSE, EVAL, matrix, start);
+            JSONObject result = handler.handle(matrix, expression);
+
+            log.logSuccessfulResponse(request, matrix, result);
+            return result.toString();
+        });
+    }
+
+    @ExceptionHandler(ComputeSaturatedException.class)
+    @ResponseStatus(HttpStatus.SERVICE_UNAVAILABLE)
+    ErrorResponse handleSaturation(HttpServletRequest request,
+        HttpServletResponse response, ComputeSaturatedException e) {
+        log.logError(request, e);
+        response.setHeader(HttpHeaders.RETRY_AFTER, String.valueOf(e.getRetryAfterSeconds()));
+        return new ErrorResponse(e.getMessage());
+    }
+
+    @ExceptionHandler(ComputeTimeoutException.class)
+    @ResponseStatus(HttpStatus.GATEWAY_TIMEOUT)
+    ErrorResponse handleTimeout(HttpServletRequest request, ComputeTimeoutException e) {
+        log.logError(request, e);
+        return new ErrorResponse(e.getMessage());
+    }
+
+    @ExceptionHandler(HttpMessageNotReadableException.class)
+    @ResponseStatus(HttpStatus.UNPROCESSABLE_ENTITY)
+    ErrorResponse handleMissingContent(HttpServletRequest request, HttpMessageNotReadableException e) {
+        log.logError(request, e);
+        return new ErrorResponse("Matrix is not present in request body.");
+    }
+
+    @ExceptionHandler(JSONException.class)
+    @ResponseStatus(HttpStatus.UNPROCESSABLE_ENTITY)
+    ErrorResponse handleInvalidContent(HttpServletRequest request, JSONException e) {
+        log.logError(request, e);
+        return new ErrorResponse("Request body is not a valid json: "
+            + e.getMessage());
+    }
+
+    @ExceptionHandler(IllegalArgumentException.class)
+    @ResponseStatus(HttpStatus.UNPROCESSABLE_ENTITY)
+    ErrorResponse handleInvalidMatrix(HttpServletRequest request, Exception e) {
+        log.logError(request, e);
+        return new ErrorResponse(e.getMessage());
+    }
+}
@@ -0,0 +1,19 @@
+package sk.bocko.matrixcalc.controller;
+
+import org.json.JSONObject;
+import sk.bocko.matrixcalc.model.Matrix;
+
+/**
+ * Handles expression requests.
+ */
+public interface ExpressionRequestHandler {
+
+    /**
+     * Handle request.
+     *
+     * @param matrix matrix from the request body
+     * @param expression expression over the cells of the matrix
+     * @return json with result
+     */
+    JSONObject handle(Matrix matrix, String expression);
+}
@@ -0,0 +1,57 @@
+package sk.bocko.matrixcalc.controller;
+
+import static com.google.common.base.Preconditions.checkNotNull;
+import org.json.JSONObject;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+import sk.bocko.matrixcalc.cache.ExpressionCache;
+import sk.bocko.matrixcalc.metrics.Stage;
+import sk.bocko.matrixcalc.metrics.StageMetrics;
+import sk.bocko.matrixcalc.model.Expression;
+import sk.bocko.matrixcalc.model.Matrix;
+import sk.bocko.matrixcalc.model.ParallelReduction;
+
+/**
+ * Matrix implementation of {@link ExpressionRequestHandler}.
+ */
+@Service("expression")
+public class ExpressionRequestHandlerImpl implements ExpressionRequestHandler {
+    private static final String RESULT = "result";
+    private static final String EVAL = "eval";
+
+    private final ExpressionCache expressions;
+    private final ParallelReduction reduction;
+    private final StageMetrics metrics;
+
+    @Autowired
+    public ExpressionRequestHandlerImpl(ExpressionCache expressions,
+        ParallelReduction reduction, StageMetrics metrics) {
+        this.expressions = checkNotNull(expressions, "expressions are null");
+        this.reduction = checkNotNull(reduction, "reduction is null");
+        this.metrics = checkNotNull(metrics, "metrics are null");
+    }
+
+    /**
+     * Evaluate an expression, see {@link Expression}. Compiled expressions
+     * are taken from the {@link ExpressionCache}.
+     * @param matrix matrix to evaluate the expression on
+     * @param expression expression over the cells of the matrix
+     * @return json with result
+     */
+    @Override
+    public JSONObject handle(final Matrix matrix, final String expression) {
+        checkNotNull(matrix, "matrix is null");
+        if (expression == null) {
+            throw new IllegalArgumentException("Expression is not present.");
+        }
+
+        Expression compiled = expressions.get(expression);
+        long start = System.nanoTime();
+        double result = compiled.evaluate(matrix, reduction);
+        metrics.record(Stage.REDUCE, EVAL, matrix, start);
+        if (Double.isFinite(result)) {
+            return new JSONObject().put(RESULT, result);
+        }
+        throw new IllegalArgumentException("result is not a finite number");
+    }
+}
@@ -0,0 +1,205 @@
+package sk.bocko.matrixcalc.controller;
+
+import static com.google.common.base.Preconditions.checkNotNull;
+import java.io.IOException;
+import java.util.function.Function;
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+import org.json.JSONException;
+import org.json.JSONObject;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.http.converter.HttpMessageNotReadableException;
+import org.springframework.web.bind.annotation.ExceptionHandler;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestMethod;
+import org.springframework.web.bind.annotation.ResponseStatus;
+import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.context.request.async.DeferredResult;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+import sk.bocko.matrixcalc.io.MatrixBinaryFormat;
+import sk.bocko.matrixcalc.io.MatrixOperands;
+import sk.bocko.matrixcalc.log.AccessLog;
+import sk.bocko.matrixcalc.log.RequestLogger;
+import sk.bocko.matrixcalc.model.ErrorResponse;
+import sk.bocko.matrixcalc.model.Matrix;
+import sk.bocko.matrixcalc.store.MatrixNotFoundException;
+
+/**
+ * Determinants, inverses and solutions of linear systems of matrices sent in
+ * the request body or stored before. Inverses and solutions are written as
+ * json on the streaming pool, like products in {@link MultiplicationController}.
+ */
+@RestController
+public class LinearAlgebraController {
+    private static final String RESULT = "result";
+
+    private final LinearAlgebraRequestHandler handler;
+    private final ComputeExecutor executor;
+    private final RequestLogger log;
+
+    @Autowired
+    public LinearAlgebraController(
+        @Qualifier(value = "linear_algebra")
+            LinearAlgebraRequestHandler handler,
+        ComputeExecutor executor,
+        AccessLog accessLog) {
+        this.handler = checkNotNull(handler, "handler is null");
+        this.executor = checkNotNull(executor, "executor is null");
+        this.log = new RequestLogger(LinearAlgebraController.class, accessLog);
+    }
+
+    /**
+     * Determinant of a square matrix, e.g. {"matrix": [[1,2],[3,4]]} or
+     * {"matrix": "id of a stored matrix"}.
+     * @return json with the determinant, e.g. {"result": -2}
+     */
+    @RequestMapping(
+        value = "/rest/determinant",
+        produces = "application/json",
+        method = RequestMethod.POST)
+    public DeferredResult<String> determinant(HttpServletRequest request, OperandsBody body) {
+        return executor.submit(() -> {
+            MatrixOperands operands = body.read();
+            double determinant = handler.determinant(operands);
+
+            log.logSuccessfulResponse(request, operands, determinant);
+            return new JSONObject().put(RESULT, determinant).toString();
+        });
+    }
+
+    /**
+     * Same as {@link #determinant}, the determinant is sent as a 1x1
+     * application/x-matrix.
+     */
+    @RequestMapping(
+        value = "/rest/determinant",
+        produces = MatrixBinaryFormat.MEDIA_TYPE,
+        method = RequestMethod.POST)
+    public DeferredResult<Matrix> determinantToMatrix(HttpServletRequest request,
+        OperandsBody body) {
+        return executor.submit(() -> {
+            MatrixOperands operands = body.read();
+            double determinant = handler.determinant(operands);
+
+            log.logSuccessfulResponse(request, operands, determinant);
+            return Matrix.from(1, 1, new double[]{determinant});
+        });
+    }
+
+    /**
+     * Inverse of a square matrix, e.g. {"matrix": [[1,2],[3,4]]}.
+     * @return json with the inverse, e.g. {"result": [[-2,1],[1.5,-0.5]]}
+     */
+    @RequestMapping(
+        value = "/rest/inverse",
+        produces = "application/json",
+        method = RequestMethod.POST)
+    public DeferredResult<ResponseEntity<StreamingResponseBody>> inverse(
+        HttpServletRequest request, OperandsBody body) {
+        return executor.submit(() -> toJson(apply(request, body, handler::inverse)));
+    }
+
+    /**
+     * Same as {@link #inverse}, the inverse is sent as application/x-matrix.
+     */
+    @RequestMapping(
+        value = "/rest/inverse",
+        produces = MatrixBinaryFormat.MEDIA_TYPE,
+        method = RequestMethod.POST)
+    public DeferredResult<Matrix> inverseToMatrix(HttpServletRequest request,
+        OperandsBody body) {
+        return executor.submit(() -> apply(request, body, handler::inverse));
+    }
+
+    /**
+     * Solution X of AX = B, e.g. {"matrix": [[2,0],[0,4]], "b": [[2],[8]]},
+     * where B has a right-hand side in every column. Either operand may be an
+     * id of a stored matrix; stored matrices are factorized only once.
+     * @return json with the solution, e.g. {"result": [[1],[2]]}
+     */
+    @RequestMapping(
+        value = "/rest/solve",
+        produces = "application/json",
+        method = RequestMethod.POST)
+    public DeferredResult<ResponseEntity<StreamingResponseBody>> solve(
+        HttpServletRequest request, OperandsBody body) {
+        return executor.submit(() -> toJson(apply(request, body, handler::solve)));
+    }
+
+    /**
+     * Same as {@link #solve}, the solution is sent as application/x-matrix.
+     */
+    @RequestMapping(
+        value = "/rest/solve",
+        produces = MatrixBinaryFormat.MEDIA_TYPE,
+        method = RequestMethod.POST)
+    public DeferredResult<Matrix> solveToMatrix(HttpServletRequest request,
+        OperandsBody body) {
+        return executor.submit(() -> apply(request, body, handler::solve));
+    }
+
+    private static ResponseEntity<StreamingResponseBody> toJson(Matrix result) {
+        Results.checkFinite(result);
+        StreamingResponseBody response = out -> Results.writeMatrix(result, out);
+        return ResponseEntity.ok().contentType(MediaType.APPLICATION_JSON).body(response);
+    }
+
+    private Matrix apply(HttpServletRequest request, OperandsBody body,
+        Function<MatrixOperands, Matrix> operation) throws IOException {
+        MatrixOperands operands = body.read();
+        Matrix result = operation.apply(operands);
+
+        log.logSuccessfulResponse(request, operands, result);
+        return result;
+    }
+
+    @ExceptionHandler(ComputeSaturatedException.class)
+    @ResponseStatus(HttpStatus.SERVICE_UNAVAILABLE)
+    ErrorResponse handleSaturation(HttpServletRequest request,
+        HttpServletResponse response, ComputeSaturatedException e) {
+        log.logError(request, e);
+        response.setHeader(HttpHeaders.RETRY_AFTER, String.valueOf(e.getRetryAfterSeconds()));
+        return new ErrorResponse(e.getMessage());
+    }
+
+    @ExceptionHandler(ComputeTimeoutException.class)
+    @ResponseStatus(HttpStatus.GATEWAY_TIMEOUT)
+    ErrorResponse handleTimeout(HttpServletRequest request, ComputeTimeoutException e) {
+        log.logError(request, e);
+        return new ErrorResponse(e.getMessage());
+    }
+
+    @ExceptionHandler(MatrixNotFoundException.class)
+    @ResponseStatus(HttpStatus.NOT_FOUND)
+    ErrorResponse handleNotFound(HttpServletRequest request, MatrixNotFoundException e) {
+        log.logError(request, e);
+        return new ErrorResponse(e.getMessage());
+    }
+
+    @ExceptionHandler(HttpMessageNotReadableException.class)
+    @ResponseStatus(HttpStatus.UNPROCESSABLE_ENTITY)
+    ErrorResponse handleMissingContent(HttpServletRequest request, HttpMessageNotReadableException e) {
+        log.logError(request, e);
+        return new ErrorResponse("Operands are not present in request body.");
+    }
+
+    @ExceptionHandler(JSONException.class)
+    @ResponseStatus(HttpStatus.UNPROCESSABLE_ENTITY)
+    ErrorResponse handleInvalidContent(HttpServletRequest request, JSONException e) {
+        log.logError(request, e);
+        return new ErrorResponse("Request body is not a valid json: "
+            + e.getMessage());
+    }
+
+    @ExceptionHandler(IllegalArgumentException.class)
+    @ResponseStatus(HttpStatus.UNPROCESSABLE_ENTITY)
+    ErrorResponse handleInvalidMatrix(HttpServletRequest request, Exception e) {
+        log.logError(request, e);
+        return new ErrorResponse(e.getMessage());
+    }
+}
@@ -0,0 +1,33 @@
+package sk.bocko.matrixcalc.controller;
+
+import sk.bocko.matrixcalc.io.MatrixOperands;
+import sk.bocko.matrixcalc.model.Matrix;
+
+/**
+ * Handles requests for determinants, inverses and solutions of linear
+ * systems. The "matrix" operand is a matrix or an id of a stored matrix.
+ */
+public interface LinearAlgebraRequestHandler {
+
+    /**
+     * @param operands request body with the "matrix" operand
+     * @return determinant of the matrix
+     */
+    double determinant(MatrixOperands operands);
+
+    /**
+     * @param operands request body with the "matrix" operand
+     * @return inverse of the matrix
+     */
+    Matrix inverse(MatrixOperands operands);
+
+    /**
+     * Solve AX = B.
+     *
+     * @param operands request body with the "matrix" operand A and the "b"
+     * operand B, a matrix or an id of a stored matrix with a right-hand side
+     * in every column
+     * @return solution X of the same shape as B
+     */
+    Matrix solve(MatrixOperands operands);
+}
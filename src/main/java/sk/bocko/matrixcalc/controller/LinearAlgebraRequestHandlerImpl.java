@@ -0,0 +1,52 @@
+package sk.bocko.matrixcalc.controller;
+
+import static com.google.common.base.Preconditions.checkNotNull;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+import sk.bocko.matrixcalc.io.MatrixOperands;
+import sk.bocko.matrixcalc.model.Matrix;
+import sk.bocko.matrixcalc.store.MatrixStore;
+
+/**
+ * Matrix implementation of {@link LinearAlgebraRequestHandler}. Stored
+ * matrices keep their LU decomposition (see {@link MatrixStore#decomposition}),
+ * so only the first request with a stored matrix factorizes it.
+ */
+@Service("linear_algebra")
+public class LinearAlgebraRequestHandlerImpl implements LinearAlgebraRequestHandler {
+    static final String MATRIX = "matrix";
+    static final String B = "b";
+
+    private final StoredOperands stored;
+
+    @Autowired
+    public LinearAlgebraRequestHandlerImpl(MatrixStore store) {
+        this.stored = new StoredOperands(store);
+    }
+
+    @Override
+    public double determinant(final MatrixOperands operands) {
+        checkNotNull(operands, "operands are null");
+
+        double determinant = stored.decomposition(operands, MATRIX).determinant();
+        if (Double.isInfinite(determinant)) {
+            throw new IllegalArgumentException("Determinant is out of the range of double.");
+        }
+        return determinant;
+    }
+
+    @Override
+    public Matrix inverse(final MatrixOperands operands) {
+        checkNotNull(operands, "operands are null");
+
+        return stored.decomposition(operands, MATRIX).inverse();
+    }
+
+    @Override
+    public Matrix solve(final MatrixOperands operands) {
+        checkNotNull(operands, "operands are null");
+
+        Matrix b = stored.get(operands, B);
+        return stored.decomposition(operands, MATRIX).solve(b);
+    }
+}
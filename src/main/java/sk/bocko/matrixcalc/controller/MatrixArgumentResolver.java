@@ -0,0 +1,192 @@
+package sk.bocko.matrixcalc.controller;
+
+import static com.google.common.base.Preconditions.checkArgument;
+import static com.google.common.base.Preconditions.checkNotNull;
+import com.google.common.io.ByteStreams;
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.PushbackInputStream;
+import java.util.Collections;
+import javax.servlet.http.HttpServletRequest;
+import org.springframework.core.MethodParameter;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpInputMessage;
+import org.springframework.http.MediaType;
+import org.springframework.http.converter.HttpMessageNotReadableException;
+import org.springframework.http.server.ServletServerHttpRequest;
+import org.springframework.web.HttpMediaTypeNotSupportedException;
+import org.springframework.web.bind.support.WebDataBinderFactory;
+import org.springframework.web.context.request.NativeWebRequest;
+import org.springframework.web.method.support.HandlerMethodArgumentResolver;
+import org.springframework.web.method.support.ModelAndViewContainer;
+import sk.bocko.matrixcalc.io.MatrixJsonReader;
+import sk.bocko.matrixcalc.io.MatrixOperands;
+import sk.bocko.matrixcalc.io.MatrixRequest;
+import sk.bocko.matrixcalc.model.Matrix;
+
+/**
+ * Resolves {@link Matrix}, {@link MatrixBody}, {@link MatrixRequest} and
+ * {@link OperandsBody} controller arguments by streaming the request body
+ * through {@link MatrixJsonReader}. Matrices sent as application/x-matrix are read
+ * by {@link MatrixHttpMessageConverter}. The body of a {@link MatrixBody} or
+ * an {@link OperandsBody} is received on the request thread and parsed later.
+ * Matrices sent as entries may have at most the given number of elements.
+ *
+ * Received bodies are limited in size. A body of known length is read
+ * straight into an array of that length, so it is held in memory only once.
+ */
+public class MatrixArgumentResolver implements HandlerMethodArgumentResolver {
+    private static final int MAX_ARRAY_LENGTH = Integer.MAX_VALUE - 8;
+
+    private final MatrixHttpMessageConverter converter;
+    private final long maxElements;
+    private final int maxBodyBytes;
+
+    public MatrixArgumentResolver(MatrixHttpMessageConverter converter, long maxElements,
+        int maxBodyBytes) {
+        checkArgument(maxElements > 0, "maximum number of elements must be positive");
+        checkArgument(maxBodyBytes > 0 && maxBodyBytes <= MAX_ARRAY_LENGTH,
+            "maximum body size must be positive and fit into an array");
+        this.converter = checkNotNull(converter, "converter is null");
+        this.maxElements = maxElements;
+        this.maxBodyBytes = maxBodyBytes;
+    }
+
+    @Override
+    public boolean supportsParameter(MethodParameter parameter) {
+        return Matrix.class.equals(parameter.getParameterType())
+            || MatrixBody.class.equals(parameter.getParameterType())
+            || MatrixRequest.class.equals(parameter.getParameterType())
+            || OperandsBody.class.equals(parameter.getParameterType());
+    }
+
+    @Override
+    public Object resolveArgument(
+        MethodParameter parameter,
+        ModelAndViewContainer mavContainer,
+        NativeWebRequest webRequest,
+        WebDataBinderFactory binderFactory)
+        throws IOException, HttpMediaTypeNotSupportedException {
+
+        HttpServletRequest request = webRequest.getNativeRequest(HttpServletRequest.class);
+        if (MatrixBody.class.equals(parameter.getParameterType())) {
+            // the bytes are received here, only the parsing is left to the compute pool
+            HttpHeaders headers = new ServletServerHttpRequest(request).getHeaders();
+            byte[] body = receive(request);
+            return new MatrixBody(
+                () -> readMatrix(parameter, headers, new ByteArrayInputStream(body)));
+        }
+        if (MatrixRequest.class.equals(parameter.getParameterType())) {
+            return MatrixJsonReader.readRequest(jsonBody(parameter, request), maxElements);
+        }
+        if (OperandsBody.class.equals(parameter.getParameterType())) {
+            checkJson(new ServletServerHttpRequest(request).getHeaders());
+            byte[] body = receive(request);
+            return new OperandsBody(() -> MatrixJsonReader.readOperands(
+                nonEmptyBody(parameter, new ByteArrayInputStream(body)), maxElements));
+        }
+        return readMatrix(parameter, new ServletServerHttpRequest(request).getHeaders(),
+            request.getInputStream());
+    }
+
+    /**
+     * @return the whole body of the request, at most {@link #maxBodyBytes}
+     */
+    private byte[] receive(HttpServletRequest request) throws IOException {
+        long length = request.getContentLengthLong();
+        if (length > maxBodyBytes) {
+            throw tooLarge();
+        }
+        if (length >= 0) {
+            byte[] body = new byte[(int) length];
+            ByteStreams.readFully(request.getInputStream(), body);
+            return body;
+        }
+
+        byte[] body = ByteStreams.toByteArray(
+            ByteStreams.limit(request.getInputStream(), maxBodyBytes + 1L));
+        if (body.length > maxBodyBytes) {
+            throw tooLarge();
+        }
+        return body;
+    }
+
+    private IllegalArgumentException tooLarge() {
+        return new IllegalArgumentException(String.format(
+            "Request body is larger than %d bytes.", maxBodyBytes));
+    }
+
+    private Matrix readMatrix(MethodParameter parameter, HttpHeaders headers, InputStream in)
+        throws IOException {
+        PushbackInputStream body = nonEmptyBody(parameter, in);
+
+        if (isBinary(headers)) {
+            return converter.read(Matrix.class, new InputMessage(headers, body));
+        }
+        return MatrixJsonReader.read(body, maxElements);
+    }
+
+    /**
+     * @return body of a request which can not be sent as application/x-matrix
+     */
+    private InputStream jsonBody(MethodParameter parameter, HttpServletRequest request)
+        throws IOException, HttpMediaTypeNotSupportedException {
+        PushbackInputStream body = nonEmptyBody(parameter, request.getInputStream());
+
+        checkJson(new ServletServerHttpRequest(request).getHeaders());
+        return body;
+    }
+
+    private void checkJson(HttpHeaders headers) throws HttpMediaTypeNotSupportedException {
+        if (isBinary(headers)) {
+            throw new HttpMediaTypeNotSupportedException(headers.getContentType(),
+                Collections.singletonList(MediaType.APPLICATION_JSON));
+        }
+    }
+
+    private PushbackInputStream nonEmptyBody(MethodParameter parameter, InputStream in)
+        throws IOException {
+        PushbackInputStream body = new PushbackInputStream(in);
+
+        if (isEmpty(body)) {
+            throw new HttpMessageNotReadableException("Required request body is missing: "
+                + parameter.getMethod().toGenericString());
+        }
+        return body;
+    }
+
+    private boolean isBinary(HttpHeaders headers) {
+        MediaType contentType = headers.getContentType();
+        return contentType != null && MatrixHttpMessageConverter.MATRIX.includes(contentType);
+    }
+
+    private static final class InputMessage implements HttpInputMessage {
+        private final HttpHeaders headers;
+        private final InputStream body;
+
+        private InputMessage(final HttpHeaders headers, final InputStream body) {
+            this.headers = headers;
+            this.body = body;
+        }
+
+        @Override
+        public InputStream getBody() {
+            return body;
+        }
+
+        @Override
+        public HttpHeaders getHeaders() {
+            return headers;
+        }
+    }
+
+    private boolean isEmpty(PushbackInputStream body) throws IOException {
+        int first = body.read();
+        if (first == -1) {
+            return true;
+        }
+        body.unread(first);
+        return false;
+    }
+}
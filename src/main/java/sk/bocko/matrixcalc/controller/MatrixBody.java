@@ -0,0 +1,32 @@
+package sk.bocko.matrixcalc.controller;
+
+import static com.google.common.base.Preconditions.checkNotNull;
+import java.io.IOException;
+import sk.bocko.matrixcalc.model.Matrix;
+
+/**
+ * Request body with a matrix which is parsed only when it is needed. The
+ * bytes of the body are already received, so the parsing can run on a
+ * compute thread without blocking it on the network.
+ */
+public final class MatrixBody {
+    private final Reader reader;
+
+    MatrixBody(final Reader reader) {
+        this.reader = checkNotNull(reader, "reader is null");
+    }
+
+    /**
+     * Parse the matrix, the body can be parsed only once.
+     * @return matrix from the request body
+     * @throws IOException if the body can not be read
+     */
+    public Matrix read() throws IOException {
+        return reader.read();
+    }
+
+    @FunctionalInterface
+    interface Reader {
+        Matrix read() throws IOException;
+    }
+}
@@ -0,0 +1,44 @@
+package sk.bocko.matrixcalc.controller;
+
+import java.io.IOException;
+import org.springframework.http.HttpInputMessage;
+import org.springframework.http.HttpOutputMessage;
+import org.springframework.http.MediaType;
+import org.springframework.http.converter.AbstractHttpMessageConverter;
+import sk.bocko.matrixcalc.io.MatrixBinaryFormat;
+import sk.bocko.matrixcalc.model.Matrix;
+
+/**
+ * Reads and writes matrices in the {@link MatrixBinaryFormat}.
+ */
+public class MatrixHttpMessageConverter extends AbstractHttpMessageConverter<Matrix> {
+    public static final MediaType MATRIX = MediaType.valueOf(MatrixBinaryFormat.MEDIA_TYPE);
+
+    public MatrixHttpMessageConverter() {
+        super(MATRIX);
+    }
+
+    @Override
+    protected boolean supports(Class<?> clazz) {
+        return Matrix.class.equals(clazz);
+    }
+
+    @Override
+    protected Matrix readInternal(Class<? extends Matrix> clazz, HttpInputMessage inputMessage)
+        throws IOException {
+        return MatrixBinaryFormat.read(inputMessage.getBody(),
+            inputMessage.getHeaders().getContentLength());
+    }
+
+    @Override
+    protected Long getContentLength(Matrix matrix, MediaType contentType) {
+        return 2L * Integer.BYTES
+            + (long) Double.BYTES * matrix.getRows() * matrix.getColumns();
+    }
+
+    @Override
+    protected void writeInternal(Matrix matrix, HttpOutputMessage outputMessage)
+        throws IOException {
+        MatrixBinaryFormat.write(matrix, outputMessage.getBody());
+    }
+}
@@ -0,0 +1,351 @@
+package sk.bocko.matrixcalc.controller;
+
+import static com.google.common.base.Preconditions.checkNotNull;
+import java.util.Optional;
+import java.util.function.BiFunction;
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+import org.json.JSONException;
+import org.json.JSONObject;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.converter.HttpMessageNotReadableException;
+import org.springframework.web.bind.annotation.ExceptionHandler;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestMethod;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.ResponseStatus;
+import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.context.request.async.DeferredResult;
+import sk.bocko.matrixcalc.log.AccessLog;
+import sk.bocko.matrixcalc.log.RequestLogger;
+import sk.bocko.matrixcalc.model.ErrorResponse;
+import sk.bocko.matrixcalc.model.LiveMatrix;
+import sk.bocko.matrixcalc.model.Matrix;
+import sk.bocko.matrixcalc.model.MatrixUpdate;
+import sk.bocko.matrixcalc.model.Range;
+import sk.bocko.matrixcalc.model.RangedOperation;
+import sk.bocko.matrixcalc.store.MatrixNotFoundException;
+import sk.bocko.matrixcalc.store.MatrixStore;
+
+/**
+ * Stores matrices and performs operations on the stored ones, so a matrix
+ * used by many requests is sent and parsed only once. Reductions of stored
+ * matrices run on the compute pool, like the ones of matrices in the
+ * request body. Ranges of updated matrices are reduced in place (see
+ * {@link LiveMatrix#read}) and their results are not cached, as the values
+ * would have to be fingerprinted again after every update.
+ */
+@RestController
+public class MatrixStoreController {
+    private static final String ID = "id";
+    private static final String RESULT = "result";
+
+    private final MatrixStore store;
+    private final BinaryOperationRequestHandler binaryHandler;
+    private final UnaryOperationRequestHandler unaryHandler;
+    private final UnaryOperationRequestHandler liveHandler;
+    private final ExpressionRequestHandler expressionHandler;
+    private final ComputeExecutor executor;
+    private final RequestLogger log;
+
+    @Autowired
+    public MatrixStoreController(
+        MatrixStore store,
+        @Qualifier(value = "binary_matrix_operation")
+            BinaryOperationRequestHandler binaryHandler,
+        @Qualifier(value = "unary_matrix_operation")
+            UnaryOperationRequestHandler unaryHandler,
+        @Qualifier(value = "uncached_unary_matrix_operation")
+            UnaryOperationRequestHandler liveHandler,
+        @Qualifier(value = "expression")
+            ExpressionRequestHandler expressionHandler,
+        ComputeExecutor executor,
+        AccessLog accessLog) {
+        this.store = checkNotNull(store, "store is null");
+        this.binaryHandler = checkNotNull(binaryHandler, "binary handler is null");
+        this.unaryHandler = checkNotNull(unaryHandler, "unary handler is null");
+        this.liveHandler = checkNotNull(liveHandler, "live handler is null");
+        this.expressionHandler = checkNotNull(expressionHandler, "expression handler is null");
+        this.executor = checkNotNull(executor, "executor is null");
+        this.log = new RequestLogger(MatrixStoreController.class, accessLog);
+    }
+
+    /**
+     * Store the matrix from request body.
+     * @return json with id of the stored matrix
+     */
+    @RequestMapping(
+        value = "/rest/matrices",
+        produces = "application/json",
+        method = RequestMethod.POST)
+    @ResponseStatus(HttpStatus.CREATED)
+    public String store(HttpServletRequest request, Matrix matrix) {
+        JSONObject result = new JSONObject().put(ID, store.put(matrix));
+
+        log.logSuccessfulResponse(request, matrix, result);
+        return result.toString();
+    }
+
+    /**
+     * Update rows and cells of a stored matrix in place, e.g.
+     * {"rows": [[2, [1, 2, 3]]], "cells": [[1, 3, 5.5]]}. All the changes
+     * are seen by the following requests at once.
+     */
+    @RequestMapping(
+        value = "/rest/matrices/{id}",
+        consumes = "application/json",
+        method = RequestMethod.PATCH)
+    @ResponseStatus(HttpStatus.NO_CONTENT)
+    public void update(
+        HttpServletRequest request,
+        @PathVariable("id") String id,
+        @RequestBody String body) {
+
+        MatrixUpdate update = MatrixUpdate.from(new JSONObject(body));
+        store.update(id, update);
+
+        log.logSuccessfulResponse(request, id, null);
+    }
+
+    @RequestMapping(
+        value = "/rest/matrices/{id}",
+        method = RequestMethod.DELETE)
+    @ResponseStatus(HttpStatus.NO_CONTENT)
+    public void remove(@PathVariable("id") String id) {
+        store.remove(id);
+    }
+
+    /**
+     * Binary operations on a stored matrix, see
+     * {@link BinaryOperationController#process}.
+     */
+    @RequestMapping(
+        value = "/rest/matrices/{id}/{operation:add|subtract|multiply|divide}/{firstAddentIndex}/{secondAddentIndex}",
+        produces = "application/json",
+        method = RequestMethod.GET)
+    public DeferredResult<String> processBinary(
+        HttpServletRequest request,
+        @PathVariable("id") String id,
+        @PathVariable("operation") String operation,
+        @PathVariable("firstAddentIndex") String firstAddentIndex,
+        @PathVariable("secondAddentIndex") String secondAddentIndex) {
+
+        return executor.submit(() -> {
+            JSONObject result = binaryHandler
+                .handle(store.get(id), firstAddentIndex, secondAddentIndex, operation);
+
+            log.logSuccessfulResponse(request, id, result);
+            return result.toString();
+        });
+    }
+
+    /**
+     * Ranged operations on a stored matrix, see
+     * {@link RangedOperationController#process}. Sums, minimums, maximums
+     * and averages of updated matrices are answered from their aggregate
+     * trees, the other operations read their values in place.
+     */
+    @RequestMapping(
+        value = "/rest/matrices/{id}/{operation:sum|product|max|min|average|variance|stddev|median}",
+        produces = "application/json",
+        method = RequestMethod.GET)
+    public DeferredResult<String> processRanged(
+        HttpServletRequest request,
+        @PathVariable("id") String id,
+        @PathVariable("operation") String operation,
+        @RequestParam(value = "range",required = false) String range) {
+
+        return executor.submit(() -> {
+            LiveMatrix matrix = store.getLive(id);
+            RangedOperation toApply = RangedOperation.from(operation);
+            JSONObject result = matrix.isEditable() && toApply.isIndexed()
+                ? reduce(matrix, toApply, range)
+                : handle(matrix, (handler, values) -> handler.handle(values, range, operation));
+
+            log.logSuccessfulResponse(request, id, result);
+            return result.toString();
+        });
+    }
+
+    /**
+     * Percentiles of a stored matrix, see
+     * {@link RangedOperationController#processPercentile}.
+     */
+    @RequestMapping(
+        value = "/rest/matrices/{id}/percentile",
+        produces = "application/json",
+        method = RequestMethod.GET)
+    public DeferredResult<String> processPercentile(
+        HttpServletRequest request,
+        @PathVariable("id") String id,
+        @RequestParam(value = "p") double percentile,
+        @RequestParam(value = "range",required = false) String range) {
+
+        return executor.submit(() -> {
+            JSONObject result = handle(store.getLive(id),
+                (handler, matrix) -> handler.handlePercentile(matrix, range, percentile));
+
+            log.logSuccessfulResponse(request, id, result);
+            return result.toString();
+        });
+    }
+
+    /**
+     * Statistics of a stored matrix, see
+     * {@link RangedOperationController#processStatistics}.
+     */
+    @RequestMapping(
+        value = "/rest/matrices/{id}/stats",
+        produces = "application/json",
+        method = RequestMethod.GET)
+    public DeferredResult<String> processStatistics(
+        HttpServletRequest request,
+        @PathVariable("id") String id,
+        @RequestParam(value = "range",required = false) String range) {
+
+        return executor.submit(() -> {
+            JSONObject result = handle(store.getLive(id),
+                (handler, matrix) -> handler.handleStatistics(matrix, range));
+
+            log.logSuccessfulResponse(request, id, result);
+            return result.toString();
+        });
+    }
+
+    /**
+     * Positions of the extremes of a stored matrix, see
+     * {@link RangedOperationController#processPosition}.
+     */
+    @RequestMapping(
+        value = "/rest/matrices/{id}/{operation:argmin|argmax}",
+        produces = "application/json",
+        method = RequestMethod.GET)
+    public DeferredResult<String> processPosition(
+        HttpServletRequest request,
+        @PathVariable("id") String id,
+        @PathVariable("operation") String operation,
+        @RequestParam(value = "range",required = false) String range) {
+
+        return executor.submit(() -> {
+            JSONObject result = handle(store.getLive(id),
+                (handler, matrix) -> handler.handlePosition(matrix, range, operation));
+
+            log.logSuccessfulResponse(request, id, result);
+            return result.toString();
+        });
+    }
+
+    /**
+     * The largest values of a stored matrix, see
+     * {@link RangedOperationController#processTop}.
+     */
+    @RequestMapping(
+        value = "/rest/matrices/{id}/topk",
+        produces = "application/json",
+        method = RequestMethod.GET)
+    public DeferredResult<String> processTop(
+        HttpServletRequest request,
+        @PathVariable("id") String id,
+        @RequestParam(value = "k") int k,
+        @RequestParam(value = "range",required = false) String range) {
+
+        return executor.submit(() -> {
+            JSONObject result = handle(store.getLive(id),
+                (handler, matrix) -> handler.handleTop(matrix, range, k));
+
+            log.logSuccessfulResponse(request, id, result);
+            return result.toString();
+        });
+    }
+
+    /**
+     * Expressions over the cells of a stored matrix, see
+     * {@link ExpressionController#process}.
+     */
+    @RequestMapping(
+        value = "/rest/matrices/{id}/eval",
+        produces = "application/json",
+        method = RequestMethod.GET)
+    public DeferredResult<String> processExpression(
+        HttpServletRequest request,
+        @PathVariable("id") String id,
+        @RequestParam(value = "expression") String expression) {
+
+        return executor.submit(() -> {
+            JSONObject result = expressionHandler.handle(store.get(id), expression);
+
+            log.logSuccessfulResponse(request, id, result);
+            return result.toString();
+        });
+    }
+
+    /**
+     * Apply a handler to the values of a stored matrix, the results of
+     * matrices which were not updated are cached.
+     */
+    private JSONObject handle(LiveMatrix matrix,
+        BiFunction<UnaryOperationRequestHandler, Matrix, JSONObject> operation) {
+        if (!matrix.isEditable()) {
+            return operation.apply(unaryHandler, matrix.snapshot());
+        }
+        return matrix.read(values -> operation.apply(liveHandler, values));
+    }
+
+    private static JSONObject reduce(LiveMatrix matrix, RangedOperation operation, String range) {
+        double result = matrix.apply(operation, Range.valueOf(Optional.ofNullable(range)));
+        if (Double.isFinite(result)) {
+            return new JSONObject().put(RESULT, result);
+        }
+        throw new IllegalArgumentException("result is not a finite number");
+    }
+
+    @ExceptionHandler(ComputeSaturatedException.class)
+    @ResponseStatus(HttpStatus.SERVICE_UNAVAILABLE)
+    ErrorResponse handleSaturation(HttpServletRequest request,
+        HttpServletResponse response, ComputeSaturatedException e) {
+        log.logError(request, e);
+        response.setHeader(HttpHeaders.RETRY_AFTER, String.valueOf(e.getRetryAfterSeconds()));
+        return new ErrorResponse(e.getMessage());
+    }
+
+    @ExceptionHandler(ComputeTimeoutException.class)
+    @ResponseStatus(HttpStatus.GATEWAY_TIMEOUT)
+    ErrorResponse handleTimeout(HttpServletRequest request, ComputeTimeoutException e) {
+        log.logError(request, e);
+        return new ErrorResponse(e.getMessage());
+    }
+
+    @ExceptionHandler(MatrixNotFoundException.class)
+    @ResponseStatus(HttpStatus.NOT_FOUND)
+    ErrorResponse handleNotFound(HttpServletRequest request, MatrixNotFoundException e) {
+        log.logError(request, e);
+        return new ErrorResponse(e.getMessage());
+    }
+
+    @ExceptionHandler(HttpMessageNotReadableException.class)
+    @ResponseStatus(HttpStatus.UNPROCESSABLE_ENTITY)
+    ErrorResponse handleMissingContent(HttpServletRequest request, HttpMessageNotReadableException e) {
+        log.logError(request, e);
+        return new ErrorResponse("Matrix is not present in request body.");
+    }
+
+    @ExceptionHandler(JSONException.class)
+    @ResponseStatus(HttpStatus.UNPROCESSABLE_ENTITY)
+    ErrorResponse handleInvalidContent(HttpServletRequest request, JSONException e) {
+        log.logError(request, e);
+        return new ErrorResponse("Request body is not a valid json: "
+            + e.getMessage());
+    }
+
+    @ExceptionHandler(IllegalArgumentException.class)
+    @ResponseStatus(HttpStatus.UNPROCESSABLE_ENTITY)
+    ErrorResponse handleInvalidMatrix(HttpServletRequest request, Exception e) {
+        log.logError(request, e);
+        return new ErrorResponse(e.getMessage());
+    }
+}
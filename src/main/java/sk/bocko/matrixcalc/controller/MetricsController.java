@@ -0,0 +1,29 @@
+package sk.bocko.matrixcalc.controller;
+
+import static com.google.common.base.Preconditions.checkNotNull;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestMethod;
+import org.springframework.web.bind.annotation.RestController;
+import sk.bocko.matrixcalc.metrics.StageMetrics;
+
+/**
+ * Exposes {@link StageMetrics} for Prometheus.
+ */
+@RestController
+public class MetricsController {
+    private final StageMetrics metrics;
+
+    @Autowired
+    public MetricsController(StageMetrics metrics) {
+        this.metrics = checkNotNull(metrics, "metrics are null");
+    }
+
+    @RequestMapping(
+        value = "/metrics",
+        produces = "text/plain; version=0.0.4",
+        method = RequestMethod.GET)
+    public String metrics() {
+        return metrics.toPrometheusText();
+    }
+}
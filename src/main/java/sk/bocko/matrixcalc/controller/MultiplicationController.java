@@ -0,0 +1,135 @@
+package sk.bocko.matrixcalc.controller;
+
+import static com.google.common.base.Preconditions.checkNotNull;
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+import org.json.JSONException;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.http.converter.HttpMessageNotReadableException;
+import org.springframework.web.bind.annotation.ExceptionHandler;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestMethod;
+import org.springframework.web.bind.annotation.ResponseStatus;
+import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.context.request.async.DeferredResult;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+import sk.bocko.matrixcalc.io.MatrixBinaryFormat;
+import sk.bocko.matrixcalc.io.MatrixOperands;
+import sk.bocko.matrixcalc.log.AccessLog;
+import sk.bocko.matrixcalc.log.RequestLogger;
+import sk.bocko.matrixcalc.model.ErrorResponse;
+import sk.bocko.matrixcalc.model.Matrix;
+import sk.bocko.matrixcalc.store.MatrixNotFoundException;
+
+/**
+ * Multiplies two matrices sent in the request body or stored before.
+ * The product is written as json on the streaming pool, so it is never held
+ * in memory as a whole json document.
+ */
+@RestController
+public class MultiplicationController {
+    private final MultiplicationRequestHandler handler;
+    private final ComputeExecutor executor;
+    private final RequestLogger log;
+
+    @Autowired
+    public MultiplicationController(
+        @Qualifier(value = "matrix_multiplication")
+            MultiplicationRequestHandler handler,
+        ComputeExecutor executor,
+        AccessLog accessLog) {
+        this.handler = checkNotNull(handler, "handler is null");
+        this.executor = checkNotNull(executor, "executor is null");
+        this.log = new RequestLogger(MultiplicationController.class, accessLog);
+    }
+
+    /**
+     * Multiply the left operand by the right one, e.g.
+     * {"left": [[1,2],[3,4]], "right": [[5],[6]]} or
+     * {"left": "id of a stored matrix", "right": [[5],[6]]}.
+     * @return json with the product, e.g. {"result": [[17],[39]]}
+     */
+    @RequestMapping(
+        value = "/rest/matmul",
+        produces = "application/json",
+        method = RequestMethod.POST)
+    public DeferredResult<ResponseEntity<StreamingResponseBody>> process(
+        HttpServletRequest request, OperandsBody body) {
+        return executor.submit(() -> {
+            MatrixOperands operands = body.read();
+            Matrix product = Results.checkFinite(handler.handle(operands));
+
+            log.logSuccessfulResponse(request, operands, product);
+            StreamingResponseBody response = out -> Results.writeMatrix(product, out);
+            return ResponseEntity.ok().contentType(MediaType.APPLICATION_JSON).body(response);
+        });
+    }
+
+    /**
+     * Same as {@link #process}, the product is sent as application/x-matrix.
+     */
+    @RequestMapping(
+        value = "/rest/matmul",
+        produces = MatrixBinaryFormat.MEDIA_TYPE,
+        method = RequestMethod.POST)
+    public DeferredResult<Matrix> processToMatrix(HttpServletRequest request,
+        OperandsBody body) {
+        return executor.submit(() -> {
+            MatrixOperands operands = body.read();
+            Matrix product = handler.handle(operands);
+
+            log.logSuccessfulResponse(request, operands, product);
+            return product;
+        });
+    }
+
+    @ExceptionHandler(ComputeSaturatedException.class)
+    @ResponseStatus(HttpStatus.SERVICE_UNAVAILABLE)
+    ErrorResponse handleSaturation(HttpServletRequest request,
+        HttpServletResponse response, ComputeSaturatedException e) {
+        log.logError(request, e);
+        response.setHeader(HttpHeaders.RETRY_AFTER, String.valueOf(e.getRetryAfterSeconds()));
+        return new ErrorResponse(e.getMessage());
+    }
+
+    @ExceptionHandler(ComputeTimeoutException.class)
+    @ResponseStatus(HttpStatus.GATEWAY_TIMEOUT)
+    ErrorResponse handleTimeout(HttpServletRequest request, ComputeTimeoutException e) {
+        log.logError(request, e);
+        return new ErrorResponse(e.getMessage());
+    }
+
+    @ExceptionHandler(MatrixNotFoundException.class)
+    @ResponseStatus(HttpStatus.NOT_FOUND)
+    ErrorResponse handleNotFound(HttpServletRequest request, MatrixNotFoundException e) {
+        log.logError(request, e);
+        return new ErrorResponse(e.getMessage());
+    }
+
+    @ExceptionHandler(HttpMessageNotReadableException.class)
+    @ResponseStatus(HttpStatus.UNPROCESSABLE_ENTITY)
+    ErrorResponse handleMissingContent(HttpServletRequest request, HttpMessageNotReadableException e) {
+        log.logError(request, e);
+        return new ErrorResponse("Operands are not present in request body.");
+    }
+
+    @ExceptionHandler(JSONException.class)
+    @ResponseStatus(HttpStatus.UNPROCESSABLE_ENTITY)
+    ErrorResponse handleInvalidContent(HttpServletRequest request, JSONException e) {
+        log.logError(request, e);
+        return new ErrorResponse("Request body is not a valid json: "
+            + e.getMessage());
+    }
+
+    @ExceptionHandler(IllegalArgumentException.class)
+    @ResponseStatus(HttpStatus.UNPROCESSABLE_ENTITY)
+    ErrorResponse handleInvalidMatrix(HttpServletRequest request, Exception e) {
+        log.logError(request, e);
+        return new ErrorResponse(e.getMessage());
+    }
+}
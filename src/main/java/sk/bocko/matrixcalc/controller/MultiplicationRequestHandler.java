@@ -0,0 +1,19 @@
+package sk.bocko.matrixcalc.controller;
+
+import sk.bocko.matrixcalc.io.MatrixOperands;
+import sk.bocko.matrixcalc.model.Matrix;
+
+/**
+ * Handles requests for products of two matrices.
+ */
+public interface MultiplicationRequestHandler {
+
+    /**
+     * Handle request.
+     *
+     * @param operands request body with the "left" and "right" operands,
+     * each one a matrix or an id of a stored matrix
+     * @return product of the operands
+     */
+    Matrix handle(MatrixOperands operands);
+}
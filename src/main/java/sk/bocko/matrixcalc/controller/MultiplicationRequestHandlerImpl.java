@@ -0,0 +1,38 @@
+package sk.bocko.matrixcalc.controller;
+
+import static com.google.common.base.Preconditions.checkNotNull;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+import sk.bocko.matrixcalc.io.MatrixOperands;
+import sk.bocko.matrixcalc.model.Matrix;
+import sk.bocko.matrixcalc.model.MatrixMultiplication;
+import sk.bocko.matrixcalc.store.MatrixStore;
+
+/**
+ * Matrix implementation of {@link MultiplicationRequestHandler}, operands
+ * given by id are taken from the {@link MatrixStore}.
+ */
+@Service("matrix_multiplication")
+public class MultiplicationRequestHandlerImpl implements MultiplicationRequestHandler {
+    static final String LEFT = "left";
+    static final String RIGHT = "right";
+
+    private final StoredOperands stored;
+    private final MatrixMultiplication multiplication;
+
+    @Autowired
+    public MultiplicationRequestHandlerImpl(MatrixStore store,
+        MatrixMultiplication multiplication) {
+        this.stored = new StoredOperands(store);
+        this.multiplication = checkNotNull(multiplication, "multiplication is null");
+    }
+
+    @Override
+    public Matrix handle(final MatrixOperands operands) {
+        checkNotNull(operands, "operands are null");
+
+        Matrix left = stored.get(operands, LEFT);
+        Matrix right = stored.get(operands, RIGHT);
+        return multiplication.apply(left, right);
+    }
+}
@@ -0,0 +1,31 @@
+package sk.bocko.matrixcalc.controller;
+
+import static com.google.common.base.Preconditions.checkNotNull;
+import java.io.IOException;
+import sk.bocko.matrixcalc.io.MatrixOperands;
+
+/**
+ * Request body with operands which are parsed only when they are needed,
+ * see {@link MatrixBody}.
+ */
+public final class OperandsBody {
+    private final Reader reader;
+
+    OperandsBody(final Reader reader) {
+        this.reader = checkNotNull(reader, "reader is null");
+    }
+
+    /**
+     * Parse the operands, the body can be parsed only once.
+     * @return operands from the request body
+     * @throws IOException if the body can not be read
+     */
+    public MatrixOperands read() throws IOException {
+        return reader.read();
+    }
+
+    @FunctionalInterface
+    interface Reader {
+        MatrixOperands read() throws IOException;
+    }
+}
@@ -1,35 +1,61 @@
 package sk.bocko.matrixcalc.controller;
 
 import static com.google.common.base.Preconditions.checkNotNull;
+import java.io.IOException;
 import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
 import org.json.JSONException;
 import org.json.JSONObject;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
 import org.springframework.http.converter.HttpMessageNotReadableException;
 import org.springframework.web.bind.annotation.ExceptionHandler;
 import org.springframework.web.bind.annotation.PathVariable;
-import org.springframework.web.bind.annotation.RequestBody;
 import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RequestMethod;
 import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.ResponseStatus;
 import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.context.request.async.DeferredResult;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+import sk.bocko.matrixcalc.io.MatrixBinaryFormat;
+import sk.bocko.matrixcalc.log.AccessLog;
 import sk.bocko.matrixcalc.log.RequestLogger;
+import sk.bocko.matrixcalc.metrics.Stage;
+import sk.bocko.matrixcalc.metrics.StageMetrics;
 import sk.bocko.matrixcalc.model.ErrorResponse;
+import sk.bocko.matrixcalc.model.Matrix;
 
 @RestController
 public class RangedOperationController {
-    private static final RequestLogger LOG = new RequestLogger(RangedOperationController.class);
+    private static final String PERCENTILE = "percentile";
+    private static final String STATISTICS = "stats";
+    private static final String TOP = "topk";
 
     private final UnaryOperationRequestHandler handler;
+    private final AxisRequestHandler axisHandler;
+    private final ComputeExecutor executor;
+    private final StageMetrics metrics;
+    private final RequestLogger log;
 
     @Autowired
     public RangedOperationController(
         @Qualifier(value = "unary_matrix_operation")
-            UnaryOperationRequestHandler handler) {
+            UnaryOperationRequestHandler handler,
+        @Qualifier(value = "axis_operation")
+            AxisRequestHandler axisHandler,
+        ComputeExecutor executor,
+        StageMetrics metrics,
+        AccessLog accessLog) {
         this.handler = checkNotNull(handler, "handler is null");
+        this.axisHandler = checkNotNull(axisHandler, "axis handler is null");
+        this.executor = checkNotNull(executor, "executor is null");
+        this.metrics = checkNotNull(metrics, "metrics are null");
+        this.log = new RequestLogger(RangedOperationController.class, accessLog);
     }
 
     /**
@@ -37,32 +63,285 @@ public class RangedOperationController {
      * http://docs.matrixcalc.apiary.io/#reference/ranged-operations
      */
     @RequestMapping(
-        value = "/rest/{operation:sum|product|max|min|average}",
+        value = "/rest/{operation:sum|product|max|min|average|variance|stddev|median}",
         produces = "application/json",
         method = RequestMethod.GET)
-    public String process(
+    public DeferredResult<String> process(
         HttpServletRequest request,
-        @RequestBody String content,
+        MatrixBody body,
         @PathVariable("operation") String operation,
         @RequestParam(value = "range",required = false) String range) {
 
-        JSONObject result = handler.handle(content, range, operation);
+        return executor.submit(() -> {
+            long start = System.nanoTime();
+            Matrix matrix = body.read();
+            metrics.record(Stage.PARSE, operation, matrix, start);
+            JSONObject result = handler.handle(matrix, range, operation);
 
-        LOG.logSuccessfulResponse(request, content, result.toString());
-        return result.toString();
+            log.logSuccessfulResponse(request, matrix, result);
+            return serialize(result, operation, matrix);
+        });
+    }
+
+    /**
+     * Same as {@link #process}, the result is sent as a 1x1 matrix
+     * in application/x-matrix.
+     */
+    @RequestMapping(
+        value = "/rest/{operation:sum|product|max|min|average|variance|stddev|median}",
+        produces = MatrixBinaryFormat.MEDIA_TYPE,
+        method = RequestMethod.GET)
+    public DeferredResult<Matrix> processToMatrix(
+        HttpServletRequest request,
+        MatrixBody body,
+        @PathVariable("operation") String operation,
+        @RequestParam(value = "range",required = false) String range) {
+
+        return executor.submit(() -> {
+            long start = System.nanoTime();
+            Matrix matrix = body.read();
+            metrics.record(Stage.PARSE, operation, matrix, start);
+            JSONObject result = handler.handle(matrix, range, operation);
+
+            log.logSuccessfulResponse(request, matrix, result);
+            return serializeToMatrix(result, operation, matrix);
+        });
+    }
+
+    /**
+     * Select the p-th percentile of the values of a range, e.g.
+     * {"result":2.5} for p=50 of [[1,2],[3,4]].
+     */
+    @RequestMapping(
+        value = "/rest/percentile",
+        produces = "application/json",
+        method = RequestMethod.GET)
+    public DeferredResult<String> processPercentile(
+        HttpServletRequest request,
+        MatrixBody body,
+        @RequestParam(value = "p") double percentile,
+        @RequestParam(value = "range",required = false) String range) {
+
+        return executor.submit(() -> {
+            long start = System.nanoTime();
+            Matrix matrix = body.read();
+            metrics.record(Stage.PARSE, PERCENTILE, matrix, start);
+            JSONObject result = handler.handlePercentile(matrix, range, percentile);
+
+            log.logSuccessfulResponse(request, matrix, result);
+            return serialize(result, PERCENTILE, matrix);
+        });
+    }
+
+    /**
+     * Same as {@link #processPercentile}, the result is sent as a 1x1 matrix
+     * in application/x-matrix.
+     */
+    @RequestMapping(
+        value = "/rest/percentile",
+        produces = MatrixBinaryFormat.MEDIA_TYPE,
+        method = RequestMethod.GET)
+    public DeferredResult<Matrix> processPercentileToMatrix(
+        HttpServletRequest request,
+        MatrixBody body,
+        @RequestParam(value = "p") double percentile,
+        @RequestParam(value = "range",required = false) String range) {
+
+        return executor.submit(() -> {
+            long start = System.nanoTime();
+            Matrix matrix = body.read();
+            metrics.record(Stage.PARSE, PERCENTILE, matrix, start);
+            JSONObject result = handler.handlePercentile(matrix, range, percentile);
+
+            log.logSuccessfulResponse(request, matrix, result);
+            return serializeToMatrix(result, PERCENTILE, matrix);
+        });
+    }
+
+    /**
+     * Reduce a range to all its statistics in a single pass, e.g.
+     * {"result":{"count":4,"sum":10,"min":1,"max":4,"average":2.5,...}}
+     * for [[1,2],[3,4]], see {@link RangedOperationRequestHandler#handleStatistics}.
+     */
+    @RequestMapping(
+        value = "/rest/stats",
+        produces = "application/json",
+        method = RequestMethod.GET)
+    public DeferredResult<String> processStatistics(
+        HttpServletRequest request,
+        MatrixBody body,
+        @RequestParam(value = "range",required = false) String range) {
+
+        return executor.submit(() -> {
+            long start = System.nanoTime();
+            Matrix matrix = body.read();
+            metrics.record(Stage.PARSE, STATISTICS, matrix, start);
+            JSONObject result = handler.handleStatistics(matrix, range);
+
+            log.logSuccessfulResponse(request, matrix, result);
+            return serialize(result, STATISTICS, matrix);
+        });
+    }
+
+    /**
+     * Find the first position of the minimum (argmin) or the maximum
+     * (argmax) of a range, e.g. {"result":"2-2"} for argmax of [[1,2],[3,4]].
+     */
+    @RequestMapping(
+        value = "/rest/{operation:argmin|argmax}",
+        produces = "application/json",
+        method = RequestMethod.GET)
+    public DeferredResult<String> processPosition(
+        HttpServletRequest request,
+        MatrixBody body,
+        @PathVariable("operation") String operation,
+        @RequestParam(value = "range",required = false) String range) {
+
+        return executor.submit(() -> {
+            long start = System.nanoTime();
+            Matrix matrix = body.read();
+            metrics.record(Stage.PARSE, operation, matrix, start);
+            JSONObject result = handler.handlePosition(matrix, range, operation);
+
+            log.logSuccessfulResponse(request, matrix, result);
+            return serialize(result, operation, matrix);
+        });
+    }
+
+    /**
+     * Find the k largest values of a range and their positions, see
+     * {@link RangedOperationRequestHandler#handleTop}.
+     */
+    @RequestMapping(
+        value = "/rest/topk",
+        produces = "application/json",
+        method = RequestMethod.GET)
+    public DeferredResult<String> processTop(
+        HttpServletRequest request,
+        MatrixBody body,
+        @RequestParam(value = "k") int k,
+        @RequestParam(value = "range",required = false) String range) {
+
+        return executor.submit(() -> {
+            long start = System.nanoTime();
+            Matrix matrix = body.read();
+            metrics.record(Stage.PARSE, TOP, matrix, start);
+            JSONObject result = handler.handleTop(matrix, range, k);
+
+            log.logSuccessfulResponse(request, matrix, result);
+            return serialize(result, TOP, matrix);
+        });
+    }
+
+    /**
+     * Apply the operation on every row (axis=rows) or every column
+     * (axis=columns) of the matrix, e.g. {"result":[3,7]} for the sums of
+     * the rows of [[1,2],[3,4]]. The vector is streamed, so long ones are
+     * sent in chunks. A range can not be given together with an axis.
+     */
+    @RequestMapping(
+        value = "/rest/{operation:sum|product|max|min|average|variance|stddev|median}",
+        params = "axis",
+        produces = "application/json",
+        method = RequestMethod.GET)
+    public DeferredResult<ResponseEntity<StreamingResponseBody>> processAxis(
+        HttpServletRequest request,
+        MatrixBody body,
+        @PathVariable("operation") String operation,
+        @RequestParam(value = "axis") String axis,
+        @RequestParam(value = "range", required = false) String range) {
+
+        return executor.submit(() -> {
+            Matrix matrix = readForAxis(body, operation, range);
+            Matrix result = axisHandler.handle(matrix, axis, operation);
+
+            log.logSuccessfulResponse(request, matrix, result);
+            StreamingResponseBody response = out -> {
+                long start = System.nanoTime();
+                Results.writeVector(result, out);
+                metrics.record(Stage.SERIALIZE, operation, matrix, start);
+            };
+            return ResponseEntity.ok().contentType(MediaType.APPLICATION_JSON).body(response);
+        });
+    }
+
+    /**
+     * Same as {@link #processAxis}, the result is sent as a column vector
+     * (axis=rows) or a row vector (axis=columns) in application/x-matrix.
+     */
+    @RequestMapping(
+        value = "/rest/{operation:sum|product|max|min|average|variance|stddev|median}",
+        params = "axis",
+        produces = MatrixBinaryFormat.MEDIA_TYPE,
+        method = RequestMethod.GET)
+    public DeferredResult<Matrix> processAxisToMatrix(
+        HttpServletRequest request,
+        MatrixBody body,
+        @PathVariable("operation") String operation,
+        @RequestParam(value = "axis") String axis,
+        @RequestParam(value = "range", required = false) String range) {
+
+        return executor.submit(() -> {
+            Matrix matrix = readForAxis(body, operation, range);
+            Matrix result = axisHandler.handle(matrix, axis, operation);
+
+            log.logSuccessfulResponse(request, matrix, result);
+            return result;
+        });
+    }
+
+    private Matrix readForAxis(MatrixBody body, String operation, String range)
+        throws IOException {
+        if (range != null) {
+            throw new IllegalArgumentException("Range can not be combined with axis.");
+        }
+        long start = System.nanoTime();
+        Matrix matrix = body.read();
+        metrics.record(Stage.PARSE, operation, matrix, start);
+        return matrix;
+    }
+
+    private String serialize(JSONObject result, String operation, Matrix matrix) {
+        long start = System.nanoTime();
+        String response = result.toString();
+        metrics.record(Stage.SERIALIZE, operation, matrix, start);
+        return response;
+    }
+
+    private Matrix serializeToMatrix(JSONObject result, String operation, Matrix matrix) {
+        long start = System.nanoTime();
+        Matrix response = Results.asMatrix(result);
+        metrics.record(Stage.SERIALIZE, operation, matrix, start);
+        return response;
+    }
+
+    @ExceptionHandler(ComputeSaturatedException.class)
+    @ResponseStatus(HttpStatus.SERVICE_UNAVAILABLE)
+    ErrorResponse handleSaturation(HttpServletRequest request,
+        HttpServletResponse response, ComputeSaturatedException e) {
+        log.logError(request, e);
+        response.setHeader(HttpHeaders.RETRY_AFTER, String.valueOf(e.getRetryAfterSeconds()));
+        return new ErrorResponse(e.getMessage());
+    }
+
+    @ExceptionHandler(ComputeTimeoutException.class)
+    @ResponseStatus(HttpStatus.GATEWAY_TIMEOUT)
+    ErrorResponse handleTimeout(HttpServletRequest request, ComputeTimeoutException e) {
+        log.logError(request, e);
+        return new ErrorResponse(e.getMessage());
     }
 
     @ExceptionHandler(HttpMessageNotReadableException.class)
     @ResponseStatus(HttpStatus.UNPROCESSABLE_ENTITY)
     ErrorResponse handleMissingContent(HttpServletRequest request, HttpMessageNotReadableException e) {
-        LOG.logError(request, e);
+        log.logError(request, e);
         return new ErrorResponse("Matrix is not present in request body.");
     }
 
     @ExceptionHandler(JSONException.class)
     @ResponseStatus(HttpStatus.UNPROCESSABLE_ENTITY)
     ErrorResponse handleInvalidContent(HttpServletRequest request, JSONException e) {
-        LOG.logError(request, e);
+        log.logError(request, e);
         return new ErrorResponse("Request body is not a valid json: "
             + e.getMessage());
     }
@@ -70,7 +349,7 @@ public class RangedOperationController {
     @ExceptionHandler(IllegalArgumentException.class)
     @ResponseStatus(HttpStatus.UNPROCESSABLE_ENTITY)
     ErrorResponse handleInvalidMatrix(HttpServletRequest request, Exception e) {
-        LOG.logError(request, e);
+        log.logError(request, e);
         return new ErrorResponse(e.getMessage());
     }
 }
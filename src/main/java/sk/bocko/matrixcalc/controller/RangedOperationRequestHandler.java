@@ -2,59 +2,200 @@ package sk.bocko.matrixcalc.controller;
 
 import static com.google.common.base.Preconditions.checkNotNull;
 import java.util.Optional;
-import java.util.function.Function;
+import org.json.JSONArray;
 import org.json.JSONObject;
+import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Service;
+import sk.bocko.matrixcalc.metrics.Stage;
+import sk.bocko.matrixcalc.metrics.StageMetrics;
 import sk.bocko.matrixcalc.model.Matrix;
+import sk.bocko.matrixcalc.model.MatrixView;
+import sk.bocko.matrixcalc.model.ParallelReduction;
+import sk.bocko.matrixcalc.model.Percentile;
 import sk.bocko.matrixcalc.model.Range;
 import sk.bocko.matrixcalc.model.RangedOperation;
+import sk.bocko.matrixcalc.model.Ranking;
+import sk.bocko.matrixcalc.model.Statistics;
 
 /**
  * Matrix implementation of {@link UnaryOperationRequestHandler}.
  */
-@Service("unary_matrix_operation")
+@Service("uncached_unary_matrix_operation")
 public class RangedOperationRequestHandler implements UnaryOperationRequestHandler {
-    private static final String MATRIX = "matrix";
     private static final String RESULT = "result";
+    private static final String PERCENTILE = "percentile";
+    private static final String STATISTICS = "stats";
+    private static final String ARGMIN = "argmin";
+    private static final String ARGMAX = "argmax";
+    private static final String TOP = "topk";
+    private static final String POSITION = "position";
+    private static final String VALUE = "value";
+
+    private final ParallelReduction reduction;
+    private final StageMetrics metrics;
+
+    @Autowired
+    public RangedOperationRequestHandler(ParallelReduction reduction, StageMetrics metrics) {
+        this.reduction = checkNotNull(reduction, "reduction is null");
+        this.metrics = checkNotNull(metrics, "metrics are null");
+    }
 
     /**
      * Handles unary matrix operations.
-     * @param body request body
+     * @param matrix matrix to perform operation on
      * @param range range of the matrix to apply operation on.
      * Whole matrix if null.
      * @param operation operation to perform on operand
      * @return
      */
     @Override
-    public JSONObject handle(final String body,
+    public JSONObject handle(final Matrix matrix,
         final String range,
         final String operation) {
-        checkNotNull(body, "request body is null");
+        checkNotNull(matrix, "matrix is null");
 
-        Matrix matrix = parseMatrix(body);
-        Function<double[], Double> toApply = RangedOperation
-            .from(operation)
-            .getOperation();
+        RangedOperation toApply = RangedOperation.from(operation);
 
         Range matrixRange = Range.valueOf(Optional.ofNullable(range));
-        double result = toApply.apply(matrix.getRange(matrixRange));
+        long start = System.nanoTime();
+        MatrixView view = matrix.getRange(matrixRange);
+        metrics.record(Stage.EXTRACT, operation, matrix, start);
 
-        JSONObject response = new JSONObject();
-        if (Double.isFinite(result)) {
-            return response.put(RESULT, result);
+        start = System.nanoTime();
+        double result = reduction.apply(toApply, matrix, matrixRange, view);
+        metrics.record(Stage.REDUCE, operation, matrix, start);
+        return response(result);
+    }
+
+    /**
+     * Handles percentiles, see {@link Percentile}.
+     * @param matrix matrix to select from
+     * @param range range of the matrix to select from.
+     * Whole matrix if null.
+     * @param percentile percentile between 0 and 100
+     * @return
+     */
+    @Override
+    public JSONObject handlePercentile(final Matrix matrix,
+        final String range,
+        final double percentile) {
+        checkNotNull(matrix, "matrix is null");
+
+        Percentile.check(percentile);
+        Range matrixRange = Range.valueOf(Optional.ofNullable(range));
+        long start = System.nanoTime();
+        double result = Percentile.apply(matrix, matrixRange, percentile);
+        metrics.record(Stage.REDUCE, PERCENTILE, matrix, start);
+        return response(result);
+    }
+
+    /**
+     * Handles statistics, see {@link Statistics}. Statistics that are not
+     * finite numbers, e.g. an overflowing product, are null.
+     * @param matrix matrix to reduce
+     * @param range range of the matrix to reduce.
+     * Whole matrix if null.
+     * @return json with the count, sum, product, min, max, average,
+     * variance, stddev, l1 and l2 of the values as the result
+     */
+    @Override
+    public JSONObject handleStatistics(final Matrix matrix, final String range) {
+        checkNotNull(matrix, "matrix is null");
+
+        Range matrixRange = Range.valueOf(Optional.ofNullable(range));
+        long start = System.nanoTime();
+        Statistics statistics = Statistics.of(matrix, matrixRange);
+        metrics.record(Stage.REDUCE, STATISTICS, matrix, start);
+
+        JSONObject result = new JSONObject()
+            .put("count", statistics.getCount());
+        putFinite(result, "sum", statistics.getSum());
+        putFinite(result, "product", statistics.getProduct());
+        putFinite(result, "min", statistics.getMinimum());
+        putFinite(result, "max", statistics.getMaximum());
+        putFinite(result, "average", statistics.getAverage());
+        putFinite(result, "variance", statistics.getVariance());
+        putFinite(result, "stddev", statistics.getStandardDeviation());
+        putFinite(result, "l1", statistics.getL1());
+        putFinite(result, "l2", statistics.getL2());
+        return new JSONObject().put(RESULT, result);
+    }
+
+    /**
+     * Handles positions of the extremes, see {@link Ranking}.
+     * @param matrix matrix to search
+     * @param range range of the matrix to search.
+     * Whole matrix if null.
+     * @param operation argmin or argmax
+     * @return json with the first position of the minimum or the maximum,
+     * e.g. {"result":"2-1"}
+     */
+    @Override
+    public JSONObject handlePosition(final Matrix matrix,
+        final String range,
+        final String operation) {
+        checkNotNull(matrix, "matrix is null");
+        checkNotNull(operation, "name of the operation is null");
+
+        boolean largest;
+        switch (operation) {
+            case ARGMIN:
+                largest = false;
+                break;
+            case ARGMAX:
+                largest = true;
+                break;
+            default:
+                throw new IllegalArgumentException(
+                    String.format("Unsupported operation '%s'", operation));
         }
+        Range matrixRange = Range.valueOf(Optional.ofNullable(range));
+        long start = System.nanoTime();
+        Ranking ranking = reduction.rank(matrix, matrixRange, 1, largest);
+        metrics.record(Stage.REDUCE, operation, matrix, start);
 
-        throw new IllegalArgumentException("result is not a finite number");
+        return new JSONObject().put(RESULT, ranking.getPosition(0).toString());
     }
 
-    private Matrix parseMatrix(final String content) {
-        JSONObject json = new JSONObject(content);
+    /**
+     * Handles the largest values, see {@link Ranking}.
+     * @param matrix matrix to search
+     * @param range range of the matrix to search.
+     * Whole matrix if null.
+     * @param k number of values, all values of shorter ranges are returned
+     * @return json with the positions and the values, largest first, e.g.
+     * {"result":[{"position":"2-2","value":4},{"position":"2-1","value":3}]}.
+     * Values that are not finite numbers are null.
+     */
+    @Override
+    public JSONObject handleTop(final Matrix matrix, final String range, final int k) {
+        checkNotNull(matrix, "matrix is null");
+
+        Ranking.check(k);
+        Range matrixRange = Range.valueOf(Optional.ofNullable(range));
+        long start = System.nanoTime();
+        Ranking ranking = reduction.rank(matrix, matrixRange, k, true);
+        metrics.record(Stage.REDUCE, TOP, matrix, start);
+
+        JSONArray result = new JSONArray();
+        for (int i = 0; i < ranking.size(); i++) {
+            JSONObject entry = new JSONObject().put(POSITION, ranking.getPosition(i).toString());
+            putFinite(entry, VALUE, ranking.getValue(i));
+            result.put(entry);
+        }
+        return new JSONObject().put(RESULT, result);
+    }
 
-        if (!json.has(MATRIX)) {
-            throw new IllegalArgumentException(String.format(
-                "Matrix is not present in request body [%s].", content));
+    private static void putFinite(JSONObject json, String key, double value) {
+        json.put(key, Double.isFinite(value) ? value : JSONObject.NULL);
+    }
+
+    private static JSONObject response(double result) {
+        JSONObject response = new JSONObject();
+        if (Double.isFinite(result)) {
+            return response.put(RESULT, result);
         }
 
-        return Matrix.from(json.getJSONArray(MATRIX));
+        throw new IllegalArgumentException("result is not a finite number");
     }
 }
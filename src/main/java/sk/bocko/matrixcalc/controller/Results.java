@@ -0,0 +1,120 @@
+package sk.bocko.matrixcalc.controller;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.util.Optional;
+import org.json.JSONArray;
+import org.json.JSONObject;
+import sk.bocko.matrixcalc.model.Matrix;
+import sk.bocko.matrixcalc.model.MatrixView;
+import sk.bocko.matrixcalc.model.Range;
+
+/**
+ * Conversions of results returned by the request handlers.
+ */
+final class Results {
+    static final Range WHOLE = Range.valueOf(Optional.empty());
+
+    private static final String RESULT = "result";
+    // values written between two flushes, so long vectors go out in chunks
+    private static final int CHUNK_LENGTH = 4096;
+
+    private Results() {
+    }
+
+    /**
+     * Convert a result to a matrix, so it can be sent as application/x-matrix.
+     * @param response json with a number or an array result
+     * @return 1x1 matrix with the number or 1xn matrix with the array
+     */
+    static Matrix asMatrix(JSONObject response) {
+        JSONArray array = response.optJSONArray(RESULT);
+        if (array == null) {
+            return Matrix.from(1, 1, new double[]{response.getDouble(RESULT)});
+        }
+
+        double[] values = new double[array.length()];
+        for (int i = 0; i < values.length; i++) {
+            values[i] = array.getDouble(i);
+        }
+        return Matrix.from(1, values.length, values);
+    }
+
+    /**
+     * Write all the values of a matrix as a json array result, e.g.
+     * {"result":[1,2.5]}, without building the whole json in memory.
+     * The stream is flushed after every {@link #CHUNK_LENGTH} values and
+     * is not closed.
+     * @param vector values to write
+     * @param out stream to write to
+     */
+    static void writeVector(Matrix vector, OutputStream out) throws IOException {
+        MatrixView values = vector.getRange(WHOLE);
+        Writer writer = new BufferedWriter(new OutputStreamWriter(out, StandardCharsets.UTF_8));
+        writer.write("{\"" + RESULT + "\":[");
+        for (int i = 0; i < values.length(); i++) {
+            if (i > 0) {
+                writer.write(',');
+                if (i % CHUNK_LENGTH == 0) {
+                    writer.flush();
+                }
+            }
+            writer.write(JSONObject.numberToString(values.get(i)));
+        }
+        writer.write("]}");
+        writer.flush();
+    }
+
+    /**
+     * Check that a matrix can be written as json, before the response is
+     * committed and an error can no longer be sent.
+     * @param matrix matrix to check
+     * @return the same matrix
+     */
+    static Matrix checkFinite(Matrix matrix) {
+        MatrixView values = matrix.getRange(WHOLE);
+        for (int i = 0; i < values.length(); i++) {
+            if (!Double.isFinite(values.get(i))) {
+                throw new IllegalArgumentException("result is not a finite number");
+            }
+        }
+        return matrix;
+    }
+
+    /**
+     * Write a matrix as a json array of its rows, e.g. {"result":[[1,2],[3,4]]},
+     * without building the whole json in memory. The stream is flushed after
+     * the row which completes at least {@link #CHUNK_LENGTH} values and is
+     * not closed.
+     * @param matrix matrix to write
+     * @param out stream to write to
+     */
+    static void writeMatrix(Matrix matrix, OutputStream out) throws IOException {
+        MatrixView values = matrix.getRange(WHOLE);
+        int columns = matrix.getColumns();
+        Writer writer = new BufferedWriter(new OutputStreamWriter(out, StandardCharsets.UTF_8));
+        writer.write("{\"" + RESULT + "\":[");
+        int unflushed = 0;
+        for (int i = 0; i < matrix.getRows(); i++) {
+            writer.write(i > 0 ? ",[" : "[");
+            for (int j = 0; j < columns; j++) {
+                if (j > 0) {
+                    writer.write(',');
+                }
+                writer.write(JSONObject.numberToString(values.get(i * columns + j)));
+            }
+            writer.write(']');
+            unflushed += columns;
+            if (unflushed >= CHUNK_LENGTH) {
+                writer.flush();
+                unflushed = 0;
+            }
+        }
+        writer.write("]}");
+        writer.flush();
+    }
+}
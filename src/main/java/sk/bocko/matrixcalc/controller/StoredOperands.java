@@ -0,0 +1,60 @@
+package sk.bocko.matrixcalc.controller;
+
+import static com.google.common.base.Preconditions.checkNotNull;
+import sk.bocko.matrixcalc.io.MatrixOperands;
+import sk.bocko.matrixcalc.model.LuDecomposition;
+import sk.bocko.matrixcalc.model.Matrix;
+import sk.bocko.matrixcalc.store.MatrixStore;
+
+/**
+ * Resolves operands given either inline or by id of a matrix in the
+ * {@link MatrixStore}.
+ */
+final class StoredOperands {
+    private final MatrixStore store;
+
+    StoredOperands(final MatrixStore store) {
+        this.store = checkNotNull(store, "store is null");
+    }
+
+    /**
+     * @param operands request body
+     * @param key name of the operand
+     * @return the inline matrix or the stored matrix with the id in the member
+     * @throws IllegalArgumentException if the operand is missing or invalid
+     * @throws sk.bocko.matrixcalc.store.MatrixNotFoundException if there is
+     * no matrix with the id
+     */
+    Matrix get(MatrixOperands operands, String key) {
+        Matrix matrix = operands.getMatrix(key);
+        return matrix != null ? matrix : store.get(id(operands, key));
+    }
+
+    /**
+     * @param operands request body
+     * @param key name of the operand
+     * @return decomposition of the inline matrix or of the stored matrix
+     * with the id in the member, the latter is kept by the store
+     * @throws IllegalArgumentException if the operand is missing or invalid
+     * or the matrix is not square
+     * @throws sk.bocko.matrixcalc.store.MatrixNotFoundException if there is
+     * no matrix with the id
+     */
+    LuDecomposition decomposition(MatrixOperands operands, String key) {
+        Matrix matrix = operands.getMatrix(key);
+        return matrix != null ? matrix.decomposition() : store.decomposition(id(operands, key));
+    }
+
+    private static String id(MatrixOperands operands, String key) {
+        Object id = operands.getMembers().opt(key);
+        if (id == null) {
+            throw new IllegalArgumentException(String.format(
+                "Operand '%s' is not present.", key));
+        }
+        if (!(id instanceof String)) {
+            throw new IllegalArgumentException(String.format(
+                "Operand '%s' is neither a matrix nor an id of a stored matrix.", key));
+        }
+        return (String) id;
+    }
+}
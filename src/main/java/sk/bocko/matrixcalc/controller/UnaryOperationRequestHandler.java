@@ -1,6 +1,7 @@
 package sk.bocko.matrixcalc.controller;
 
 import org.json.JSONObject;
+import sk.bocko.matrixcalc.model.Matrix;
 
 /**
  * Handles single argument operation requests.
@@ -10,10 +11,49 @@ public interface UnaryOperationRequestHandler {
     /**
      * Handle request for unary operation.
      *
-     * @param body request body
+     * @param matrix matrix from the request body
      * @param argument operation argument
      * @param operation operation to perform on operand
      * @return json with result
      */
-    JSONObject handle(String body, String argument, String operation);
+    JSONObject handle(Matrix matrix, String argument, String operation);
+
+    /**
+     * Handle request for a percentile of the values.
+     *
+     * @param matrix matrix from the request body
+     * @param argument range of the matrix, whole matrix if null
+     * @param percentile percentile between 0 and 100, 50 for the median
+     * @return json with result
+     */
+    JSONObject handlePercentile(Matrix matrix, String argument, double percentile);
+
+    /**
+     * Handle request for all the statistics of the values at once.
+     *
+     * @param matrix matrix from the request body
+     * @param argument range of the matrix, whole matrix if null
+     * @return json with the statistics as the result
+     */
+    JSONObject handleStatistics(Matrix matrix, String argument);
+
+    /**
+     * Handle request for the position of the minimum or the maximum.
+     *
+     * @param matrix matrix from the request body
+     * @param argument range of the matrix, whole matrix if null
+     * @param operation argmin or argmax
+     * @return json with the position as the result
+     */
+    JSONObject handlePosition(Matrix matrix, String argument, String operation);
+
+    /**
+     * Handle request for the largest values and their positions.
+     *
+     * @param matrix matrix from the request body
+     * @param argument range of the matrix, whole matrix if null
+     * @param k number of values
+     * @return json with the positions and the values as the result
+     */
+    JSONObject handleTop(Matrix matrix, String argument, int k);
 }
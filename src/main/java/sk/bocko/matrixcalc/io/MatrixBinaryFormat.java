@@ -0,0 +1,146 @@
+package sk.bocko.matrixcalc.io;
+
+import static com.google.common.base.Preconditions.checkNotNull;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.DoubleBuffer;
+import java.util.Arrays;
+import java.util.Optional;
+import sk.bocko.matrixcalc.model.Fingerprint;
+import sk.bocko.matrixcalc.model.Matrix;
+import sk.bocko.matrixcalc.model.MatrixView;
+import sk.bocko.matrixcalc.model.Range;
+
+/**
+ * Binary representation of a matrix, media type application/x-matrix.
+ *
+ * The body is the number of rows and the number of columns as 32-bit
+ * integers followed by rows * columns IEEE-754 doubles in row-major order,
+ * everything little-endian. The doubles are decoded in bulk straight into
+ * the matrix storage. The storage is allocated at once only when the
+ * length of the body is known and agrees with the header, otherwise it
+ * grows as the values arrive.
+ */
+public final class MatrixBinaryFormat {
+    public static final String MEDIA_TYPE = "application/x-matrix";
+    static final int HEADER_BYTES = 2 * Integer.BYTES;
+
+    private static final int BUFFER_SIZE = 8192;
+    // the largest array most virtual machines can allocate
+    private static final int MAX_VALUES = Integer.MAX_VALUE - 8;
+    // storage allocated first for a body of unknown length
+    private static final int INITIAL_VALUES = 1 << 16;
+
+    private MatrixBinaryFormat() {
+    }
+
+    /**
+     * Read a matrix.
+     * @param in stream with the matrix
+     * @param contentLength number of bytes in the stream or -1 if unknown
+     * @return a new {@link Matrix} instance
+     * @throws IOException if the stream can not be read
+     */
+    public static Matrix read(InputStream in, long contentLength) throws IOException {
+        checkNotNull(in, "input stream is null");
+
+        ByteBuffer buffer = ByteBuffer.allocate(BUFFER_SIZE).order(ByteOrder.LITTLE_ENDIAN);
+        if (fill(in, buffer, HEADER_BYTES) < HEADER_BYTES) {
+            throw new IllegalArgumentException("Matrix header is not complete.");
+        }
+        buffer.flip();
+        int rows = buffer.getInt();
+        int columns = buffer.getInt();
+        if (rows <= 0 || columns < 0) {
+            throw new IllegalArgumentException(String.format(
+                "Matrix %dx%d is not valid.", rows, columns));
+        }
+        long length = (long) rows * columns;
+        if (length > MAX_VALUES) {
+            throw new IllegalArgumentException(String.format(
+                "Matrix %dx%d is too large.", rows, columns));
+        }
+        // do not allocate the storage for a body which can not contain it
+        long expectedLength = HEADER_BYTES + length * Double.BYTES;
+        if (contentLength >= 0 && contentLength != expectedLength) {
+            throw new IllegalArgumentException(String.format(
+                "Matrix %dx%d needs %d bytes, but the body has %d bytes.",
+                rows, columns, expectedLength, contentLength));
+        }
+
+        // without the length the header is not trusted, the storage grows
+        // with the values actually read
+        double[] values = new double[(int) (contentLength >= 0
+            ? length : Math.min(length, INITIAL_VALUES))];
+        Fingerprint.Builder fingerprint = Fingerprint.builder();
+        buffer.clear();
+        DoubleBuffer doubles = buffer.asDoubleBuffer();
+        int read = 0;
+        while (read < length) {
+            if (read == values.length) {
+                values = Arrays.copyOf(values, (int) Math.min(length, 2L * values.length));
+            }
+            int count = Math.min(values.length - read, BUFFER_SIZE / Double.BYTES);
+            buffer.clear();
+            if (fill(in, buffer, count * Double.BYTES) < count * Double.BYTES) {
+                throw new IllegalArgumentException(String.format(
+                    "Matrix %dx%d ends after %d values.", rows, columns,
+                    read + buffer.position() / Double.BYTES));
+            }
+            doubles.clear();
+            doubles.get(values, read, count);
+            for (int i = read; i < read + count; i++) {
+                fingerprint.add(values[i]);
+            }
+            read += count;
+        }
+        if (in.read() != -1) {
+            throw new IllegalArgumentException(String.format(
+                "Matrix %dx%d is followed by unexpected bytes.", rows, columns));
+        }
+
+        return Matrix.from(rows, columns, values, fingerprint.build(rows, columns)).compact();
+    }
+
+    /**
+     * Write a matrix.
+     * @param matrix matrix to write
+     * @param out stream to write the matrix to
+     * @throws IOException if the stream can not be written
+     */
+    public static void write(Matrix matrix, OutputStream out) throws IOException {
+        checkNotNull(matrix, "matrix is null");
+        checkNotNull(out, "output stream is null");
+
+        ByteBuffer buffer = ByteBuffer.allocate(BUFFER_SIZE).order(ByteOrder.LITTLE_ENDIAN);
+        buffer.putInt(matrix.getRows()).putInt(matrix.getColumns());
+
+        MatrixView values = matrix.getRange(Range.valueOf(Optional.empty())).toDense();
+        for (int i = 0; i < values.length(); i++) {
+            if (buffer.remaining() < Double.BYTES) {
+                out.write(buffer.array(), 0, buffer.position());
+                buffer.clear();
+            }
+            buffer.putDouble(values.get(i));
+        }
+        out.write(buffer.array(), 0, buffer.position());
+    }
+
+    /**
+     * @return number of bytes in the buffer, less than bytes only at the
+     * end of the stream
+     */
+    private static int fill(InputStream in, ByteBuffer buffer, int bytes) throws IOException {
+        while (buffer.position() < bytes) {
+            int count = in.read(buffer.array(), buffer.position(), bytes - buffer.position());
+            if (count < 0) {
+                break;
+            }
+            buffer.position(buffer.position() + count);
+        }
+        return buffer.position();
+    }
+}
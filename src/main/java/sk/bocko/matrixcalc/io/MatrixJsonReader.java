@@ -0,0 +1,1043 @@
+package sk.bocko.matrixcalc.io;
+
+import static com.google.common.base.Preconditions.checkArgument;
+import static com.google.common.base.Preconditions.checkNotNull;
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import org.json.JSONException;
+import org.json.JSONObject;
+import org.json.JSONTokener;
+import sk.bocko.matrixcalc.model.Fingerprint;
+import sk.bocko.matrixcalc.model.Matrix;
+
+/**
+ * Streaming reader of the {"matrix": [[...], ...]} request body, or of
+ * request bodies with many matrices, see {@link #readOperands}.
+ *
+ * A matrix may also be given by the list of its non-zero entries, e.g.
+ * {"matrix": {"rows": 1000, "cols": 1000, "entries": [[1, 1, 2.5], ...]}},
+ * rows and columns of the entries are 1-indexed. Matrices with few
+ * non-zeros are stored sparse, see {@link Matrix#compact()}.
+ *
+ * The body is read once from the stream and the numbers are parsed straight
+ * into the row-major matrix storage, without building an intermediate json
+ * document.
+ * The {@link Fingerprint} of the matrix is computed on the way.
+ * A few entries can describe a matrix of any size, so the number of elements
+ * of a matrix given by its entries is limited, see {@link #DEFAULT_MAX_ELEMENTS}.
+ * Errors are reported as {@link JSONException} with the same messages
+ * (and positions) as org.json uses, so the clients see no difference.
+ */
+public final class MatrixJsonReader {
+    public static final String MATRIX = "matrix";
+    public static final String ROWS = "rows";
+    public static final String COLUMNS = "cols";
+    public static final String ENTRIES = "entries";
+    public static final long DEFAULT_MAX_ELEMENTS = 1L << 26;
+
+    private static final int BUFFER_SIZE = 8192;
+    private static final int EOF = 0;
+    private static final int MAX_FAST_DIGITS = 15;
+    private static final double[] POWERS_OF_TEN = {
+        1e0, 1e1, 1e2, 1e3, 1e4, 1e5, 1e6, 1e7, 1e8, 1e9, 1e10, 1e11,
+        1e12, 1e13, 1e14, 1e15, 1e16, 1e17, 1e18, 1e19, 1e20, 1e21, 1e22};
+
+    private final InputStream in;
+    private final byte[] buffer = new byte[BUFFER_SIZE];
+    private int position, limit;
+
+    // mirrors the JSONTokener bookkeeping used in error messages
+    private long index, character = 1, line = 1;
+    private int previous;
+    private boolean usePrevious;
+
+    private byte[] scratch = new byte[64];
+    private int scratchLength;
+
+    // raw text of the other members, kept only when they are requested
+    private final JSONObject members;
+    private byte[] recording;
+    private int recordingLength;
+
+    // array members read as matrices, instead of the "matrix" member
+    private final Map<String, Matrix> matrices;
+    private final long maxElements;
+
+    private MatrixJsonReader(final InputStream in, final JSONObject members,
+        final long maxElements) {
+        this(in, members, null, maxElements);
+    }
+
+    private MatrixJsonReader(final InputStream in, final JSONObject members,
+        final Map<String, Matrix> matrices, final long maxElements) {
+        checkArgument(maxElements > 0, "maximum number of elements must be positive");
+        this.in = in;
+        this.members = members;
+        this.matrices = matrices;
+        this.maxElements = maxElements;
+    }
+
+    /**
+     * Read a matrix from a json stream encoded in UTF-8, with at most
+     * {@link #DEFAULT_MAX_ELEMENTS} elements.
+     * @param in stream with json object containing the matrix
+     * @return a new {@link Matrix} instance
+     * @throws IOException if the stream can not be read
+     */
+    public static Matrix read(InputStream in) throws IOException {
+        return read(in, DEFAULT_MAX_ELEMENTS);
+    }
+
+    /**
+     * Read a matrix from a json stream encoded in UTF-8. Throws
+     * IllegalArgumentException if the matrix is given by its entries and has
+     * more elements than allowed.
+     * @param in stream with json object containing the matrix
+     * @param maxElements maximum number of elements of the matrix
+     * @return a new {@link Matrix} instance
+     * @throws IOException if the stream can not be read
+     */
+    public static Matrix read(InputStream in, long maxElements) throws IOException {
+        checkNotNull(in, "input stream is null");
+
+        try {
+            return new MatrixJsonReader(in, null, maxElements).readObject();
+        } catch (UncheckedIOException e) {
+            throw e.getCause();
+        }
+    }
+
+    /**
+     * Read a matrix and the other members of a json object from a stream
+     * encoded in UTF-8. The other members are parsed by org.json, so they
+     * should be small compared to the matrix.
+     * @param in stream with json object containing the matrix
+     * @return the matrix and the other members of the object
+     * @throws IOException if the stream can not be read
+     */
+    public static MatrixRequest readRequest(InputStream in) throws IOException {
+        return readRequest(in, DEFAULT_MAX_ELEMENTS);
+    }
+
+    /**
+     * Read a matrix and the other members of a json object, see
+     * {@link #readRequest(InputStream)}.
+     * @param in stream with json object containing the matrix
+     * @param maxElements maximum number of elements of the matrix
+     * @return the matrix and the other members of the object
+     * @throws IOException if the stream can not be read
+     */
+    public static MatrixRequest readRequest(InputStream in, long maxElements) throws IOException {
+        checkNotNull(in, "input stream is null");
+
+        JSONObject members = new JSONObject();
+        try {
+            Matrix matrix = new MatrixJsonReader(in, members, maxElements).readObject();
+            return new MatrixRequest(matrix, members);
+        } catch (UncheckedIOException e) {
+            throw e.getCause();
+        }
+    }
+
+    /**
+     * Read a json object whose array members are matrices, e.g. the operands
+     * {"left": [[1,2],[3,4]], "right": "id"}, from a stream encoded in UTF-8.
+     * The matrices are streamed like the "matrix" member of {@link #read},
+     * the other members are parsed by org.json.
+     * @param in stream with json object containing the matrices
+     * @return the matrices and the other members of the object
+     * @throws IOException if the stream can not be read
+     */
+    public static MatrixOperands readOperands(InputStream in) throws IOException {
+        return readOperands(in, DEFAULT_MAX_ELEMENTS);
+    }
+
+    /**
+     * Read a json object whose array members are matrices, see
+     * {@link #readOperands(InputStream)}.
+     * @param in stream with json object containing the matrices
+     * @param maxElements maximum number of elements of each matrix
+     * @return the matrices and the other members of the object
+     * @throws IOException if the stream can not be read
+     */
+    public static MatrixOperands readOperands(InputStream in, long maxElements) throws IOException {
+        checkNotNull(in, "input stream is null");
+
+        JSONObject members = new JSONObject();
+        Map<String, Matrix> matrices = new HashMap<>();
+        try {
+            new MatrixJsonReader(in, members, matrices, maxElements).readObject();
+            return new MatrixOperands(matrices, members);
+        } catch (UncheckedIOException e) {
+            throw e.getCause();
+        }
+    }
+
+    /**
+     * Read a matrix from a json string.
+     * @param json json object containing the matrix (e.g. {"matrix":[[1,2],[3,4]]})
+     * @return a new {@link Matrix} instance
+     */
+    public static Matrix read(String json) {
+        checkNotNull(json, "json is null");
+
+        byte[] bytes = json.getBytes(StandardCharsets.UTF_8);
+        return new MatrixJsonReader(new ByteArrayInputStream(bytes), null, DEFAULT_MAX_ELEMENTS)
+            .readObject();
+    }
+
+    private Matrix readObject() {
+        if (nextClean() != '{') {
+            throw syntaxError("A JSONObject text must begin with '{'");
+        }
+
+        MatrixValues matrix = null;
+        boolean present = false;
+        boolean notArray = false;
+
+        for (;;) {
+            int c = nextClean();
+            switch (c) {
+                case EOF:
+                    throw syntaxError("A JSONObject text must end with '}'");
+                case '}':
+                    return finish(present, notArray, matrix);
+                default:
+                    back();
+            }
+
+            String key = readKey();
+            if (nextClean() != ':') {
+                throw syntaxError("Expected a ':' after a key");
+            }
+
+            if (matrices != null) {
+                readOperand(key);
+            } else if (MATRIX.equals(key)) {
+                if (present) {
+                    throw new JSONException("Duplicate key \"" + MATRIX + "\"");
+                }
+                present = true;
+                int first = nextClean();
+                if (first == '[') {
+                    matrix = readRows();
+                } else if (first == '{') {
+                    matrix = readEntries();
+                } else {
+                    back();
+                    skipValue();
+                    notArray = true;
+                }
+            } else if (members != null && key != null) {
+                readMember(key);
+            } else {
+                skipValue();
+            }
+
+            switch (nextClean()) {
+                case ';':
+                case ',':
+                    if (nextClean() == '}') {
+                        return finish(present, notArray, matrix);
+                    }
+                    back();
+                    break;
+                case '}':
+                    return finish(present, notArray, matrix);
+                default:
+                    throw syntaxError("Expected a ',' or '}'");
+            }
+        }
+    }
+
+    /**
+     * @return the "matrix" member, or null if the matrices are read from
+     * all array members
+     */
+    private Matrix finish(boolean present, boolean notArray, MatrixValues matrix) {
+        if (matrices != null) {
+            return null;
+        }
+        if (!present) {
+            throw new IllegalArgumentException(
+                "Matrix is not present in request body.");
+        }
+        if (notArray) {
+            throw new JSONException(
+                "JSONObject[\"" + MATRIX + "\"] is not a JSONArray.");
+        }
+        return matrix.toMatrix();
+    }
+
+    private void readOperand(String key) {
+        if (key == null) {
+            skipValue();
+            return;
+        }
+        int first = nextClean();
+        if (first != '[' && first != '{') {
+            back();
+            readMember(key);
+            return;
+        }
+        if (matrices.containsKey(key) || members.has(key)) {
+            throw new JSONException("Duplicate key \"" + key + "\"");
+        }
+        matrices.put(key, (first == '[' ? readRows() : readEntries()).toMatrix());
+    }
+
+    private void readMember(String key) {
+        if (members.has(key) || matrices != null && matrices.containsKey(key)) {
+            throw new JSONException("Duplicate key \"" + key + "\"");
+        }
+
+        recording = new byte[64];
+        recordingLength = 0;
+        skipValue();
+        String value = new String(recording, 0, recordingLength, StandardCharsets.UTF_8);
+        recording = null;
+
+        members.put(key, new JSONTokener(value).nextValue());
+    }
+
+    /**
+     * Read the {"rows": .., "cols": .., "entries": [[row, column, value], ...]}
+     * object, its opening brace is already read.
+     */
+    private CoordinateEntries readEntries() {
+        CoordinateEntries entries = new CoordinateEntries(maxElements);
+        for (;;) {
+            int c = nextClean();
+            switch (c) {
+                case EOF:
+                    throw syntaxError("A JSONObject text must end with '}'");
+                case '}':
+                    return entries;
+                default:
+                    back();
+            }
+
+            String key = readKey();
+            if (nextClean() != ':') {
+                throw syntaxError("Expected a ':' after a key");
+            }
+            if (ROWS.equals(key)) {
+                entries.rows = readDimension(ROWS, entries.rows);
+            } else if (COLUMNS.equals(key)) {
+                entries.columns = readDimension(COLUMNS, entries.columns);
+            } else if (ENTRIES.equals(key)) {
+                if (entries.present) {
+                    throw new JSONException("Duplicate key \"" + ENTRIES + "\"");
+                }
+                entries.present = true;
+                readEntryList(entries);
+            } else {
+                skipValue();
+            }
+
+            switch (nextClean()) {
+                case ';':
+                case ',':
+                    if (nextClean() == '}') {
+                        return entries;
+                    }
+                    back();
+                    break;
+                case '}':
+                    return entries;
+                default:
+                    throw syntaxError("Expected a ',' or '}'");
+            }
+        }
+    }
+
+    private int readDimension(String key, int current) {
+        if (current >= 0) {
+            throw new JSONException("Duplicate key \"" + key + "\"");
+        }
+
+        int c = nextClean();
+        String text;
+        switch (c) {
+            case '"':
+            case '\'':
+                text = readString(c);
+                break;
+            case '[':
+            case '{':
+                throw notAnInt(key);
+            default:
+                back();
+                readToken();
+                if (scratchLength == 0) {
+                    throw syntaxError("Missing value");
+                }
+                text = new String(scratch, 0, scratchLength, StandardCharsets.UTF_8);
+        }
+        try {
+            double value = Double.parseDouble(text);
+            if (value < 0 || value != (int) value) {
+                throw notAnInt(key);
+            }
+            return (int) value;
+        } catch (NumberFormatException e) {
+            throw notAnInt(key);
+        }
+    }
+
+    private JSONException notAnInt(String key) {
+        return new JSONException("JSONObject[\"" + key + "\"] is not a non-negative int.");
+    }
+
+    private void readEntryList(CoordinateEntries entries) {
+        if (nextClean() != '[') {
+            throw new JSONException("JSONObject[\"" + ENTRIES + "\"] is not a JSONArray.");
+        }
+        if (nextClean() == ']') {
+            return;
+        }
+        back();
+
+        for (int index = 0; ; index++) {
+            if (nextClean() != '[') {
+                throw notAnEntry(index);
+            }
+            int row = readEntryIndex(index);
+            int column = readEntryIndex(index);
+            double value = readNumber(index);
+            if (nextClean() != ']') {
+                throw notAnEntry(index);
+            }
+            entries.add(row, column, value);
+
+            switch (nextClean()) {
+                case ',':
+                    if (nextClean() == ']') {
+                        return;
+                    }
+                    back();
+                    break;
+                case ']':
+                    return;
+                default:
+                    throw syntaxError("Expected a ',' or ']'");
+            }
+        }
+    }
+
+    /**
+     * Read a row or a column of an entry and the comma after it.
+     */
+    private int readEntryIndex(int index) {
+        double value = readNumber(index);
+        if (value != (int) value || nextClean() != ',') {
+            throw notAnEntry(index);
+        }
+        return (int) value;
+    }
+
+    private JSONException notAnEntry(int index) {
+        return new JSONException("JSONArray[" + index + "] is not a [row, column, value] entry.");
+    }
+
+    private RowMajorValues readRows() {
+        RowMajorValues values = new RowMajorValues();
+        if (nextClean() == ']') {
+            return values;
+        }
+        back();
+
+        for (;;) {
+            if (nextClean() != '[') {
+                throw new JSONException("JSONArray[" + values.rows + "] is not a JSONArray.");
+            }
+            values.endRow(readRow(values));
+
+            switch (nextClean()) {
+                case ',':
+                    if (nextClean() == ']') {
+                        return values;
+                    }
+                    back();
+                    break;
+                case ']':
+                    return values;
+                default:
+                    throw syntaxError("Expected a ',' or ']'");
+            }
+        }
+    }
+
+    /**
+     * Read a row and append its values to the storage.
+     * @return number of values in the row
+     */
+    private int readRow(RowMajorValues values) {
+        if (nextClean() == ']') {
+            return 0;
+        }
+        back();
+
+        for (int length = 1; ; length++) {
+            values.add(readNumber(length - 1));
+
+            switch (nextClean()) {
+                case ',':
+                    if (nextClean() == ']') {
+                        return length;
+                    }
+                    back();
+                    break;
+                case ']':
+                    return length;
+                default:
+                    throw syntaxError("Expected a ',' or ']'");
+            }
+        }
+    }
+
+    private double readNumber(int elementIndex) {
+        int c = nextClean();
+        switch (c) {
+            case '"':
+            case '\'':
+                return parseNumber(readString(c), elementIndex);
+            case '[':
+            case '{':
+            case ',':
+            case ']':
+                throw notANumber(elementIndex);
+            default:
+                back();
+        }
+
+        readToken();
+        if (scratchLength == 0) {
+            throw syntaxError("Missing value");
+        }
+        try {
+            return parseDouble(scratch, scratchLength);
+        } catch (NumberFormatException e) {
+            throw notANumber(elementIndex);
+        }
+    }
+
+    private double parseNumber(String value, int elementIndex) {
+        try {
+            return Double.parseDouble(value);
+        } catch (NumberFormatException e) {
+            throw notANumber(elementIndex);
+        }
+    }
+
+    private JSONException notANumber(int elementIndex) {
+        return new JSONException("JSONArray[" + elementIndex + "] is not a number.");
+    }
+
+    private String readKey() {
+        int c = nextClean();
+        switch (c) {
+            case '"':
+            case '\'':
+                return readString(c);
+            case '{':
+            case '[':
+                back();
+                skipValue();
+                return null;
+            default:
+                back();
+                readToken();
+                if (scratchLength == 0) {
+                    throw syntaxError("Missing value");
+                }
+                return new String(scratch, 0, scratchLength, StandardCharsets.UTF_8);
+        }
+    }
+
+    private void skipValue() {
+        int c = nextClean();
+        switch (c) {
+            case '"':
+            case '\'':
+                readString(c);
+                return;
+            case '{':
+                skipObject();
+                return;
+            case '[':
+                skipArray();
+                return;
+            default:
+                back();
+                readToken();
+                if (scratchLength == 0) {
+                    throw syntaxError("Missing value");
+                }
+        }
+    }
+
+    private void skipObject() {
+        for (;;) {
+            int c = nextClean();
+            switch (c) {
+                case EOF:
+                    throw syntaxError("A JSONObject text must end with '}'");
+                case '}':
+                    return;
+                default:
+                    back();
+            }
+            readKey();
+            if (nextClean() != ':') {
+                throw syntaxError("Expected a ':' after a key");
+            }
+            skipValue();
+
+            switch (nextClean()) {
+                case ';':
+                case ',':
+                    if (nextClean() == '}') {
+                        return;
+                    }
+                    back();
+                    break;
+                case '}':
+                    return;
+                default:
+                    throw syntaxError("Expected a ',' or '}'");
+            }
+        }
+    }
+
+    private void skipArray() {
+        if (nextClean() == ']') {
+            return;
+        }
+        back();
+
+        for (;;) {
+            if (nextClean() != ',') {
+                back();
+                skipValue();
+            } else {
+                back();
+            }
+
+            switch (nextClean()) {
+                case ',':
+                    if (nextClean() == ']') {
+                        return;
+                    }
+                    back();
+                    break;
+                case ']':
+                    return;
+                default:
+                    throw syntaxError("Expected a ',' or ']'");
+            }
+        }
+    }
+
+    /**
+     * Read an unquoted token (number or literal) into the scratch buffer.
+     */
+    private void readToken() {
+        scratchLength = 0;
+        for (;;) {
+            int c = next();
+            if (c < ' ' || isDelimiter(c)) {
+                back();
+                trimScratch();
+                return;
+            }
+            appendScratch(c);
+        }
+    }
+
+    private String readString(int quote) {
+        scratchLength = 0;
+        for (;;) {
+            int c = next();
+            switch (c) {
+                case EOF:
+                case '\n':
+                case '\r':
+                    throw syntaxError("Unterminated string");
+                case '\\':
+                    readEscape();
+                    break;
+                default:
+                    if (c == quote) {
+                        return new String(scratch, 0, scratchLength, StandardCharsets.UTF_8);
+                    }
+                    appendScratch(c);
+            }
+        }
+    }
+
+    private void readEscape() {
+        int c = next();
+        switch (c) {
+            case 'b':
+                appendScratch('\b');
+                break;
+            case 't':
+                appendScratch('\t');
+                break;
+            case 'n':
+                appendScratch('\n');
+                break;
+            case 'f':
+                appendScratch('\f');
+                break;
+            case 'r':
+                appendScratch('\r');
+                break;
+            case 'u':
+                char[] hex = new char[4];
+                for (int i = 0; i < hex.length; i++) {
+                    int h = next();
+                    if (h == EOF) {
+                        throw syntaxError("Substring bounds error");
+                    }
+                    hex[i] = (char) h;
+                }
+                try {
+                    char unicode = (char) Integer.parseInt(new String(hex), 16);
+                    for (byte b : String.valueOf(unicode).getBytes(StandardCharsets.UTF_8)) {
+                        appendScratch(b & 0xff);
+                    }
+                } catch (NumberFormatException e) {
+                    throw syntaxError("Illegal escape.");
+                }
+                break;
+            case '"':
+            case '\'':
+            case '\\':
+            case '/':
+                appendScratch(c);
+                break;
+            default:
+                throw syntaxError("Illegal escape.");
+        }
+    }
+
+    private void appendScratch(int c) {
+        if (scratchLength == scratch.length) {
+            scratch = Arrays.copyOf(scratch, scratch.length * 2);
+        }
+        scratch[scratchLength++] = (byte) c;
+    }
+
+    private void trimScratch() {
+        while (scratchLength > 0 && scratch[scratchLength - 1] <= ' ') {
+            scratchLength--;
+        }
+    }
+
+    private static boolean isDelimiter(int c) {
+        switch (c) {
+            case ',':
+            case ':':
+            case ']':
+            case '}':
+            case '/':
+            case '\\':
+            case '"':
+            case '[':
+            case '{':
+            case ';':
+            case '=':
+            case '#':
+                return true;
+            default:
+                return false;
+        }
+    }
+
+    /**
+     * Parse a decimal number. Numbers with at most 15 significant digits and
+     * a small exponent are converted exactly from their long mantissa, which
+     * gives the same correctly rounded value as {@link Double#parseDouble}
+     * without allocating a String. Everything else falls back to it.
+     */
+    static double parseDouble(byte[] chars, int length) {
+        int i = 0;
+        boolean negative = false;
+        if (length > 0 && chars[0] == '-') {
+            negative = true;
+            i++;
+        }
+
+        long mantissa = 0;
+        int digits = 0;
+        int exponent = 0;
+        for (; i < length && isDigit(chars[i]); i++, digits++) {
+            mantissa = mantissa * 10 + (chars[i] - '0');
+        }
+        if (i < length && chars[i] == '.') {
+            for (i++; i < length && isDigit(chars[i]); i++, digits++) {
+                mantissa = mantissa * 10 + (chars[i] - '0');
+                exponent--;
+            }
+        }
+        if (i < length && (chars[i] == 'e' || chars[i] == 'E') && digits > 0) {
+            i++;
+            boolean negativeExponent = false;
+            if (i < length && (chars[i] == '-' || chars[i] == '+')) {
+                negativeExponent = chars[i] == '-';
+                i++;
+            }
+            int start = i;
+            int value = 0;
+            for (; i < length && isDigit(chars[i]) && i - start < 4; i++) {
+                value = value * 10 + (chars[i] - '0');
+            }
+            if (i == start) {
+                return fallback(chars, length);
+            }
+            exponent += negativeExponent ? -value : value;
+        }
+
+        if (i != length || digits == 0 || digits > MAX_FAST_DIGITS) {
+            return fallback(chars, length);
+        }
+
+        double value;
+        if (mantissa == 0) {
+            value = 0;
+        } else if (exponent >= 0 && exponent < POWERS_OF_TEN.length) {
+            value = mantissa * POWERS_OF_TEN[exponent];
+        } else if (exponent < 0 && -exponent < POWERS_OF_TEN.length) {
+            value = mantissa / POWERS_OF_TEN[-exponent];
+        } else {
+            return fallback(chars, length);
+        }
+        return negative ? -value : value;
+    }
+
+    private static double fallback(byte[] chars, int length) {
+        return Double.parseDouble(new String(chars, 0, length, StandardCharsets.ISO_8859_1));
+    }
+
+    private static boolean isDigit(byte c) {
+        return c >= '0' && c <= '9';
+    }
+
+    private int nextClean() {
+        for (;;) {
+            int c = next();
+            if (c == EOF || c > ' ') {
+                return c;
+            }
+        }
+    }
+
+    private int next() {
+        int c;
+        if (usePrevious) {
+            usePrevious = false;
+            c = previous;
+        } else {
+            c = read();
+        }
+
+        index++;
+        if (previous == '\r') {
+            line++;
+            character = c == '\n' ? 0 : 1;
+        } else if (c == '\n') {
+            line++;
+            character = 0;
+        } else {
+            character++;
+        }
+        previous = c;
+        if (recording != null) {
+            record(c);
+        }
+        return c;
+    }
+
+    private void back() {
+        index--;
+        character--;
+        usePrevious = true;
+        if (recording != null) {
+            recordingLength--;
+        }
+    }
+
+    private void record(int c) {
+        if (recordingLength == recording.length) {
+            recording = Arrays.copyOf(recording, recording.length * 2);
+        }
+        recording[recordingLength++] = (byte) c;
+    }
+
+    private int read() {
+        if (position == limit) {
+            try {
+                limit = in.read(buffer, 0, buffer.length);
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+            position = 0;
+            if (limit <= 0) {
+                limit = 0;
+                return EOF;
+            }
+        }
+        return buffer[position++] & 0xff;
+    }
+
+    private JSONException syntaxError(String message) {
+        return new JSONException(message + " at " + index
+            + " [character " + character + " line " + line + "]");
+    }
+
+    /**
+     * Values of a matrix, converted to the matrix only when the whole body
+     * is read, so syntax errors are reported first.
+     */
+    private interface MatrixValues {
+        Matrix toMatrix();
+    }
+
+    /**
+     * Growable list of the entries of a matrix.
+     */
+    private static final class CoordinateEntries implements MatrixValues {
+        private final long maxElements;
+        private int rows = -1, columns = -1;
+        private boolean present;
+        private int[] entryRows = new int[16];
+        private int[] entryColumns = new int[16];
+        private double[] entryValues = new double[16];
+        private int count;
+
+        CoordinateEntries(long maxElements) {
+            this.maxElements = maxElements;
+        }
+
+        void add(int row, int column, double value) {
+            if (count == entryValues.length) {
+                entryRows = Arrays.copyOf(entryRows, count * 2);
+                entryColumns = Arrays.copyOf(entryColumns, count * 2);
+                entryValues = Arrays.copyOf(entryValues, count * 2);
+            }
+            entryRows[count] = row;
+            entryColumns[count] = column;
+            entryValues[count++] = value;
+        }
+
+        @Override
+        public Matrix toMatrix() {
+            if (rows < 0) {
+                throw new JSONException("JSONObject[\"" + ROWS + "\"] not found.");
+            }
+            if (columns < 0) {
+                throw new JSONException("JSONObject[\"" + COLUMNS + "\"] not found.");
+            }
+            if (!present) {
+                throw new JSONException("JSONObject[\"" + ENTRIES + "\"] not found.");
+            }
+            if ((long) rows * columns > maxElements) {
+                throw new IllegalArgumentException(String.format(
+                    "Matrix %dx%d has too many elements.", rows, columns));
+            }
+            return Matrix.fromEntries(rows, columns, entryRows, entryColumns, entryValues, count);
+        }
+    }
+
+    /**
+     * Growable row-major storage. Values are appended to chunks which are
+     * concatenated only once at the end, so every value is copied at most
+     * once (and not at all when it fits into the first chunk exactly).
+     */
+    private static final class RowMajorValues implements MatrixValues {
+        private static final int MAX_CHUNK_SIZE = 1 << 20;
+
+        private final Fingerprint.Builder fingerprint = Fingerprint.builder();
+        private final List<double[]> chunks = new ArrayList<>();
+        private double[] chunk = new double[1024];
+        private int chunkSize;
+        private int[] rowLengths = new int[16];
+        private int rows;
+
+        void add(double value) {
+            if (chunkSize == chunk.length) {
+                chunks.add(chunk);
+                chunk = new double[Math.min(chunk.length * 2, MAX_CHUNK_SIZE)];
+                chunkSize = 0;
+            }
+            chunk[chunkSize++] = value;
+            fingerprint.add(value);
+        }
+
+        void endRow(int length) {
+            if (rows == rowLengths.length) {
+                rowLengths = Arrays.copyOf(rowLengths, rows * 2);
+            }
+            rowLengths[rows++] = length;
+        }
+
+        @Override
+        public Matrix toMatrix() {
+            double[] values = concatenate();
+            if (rows == 0) {
+                return Matrix.from(new double[0][]);
+            }
+
+            int columns = rowLengths[0];
+            for (int i = 1; i < rows; i++) {
+                if (rowLengths[i] != columns) {
+                    return Matrix.from(toJaggedRows(values));
+                }
+            }
+            return Matrix.from(rows, columns, values, fingerprint.build(rows, columns)).compact();
+        }
+
+        private double[] concatenate() {
+            if (chunks.isEmpty() && chunkSize == chunk.length) {
+                return chunk;
+            }
+
+            long size = chunkSize;
+            for (double[] full : chunks) {
+                size += full.length;
+            }
+            if (size > Integer.MAX_VALUE - 8) {
+                throw new IllegalArgumentException("matrix is too large");
+            }
+
+            double[] values = new double[(int) size];
+            int offset = 0;
+            for (double[] full : chunks) {
+                System.arraycopy(full, 0, values, offset, full.length);
+                offset += full.length;
+            }
+            System.arraycopy(chunk, 0, values, offset, chunkSize);
+            return values;
+        }
+
+        private double[][] toJaggedRows(double[] values) {
+            double[][] jagged = new double[rows][];
+            int offset = 0;
+            for (int i = 0; i < rows; i++) {
+                jagged[i] = Arrays.copyOfRange(values, offset, offset + rowLengths[i]);
+                offset += rowLengths[i];
+            }
+            return jagged;
+        }
+    }
+}
@@ -0,0 +1,45 @@
+package sk.bocko.matrixcalc.io;
+
+import static com.google.common.base.Preconditions.checkNotNull;
+import com.google.common.base.MoreObjects;
+import java.util.Collections;
+import java.util.Map;
+import org.json.JSONObject;
+import sk.bocko.matrixcalc.model.Matrix;
+
+/**
+ * Request body with matrices in its array members and other members, e.g.
+ * {"left": [[1,2],[3,4]], "right": "id"}.
+ */
+public final class MatrixOperands {
+    private final Map<String, Matrix> matrices;
+    private final JSONObject members;
+
+    MatrixOperands(final Map<String, Matrix> matrices, final JSONObject members) {
+        this.matrices = Collections.unmodifiableMap(checkNotNull(matrices, "matrices are null"));
+        this.members = checkNotNull(members, "members are null");
+    }
+
+    /**
+     * @param key name of the member
+     * @return matrix in the member or null if the member is not an array
+     */
+    public Matrix getMatrix(String key) {
+        return matrices.get(key);
+    }
+
+    /**
+     * @return members of the request body other than the matrices
+     */
+    public JSONObject getMembers() {
+        return members;
+    }
+
+    @Override
+    public String toString() {
+        return MoreObjects.toStringHelper(getClass().getSimpleName())
+            .add("matrices", matrices)
+            .add("members", members.keySet())
+            .toString();
+    }
+}
@@ -0,0 +1,39 @@
+package sk.bocko.matrixcalc.io;
+
+import static com.google.common.base.Preconditions.checkNotNull;
+import com.google.common.base.MoreObjects;
+import org.json.JSONObject;
+import sk.bocko.matrixcalc.model.Matrix;
+
+/**
+ * Request body with a matrix and other members, e.g.
+ * {"matrix": [[1,2],[3,4]], "operations": [...]}.
+ */
+public final class MatrixRequest {
+    private final Matrix matrix;
+    private final JSONObject members;
+
+    MatrixRequest(final Matrix matrix, final JSONObject members) {
+        this.matrix = checkNotNull(matrix, "matrix is null");
+        this.members = checkNotNull(members, "members are null");
+    }
+
+    public Matrix getMatrix() {
+        return matrix;
+    }
+
+    /**
+     * @return members of the request body other than the matrix
+     */
+    public JSONObject getMembers() {
+        return members;
+    }
+
+    @Override
+    public String toString() {
+        return MoreObjects.toStringHelper(getClass().getSimpleName())
+            .add("matrix", matrix)
+            .add("members", members.keySet())
+            .toString();
+    }
+}
@@ -0,0 +1,158 @@
+package sk.bocko.matrixcalc.log;
+
+import static com.google.common.base.Preconditions.checkArgument;
+import static com.google.common.base.Preconditions.checkNotNull;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.LockSupport;
+import java.util.function.Consumer;
+import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
+import org.apache.http.annotation.ThreadSafe;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+/**
+ * Structured access log written by a background thread.
+ *
+ * Request threads only capture the request details into an entry and put it
+ * into a lock-free ring buffer; formatting and writing happen on the
+ * "access-log" thread, which parks while the buffer is empty and is
+ * unparked by the next entry. When the buffer is full the entry is dropped and
+ * counted rather than blocking the request. Successful requests are sampled
+ * and their bodies above the size limit are truncated and hashed, errors are
+ * always logged with full detail.
+ */
+@Component
+@ThreadSafe
+public class AccessLog {
+    private static final long STOP_TIMEOUT_MILLIS = 5000;
+
+    private final RingBuffer<AccessLogEntry> buffer;
+    private final int maxBodyLength;
+    private final double successSampleRate;
+    private final Consumer<AccessLogEntry> sink;
+    private final AtomicLong dropped = new AtomicLong();
+    private volatile boolean running;
+    // set while the writer is about to park or parked, publishers unpark it
+    private volatile boolean parked;
+    private volatile Thread writer;
+
+    /**
+     * @param capacity number of entries waiting to be written, a power of two
+     * @param maxBodyLength number of characters of bodies and responses kept
+     * @param successSampleRate fraction of successful requests logged, 0 to 1
+     */
+    @Autowired
+    public AccessLog(
+        @Value("${matrixcalc.access-log.capacity:8192}") final int capacity,
+        @Value("${matrixcalc.access-log.max-body-length:1024}") final int maxBodyLength,
+        @Value("${matrixcalc.access-log.success-sample-rate:1.0}") final double successSampleRate) {
+        this(capacity, maxBodyLength, successSampleRate, AccessLog::write);
+    }
+
+    AccessLog(final int capacity, final int maxBodyLength,
+        final double successSampleRate, final Consumer<AccessLogEntry> sink) {
+        checkArgument(maxBodyLength >= 0, "max body length is negative");
+        checkArgument(successSampleRate >= 0 && successSampleRate <= 1,
+            "success sample rate %s is not between 0 and 1", successSampleRate);
+        this.buffer = new RingBuffer<>(capacity);
+        this.maxBodyLength = maxBodyLength;
+        this.successSampleRate = successSampleRate;
+        this.sink = checkNotNull(sink, "sink is null");
+    }
+
+    @PostConstruct
+    public synchronized void start() {
+        if (running) {
+            return;
+        }
+        running = true;
+        writer = new Thread(this::run, "access-log");
+        writer.setDaemon(true);
+        writer.start();
+    }
+
+    /**
+     * Stop the background thread after it writes the waiting entries.
+     */
+    @PreDestroy
+    public synchronized void stop() throws InterruptedException {
+        if (!running) {
+            return;
+        }
+        running = false;
+        LockSupport.unpark(writer);
+        writer.join(STOP_TIMEOUT_MILLIS);
+    }
+
+    /**
+     * @return number of entries dropped because the buffer was full
+     */
+    public long dropped() {
+        return dropped.get();
+    }
+
+    /**
+     * @return true if the next successful request should be logged
+     */
+    boolean sampleSuccess() {
+        return successSampleRate >= 1
+            || successSampleRate > 0 && ThreadLocalRandom.current().nextDouble() < successSampleRate;
+    }
+
+    int getMaxBodyLength() {
+        return maxBodyLength;
+    }
+
+    void publish(AccessLogEntry entry) {
+        if (!buffer.offer(entry)) {
+            dropped.incrementAndGet();
+        } else if (parked) {
+            LockSupport.unpark(writer);
+        }
+    }
+
+    /**
+     * Write all waiting entries on the calling thread.
+     * @return number of written entries
+     */
+    int drain() {
+        int written = 0;
+        for (AccessLogEntry entry = buffer.poll(); entry != null; entry = buffer.poll()) {
+            try {
+                sink.accept(entry);
+            } catch (RuntimeException e) {
+                LoggerFactory.getLogger(AccessLog.class)
+                    .warn("Access log entry could not be written.", e);
+            }
+            written++;
+        }
+        return written;
+    }
+
+    private void run() {
+        while (running) {
+            if (drain() == 0) {
+                parked = true;
+                // an entry published before the flag was seen is drained here
+                if (drain() == 0 && running) {
+                    LockSupport.park(this);
+                }
+                parked = false;
+            }
+        }
+        drain();
+    }
+
+    private static void write(AccessLogEntry entry) {
+        String line = entry.toJson().toString();
+        if (entry.isError()) {
+            LoggerFactory.getLogger(entry.getSource()).error(line);
+        } else {
+            LoggerFactory.getLogger(entry.getSource()).info(line);
+        }
+    }
+}
@@ -0,0 +1,109 @@
+package sk.bocko.matrixcalc.log;
+
+import com.google.common.hash.Hashing;
+import org.apache.http.annotation.Immutable;
+import org.json.JSONObject;
+
+/**
+ * One line of the access log. The request details are captured on the
+ * request thread, the line is formatted on the access log thread.
+ */
+@Immutable
+final class AccessLogEntry {
+    private final long timestamp;
+    private final Class<?> source;
+    private final boolean error;
+    private final String method, remoteHost, path, contentType;
+    private final Summary body, response;
+    private final String exception, message;
+
+    private AccessLogEntry(final Class<?> source, final boolean error,
+        final String method, final String remoteHost, final String path,
+        final String contentType, final Summary body, final Summary response,
+        final String exception, final String message) {
+        this.timestamp = System.currentTimeMillis();
+        this.source = source;
+        this.error = error;
+        this.method = method;
+        this.remoteHost = remoteHost;
+        this.path = path;
+        this.contentType = contentType;
+        this.body = body;
+        this.response = response;
+        this.exception = exception;
+        this.message = message;
+    }
+
+    static AccessLogEntry success(Class<?> source, String method, String remoteHost,
+        String path, String contentType, Summary body, Summary response) {
+        return new AccessLogEntry(source, false, method, remoteHost, path,
+            contentType, body, response, null, null);
+    }
+
+    static AccessLogEntry error(Class<?> source, String method, String remoteHost,
+        String path, String contentType, Exception e) {
+        return new AccessLogEntry(source, true, method, remoteHost, path,
+            contentType, null, null, e.getClass().getName(), e.getMessage());
+    }
+
+    Class<?> getSource() {
+        return source;
+    }
+
+    boolean isError() {
+        return error;
+    }
+
+    JSONObject toJson() {
+        JSONObject json = new JSONObject()
+            .put("timestamp", timestamp)
+            .put("outcome", error ? "error" : "success")
+            .put("method", method)
+            .put("remoteHost", remoteHost)
+            .put("path", path)
+            .put("contentType", contentType == null ? JSONObject.NULL : contentType);
+        if (error) {
+            return json
+                .put("exception", exception)
+                .put("message", message == null ? JSONObject.NULL : message);
+        }
+        body.putTo(json, "body");
+        response.putTo(json, "response");
+        return json;
+    }
+
+    /**
+     * Text kept in the log, long texts are truncated and identified by
+     * their length and hash.
+     */
+    @Immutable
+    static final class Summary {
+        private final String text;
+        private final int length;
+        private final String hash;
+
+        private Summary(final String text, final int length, final String hash) {
+            this.text = text;
+            this.length = length;
+            this.hash = hash;
+        }
+
+        static Summary of(String text, int maxLength) {
+            if (text == null) {
+                return new Summary(null, 0, null);
+            }
+            if (text.length() <= maxLength) {
+                return new Summary(text, text.length(), null);
+            }
+            return new Summary(text.substring(0, maxLength), text.length(),
+                Hashing.murmur3_128().hashUnencodedChars(text).toString());
+        }
+
+        private void putTo(JSONObject json, String key) {
+            json.put(key, text == null ? JSONObject.NULL : text);
+            if (hash != null) {
+                json.put(key + "Length", length).put(key + "Hash", hash);
+            }
+        }
+    }
+}
@@ -2,40 +2,50 @@ package sk.bocko.matrixcalc.log;
 
 import static com.google.common.base.Preconditions.checkNotNull;
 import javax.servlet.http.HttpServletRequest;
-import org.slf4j.Logger;
-import org.slf4j.LoggerFactory;
+import sk.bocko.matrixcalc.log.AccessLogEntry.Summary;
 
+/**
+ * Logs the requests of a controller to the {@link AccessLog}.
+ */
 public class RequestLogger {
 
-    private final Logger log;
+    private final Class<?> source;
+    private final AccessLog accessLog;
 
-    public RequestLogger(final Class<?> clazz) {
-        checkNotNull(clazz, "class is null");
-        this.log = LoggerFactory.getLogger(clazz);
+    public RequestLogger(final Class<?> clazz, final AccessLog accessLog) {
+        this.source = checkNotNull(clazz, "class is null");
+        this.accessLog = checkNotNull(accessLog, "access log is null");
     }
 
-    public void logSuccessfulResponse(HttpServletRequest request, String body, String response) {
+    /**
+     * Log a successful request if it is sampled. Body and response are
+     * converted to strings only then, so they should be passed as they are.
+     */
+    public void logSuccessfulResponse(HttpServletRequest request, Object body, Object response) {
         checkNotNull(request, "request is null");
 
-        log.info(String.format("Returned response: %s for %s request from %s for path %s content type %s body %s.",
-            response,
+        if (!accessLog.sampleSuccess()) {
+            return;
+        }
+        int maxLength = accessLog.getMaxBodyLength();
+        accessLog.publish(AccessLogEntry.success(source,
             request.getMethod(),
             request.getRemoteHost(),
             request.getServletPath(),
             request.getHeader("content-type"),
-            body));
+            Summary.of(body == null ? null : body.toString(), maxLength),
+            Summary.of(response == null ? null : response.toString(), maxLength)));
     }
 
     public void logError(HttpServletRequest request, Exception e) {
         checkNotNull(request, "request is null");
         checkNotNull(e, "exception is null");
 
-        log.error(String.format("Exception with message: %s thrown while "
-                + "processing %s request from %s for path %s content type %s.",
-            e.getMessage(),
+        accessLog.publish(AccessLogEntry.error(source,
             request.getMethod(),
             request.getRemoteHost(),
             request.getServletPath(),
-            request.getHeader("content-type")));
+            request.getHeader("content-type"),
+            e));
     }
 }
@@ -0,0 +1,90 @@
+package sk.bocko.matrixcalc.log;
+
+import static com.google.common.base.Preconditions.checkArgument;
+import static com.google.common.base.Preconditions.checkNotNull;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import org.apache.http.annotation.ThreadSafe;
+
+/**
+ * Bounded lock-free queue on a ring of slots (D. Vyukov's bounded MPMC
+ * queue). Every slot has a sequence number which tells producers and
+ * consumers whether it is free or filled for the current lap, so neither
+ * of them ever blocks: a full buffer rejects the element, an empty one
+ * returns null.
+ */
+@ThreadSafe
+final class RingBuffer<E> {
+    private final AtomicReferenceArray<E> elements;
+    private final AtomicLongArray sequences;
+    private final int mask;
+    private final AtomicLong tail = new AtomicLong();
+    private final AtomicLong head = new AtomicLong();
+
+    /**
+     * @param capacity number of slots, a power of two
+     */
+    RingBuffer(final int capacity) {
+        checkArgument(capacity > 0 && Integer.bitCount(capacity) == 1,
+            "capacity %s is not a power of two", capacity);
+        this.elements = new AtomicReferenceArray<>(capacity);
+        this.sequences = new AtomicLongArray(capacity);
+        this.mask = capacity - 1;
+        for (int i = 0; i < capacity; i++) {
+            sequences.set(i, i);
+        }
+    }
+
+    /**
+     * Add an element if there is a free slot.
+     * @param element element to add
+     * @return false if the buffer is full
+     */
+    boolean offer(E element) {
+        checkNotNull(element, "element is null");
+
+        long position = tail.get();
+        for (;;) {
+            int index = (int) position & mask;
+            long difference = sequences.get(index) - position;
+            if (difference == 0) {
+                if (tail.compareAndSet(position, position + 1)) {
+                    elements.set(index, element);
+                    sequences.set(index, position + 1);
+                    return true;
+                }
+            } else if (difference < 0) {
+                return false;
+            }
+            position = tail.get();
+        }
+    }
+
+    /**
+     * Remove the oldest element.
+     * @return the oldest element or null if the buffer is empty
+     */
+    E poll() {
+        long position = head.get();
+        for (;;) {
+            int index = (int) position & mask;
+            long difference = sequences.get(index) - (position + 1);
+            if (difference == 0) {
+                if (head.compareAndSet(position, position + 1)) {
+                    E element = elements.get(index);
+                    elements.set(index, null);
+                    sequences.set(index, position + mask + 1);
+                    return element;
+                }
+            } else if (difference < 0) {
+                return null;
+            }
+            position = head.get();
+        }
+    }
+
+    int capacity() {
+        return mask + 1;
+    }
+}
@@ -0,0 +1,19 @@
+package sk.bocko.matrixcalc.metrics;
+
+/**
+ * Stages of processing a request whose latency is recorded.
+ */
+public enum Stage {
+    /** reading the matrix from the request body */
+    PARSE,
+    /** getting the values of the requested range */
+    EXTRACT,
+    /** applying the operation on the values */
+    REDUCE,
+    /** writing the result */
+    SERIALIZE;
+
+    String label() {
+        return name().toLowerCase();
+    }
+}
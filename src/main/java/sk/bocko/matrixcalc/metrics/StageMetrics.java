@@ -0,0 +1,130 @@
+package sk.bocko.matrixcalc.metrics;
+
+import static com.google.common.base.Preconditions.checkNotNull;
+import java.util.EnumMap;
+import java.util.Locale;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import org.apache.http.annotation.ThreadSafe;
+import org.springframework.stereotype.Component;
+import sk.bocko.matrixcalc.model.Matrix;
+
+/**
+ * Latency of the request processing {@link Stage}s by operation and
+ * matrix size, exposed in the Prometheus text format.
+ *
+ * Matrix sizes are bucketed by decades of the number of elements, e.g. the
+ * bucket "1e4" holds matrices with more than 1000 and at most 10000
+ * elements. A histogram is created on the first recording for its stage,
+ * operation and size, so recording on a warm path neither locks nor
+ * allocates.
+ */
+@Component
+@ThreadSafe
+public class StageMetrics {
+    static final String NAME = "matrixcalc_stage_latency_seconds";
+    private static final double[] QUANTILES = {0.5, 0.9, 0.99, 0.999};
+    private static final int SIZE_BUCKETS = 11;
+    private static final double NANOS_PER_SECOND = 1e9;
+
+    private final Map<Stage, ConcurrentMap<String, AtomicReferenceArray<LatencyHistogram>>>
+        histograms = new EnumMap<>(Stage.class);
+
+    public StageMetrics() {
+        for (Stage stage : Stage.values()) {
+            histograms.put(stage, new ConcurrentHashMap<>());
+        }
+    }
+
+    /**
+     * Record the latency of a stage which started at startNanos.
+     * @param stage processing stage
+     * @param operation name of the operation, e.g. sum
+     * @param matrix matrix of the request
+     * @param startNanos {@link System#nanoTime()} at the start of the stage
+     */
+    public void record(Stage stage, String operation, Matrix matrix, long startNanos) {
+        long nanos = System.nanoTime() - startNanos;
+        checkNotNull(stage, "stage is null");
+        checkNotNull(operation, "operation is null");
+        checkNotNull(matrix, "matrix is null");
+
+        histogram(stage, operation, (long) matrix.getRows() * matrix.getColumns())
+            .record(nanos);
+    }
+
+    /**
+     * @return all histograms as Prometheus summaries
+     */
+    public String toPrometheusText() {
+        StringBuilder text = new StringBuilder()
+            .append("# HELP ").append(NAME)
+            .append(" Latency of request processing stages by operation and matrix size.\n")
+            .append("# TYPE ").append(NAME).append(" summary\n");
+
+        histograms.forEach((stage, byOperation) ->
+            new TreeMap<>(byOperation).forEach((operation, bySize) -> {
+                for (int size = 0; size < SIZE_BUCKETS; size++) {
+                    LatencyHistogram histogram = bySize.get(size);
+                    if (histogram != null) {
+                        append(text, labels(stage, operation, size), histogram);
+                    }
+                }
+            }));
+        return text.toString();
+    }
+
+    LatencyHistogram histogram(Stage stage, String operation, long elements) {
+        AtomicReferenceArray<LatencyHistogram> bySize = histograms.get(stage)
+            .computeIfAbsent(operation, key -> new AtomicReferenceArray<>(SIZE_BUCKETS));
+        int size = sizeBucket(elements);
+        LatencyHistogram histogram = bySize.get(size);
+        if (histogram == null) {
+            bySize.compareAndSet(size, null, new LatencyHistogram());
+            histogram = bySize.get(size);
+        }
+        return histogram;
+    }
+
+    /**
+     * @return decade of the number of elements, 10^bucket is its upper bound
+     */
+    static int sizeBucket(long elements) {
+        int bucket = 0;
+        for (long bound = 1; bound < elements && bucket < SIZE_BUCKETS - 1; bound *= 10) {
+            bucket++;
+        }
+        return bucket;
+    }
+
+    private static String labels(Stage stage, String operation, int size) {
+        return String.format("stage=\"%s\",operation=\"%s\",size=\"1e%d\"",
+            stage.label(), escape(operation), size);
+    }
+
+    private static void append(StringBuilder text, String labels, LatencyHistogram histogram) {
+        long count = histogram.count();
+        long sum = histogram.sum();
+        long[] values = histogram.valuesAtQuantiles(QUANTILES);
+        for (int i = 0; i < QUANTILES.length; i++) {
+            text.append(NAME).append('{').append(labels)
+                .append(",quantile=\"").append(QUANTILES[i]).append("\"} ")
+                .append(seconds(values[i])).append('\n');
+        }
+        text.append(NAME).append("_sum{").append(labels).append("} ")
+            .append(seconds(sum)).append('\n');
+        text.append(NAME).append("_count{").append(labels).append("} ")
+            .append(count).append('\n');
+    }
+
+    private static String seconds(long nanos) {
+        return String.format(Locale.ROOT, "%.9f", nanos / NANOS_PER_SECOND);
+    }
+
+    private static String escape(String label) {
+        return label.replace("\\", "\\\\").replace("\"", "\\\"").replace("\n", "\\n");
+    }
+}
@@ -0,0 +1,194 @@
+package sk.bocko.matrixcalc.model;
+
+import java.util.Arrays;
+import org.apache.http.annotation.Immutable;
+
+/**
+ * Sum, minimum and maximum of every row, every column and the whole matrix,
+ * so ranged operations on them are answered in constant time.
+ *
+ * The index is built in a single row-major sweep. Sums use the same
+ * {@link KahanSum} in the same order as {@link RangedOperation}, so the results
+ * are exactly the ones of a linear reduction. Indexes of sparse matrices
+ * are built from the reductions of their rows and columns, in time
+ * proportional to the non-zeros.
+ */
+@Immutable
+final class AggregateIndex {
+    private final int rows, columns;
+    private final double[] rowSums, rowMinimums, rowMaximums;
+    private final double[] columnSums, columnMinimums, columnMaximums;
+    private final double sum, minimum, maximum;
+
+    private AggregateIndex(final int rows, final int columns, final double[] values) {
+        this.rows = rows;
+        this.columns = columns;
+        rowSums = new double[rows];
+        rowMinimums = new double[rows];
+        rowMaximums = new double[rows];
+        columnSums = new double[columns];
+        columnMinimums = filled(columns, Double.POSITIVE_INFINITY);
+        columnMaximums = filled(columns, Double.NEGATIVE_INFINITY);
+        double[] columnCompensations = new double[columns];
+
+        KahanSum totalSum = new KahanSum();
+        for (int i = 0, j = 0; i < rows; i++) {
+            KahanSum rowSum = new KahanSum();
+            double rowMinimum = Double.POSITIVE_INFINITY;
+            double rowMaximum = Double.NEGATIVE_INFINITY;
+            for (int k = 0; k < columns; k++, j++) {
+                double value = values[j];
+                rowSum.add(value);
+                KahanSum.add(columnSums, columnCompensations, k, value);
+                totalSum.add(value);
+
+                rowMinimum = minimum(rowMinimum, value);
+                rowMaximum = maximum(rowMaximum, value);
+                columnMinimums[k] = minimum(columnMinimums[k], value);
+                columnMaximums[k] = maximum(columnMaximums[k], value);
+            }
+            rowSums[i] = rowSum.value();
+            rowMinimums[i] = rowMinimum;
+            rowMaximums[i] = rowMaximum;
+        }
+
+        for (int k = 0; k < columns; k++) {
+            columnSums[k] += columnCompensations[k];
+        }
+        sum = totalSum.value();
+        minimum = minimum(rowMinimums);
+        maximum = maximum(rowMaximums);
+    }
+
+    private AggregateIndex(final int rows, final int columns, final SparseValues sparse) {
+        this.rows = rows;
+        this.columns = columns;
+        rowSums = new double[rows];
+        rowMinimums = new double[rows];
+        rowMaximums = new double[rows];
+        for (int i = 0; i < rows; i++) {
+            MatrixView row = sparse.row(i);
+            rowSums[i] = RangedOperation.SUM.apply(row);
+            rowMinimums[i] = RangedOperation.MINIMUM.apply(row);
+            rowMaximums[i] = RangedOperation.MAXIMUM.apply(row);
+        }
+        columnSums = new double[columns];
+        columnMinimums = new double[columns];
+        columnMaximums = new double[columns];
+        for (int j = 0; j < columns; j++) {
+            MatrixView column = sparse.column(j);
+            columnSums[j] = RangedOperation.SUM.apply(column);
+            columnMinimums[j] = RangedOperation.MINIMUM.apply(column);
+            columnMaximums[j] = RangedOperation.MAXIMUM.apply(column);
+        }
+
+        sum = RangedOperation.SUM.apply(sparse.whole());
+        minimum = minimum(rowMinimums);
+        maximum = maximum(rowMaximums);
+    }
+
+    /**
+     * Build an index of values in row-major order.
+     * @param rows number of rows
+     * @param columns number of columns
+     * @param values rows * columns values
+     * @return a new index
+     */
+    static AggregateIndex of(int rows, int columns, double[] values) {
+        return new AggregateIndex(rows, columns, values);
+    }
+
+    /**
+     * Build an index of a sparse matrix.
+     * @param rows number of rows
+     * @param columns number of columns
+     * @param sparse non-zeros of the matrix
+     * @return a new index
+     */
+    static AggregateIndex of(int rows, int columns, SparseValues sparse) {
+        return new AggregateIndex(rows, columns, sparse);
+    }
+
+    /**
+     * @return approximate number of bytes taken by an index of the matrix
+     */
+    static long sizeInBytes(int rows, int columns) {
+        return 3L * Double.BYTES * ((long) rows + columns);
+    }
+
+    /**
+     * Ranges must be valid for the matrix, see {@link Matrix#getRange}.
+     */
+    double sum(Range range) {
+        if (range.isWholeMatrix()) {
+            return sum;
+        }
+        return range.isRow()
+            ? rowSums[range.getValue() - 1]
+            : columnSums[range.getValue() - 1];
+    }
+
+    double minimum(Range range) {
+        if (range.isWholeMatrix()) {
+            return minimum;
+        }
+        return range.isRow()
+            ? rowMinimums[range.getValue() - 1]
+            : columnMinimums[range.getValue() - 1];
+    }
+
+    double maximum(Range range) {
+        if (range.isWholeMatrix()) {
+            return maximum;
+        }
+        return range.isRow()
+            ? rowMaximums[range.getValue() - 1]
+            : columnMaximums[range.getValue() - 1];
+    }
+
+    int count(Range range) {
+        if (range.isWholeMatrix()) {
+            return rows * columns;
+        }
+        return range.isRow() ? columns : rows;
+    }
+
+    /**
+     * Same result as the {@link RangedOperation#MINIMUM} kernel, NaN wins.
+     */
+    private static double minimum(double minimum, double value) {
+        if (value < minimum) {
+            return value;
+        }
+        return value != value ? value : minimum;
+    }
+
+    private static double maximum(double maximum, double value) {
+        if (value > maximum) {
+            return value;
+        }
+        return value != value ? value : maximum;
+    }
+
+    private static double minimum(double[] minimums) {
+        double result = Double.POSITIVE_INFINITY;
+        for (double value : minimums) {
+            result = minimum(result, value);
+        }
+        return result;
+    }
+
+    private static double maximum(double[] maximums) {
+        double result = Double.NEGATIVE_INFINITY;
+        for (double value : maximums) {
+            result = maximum(result, value);
+        }
+        return result;
+    }
+
+    private static double[] filled(int length, double value) {
+        double[] array = new double[length];
+        Arrays.fill(array, value);
+        return array;
+    }
+}
@@ -0,0 +1,215 @@
+package sk.bocko.matrixcalc.model;
+
+import java.util.BitSet;
+import org.apache.http.annotation.NotThreadSafe;
+
+/**
+ * Segment tree of sums, minimums and maximums of the values of a matrix
+ * taken in row-major or in column-major order.
+ *
+ * A leaf covers {@link #LEAF} consecutive values, so the tree takes a small
+ * fraction of the memory of the values. A run of consecutive values is
+ * reduced from O(log n) nodes plus at most two partial leaves, and a
+ * changed value is propagated by reducing its leaf again and walking up
+ * to the root. Sums are compensated by {@link KahanSum} like the ones of
+ * the kernels, the nodes keep their compensations, so a sum is the same as
+ * the one of a linear reduction unless the compensation itself is rounded
+ * (a range mixing values of far apart magnitudes which cancel); minimums
+ * and maximums are exact, NaN wins.
+ *
+ * The tree does not keep the values, they are passed to every method and
+ * must not change unless the tree is updated.
+ */
+@NotThreadSafe
+final class AggregateTree {
+    static final int LEAF = 64;
+    // a stack of right nodes deep enough for any tree over int indices
+    private static final int MAX_DEPTH = 32;
+
+    private final int rows, columns;
+    private final boolean byColumns;
+    private final int leaves, length;
+    // node 1 is the root, the children of node k are 2k and 2k + 1
+    private final double[] sums, compensations, minimums, maximums;
+
+    /**
+     * Build a tree of values in row-major order.
+     * @param byColumns true to reduce the values in column-major order
+     */
+    AggregateTree(final int rows, final int columns, final boolean byColumns,
+        final double[] values) {
+        this.rows = rows;
+        this.columns = columns;
+        this.byColumns = byColumns;
+        this.length = Math.multiplyExact(rows, columns);
+        this.leaves = leavesOf(length);
+        sums = new double[2 * leaves];
+        compensations = new double[2 * leaves];
+        minimums = new double[2 * leaves];
+        maximums = new double[2 * leaves];
+
+        for (int leaf = 0; leaf < leaves; leaf++) {
+            reduceLeaf(values, leaf);
+        }
+        for (int node = leaves - 1; node > 0; node--) {
+            combine(node);
+        }
+    }
+
+    /**
+     * @return approximate number of bytes taken by a tree of the matrix
+     */
+    static long sizeInBytes(int rows, int columns) {
+        return 8L * Double.BYTES * leavesOf(Math.multiplyExact(rows, columns));
+    }
+
+    /**
+     * @param row 0-indexed row
+     * @param column 0-indexed column
+     * @return leaf covering the value
+     */
+    int leafOf(int row, int column) {
+        return (byColumns ? column * rows + row : row * columns + column) / LEAF;
+    }
+
+    /**
+     * Reduce the changed leaves again and propagate them to the root.
+     * @param values values with the changes
+     * @param changed leaves covering a changed value
+     */
+    void update(double[] values, BitSet changed) {
+        BitSet nodes = new BitSet();
+        for (int leaf = changed.nextSetBit(0); leaf >= 0; leaf = changed.nextSetBit(leaf + 1)) {
+            reduceLeaf(values, leaf);
+            nodes.set((leaves + leaf) >>> 1);
+        }
+        // a level at a time, so every node is combined once
+        while (nodes.nextSetBit(1) > 0) {
+            BitSet parents = new BitSet();
+            for (int node = nodes.nextSetBit(1); node > 0; node = nodes.nextSetBit(node + 1)) {
+                combine(node);
+                parents.set(node >>> 1);
+            }
+            nodes = parents;
+        }
+    }
+
+    /**
+     * Reduce values from..to in the order of the tree, excluding the last one.
+     * @param values values of the matrix
+     * @param aggregate aggregate to add the values to
+     */
+    void reduce(double[] values, int from, int to, Aggregate aggregate) {
+        if (to - from <= 2 * LEAF) {
+            addValues(values, from, to, aggregate);
+            return;
+        }
+
+        int first = (from + LEAF - 1) / LEAF;
+        int last = to / LEAF;
+        addValues(values, from, first * LEAF, aggregate);
+
+        // left nodes are added on the way up, right ones in reverse afterwards
+        int[] right = new int[MAX_DEPTH];
+        int count = 0;
+        for (int l = first + leaves, r = last + leaves; l < r; l >>>= 1, r >>>= 1) {
+            if ((l & 1) == 1) {
+                aggregate.add(sums[l], compensations[l], minimums[l], maximums[l]);
+                l++;
+            }
+            if ((r & 1) == 1) {
+                right[count++] = --r;
+            }
+        }
+        while (count > 0) {
+            int node = right[--count];
+            aggregate.add(sums[node], compensations[node], minimums[node], maximums[node]);
+        }
+
+        addValues(values, last * LEAF, to, aggregate);
+    }
+
+    private static int leavesOf(int length) {
+        int leaves = 1;
+        while ((long) leaves * LEAF < length) {
+            leaves <<= 1;
+        }
+        return leaves;
+    }
+
+    private void addValues(double[] values, int from, int to, Aggregate aggregate) {
+        if (!byColumns) {
+            for (int i = from; i < to; i++) {
+                aggregate.add(values[i]);
+            }
+            return;
+        }
+        for (int i = from; i < to; i++) {
+            aggregate.add(values[i % rows * columns + i / rows]);
+        }
+    }
+
+    private void reduceLeaf(double[] values, int leaf) {
+        Aggregate aggregate = new Aggregate();
+        int from = Math.min(leaf * LEAF, length);
+        addValues(values, from, Math.min(from + LEAF, length), aggregate);
+        int node = leaves + leaf;
+        sums[node] = aggregate.sum.sum();
+        compensations[node] = aggregate.sum.compensation();
+        minimums[node] = aggregate.minimum;
+        maximums[node] = aggregate.maximum;
+    }
+
+    private void combine(int node) {
+        Aggregate aggregate = new Aggregate();
+        for (int child = 2 * node; child <= 2 * node + 1; child++) {
+            aggregate.add(sums[child], compensations[child], minimums[child], maximums[child]);
+        }
+        sums[node] = aggregate.sum.sum();
+        compensations[node] = aggregate.sum.compensation();
+        minimums[node] = aggregate.minimum;
+        maximums[node] = aggregate.maximum;
+    }
+
+    /**
+     * Sum, minimum and maximum of values added in order.
+     */
+    static final class Aggregate {
+        private final KahanSum sum = new KahanSum();
+        private double minimum = Double.POSITIVE_INFINITY;
+        private double maximum = Double.NEGATIVE_INFINITY;
+
+        void add(double value) {
+            sum.add(value);
+            addExtremes(value, value);
+        }
+
+        private void add(double nodeSum, double nodeCompensation,
+            double nodeMinimum, double nodeMaximum) {
+            sum.add(nodeSum, nodeCompensation);
+            addExtremes(nodeMinimum, nodeMaximum);
+        }
+
+        // the first of equal values is kept, a NaN is never replaced
+        private void addExtremes(double otherMinimum, double otherMaximum) {
+            if (otherMinimum < minimum || otherMinimum != otherMinimum && minimum == minimum) {
+                minimum = otherMinimum;
+            }
+            if (otherMaximum > maximum || otherMaximum != otherMaximum && maximum == maximum) {
+                maximum = otherMaximum;
+            }
+        }
+
+        double sum() {
+            return sum.value();
+        }
+
+        double minimum() {
+            return minimum;
+        }
+
+        double maximum() {
+            return maximum;
+        }
+    }
+}
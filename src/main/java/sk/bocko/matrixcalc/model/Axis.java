@@ -0,0 +1,142 @@
+package sk.bocko.matrixcalc.model;
+
+import static com.google.common.base.Preconditions.checkNotNull;
+import java.util.Arrays;
+
+/**
+ * Direction of a reduction of every row or every column at once.
+ *
+ * Rows of dense matrices are contiguous, so they are reduced one after
+ * another. Columns of dense matrices are reduced in a single row-major
+ * sweep updating one accumulator per column, instead of walking every
+ * column with a stride of the row length. The accumulators follow the
+ * {@link RangedOperation} kernels value by value, so every result is
+ * exactly the one of the corresponding row or column range. Indexed and
+ * sparse matrices are reduced range by range, which takes time
+ * proportional to the rows (or columns) and the non-zeros. So are the
+ * statistical operations, which need more than one accumulator per column.
+ */
+public enum Axis {
+    ROWS,
+    COLUMNS;
+
+    /**
+     * Obtain an instance from corresponding String value.
+     *
+     * @param name name of the axis -> rows, columns
+     * @return {@link Axis} instance
+     */
+    public static Axis from(String name) {
+        checkNotNull(name, "name of the axis is null");
+
+        switch (name) {
+            case "rows":
+                return ROWS;
+            case "columns":
+                return COLUMNS;
+            default:
+                throw new IllegalArgumentException(
+                    String.format("Unsupported axis '%s'", name));
+        }
+    }
+
+    /**
+     * Reduce every row or every column of the matrix.
+     * @param operation operation to apply
+     * @param matrix matrix to reduce
+     * @return a column vector with a result per row, or a row vector with
+     * a result per column
+     */
+    public Matrix apply(RangedOperation operation, Matrix matrix) {
+        checkNotNull(operation, "operation is null");
+        checkNotNull(matrix, "matrix is null");
+
+        int lines = this == ROWS ? matrix.getRows() : matrix.getColumns();
+        double[] result;
+        if (this == COLUMNS && !matrix.isSparse() && isSwept(operation)
+            && !(operation.isIndexed() && matrix.aggregates() != null)) {
+            result = columns(operation, matrix.denseValues(), matrix.getRows(), lines);
+        } else {
+            result = new double[lines];
+            for (int i = 0; i < lines; i++) {
+                Range line = this == ROWS ? Range.ofRow(i + 1) : Range.ofColumn(i + 1);
+                result[i] = operation.apply(matrix, line);
+            }
+        }
+        return this == ROWS
+            ? Matrix.from(lines, 1, result)
+            : Matrix.from(1, lines, result);
+    }
+
+    private static boolean isSwept(RangedOperation operation) {
+        switch (operation) {
+            case SUM:
+            case AVERAGE:
+            case PRODUCT:
+            case MINIMUM:
+            case MAXIMUM:
+                return true;
+            default:
+                return false;
+        }
+    }
+
+    /**
+     * Reduce the columns of values in row-major order in a single sweep.
+     */
+    private static double[] columns(RangedOperation operation, double[] values,
+        int rows, int columns) {
+        double[] result = new double[columns];
+        switch (operation) {
+            case SUM:
+            case AVERAGE:
+                // compensated sum of every column, as in the kernel
+                double[] compensations = new double[columns];
+                for (int i = 0, j = 0; i < rows; i++) {
+                    for (int k = 0; k < columns; k++, j++) {
+                        KahanSum.add(result, compensations, k, values[j]);
+                    }
+                }
+                for (int k = 0; k < columns; k++) {
+                    result[k] += compensations[k];
+                    if (operation == RangedOperation.AVERAGE) {
+                        result[k] /= rows;
+                    }
+                }
+                return result;
+            case PRODUCT:
+                Arrays.fill(result, 1);
+                for (int i = 0, j = 0; i < rows; i++) {
+                    for (int k = 0; k < columns; k++, j++) {
+                        result[k] *= values[j];
+                    }
+                }
+                return result;
+            case MINIMUM:
+                Arrays.fill(result, Double.POSITIVE_INFINITY);
+                for (int i = 0, j = 0; i < rows; i++) {
+                    for (int k = 0; k < columns; k++, j++) {
+                        double value = values[j];
+                        // a NaN minimum stays NaN, as the kernel stops on it
+                        if (value < result[k] || value != value) {
+                            result[k] = value;
+                        }
+                    }
+                }
+                return result;
+            case MAXIMUM:
+                Arrays.fill(result, Double.NEGATIVE_INFINITY);
+                for (int i = 0, j = 0; i < rows; i++) {
+                    for (int k = 0; k < columns; k++, j++) {
+                        double value = values[j];
+                        if (value > result[k] || value != value) {
+                            result[k] = value;
+                        }
+                    }
+                }
+                return result;
+            default:
+                throw new IllegalStateException("unsupported operation " + operation);
+        }
+    }
+}
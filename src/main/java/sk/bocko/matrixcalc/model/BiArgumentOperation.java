@@ -1,20 +1,66 @@
 package sk.bocko.matrixcalc.model;
 
+import static com.google.common.base.Preconditions.checkArgument;
 import static com.google.common.base.Preconditions.checkNotNull;
-import java.util.function.BiFunction;
+import java.util.Optional;
+import java.util.function.DoubleBinaryOperator;
 
 /**
  * Supported binary operations.
+ *
+ * Besides a single pair of operands, every operation can be applied
+ * element-wise on two views or matrices of the same size. The element-wise
+ * loops are written for each operation so that the operator gets inlined.
  */
 public enum BiArgumentOperation {
-    ADDITION((first, second) -> first + second),
-    SUBTRACTION((first, second) -> first - second),
-    MULTIPLICATION((first, second) -> first * second),
-    DIVISION((first, second) -> first / second);
+    ADDITION((first, second) -> first + second) {
+        @Override
+        void apply(double[] first, int firstOffset, int firstStride,
+            double[] second, int secondOffset, int secondStride,
+            double[] result, int length) {
+            for (int i = 0, j = firstOffset, k = secondOffset; i < length;
+                i++, j += firstStride, k += secondStride) {
+                result[i] = first[j] + second[k];
+            }
+        }
+    },
+    SUBTRACTION((first, second) -> first - second) {
+        @Override
+        void apply(double[] first, int firstOffset, int firstStride,
+            double[] second, int secondOffset, int secondStride,
+            double[] result, int length) {
+            for (int i = 0, j = firstOffset, k = secondOffset; i < length;
+                i++, j += firstStride, k += secondStride) {
+                result[i] = first[j] - second[k];
+            }
+        }
+    },
+    MULTIPLICATION((first, second) -> first * second) {
+        @Override
+        void apply(double[] first, int firstOffset, int firstStride,
+            double[] second, int secondOffset, int secondStride,
+            double[] result, int length) {
+            for (int i = 0, j = firstOffset, k = secondOffset; i < length;
+                i++, j += firstStride, k += secondStride) {
+                result[i] = first[j] * second[k];
+            }
+        }
+    },
+    DIVISION((first, second) -> first / second) {
+        @Override
+        void apply(double[] first, int firstOffset, int firstStride,
+            double[] second, int secondOffset, int secondStride,
+            double[] result, int length) {
+            for (int i = 0, j = firstOffset, k = secondOffset; i < length;
+                i++, j += firstStride, k += secondStride) {
+                result[i] = first[j] / second[k];
+            }
+        }
+    };
 
-    private final BiFunction<Double, Double, Double> operation;
+    private final DoubleBinaryOperator operation;
 
-    BiArgumentOperation(BiFunction<Double, Double, Double> operation) {
+    BiArgumentOperation(DoubleBinaryOperator operation) {
         this.operation = operation;
     }
 
@@ -42,7 +88,68 @@ public enum BiArgumentOperation {
         }
     }
 
-    public BiFunction<Double, Double, Double> getOperation() {
+    public DoubleBinaryOperator getOperation() {
         return operation;
     }
+
+    /**
+     * Apply the operation on a pair of operands.
+     * @param first first operand
+     * @param second second operand
+     * @return result of the operation
+     */
+    public double apply(double first, double second) {
+        return operation.applyAsDouble(first, second);
+    }
+
+    /**
+     * Apply the operation element-wise on two views of the same length.
+     * @param first view with first operands
+     * @param second view with second operands
+     * @return a new array with results, result[i] = first[i] op second[i]
+     */
+    public double[] apply(MatrixView first, MatrixView second) {
+        checkNotNull(first, "first view is null");
+        checkNotNull(second, "second view is null");
+        checkArgument(first.length == second.length,
+            "Ranges with %s and %s elements can not be combined.",
+            first.length, second.length);
+
+        // element-wise results of sparse operands are dense in general
+        MatrixView left = first.toDense();
+        MatrixView right = second.toDense();
+        double[] result = new double[first.length];
+        apply(left.values, left.offset, left.stride,
+            right.values, right.offset, right.stride,
+            result, result.length);
+        return result;
+    }
+
+    /**
+     * Apply the operation element-wise on two matrices of the same size.
+     * @param first matrix with first operands
+     * @param second matrix with second operands
+     * @return a new matrix with results
+     */
+    public Matrix apply(Matrix first, Matrix second) {
+        checkNotNull(first, "first matrix is null");
+        checkNotNull(second, "second matrix is null");
+        checkArgument(first.getRows() == second.getRows()
+                && first.getColumns() == second.getColumns(),
+            "Matrices %sx%s and %sx%s can not be combined.",
+            first.getRows(), first.getColumns(),
+            second.getRows(), second.getColumns());
+
+        Range whole = Range.valueOf(Optional.empty());
+        double[] result = apply(first.getRange(whole), second.getRange(whole));
+        return Matrix.from(first.getRows(), first.getColumns(), result);
+    }
+
+    /**
+     * Element-wise kernel, result[i] = first[firstOffset + i * firstStride]
+     * op second[secondOffset + i * secondStride].
+     */
+    abstract void apply(double[] first, int firstOffset, int firstStride,
+        double[] second, int secondOffset, int secondStride,
+        double[] result, int length);
 }
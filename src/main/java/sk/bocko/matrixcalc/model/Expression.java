@@ -0,0 +1,319 @@
+package sk.bocko.matrixcalc.model;
+
+import static com.google.common.base.Preconditions.checkNotNull;
+import java.util.Optional;
+import java.util.regex.Pattern;
+import org.apache.http.annotation.Immutable;
+
+/**
+ * Arithmetic expression over the cells of a matrix, e.g.
+ * (1-1 + 2-3) * 4-4 / sum(3-x).
+ *
+ * An expression is made of numbers, positions of cells (see
+ * {@link Position}), reductions of ranges named as the
+ * {@link RangedOperation}s (e.g. sum(3-x), max(2:10-4:8), average() for
+ * the whole matrix), the operators +, -, * and / with the usual precedence,
+ * unary minus and parentheses. A position or a range is written without
+ * spaces, so 1-1 is a cell while 1 - 1 is a subtraction.
+ *
+ * The text is compiled once into a tree of nodes, constant subexpressions
+ * are folded, so an expression can be evaluated on many matrices without
+ * parsing it again. Positions and ranges are checked against the matrix
+ * when the expression is evaluated.
+ */
+@Immutable
+public final class Expression {
+    public static final int MAX_LENGTH = 1000;
+
+    private final String text;
+    private final Node root;
+
+    private Expression(final String text, final Node root) {
+        this.text = text;
+        this.root = root;
+    }
+
+    /**
+     * Compile an expression. Throws IllegalArgumentException if it is not
+     * a valid expression or it is longer than {@link #MAX_LENGTH}.
+     * @param text expression to compile
+     * @return compiled expression
+     */
+    public static Expression compile(String text) {
+        checkNotNull(text, "expression is null");
+        if (text.length() > MAX_LENGTH) {
+            throw new IllegalArgumentException(String.format(
+                "Expression of %d characters exceeds the limit of %d characters.",
+                text.length(), MAX_LENGTH));
+        }
+        return new Expression(text, new Parser(text).parse());
+    }
+
+    /**
+     * Evaluate the expression on a matrix, the ranges are reduced
+     * sequentially. Throws IllegalArgumentException if a position or
+     * a range is not valid for the matrix.
+     * @param matrix matrix to evaluate the expression on
+     * @return value of the expression
+     */
+    public double evaluate(Matrix matrix) {
+        checkNotNull(matrix, "matrix is null");
+        return root.evaluate(matrix, (operation, target, range) -> operation.apply(target, range));
+    }
+
+    /**
+     * Same as {@link #evaluate(Matrix)}, large ranges are reduced in
+     * parallel.
+     * @param matrix matrix to evaluate the expression on
+     * @param reduction reduction of the ranges
+     * @return value of the expression
+     */
+    public double evaluate(Matrix matrix, ParallelReduction reduction) {
+        checkNotNull(matrix, "matrix is null");
+        checkNotNull(reduction, "reduction is null");
+        return root.evaluate(matrix, reduction::apply);
+    }
+
+    @Override
+    public String toString() {
+        return text;
+    }
+
+    @FunctionalInterface
+    private interface Reducer {
+        double apply(RangedOperation operation, Matrix matrix, Range range);
+    }
+
+    private interface Node {
+        double evaluate(Matrix matrix, Reducer reducer);
+    }
+
+    private static final class Constant implements Node {
+        private final double value;
+
+        private Constant(final double value) {
+            this.value = value;
+        }
+
+        @Override
+        public double evaluate(Matrix matrix, Reducer reducer) {
+            return value;
+        }
+    }
+
+    private static final class Cell implements Node {
+        private final Position position;
+
+        private Cell(final Position position) {
+            this.position = position;
+        }
+
+        @Override
+        public double evaluate(Matrix matrix, Reducer reducer) {
+            return matrix.valueAtPosition(position);
+        }
+    }
+
+    private static final class Reduction implements Node {
+        private final RangedOperation operation;
+        private final Range range;
+
+        private Reduction(final RangedOperation operation, final Range range) {
+            this.operation = operation;
+            this.range = range;
+        }
+
+        @Override
+        public double evaluate(Matrix matrix, Reducer reducer) {
+            return reducer.apply(operation, matrix, range);
+        }
+    }
+
+    private static final class Negation implements Node {
+        private final Node operand;
+
+        private Negation(final Node operand) {
+            this.operand = operand;
+        }
+
+        @Override
+        public double evaluate(Matrix matrix, Reducer reducer) {
+            return -operand.evaluate(matrix, reducer);
+        }
+    }
+
+    private static final class Binary implements Node {
+        private final BiArgumentOperation operation;
+        private final Node first, second;
+
+        private Binary(final BiArgumentOperation operation, final Node first, final Node second) {
+            this.operation = operation;
+            this.first = first;
+            this.second = second;
+        }
+
+        @Override
+        public double evaluate(Matrix matrix, Reducer reducer) {
+            return operation.apply(first.evaluate(matrix, reducer), second.evaluate(matrix, reducer));
+        }
+    }
+
+    /**
+     * Recursive descent parser of the grammar
+     * sum = product (('+' | '-') product)*,
+     * product = factor (('*' | '/') factor)*,
+     * factor = '-' factor | '(' sum ')' | number | position | name '(' range? ')'.
+     */
+    private static final class Parser {
+        private static final char END = 0;
+        private static final Pattern NUMBER = Pattern.compile("\\d+(\\.\\d+)?([eE]\\d+)?");
+        // a side of a position or a range, e.g. 12, x or 2:10
+        private static final Pattern SIDE = Pattern.compile("[\\dx:]+");
+
+        private final String text;
+        private int position;
+
+        private Parser(final String text) {
+            this.text = text;
+        }
+
+        private Node parse() {
+            Node node = sum();
+            if (peek() != END) {
+                throw unexpected();
+            }
+            return node;
+        }
+
+        private Node sum() {
+            Node node = product();
+            while (true) {
+                char next = peek();
+                if (next == '+') {
+                    position++;
+                    node = binary(BiArgumentOperation.ADDITION, node, product());
+                } else if (next == '-') {
+                    position++;
+                    node = binary(BiArgumentOperation.SUBTRACTION, node, product());
+                } else {
+                    return node;
+                }
+            }
+        }
+
+        private Node product() {
+            Node node = factor();
+            while (true) {
+                char next = peek();
+                if (next == '*') {
+                    position++;
+                    node = binary(BiArgumentOperation.MULTIPLICATION, node, factor());
+                } else if (next == '/') {
+                    position++;
+                    node = binary(BiArgumentOperation.DIVISION, node, factor());
+                } else {
+                    return node;
+                }
+            }
+        }
+
+        private Node factor() {
+            char next = peek();
+            if (next == '-') {
+                position++;
+                Node operand = factor();
+                return operand instanceof Constant
+                    ? new Constant(-((Constant) operand).value)
+                    : new Negation(operand);
+            }
+            if (next == '(') {
+                position++;
+                Node node = sum();
+                expect(')');
+                return node;
+            }
+
+            String word = word();
+            if (word.contains(Position.DELIMITER)) {
+                return new Cell(Position.valueOf(word));
+            }
+            if (Character.isLetter(word.charAt(0))) {
+                RangedOperation operation = RangedOperation.from(word);
+                expect('(');
+                Range range = peek() == ')'
+                    ? Range.valueOf(Optional.empty())
+                    : Range.valueOf(Optional.of(word()));
+                expect(')');
+                return new Reduction(operation, range);
+            }
+            if (!NUMBER.matcher(word).matches()) {
+                throw new IllegalArgumentException(String.format(
+                    "'%s' is not a valid expression: '%s' is not a number", text, word));
+            }
+            return new Constant(Double.parseDouble(word));
+        }
+
+        /**
+         * @return a number, a name, a position or a range, the delimiter of
+         * the last two is part of the word when it joins two sides
+         */
+        private String word() {
+            peek();
+            int start = position;
+            skipWord();
+            if (position + 1 < text.length() && text.charAt(position) == '-'
+                && SIDE.matcher(text.substring(start, position)).matches()
+                && (Character.isDigit(text.charAt(position + 1)) || text.charAt(position + 1) == 'x')) {
+                position++;
+                skipWord();
+            }
+            if (start == position) {
+                throw unexpected();
+            }
+            return text.substring(start, position);
+        }
+
+        private void skipWord() {
+            while (position < text.length()) {
+                char next = text.charAt(position);
+                if (!Character.isLetterOrDigit(next) && next != '.' && next != ':') {
+                    return;
+                }
+                position++;
+            }
+        }
+
+        private void expect(char expected) {
+            if (peek() != expected) {
+                throw unexpected();
+            }
+            position++;
+        }
+
+        /**
+         * @return next character after whitespace, {@link #END} at the end
+         */
+        private char peek() {
+            while (position < text.length() && Character.isWhitespace(text.charAt(position))) {
+                position++;
+            }
+            return position < text.length() ? text.charAt(position) : END;
+        }
+
+        private IllegalArgumentException unexpected() {
+            String found = position < text.length()
+                ? String.format("'%s' at %d", text.charAt(position), position + 1)
+                : "end";
+            return new IllegalArgumentException(String.format(
+                "'%s' is not a valid expression: unexpected %s", text, found));
+        }
+
+        private static Node binary(BiArgumentOperation operation, Node first, Node second) {
+            if (first instanceof Constant && second instanceof Constant) {
+                return new Constant(operation.apply(((Constant) first).value,
+                    ((Constant) second).value));
+            }
+            return new Binary(operation, first, second);
+        }
+    }
+}
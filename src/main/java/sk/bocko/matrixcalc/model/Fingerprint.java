@@ -0,0 +1,155 @@
+package sk.bocko.matrixcalc.model;
+
+import static com.google.common.base.Preconditions.checkNotNull;
+import org.apache.http.annotation.NotThreadSafe;
+import org.apache.http.annotation.ThreadSafe;
+
+/**
+ * 128-bit hash of the matrix contents (MurmurHash3 x64 128 of the raw bits
+ * of the values in row-major order, combined with the shape).
+ *
+ * Two matrices with the same fingerprint are treated as equal, e.g. by the
+ * result cache, without comparing their values.
+ */
+@ThreadSafe
+public final class Fingerprint {
+    private static final long C1 = 0x87c37b91114253d5L;
+    private static final long C2 = 0x4cf5ad432745937fL;
+
+    private final long high, low;
+
+    private Fingerprint(final long high, final long low) {
+        this.high = high;
+        this.low = low;
+    }
+
+    /**
+     * Compute a fingerprint of values in row-major order.
+     * @param rows number of rows
+     * @param columns number of columns
+     * @param values rows * columns values
+     * @return fingerprint of the values
+     */
+    public static Fingerprint of(int rows, int columns, double[] values) {
+        checkNotNull(values, "values are null");
+
+        Builder builder = new Builder();
+        for (double value : values) {
+            builder.add(value);
+        }
+        return builder.build(rows, columns);
+    }
+
+    /**
+     * @return a builder that computes the fingerprint value after value,
+     * e.g. while the matrix is being parsed
+     */
+    public static Builder builder() {
+        return new Builder();
+    }
+
+    @Override
+    public boolean equals(Object other) {
+        if (this == other) {
+            return true;
+        }
+        if (!(other instanceof Fingerprint)) {
+            return false;
+        }
+        Fingerprint that = (Fingerprint) other;
+        return high == that.high && low == that.low;
+    }
+
+    @Override
+    public int hashCode() {
+        return (int) low;
+    }
+
+    @Override
+    public String toString() {
+        return String.format("%016x%016x", high, low);
+    }
+
+    /**
+     * Incremental computation of a {@link Fingerprint}.
+     */
+    @NotThreadSafe
+    public static final class Builder {
+        private long h1, h2;
+        private long pending;
+        private boolean hasPending;
+        private long length;
+
+        private Builder() {
+        }
+
+        /**
+         * Add next value in row-major order.
+         * @param value value to add
+         * @return this builder
+         */
+        public Builder add(double value) {
+            return addBits(Double.doubleToRawLongBits(value));
+        }
+
+        /**
+         * Add next 64 bits, e.g. a position of a non-zero of a sparse matrix.
+         * @param bits bits to add
+         * @return this builder
+         */
+        Builder addBits(long bits) {
+            if (hasPending) {
+                mix(pending, bits);
+                hasPending = false;
+            } else {
+                pending = bits;
+                hasPending = true;
+            }
+            length++;
+            return this;
+        }
+
+        /**
+         * Finish the computation.
+         * @param rows number of rows of the matrix
+         * @param columns number of columns of the matrix
+         * @return fingerprint of added values
+         */
+        public Fingerprint build(int rows, int columns) {
+            long a = h1;
+            long b = h2;
+            if (hasPending) {
+                a ^= Long.rotateLeft(pending * C1, 31) * C2;
+            }
+
+            a ^= length * Double.BYTES ^ rows;
+            b ^= length * Double.BYTES ^ columns;
+            a += b;
+            b += a;
+            a = finalMix(a);
+            b = finalMix(b);
+            a += b;
+            b += a;
+            return new Fingerprint(a, b);
+        }
+
+        private void mix(long k1, long k2) {
+            h1 ^= Long.rotateLeft(k1 * C1, 31) * C2;
+            h1 = Long.rotateLeft(h1, 27) + h2;
+            h1 = h1 * 5 + 0x52dce729;
+
+            h2 ^= Long.rotateLeft(k2 * C2, 33) * C1;
+            h2 = Long.rotateLeft(h2, 31) + h1;
+            h2 = h2 * 5 + 0x38495ab5;
+        }
+
+        private static long finalMix(long k) {
+            k ^= k >>> 33;
+            k *= 0xff51afd7ed558ccdL;
+            k ^= k >>> 33;
+            k *= 0xc4ceb9fe1a85ec53L;
+            k ^= k >>> 33;
+            return k;
+        }
+    }
+}
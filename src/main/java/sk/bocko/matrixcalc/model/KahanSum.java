@@ -0,0 +1,79 @@
+package sk.bocko.matrixcalc.model;
+
+import org.apache.http.annotation.NotThreadSafe;
+
+/**
+ * Compensated summation in Neumaier's variant of Kahan's algorithm: the
+ * rounding error of every addition is computed exactly (Knuth's two-sum,
+ * without a branch) and summed separately, so the result is practically
+ * always the correctly rounded sum, whatever the order of the values.
+ *
+ * All the sums of the values of a matrix go through this class (the
+ * kernels, the aggregate index, axis reductions, statistics and the
+ * aggregate trees of live matrices), so a sum does not depend on the way
+ * it is answered. Sums of many lines at once keep their values and
+ * compensations in arrays, see {@link #add(double[], double[], int, double)}.
+ */
+@NotThreadSafe
+final class KahanSum {
+    private double sum, compensation;
+
+    void add(double next) {
+        double result = sum + next;
+        double rounded = result - sum;
+        compensation += (sum - (result - rounded)) + (next - rounded);
+        sum = result;
+    }
+
+    /**
+     * Add another compensated sum, e.g. of a node of an {@link AggregateTree}.
+     * @param otherSum sum of the other values
+     * @param otherCompensation compensation of the other values
+     */
+    void add(double otherSum, double otherCompensation) {
+        add(otherSum);
+        compensation += otherCompensation;
+    }
+
+    /**
+     * Add a run of zeros, e.g. the implicit zeros of a sparse view. Only
+     * the first zero can change the sum (-0.0 becomes 0.0).
+     * @param run number of zeros
+     */
+    void addZeros(int run) {
+        if (run > 0) {
+            add(0.0);
+        }
+    }
+
+    double value() {
+        return sum + compensation;
+    }
+
+    /**
+     * @return sum without the compensation, see {@link #add(double, double)}
+     */
+    double sum() {
+        return sum;
+    }
+
+    double compensation() {
+        return compensation;
+    }
+
+    /**
+     * Add a value to the k-th of several sums, whose values are
+     * sums[k] + compensations[k].
+     * @param sums values of the sums
+     * @param compensations compensations of the sums
+     * @param k index of the sum
+     * @param next value to add
+     */
+    static void add(double[] sums, double[] compensations, int k, double next) {
+        double sum = sums[k];
+        double result = sum + next;
+        double rounded = result - sum;
+        compensations[k] += (sum - (result - rounded)) + (next - rounded);
+        sums[k] = result;
+    }
+}
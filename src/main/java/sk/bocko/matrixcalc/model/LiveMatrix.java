@@ -0,0 +1,260 @@
+package sk.bocko.matrixcalc.model;
+
+import static com.google.common.base.Preconditions.checkNotNull;
+import static com.google.common.base.Preconditions.checkState;
+import java.util.BitSet;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.Function;
+import org.apache.http.annotation.ThreadSafe;
+
+/**
+ * A matrix whose values may be updated in place, e.g. a stored matrix
+ * receiving changes of a few cells.
+ *
+ * A live matrix starts as a wrapper of an immutable {@link Matrix}. Once
+ * made editable (see {@link #editable()}), it keeps its values densely
+ * together with {@link AggregateTree}s in row-major and in column-major
+ * order, so an update changes its cells and O(log n) tree nodes, and the
+ * sum, minimum, maximum and average of a row, a column, a span of them or
+ * the whole matrix take O(log n). Other blocks of h rows and w columns are
+ * reduced line by line along their shorter side, in
+ * O(min(h, w) * ({@link AggregateTree#LEAF} + log n)), and never take
+ * longer than a linear reduction of the block.
+ *
+ * Updates are applied under a write lock and reductions under a read lock,
+ * so every reduction sees all the cells of an update or none of them.
+ * Other operations of ranges read the values in place under the read lock
+ * too (see {@link #read(Function)}). Only the operations which need the
+ * whole matrix get an immutable {@link #snapshot()}, which shares the
+ * values until the next update copies them, so an update copies the values
+ * at most once per such operation.
+ */
+@ThreadSafe
+public final class LiveMatrix {
+    private final int rows, columns;
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+    // null unless editable
+    private final AggregateTree byRows, byColumns;
+    private double[] values;
+    // current values as a matrix, null after an update until requested again
+    private volatile Matrix snapshot;
+
+    private LiveMatrix(final Matrix snapshot) {
+        this.rows = snapshot.getRows();
+        this.columns = snapshot.getColumns();
+        this.byRows = null;
+        this.byColumns = null;
+        this.values = null;
+        this.snapshot = snapshot;
+    }
+
+    private LiveMatrix(final int rows, final int columns, final double[] values,
+        final Matrix snapshot) {
+        this.rows = rows;
+        this.columns = columns;
+        this.byRows = new AggregateTree(rows, columns, false, values);
+        this.byColumns = new AggregateTree(rows, columns, true, values);
+        this.values = values;
+        this.snapshot = snapshot;
+    }
+
+    /**
+     * Wrap a matrix, it is not editable until {@link #editable()}.
+     * @param matrix current values
+     * @return a new {@link LiveMatrix} instance
+     */
+    public static LiveMatrix of(Matrix matrix) {
+        checkNotNull(matrix, "matrix is null");
+        return new LiveMatrix(matrix.indexed());
+    }
+
+    /**
+     * @return this matrix if it is editable, otherwise a new editable
+     * matrix with the same values
+     */
+    public LiveMatrix editable() {
+        if (isEditable()) {
+            return this;
+        }
+        Matrix current = snapshot;
+        // values of a dense matrix are shared with it until the first update
+        return new LiveMatrix(rows, columns, current.denseValues(),
+            current.isSparse() ? null : current);
+    }
+
+    /**
+     * @return true if the matrix can be updated
+     */
+    public boolean isEditable() {
+        return byRows != null;
+    }
+
+    /**
+     * @return approximate number of bytes taken by the values and the trees
+     * of an editable matrix of the given size
+     */
+    public static long sizeInBytes(int rows, int columns) {
+        return (long) Double.BYTES * rows * columns
+            + 2 * AggregateTree.sizeInBytes(rows, columns);
+    }
+
+    public int getRows() {
+        return rows;
+    }
+
+    public int getColumns() {
+        return columns;
+    }
+
+    /**
+     * @return immutable matrix with the current values, indexed
+     */
+    public Matrix snapshot() {
+        Matrix result = snapshot;
+        if (result != null) {
+            return result;
+        }
+
+        lock.readLock().lock();
+        try {
+            result = snapshot;
+            if (result == null) {
+                // racing readers create equal matrices sharing the values
+                result = Matrix.from(rows, columns, values).indexed();
+                snapshot = result;
+            }
+            return result;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Apply a function to the current values without taking a snapshot of
+     * them. The values of an editable matrix are read in place under the read
+     * lock, so the matrix given to the function is valid only until it
+     * returns and must not be kept, and it is not indexed.
+     * @param function function to apply, e.g. an operation of a range
+     * @return result of the function
+     */
+    public <T> T read(Function<Matrix, T> function) {
+        checkNotNull(function, "function is null");
+        if (!isEditable()) {
+            return function.apply(snapshot());
+        }
+
+        lock.readLock().lock();
+        try {
+            Matrix current = snapshot;
+            return function.apply(current != null ? current : Matrix.from(rows, columns, values));
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Apply an update atomically. Throws IllegalArgumentException if
+     * the update does not fit the matrix, nothing is changed then.
+     * @param update new values of rows and cells
+     */
+    public void update(MatrixUpdate update) {
+        checkNotNull(update, "update is null");
+        checkState(isEditable(), "matrix is not editable");
+        update.validate(rows, columns);
+
+        lock.writeLock().lock();
+        try {
+            if (snapshot != null) {
+                values = values.clone();
+                snapshot = null;
+            }
+
+            BitSet rowLeaves = new BitSet();
+            BitSet columnLeaves = new BitSet();
+            for (int i = 0; i < update.rowCount(); i++) {
+                int row = update.row(i) - 1;
+                System.arraycopy(update.rowValues(i), 0, values, row * columns, columns);
+                rowLeaves.set(byRows.leafOf(row, 0), byRows.leafOf(row, columns - 1) + 1);
+                for (int j = 0; j < columns; j++) {
+                    columnLeaves.set(byColumns.leafOf(row, j));
+                }
+            }
+            for (int k = 0; k < update.cellCount(); k++) {
+                int row = update.cellRow(k) - 1;
+                int column = update.cellColumn(k) - 1;
+                values[row * columns + column] = update.cellValue(k);
+                rowLeaves.set(byRows.leafOf(row, column));
+                columnLeaves.set(byColumns.leafOf(row, column));
+            }
+            byRows.update(values, rowLeaves);
+            byColumns.update(values, columnLeaves);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Reduce the values of a range. Sums, minimums, maximums and averages
+     * of editable matrices are answered from the trees, see
+     * {@link AggregateTree} for their precision, other operations read the
+     * values in place, see {@link #read(Function)}. Throws
+     * IllegalArgumentException if range is not valid for the matrix.
+     * @param operation operation to apply
+     * @param range range of the matrix to reduce
+     * @return result of the operation
+     */
+    public double apply(RangedOperation operation, Range range) {
+        checkNotNull(operation, "operation is null");
+        checkNotNull(range, "range is null");
+        if (!isEditable()) {
+            return operation.apply(snapshot(), range);
+        }
+        if (!operation.isIndexed()) {
+            return read(matrix -> operation.apply(matrix, range));
+        }
+
+        int firstRow = range.getFirstRow();
+        int lastRow = range.getLastRow(rows);
+        int firstColumn = range.getFirstColumn();
+        int lastColumn = range.getLastColumn(columns);
+        if (firstRow < 1 || rows < lastRow || firstColumn < 1 || columns < lastColumn) {
+            throw Matrix.invalidRange(range);
+        }
+
+        AggregateTree.Aggregate aggregate = new AggregateTree.Aggregate();
+        lock.readLock().lock();
+        try {
+            if (firstColumn == 1 && lastColumn == columns) {
+                byRows.reduce(values, (firstRow - 1) * columns, lastRow * columns, aggregate);
+            } else if (firstRow == 1 && lastRow == rows) {
+                byColumns.reduce(values, (firstColumn - 1) * rows, lastColumn * rows, aggregate);
+            } else if (lastRow - firstRow <= lastColumn - firstColumn) {
+                for (int i = firstRow - 1; i < lastRow; i++) {
+                    byRows.reduce(values, i * columns + firstColumn - 1,
+                        i * columns + lastColumn, aggregate);
+                }
+            } else {
+                for (int j = firstColumn - 1; j < lastColumn; j++) {
+                    byColumns.reduce(values, j * rows + firstRow - 1, j * rows + lastRow, aggregate);
+                }
+            }
+        } finally {
+            lock.readLock().unlock();
+        }
+
+        switch (operation) {
+            case SUM:
+                return aggregate.sum();
+            case MINIMUM:
+                return aggregate.minimum();
+            case MAXIMUM:
+                return aggregate.maximum();
+            case AVERAGE:
+                long count = (long) (lastRow - firstRow + 1) * (lastColumn - firstColumn + 1);
+                return aggregate.sum() / count;
+            default:
+                throw new IllegalStateException("unsupported operation " + operation);
+        }
+    }
+}
@@ -0,0 +1,234 @@
+package sk.bocko.matrixcalc.model;
+
+import static com.google.common.base.Preconditions.checkNotNull;
+import org.apache.http.annotation.Immutable;
+
+/**
+ * LU decomposition with partial pivoting of a square matrix, PA = LU.
+ *
+ * The factorization is blocked: a panel of {@link #BLOCK} columns is
+ * factorized with row pivoting, the rows of U to the right of it are
+ * solved and the trailing matrix is updated by a single rank-{@link #BLOCK}
+ * product in i-k-j order, so the trailing rows stream through the cache
+ * once per panel instead of once per column.
+ *
+ * L (with an implicit unit diagonal) and U share a single n x n array in
+ * row-major order. Once computed, the decomposition gives the determinant
+ * in O(n) and solves a system for a right-hand side in O(n^2).
+ */
+@Immutable
+public final class LuDecomposition {
+    static final int BLOCK = 64;
+
+    private final int n;
+    private final double[] lu;
+    private final int[] pivots;
+    private final boolean oddPermutation;
+    private final boolean singular;
+
+    private LuDecomposition(final int n, final double[] lu, final int[] pivots,
+        final boolean oddPermutation, final boolean singular) {
+        this.n = n;
+        this.lu = lu;
+        this.pivots = pivots;
+        this.oddPermutation = oddPermutation;
+        this.singular = singular;
+    }
+
+    /**
+     * Factorize a matrix. Throws IllegalArgumentException if the matrix is
+     * not square. Singular matrices are factorized too, they only can not
+     * be used to solve systems.
+     * @param matrix matrix to factorize
+     * @return decomposition of the matrix
+     */
+    public static LuDecomposition of(Matrix matrix) {
+        checkNotNull(matrix, "matrix is null");
+        int n = matrix.getRows();
+        if (n != matrix.getColumns()) {
+            throw new IllegalArgumentException(String.format(
+                "Matrix %dx%d is not square.", n, matrix.getColumns()));
+        }
+
+        double[] a = matrix.isSparse() ? matrix.denseValues() : matrix.denseValues().clone();
+        int[] pivots = new int[n];
+        boolean odd = false;
+        boolean singular = false;
+
+        for (int k0 = 0; k0 < n; k0 += BLOCK) {
+            int k1 = Math.min(k0 + BLOCK, n);
+
+            // panel: columns k0..k1 of rows k0..n, whole rows are swapped
+            for (int k = k0; k < k1; k++) {
+                int pivot = k;
+                double largest = Math.abs(a[k * n + k]);
+                for (int i = k + 1; i < n; i++) {
+                    double value = Math.abs(a[i * n + k]);
+                    if (value > largest) {
+                        largest = value;
+                        pivot = i;
+                    }
+                }
+                pivots[k] = pivot;
+                if (largest == 0 || largest != largest) {
+                    singular = true;
+                    continue;
+                }
+                if (pivot != k) {
+                    swapRows(a, n, k, pivot);
+                    odd = !odd;
+                }
+
+                double diagonal = a[k * n + k];
+                for (int i = k + 1; i < n; i++) {
+                    double l = a[i * n + k] / diagonal;
+                    a[i * n + k] = l;
+                    for (int j = k + 1; j < k1; j++) {
+                        a[i * n + j] -= l * a[k * n + j];
+                    }
+                }
+            }
+
+            // rows k0..k1 of U right of the panel, L of the panel has unit diagonal
+            for (int k = k0; k < k1; k++) {
+                for (int i = k + 1; i < k1; i++) {
+                    double l = a[i * n + k];
+                    if (l != 0) {
+                        axpy(a, n, l, k, i, k1);
+                    }
+                }
+            }
+
+            // trailing matrix
+            for (int i = k1; i < n; i++) {
+                for (int k = k0; k < k1; k++) {
+                    double l = a[i * n + k];
+                    if (l != 0) {
+                        axpy(a, n, l, k, i, k1);
+                    }
+                }
+            }
+        }
+        return new LuDecomposition(n, a, pivots, odd, singular);
+    }
+
+    /**
+     * @return determinant of the matrix, zero for singular matrices
+     */
+    public double determinant() {
+        if (singular) {
+            return 0;
+        }
+        double determinant = oddPermutation ? -1 : 1;
+        for (int i = 0; i < n; i++) {
+            determinant *= lu[i * n + i];
+        }
+        return determinant;
+    }
+
+    /**
+     * Solve AX = B. Throws IllegalArgumentException if the matrix is
+     * singular or the number of rows of B differs from its order.
+     * @param b right-hand sides, one per column
+     * @return a new matrix X of the same shape as B
+     */
+    public Matrix solve(Matrix b) {
+        checkNotNull(b, "right-hand side is null");
+        if (b.getRows() != n) {
+            throw new IllegalArgumentException(String.format(
+                "Right-hand side %dx%d does not fit a %dx%d matrix.",
+                b.getRows(), b.getColumns(), n, n));
+        }
+        return Matrix.from(n, b.getColumns(),
+            solve(b.isSparse() ? b.denseValues() : b.denseValues().clone(), b.getColumns()));
+    }
+
+    /**
+     * Throws IllegalArgumentException if the matrix is singular.
+     * @return a new inverse of the matrix
+     */
+    public Matrix inverse() {
+        double[] identity = new double[n * n];
+        for (int i = 0; i < n; i++) {
+            identity[i * n + i] = 1;
+        }
+        return Matrix.from(n, n, solve(identity, n));
+    }
+
+    /**
+     * @return order of the matrix
+     */
+    public int getOrder() {
+        return n;
+    }
+
+    /**
+     * @return true if the matrix has no inverse
+     */
+    public boolean isSingular() {
+        return singular;
+    }
+
+    /**
+     * Solve in place, x holds n rows of m right-hand sides.
+     */
+    private double[] solve(double[] x, int m) {
+        if (singular) {
+            throw new IllegalArgumentException("Matrix is singular.");
+        }
+
+        for (int k = 0; k < n; k++) {
+            if (pivots[k] != k) {
+                swapRows(x, m, k, pivots[k]);
+            }
+        }
+        // forward substitution, L has unit diagonal
+        for (int i = 1; i < n; i++) {
+            for (int k = 0; k < i; k++) {
+                double l = lu[i * n + k];
+                if (l != 0) {
+                    for (int j = 0; j < m; j++) {
+                        x[i * m + j] -= l * x[k * m + j];
+                    }
+                }
+            }
+        }
+        // back substitution
+        for (int i = n - 1; i >= 0; i--) {
+            for (int k = i + 1; k < n; k++) {
+                double u = lu[i * n + k];
+                if (u != 0) {
+                    for (int j = 0; j < m; j++) {
+                        x[i * m + j] -= u * x[k * m + j];
+                    }
+                }
+            }
+            double diagonal = lu[i * n + i];
+            for (int j = 0; j < m; j++) {
+                x[i * m + j] /= diagonal;
+            }
+        }
+        return x;
+    }
+
+    /**
+     * Row i -= l * row k, columns from..n.
+     */
+    private static void axpy(double[] a, int n, double l, int k, int i, int from) {
+        int source = k * n;
+        int target = i * n;
+        for (int j = from; j < n; j++) {
+            a[target + j] -= l * a[source + j];
+        }
+    }
+
+    private static void swapRows(double[] a, int width, int first, int second) {
+        int f = first * width;
+        int s = second * width;
+        for (int j = 0; j < width; j++) {
+            double value = a[f + j];
+            a[f + j] = a[s + j];
+            a[s + j] = value;
+        }
+    }
+}
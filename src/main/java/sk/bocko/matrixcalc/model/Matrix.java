@@ -3,7 +3,9 @@ package sk.bocko.matrixcalc.model;
 import com.google.common.base.MoreObjects;
 import static com.google.common.base.Preconditions.checkArgument;
 import static com.google.common.base.Preconditions.checkNotNull;
+import java.util.Arrays;
 import static java.util.Arrays.copyOf;
+import static java.util.Arrays.copyOfRange;
 import static java.util.Arrays.deepToString;
 import static java.util.Arrays.stream;
 import org.apache.http.annotation.ThreadSafe;
@@ -11,13 +13,41 @@ import org.json.JSONArray;
 
 /**
  * Domain model that contains the matrix to perform calculations on.
+ *
+ * Elements are kept in a single array in row-major order, so the element
+ * at (row, column) is stored at index row * columns + column. Matrices read
+ * from requests with few non-zeros are kept in compressed sparse rows
+ * instead (see {@link #compact()}), their ranges are sparse views reduced
+ * in time proportional to the non-zeros.
  */
 @ThreadSafe
 public final class Matrix {
-    private double[][] matrix;
+    // matrices with at most this share of non-zeros are kept sparse
+    static final double MAX_SPARSE_DENSITY = 0.1;
+    // smaller matrices are always dense
+    static final int MIN_SPARSE_LENGTH = 256;
 
-    private Matrix(final double[][] matrix) {
-        this.matrix = validate(matrix);
+    private final double[] values;
+    private final SparseValues sparse;
+    private final int rows, columns;
+    private final boolean indexed;
+    private volatile Fingerprint fingerprint;
+    private volatile AggregateIndex aggregates;
+    private volatile LuDecomposition decomposition;
+
+    private Matrix(final int rows, final int columns, final double[] values,
+        final Fingerprint fingerprint, final boolean indexed) {
+        this(rows, columns, values, null, fingerprint, indexed);
+    }
+
+    private Matrix(final int rows, final int columns, final double[] values,
+        final SparseValues sparse, final Fingerprint fingerprint, final boolean indexed) {
+        this.rows = rows;
+        this.columns = columns;
+        this.values = values;
+        this.sparse = sparse;
+        this.fingerprint = fingerprint;
+        this.indexed = indexed;
     }
 
     /**
@@ -36,7 +66,169 @@ public final class Matrix {
             }
         }
 
-        return new Matrix(deserialized);
+        return from(deserialized);
+    }
+
+    /**
+     * Create an instance of {@link Matrix} from rows of values.
+     * @param matrix rows of the matrix (e.g. {{1, 2.3}, {4, 5}})
+     * @return a new {@link Matrix} instance
+     */
+    public static Matrix from(double[][] matrix) {
+        validate(matrix);
+
+        int columns = matrix[0].length;
+        double[] values = new double[matrix.length * columns];
+        for (int i = 0; i < matrix.length; i++) {
+            System.arraycopy(matrix[i], 0, values, i * columns, columns);
+        }
+        return new Matrix(matrix.length, columns, values, null, false);
+    }
+
+    /**
+     * Create an instance of {@link Matrix} from values in row-major order.
+     * The array is not copied, the caller must not modify it afterwards.
+     * @param rows number of rows
+     * @param columns number of columns
+     * @param values rows * columns values, row after row
+     * @return a new {@link Matrix} instance
+     */
+    public static Matrix from(int rows, int columns, double[] values) {
+        return from(rows, columns, values, null);
+    }
+
+    /**
+     * Create an instance of {@link Matrix} from values in row-major order
+     * whose fingerprint was computed while they were read.
+     * The array is not copied, the caller must not modify it afterwards.
+     * @param rows number of rows
+     * @param columns number of columns
+     * @param values rows * columns values, row after row
+     * @param fingerprint fingerprint of the values, computed on demand if null
+     * @return a new {@link Matrix} instance
+     */
+    public static Matrix from(int rows, int columns, double[] values,
+        Fingerprint fingerprint) {
+        checkNotNull(values, "matrix is null");
+        checkArgument(rows > 0, "matrix is empty");
+        checkArgument(columns >= 0, "number of columns is negative");
+        checkArgument((long) rows * columns == values.length,
+            "matrix %sx%s does not have %s values", rows, columns, values.length);
+
+        return new Matrix(rows, columns, values, fingerprint, false);
+    }
+
+    /**
+     * Create an instance of {@link Matrix} from a list of its non-zero
+     * entries, all the other elements are zero. The matrix is stored sparse
+     * if it has few enough non-zeros, see {@link #compact()}.
+     * Rows and columns of the entries are 1-indexed. Throws
+     * IllegalArgumentException if the matrix has more elements than an array
+     * can hold, smaller limits are up to the callers.
+     * @param rows number of rows
+     * @param columns number of columns
+     * @param entryRows rows of the entries
+     * @param entryColumns columns of the entries
+     * @param entryValues values of the entries
+     * @param count number of entries
+     * @return a new {@link Matrix} instance
+     */
+    public static Matrix fromEntries(int rows, int columns, int[] entryRows,
+        int[] entryColumns, double[] entryValues, int count) {
+        checkNotNull(entryRows, "rows of entries are null");
+        checkNotNull(entryColumns, "columns of entries are null");
+        checkNotNull(entryValues, "values of entries are null");
+        checkArgument(rows > 0, "matrix is empty");
+        checkArgument(columns >= 0, "number of columns is negative");
+        if ((long) rows * columns > Integer.MAX_VALUE) {
+            throw new IllegalArgumentException(String.format(
+                "Matrix %dx%d has too many elements.", rows, columns));
+        }
+
+        // entries sorted by their row-major position, the index in the low bits
+        long[] keys = new long[count];
+        for (int i = 0; i < count; i++) {
+            int row = entryRows[i];
+            int column = entryColumns[i];
+            if (row < 1 || rows < row || column < 1 || columns < column) {
+                throw new IllegalArgumentException(String.format("The '%d-%d' position is "
+                    + "out-of-range for the matrix.", row, column));
+            }
+            keys[i] = (long) ((row - 1) * columns + column - 1) << 32 | i;
+        }
+        Arrays.sort(keys);
+
+        int[] positions = new int[count];
+        double[] nonZeros = new double[count];
+        int nonZeroCount = 0;
+        for (int i = 0; i < count; i++) {
+            int position = (int) (keys[i] >>> 32);
+            if (i > 0 && position == (int) (keys[i - 1] >>> 32)) {
+                throw new IllegalArgumentException(String.format("The '%d-%d' position is "
+                    + "given more than once.", position / columns + 1, position % columns + 1));
+            }
+            double value = entryValues[(int) keys[i]];
+            if (SparseValues.isNonZero(value)) {
+                positions[nonZeroCount] = position;
+                nonZeros[nonZeroCount++] = value;
+            }
+        }
+
+        int length = rows * columns;
+        if (nonZeroCount > maxSparseNonZeros(length)) {
+            double[] dense = new double[length];
+            for (int i = 0; i < nonZeroCount; i++) {
+                dense[positions[i]] = nonZeros[i];
+            }
+            return new Matrix(rows, columns, dense, null, false);
+        }
+        SparseValues values = SparseValues.of(rows, columns,
+            copyOf(positions, nonZeroCount), copyOf(nonZeros, nonZeroCount));
+        return new Matrix(rows, columns, null, values, null, false);
+    }
+
+    /**
+     * Get the same matrix kept in compressed sparse rows if at most a tenth
+     * of its at least 256 elements are non-zero, otherwise this matrix.
+     * Sparse matrices take less memory and their reductions visit only the
+     * non-zeros, but the fingerprint of a sparse matrix differs from the one
+     * of the same dense matrix.
+     * @return sparse matrix or this matrix
+     */
+    public Matrix compact() {
+        if (sparse != null) {
+            return this;
+        }
+        int limit = maxSparseNonZeros(values.length);
+        if (limit < 0) {
+            return this;
+        }
+
+        int count = 0;
+        for (double value : values) {
+            if (SparseValues.isNonZero(value) && ++count > limit) {
+                return this;
+            }
+        }
+        return new Matrix(rows, columns, null, SparseValues.of(rows, columns, values, count),
+            null, indexed);
+    }
+
+    /**
+     * @return true if the matrix is kept in compressed sparse rows
+     */
+    public boolean isSparse() {
+        return sparse != null;
+    }
+
+    /**
+     * @return approximate number of bytes taken by the values of the matrix
+     */
+    public long sizeInBytes() {
+        if (sparse != null) {
+            return SparseValues.sizeInBytes(rows, columns, sparse.count());
+        }
+        return (long) Double.BYTES * values.length;
     }
 
     /**
@@ -48,84 +240,209 @@ public final class Matrix {
         int row = index.getRow();
         int column = index.getColumn();
 
-        if (row < 1 || matrix.length < row ||
-            column < 1 || matrix[0].length < column) {
+        if (row < 1 || rows < row ||
+            column < 1 || columns < column) {
             String message = String.format("The '%d-%d' position is " +
                 "out-of-range for the matrix.", row, column);
             throw new IllegalArgumentException(message);
         }
 
-        return matrix[row - 1][column - 1];
+        if (sparse != null) {
+            return sparse.get(row - 1, column - 1);
+        }
+        return values[(row - 1) * columns + column - 1];
     }
 
     /**
-     * Get all the values for specified range. Throws IllegalArgumentException
-     * if range is not valid for a matrix.
+     * Get a view of the values in specified range. The values are not
+     * copied, only blocks of sparse matrices narrower than the matrix
+     * gather their non-zeros. Throws IllegalArgumentException if range is
+     * not valid for a matrix.
      * @param range to get values for
-     * @return an array with all the values for specified range
+     * @return a view of all the values for specified range
      */
-    public double[] getRange(Range range) {
+    public MatrixView getRange(Range range) {
         if (range.isWholeMatrix()) {
-            return matrixToArray(matrix);
+            return sparse != null
+                ? sparse.whole()
+                : new MatrixView(values, 0, values.length, 1);
+        }
+
+        if (range.isBlock()) {
+            int firstRow = range.getFirstRow();
+            int lastRow = range.getLastRow(rows);
+            int firstColumn = range.getFirstColumn();
+            int lastColumn = range.getLastColumn(columns);
+            if (isValidRange(rows, firstRow) && isValidRange(rows, lastRow)
+                && isValidRange(columns, firstColumn) && isValidRange(columns, lastColumn)) {
+                return getBlock(firstRow - 1, lastRow, firstColumn - 1, lastColumn);
+            }
+            throw invalidRange(range);
         }
 
         int index = range.getValue();
         if (range.isRow()) {
-            if (isValidRange(matrix.length, index)) {
-                return copyOf(matrix[index - 1], matrix[0].length);
+            if (isValidRange(rows, index)) {
+                return sparse != null
+                    ? sparse.row(index - 1)
+                    : new MatrixView(values, (index - 1) * columns, columns, 1);
             }
         }
 
         if (range.isColumn()) {
-            if (isValidRange(matrix[0].length, index)) {
-                return getColumn(index);
+            if (isValidRange(columns, index)) {
+                return sparse != null
+                    ? sparse.column(index - 1)
+                    : new MatrixView(values, index - 1, rows, columns);
             }
         }
 
+        throw invalidRange(range);
+    }
+
+    /**
+     * Rows firstRow..lastRow and columns firstColumn..lastColumn, 0-indexed
+     * and excluding the last ones.
+     */
+    private MatrixView getBlock(int firstRow, int lastRow, int firstColumn, int lastColumn) {
+        if (sparse != null) {
+            return sparse.block(firstRow, lastRow, firstColumn, lastColumn);
+        }
+        int width = lastColumn - firstColumn;
+        int lines = lastRow - firstRow;
+        // whole rows are stored contiguously
+        return width == columns
+            ? new MatrixView(values, firstRow * columns, width * lines, 1)
+            : new MatrixView(values, firstRow * columns + firstColumn, width, 1, lines, columns);
+    }
+
+    static IllegalArgumentException invalidRange(Range range) {
         String message = String.format(
             "The '%s' range is not valid for the matrix.", range);
-        throw new IllegalArgumentException(message);
+        return new IllegalArgumentException(message);
     }
 
     public double[][] getMatrix() {
-        return matrix.clone();
+        double[][] matrix = new double[rows][];
+        for (int i = 0; i < rows; i++) {
+            matrix[i] = sparse != null
+                ? sparse.row(i).toArray()
+                : copyOfRange(values, i * columns, (i + 1) * columns);
+        }
+        return matrix;
     }
 
-    private double[] matrixToArray(final double[][] matrix) {
-        int rows = matrix.length;
-        int columns = matrix[0].length;
-        double[] elements = new double[rows * columns];
+    /**
+     * @return values in row-major order, dense matrices share them, so they
+     * must not be modified
+     */
+    double[] denseValues() {
+        if (sparse == null) {
+            return values;
+        }
+        return sparse.toDense();
+    }
 
-        for (int i = 0; i < rows; i++) {
-            for (int j = 0; j < columns; j++) {
-                elements[i * rows + j] = matrix[i][j];
-            }
+    /**
+     * @return 128-bit hash of the matrix contents
+     */
+    public Fingerprint fingerprint() {
+        Fingerprint result = fingerprint;
+        if (result == null) {
+            result = sparse != null
+                ? sparse.fingerprint()
+                : Fingerprint.of(rows, columns, values);
+            fingerprint = result;
         }
-        return elements;
+        return result;
     }
 
-    private boolean isValidRange(final int upperBound, final int index) {
-        return !(index < 1 || upperBound < index);
+    /**
+     * Get the same matrix, sharing the values, with an aggregate index of its
+     * rows, columns and totals. The index is built on the first ranged
+     * operation, so it pays off only for matrices queried repeatedly.
+     * @return indexed matrix
+     */
+    public Matrix indexed() {
+        if (indexed) {
+            return this;
+        }
+        return new Matrix(rows, columns, values, sparse, fingerprint, true);
     }
 
-    private double[] getColumn(final int index) {
-        double[] column = new double[matrix.length];
-        for (int i = 0; i < matrix.length; i++) {
-            double[] row = matrix[i];
-            column[i] = row[index - 1];
+    /**
+     * @return aggregate index of the matrix or null if it is not indexed
+     */
+    AggregateIndex aggregates() {
+        if (!indexed) {
+            return null;
+        }
+        AggregateIndex result = aggregates;
+        if (result == null) {
+            synchronized (this) {
+                result = aggregates;
+                if (result == null) {
+                    result = sparse != null
+                        ? AggregateIndex.of(rows, columns, sparse)
+                        : AggregateIndex.of(rows, columns, values);
+                    aggregates = result;
+                }
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Get the LU decomposition of the matrix. Indexed matrices keep it once
+     * computed, so systems with a stored matrix are solved in O(n^2) after
+     * the first one. The factors of sparse matrices are dense, so they are
+     * not kept. Throws IllegalArgumentException if the matrix is not square.
+     * @return decomposition of the matrix
+     */
+    public LuDecomposition decomposition() {
+        if (!indexed || sparse != null) {
+            return LuDecomposition.of(this);
         }
-        return column;
+        LuDecomposition result = decomposition;
+        if (result == null) {
+            synchronized (this) {
+                result = decomposition;
+                if (result == null) {
+                    result = LuDecomposition.of(this);
+                    decomposition = result;
+                }
+            }
+        }
+        return result;
     }
 
-    private double[][] validate(final double[][] matrix) {
+    public int getRows() {
+        return rows;
+    }
+
+    public int getColumns() {
+        return columns;
+    }
+
+    /**
+     * @return largest number of non-zeros of a sparse matrix with length
+     * elements, negative if the matrix is too small to be sparse
+     */
+    private static int maxSparseNonZeros(int length) {
+        return length < MIN_SPARSE_LENGTH ? -1 : (int) (length * MAX_SPARSE_DENSITY);
+    }
+
+    private boolean isValidRange(final int upperBound, final int index) {
+        return !(index < 1 || upperBound < index);
+    }
+
+    private static void validate(final double[][] matrix) {
         checkNotNull(matrix, "matrix is null");
         checkArgument(matrix.length > 0, "matrix is empty");
         checkRectangularity(matrix);
-
-        return matrix;
     }
 
-    private void checkRectangularity(final double[][] matrix) {
+    private static void checkRectangularity(final double[][] matrix) {
         int columns = matrix[0].length;
 
         stream(matrix).forEach(row -> {
@@ -140,7 +457,8 @@ public final class Matrix {
     @Override
     public String toString() {
         return MoreObjects.toStringHelper(getClass().getSimpleName())
-            .add("matrix", matrix)
+            .add("rows", rows)
+            .add("columns", columns)
             .toString();
     }
 }
@@ -0,0 +1,209 @@
+package sk.bocko.matrixcalc.model;
+
+import static com.google.common.base.Preconditions.checkArgument;
+import static com.google.common.base.Preconditions.checkNotNull;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+import org.apache.http.annotation.ThreadSafe;
+
+/**
+ * Product of two matrices with a cache-blocked kernel.
+ *
+ * The right operand is packed once into panels of {@link #DEPTH_BLOCK} rows
+ * and {@link #WIDTH_BLOCK} columns, each stored contiguously, so a panel
+ * stays in the L2 cache while it is used by a block of rows of the left
+ * operand. The inner loop adds a multiple of a panel row to four result
+ * rows at once (i-k-j order), which the JIT compiles to vector
+ * instructions. Every element is summed in the order of k, exactly as by
+ * the textbook triple loop, so the result does not depend on the blocking
+ * or on the number of threads.
+ *
+ * Products of at least threshold multiply-adds are split into blocks of
+ * rows computed in parallel on a fork/join pool.
+ *
+ * Small operands can have a huge product (a column times a row), so the
+ * number of elements of the product is limited before it is allocated.
+ */
+@ThreadSafe
+public final class MatrixMultiplication {
+    static final int DEPTH_BLOCK = 128;
+    static final int WIDTH_BLOCK = 512;
+    private static final int ROW_BLOCK = 32;
+    private static final int BLOCKS_PER_THREAD = 4;
+
+    private final ForkJoinPool pool;
+    private final long threshold;
+    private final long maxElements;
+
+    /**
+     * @param pool pool to compute the blocks of rows on
+     * @param threshold minimal number of multiply-adds computed in parallel
+     * @param maxElements maximum number of elements of the product
+     */
+    public MatrixMultiplication(final ForkJoinPool pool, final long threshold,
+        final long maxElements) {
+        this.pool = checkNotNull(pool, "pool is null");
+        checkArgument(threshold > 0, "threshold must be positive");
+        checkArgument(maxElements > 0, "maximum number of elements must be positive");
+        this.threshold = threshold;
+        this.maxElements = maxElements;
+    }
+
+    /**
+     * Multiply two matrices. Throws IllegalArgumentException if the number
+     * of columns of the left operand differs from the number of rows of the
+     * right one, or if the product has more elements than allowed.
+     * @param left left operand, m x k
+     * @param right right operand, k x n
+     * @return a new m x n matrix
+     */
+    public Matrix apply(Matrix left, Matrix right) {
+        checkNotNull(left, "left operand is null");
+        checkNotNull(right, "right operand is null");
+
+        int m = left.getRows();
+        int k = left.getColumns();
+        int n = right.getColumns();
+        if (k != right.getRows()) {
+            throw new IllegalArgumentException(String.format(
+                "Matrices %dx%d and %dx%d can not be multiplied.",
+                m, k, right.getRows(), n));
+        }
+        if ((long) m * n > Math.min(maxElements, Integer.MAX_VALUE - 8)) {
+            throw new IllegalArgumentException(String.format(
+                "Product %dx%d is too large.", m, n));
+        }
+
+        double[] a = left.denseValues();
+        double[] packed = pack(right.denseValues(), k, n);
+        double[] c = new double[m * n];
+
+        Product product = new Product(a, packed, c, m, k, n);
+        long work = (long) m * n * k;
+        if (work < threshold || m <= ROW_BLOCK) {
+            product.rows(0, m);
+        } else {
+            int blockRows = Math.max(ROW_BLOCK,
+                m / (pool.getParallelism() * BLOCKS_PER_THREAD) + 1);
+            pool.invoke(new RowBlock(product, 0, m, blockRows));
+        }
+        return Matrix.from(m, n, c);
+    }
+
+    /**
+     * @return minimal number of multiply-adds computed in parallel
+     */
+    public long getThreshold() {
+        return threshold;
+    }
+
+    /**
+     * Pack a row-major k x n matrix into panels. Panels follow each other by
+     * blocks of columns and then by blocks of rows, a panel of d rows and w
+     * columns is stored row after row.
+     */
+    static double[] pack(double[] b, int k, int n) {
+        double[] packed = new double[k * n];
+        int offset = 0;
+        for (int j0 = 0; j0 < n; j0 += WIDTH_BLOCK) {
+            int width = Math.min(WIDTH_BLOCK, n - j0);
+            for (int p0 = 0; p0 < k; p0 += DEPTH_BLOCK) {
+                int depth = Math.min(DEPTH_BLOCK, k - p0);
+                for (int p = p0; p < p0 + depth; p++) {
+                    System.arraycopy(b, p * n + j0, packed, offset, width);
+                    offset += width;
+                }
+            }
+        }
+        return packed;
+    }
+
+    private static final class Product {
+        private final double[] a, packed, c;
+        private final int m, k, n;
+
+        private Product(final double[] a, final double[] packed, final double[] c,
+            final int m, final int k, final int n) {
+            this.a = a;
+            this.packed = packed;
+            this.c = c;
+            this.m = m;
+            this.k = k;
+            this.n = n;
+        }
+
+        /**
+         * Compute the result rows from (inclusive) to (exclusive).
+         */
+        void rows(int from, int to) {
+            int panel = 0;
+            for (int j0 = 0; j0 < n; j0 += WIDTH_BLOCK) {
+                int width = Math.min(WIDTH_BLOCK, n - j0);
+                for (int p0 = 0; p0 < k; p0 += DEPTH_BLOCK) {
+                    int depth = Math.min(DEPTH_BLOCK, k - p0);
+                    int i = from;
+                    for (; i + 4 <= to; i += 4) {
+                        fourRows(i, j0, width, p0, depth, panel);
+                    }
+                    for (; i < to; i++) {
+                        oneRow(i, j0, width, p0, depth, panel);
+                    }
+                    panel += depth * width;
+                }
+            }
+        }
+
+        private void fourRows(int i, int j0, int width, int p0, int depth, int panel) {
+            int c0 = i * n + j0, c1 = c0 + n, c2 = c1 + n, c3 = c2 + n;
+            int a0 = i * k + p0, a1 = a0 + k, a2 = a1 + k, a3 = a2 + k;
+            for (int p = 0, b = panel; p < depth; p++, b += width) {
+                double x0 = a[a0 + p], x1 = a[a1 + p], x2 = a[a2 + p], x3 = a[a3 + p];
+                for (int j = 0; j < width; j++) {
+                    double y = packed[b + j];
+                    c[c0 + j] += x0 * y;
+                    c[c1 + j] += x1 * y;
+                    c[c2 + j] += x2 * y;
+                    c[c3 + j] += x3 * y;
+                }
+            }
+        }
+
+        private void oneRow(int i, int j0, int width, int p0, int depth, int panel) {
+            int c0 = i * n + j0;
+            int a0 = i * k + p0;
+            for (int p = 0, b = panel; p < depth; p++, b += width) {
+                double x0 = a[a0 + p];
+                for (int j = 0; j < width; j++) {
+                    c[c0 + j] += x0 * packed[b + j];
+                }
+            }
+        }
+    }
+
+    private static final class RowBlock extends RecursiveAction {
+        private static final long serialVersionUID = 1L;
+
+        private final Product product;
+        private final int from, to, blockRows;
+
+        private RowBlock(final Product product, final int from, final int to,
+            final int blockRows) {
+            this.product = product;
+            this.from = from;
+            this.to = to;
+            this.blockRows = blockRows;
+        }
+
+        @Override
+        protected void compute() {
+            if (to - from <= blockRows) {
+                product.rows(from, to);
+                return;
+            }
+            // split on a multiple of four rows, so only the last block has a remainder
+            int middle = from + ((to - from) / 2 + 3) / 4 * 4;
+            invokeAll(new RowBlock(product, from, middle, blockRows),
+                new RowBlock(product, middle, to, blockRows));
+        }
+    }
+}
@@ -0,0 +1,145 @@
+package sk.bocko.matrixcalc.model;
+
+import static com.google.common.base.Preconditions.checkNotNull;
+import org.apache.http.annotation.Immutable;
+import org.json.JSONArray;
+import org.json.JSONException;
+import org.json.JSONObject;
+
+/**
+ * New values of whole rows and of single cells of a {@link LiveMatrix}.
+ *
+ * Rows are replaced first, then the cells, both in the given order, so
+ * a later value of the same cell wins. Rows and columns are 1-indexed.
+ */
+@Immutable
+public final class MatrixUpdate {
+    public static final String CELLS = "cells";
+    public static final String ROWS = "rows";
+
+    private final int[] rows;
+    private final double[][] rowValues;
+    private final int[] cellRows, cellColumns;
+    private final double[] cellValues;
+
+    private MatrixUpdate(final int[] rows, final double[][] rowValues,
+        final int[] cellRows, final int[] cellColumns, final double[] cellValues) {
+        this.rows = rows;
+        this.rowValues = rowValues;
+        this.cellRows = cellRows;
+        this.cellColumns = cellColumns;
+        this.cellValues = cellValues;
+    }
+
+    /**
+     * Create an instance of {@link MatrixUpdate} from a json object, e.g.
+     * {"rows": [[2, [1, 2, 3]]], "cells": [[1, 3, 5.5]]} replaces the second
+     * row and the value at 1-3. At least one of the members must be present.
+     * @param json update with "rows" of [row, values] and "cells" of
+     * [row, column, value]
+     * @return a new {@link MatrixUpdate} instance
+     */
+    public static MatrixUpdate from(JSONObject json) {
+        checkNotNull(json, "json is null");
+        if (!json.has(ROWS) && !json.has(CELLS)) {
+            throw new IllegalArgumentException(String.format(
+                "Update has neither \"%s\" nor \"%s\".", ROWS, CELLS));
+        }
+
+        JSONArray rowUpdates = json.has(ROWS) ? json.getJSONArray(ROWS) : new JSONArray();
+        int[] rows = new int[rowUpdates.length()];
+        double[][] rowValues = new double[rowUpdates.length()][];
+        for (int i = 0; i < rows.length; i++) {
+            JSONArray update = rowUpdates.getJSONArray(i);
+            if (update.length() != 2 || update.optJSONArray(1) == null) {
+                throw new JSONException(String.format(
+                    "JSONArray[%d] is not a [row, values] update.", i));
+            }
+            rows[i] = update.getInt(0);
+            JSONArray values = update.getJSONArray(1);
+            rowValues[i] = new double[values.length()];
+            for (int j = 0; j < values.length(); j++) {
+                rowValues[i][j] = values.getDouble(j);
+            }
+        }
+
+        JSONArray cells = json.has(CELLS) ? json.getJSONArray(CELLS) : new JSONArray();
+        int[] cellRows = new int[cells.length()];
+        int[] cellColumns = new int[cells.length()];
+        double[] cellValues = new double[cells.length()];
+        for (int k = 0; k < cellValues.length; k++) {
+            JSONArray cell = cells.getJSONArray(k);
+            if (cell.length() != 3) {
+                throw new JSONException(String.format(
+                    "JSONArray[%d] is not a [row, column, value] entry.", k));
+            }
+            cellRows[k] = cell.getInt(0);
+            cellColumns[k] = cell.getInt(1);
+            cellValues[k] = cell.getDouble(2);
+        }
+        return new MatrixUpdate(rows, rowValues, cellRows, cellColumns, cellValues);
+    }
+
+    /**
+     * Throws IllegalArgumentException if a row or a cell is out of the
+     * matrix or a row does not have a value for every column.
+     */
+    void validate(int matrixRows, int matrixColumns) {
+        for (int i = 0; i < rows.length; i++) {
+            if (rows[i] < 1 || matrixRows < rows[i]) {
+                throw new IllegalArgumentException(String.format(
+                    "The '%d-x' range is not valid for the matrix.", rows[i]));
+            }
+            if (rowValues[i].length != matrixColumns) {
+                throw new IllegalArgumentException(String.format(
+                    "Row %d has %d values, but the matrix has %d columns.",
+                    rows[i], rowValues[i].length, matrixColumns));
+            }
+        }
+        for (int k = 0; k < cellValues.length; k++) {
+            if (cellRows[k] < 1 || matrixRows < cellRows[k]
+                || cellColumns[k] < 1 || matrixColumns < cellColumns[k]) {
+                throw new IllegalArgumentException(String.format(
+                    "The '%d-%d' position is out-of-range for the matrix.",
+                    cellRows[k], cellColumns[k]));
+            }
+        }
+    }
+
+    int rowCount() {
+        return rows.length;
+    }
+
+    /**
+     * @return 1-indexed row of the i-th row update
+     */
+    int row(int i) {
+        return rows[i];
+    }
+
+    double[] rowValues(int i) {
+        return rowValues[i];
+    }
+
+    int cellCount() {
+        return cellValues.length;
+    }
+
+    /**
+     * @return 1-indexed row of the k-th cell update
+     */
+    int cellRow(int k) {
+        return cellRows[k];
+    }
+
+    /**
+     * @return 1-indexed column of the k-th cell update
+     */
+    int cellColumn(int k) {
+        return cellColumns[k];
+    }
+
+    double cellValue(int k) {
+        return cellValues[k];
+    }
+}
@@ -0,0 +1,129 @@
+package sk.bocko.matrixcalc.model;
+
+import com.google.common.base.MoreObjects;
+import static com.google.common.base.Preconditions.checkElementIndex;
+import java.util.Arrays;
+import org.apache.http.annotation.ThreadSafe;
+
+/**
+ * Read-only view of a part of the {@link Matrix} storage.
+ *
+ * The view does not copy any values, it only describes where they are:
+ * the i-th value of the view is stored at offset + i * stride.
+ *
+ * Views of blocks have several lines of width values each, the j-th
+ * value of the i-th line is stored at offset + i * lineStride + j * stride
+ * and the values are ordered line after line.
+ *
+ * Views of sparse matrices hold only the non-zeros: the k-th of the count
+ * non-zeros is values[offset + k] and its index in the view is
+ * indices[offset + k] - base. The indices are ascending, every other value
+ * of the view is zero.
+ */
+@ThreadSafe
+public final class MatrixView {
+    final double[] values;
+    final int offset, length, stride;
+    final int width, lines, lineStride;
+    final int[] indices;
+    final int count, base;
+
+    MatrixView(final double[] values, final int offset, final int length, final int stride) {
+        this(values, offset, length, stride, 1, 0, null, length, 0);
+    }
+
+    MatrixView(final double[] values, final int offset, final int width, final int stride,
+        final int lines, final int lineStride) {
+        this(values, offset, width, stride, lines, lineStride, null, width * lines, 0);
+    }
+
+    MatrixView(final double[] values, final int[] indices, final int offset,
+        final int count, final int length, final int base) {
+        this(values, offset, length, 1, 1, 0, indices, count, base);
+    }
+
+    private MatrixView(final double[] values, final int offset, final int width,
+        final int stride, final int lines, final int lineStride, final int[] indices,
+        final int count, final int base) {
+        this.values = values;
+        this.offset = offset;
+        this.length = width * lines;
+        this.stride = stride;
+        this.width = width;
+        this.lines = lines;
+        this.lineStride = lineStride;
+        this.indices = indices;
+        this.count = count;
+        this.base = base;
+    }
+
+    /**
+     * @return number of values in the view
+     */
+    public int length() {
+        return length;
+    }
+
+    /**
+     * @return true if the view holds only the non-zeros of a sparse matrix
+     */
+    public boolean isSparse() {
+        return indices != null;
+    }
+
+    /**
+     * Returns a value of the view. View is 0-indexed.
+     * @param index index of the value in the view
+     * @return value at index
+     */
+    public double get(int index) {
+        checkElementIndex(index, length);
+        if (indices == null) {
+            return values[offset + index / width * lineStride + index % width * stride];
+        }
+        int found = Arrays.binarySearch(indices, offset, offset + count, base + index);
+        return found < 0 ? 0 : values[found];
+    }
+
+    /**
+     * Copy the values of the view to a new array.
+     * @return an array with all the values of the view
+     */
+    public double[] toArray() {
+        double[] copy = new double[length];
+        if (indices != null) {
+            for (int k = offset; k < offset + count; k++) {
+                copy[indices[k] - base] = values[k];
+            }
+            return copy;
+        }
+        for (int line = 0, i = 0; line < lines; line++) {
+            for (int j = offset + line * lineStride, end = i + width; i < end; i++, j += stride) {
+                copy[i] = values[j];
+            }
+        }
+        return copy;
+    }
+
+    /**
+     * @return this view if it is dense and has a single line, otherwise
+     * a dense copy of it
+     */
+    public MatrixView toDense() {
+        return indices == null && lines == 1 ? this : new MatrixView(toArray(), 0, length, 1);
+    }
+
+    @Override
+    public String toString() {
+        MoreObjects.ToStringHelper helper = MoreObjects.toStringHelper(getClass().getSimpleName())
+            .add("offset", offset)
+            .add("length", length);
+        if (indices != null) {
+            return helper.add("nonZeros", count).toString();
+        }
+        helper.add("stride", stride);
+        return lines == 1
+            ? helper.toString()
+            : helper.add("lines", lines).add("lineStride", lineStride).toString();
+    }
+}
@@ -0,0 +1,337 @@
+package sk.bocko.matrixcalc.model;
+
+import static com.google.common.base.Preconditions.checkArgument;
+import static com.google.common.base.Preconditions.checkNotNull;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveTask;
+import org.apache.http.annotation.ThreadSafe;
+
+/**
+ * Applies {@link RangedOperation}s on large ranges in parallel.
+ *
+ * Ranges shorter than the threshold are reduced sequentially on the calling
+ * thread, exactly as {@link RangedOperation#apply(Matrix, Range)} does.
+ * Longer ranges are split into blocks reduced on a fork/join pool, views
+ * of several lines (block ranges) are split between lines. Block sums are
+ * Neumaier-compensated and carry their compensation into the combination,
+ * so parallel sums and averages differ from the sequential ones only in
+ * the last bits. Block variances are combined from their
+ * means and sums of squared deviations as described by Chan et al., with
+ * the same precision. Medians are always selected sequentially.
+ */
+@ThreadSafe
+public final class ParallelReduction {
+    // a block must be large enough to outweigh the cost of a task
+    private static final int MIN_BLOCK_LENGTH = 1 << 14;
+    private static final int BLOCKS_PER_THREAD = 4;
+
+    private final ForkJoinPool pool;
+    private final int threshold;
+
+    /**
+     * @param pool pool to reduce the blocks on
+     * @param threshold minimal number of values reduced in parallel
+     */
+    public ParallelReduction(final ForkJoinPool pool, final int threshold) {
+        this.pool = checkNotNull(pool, "pool is null");
+        checkArgument(threshold > 0, "threshold must be positive");
+        this.threshold = threshold;
+    }
+
+    /**
+     * Reduce the values of a range of the matrix.
+     * Throws IllegalArgumentException if range is not valid for the matrix.
+     * @param operation operation to apply
+     * @param matrix matrix to reduce
+     * @param range range of the matrix to reduce
+     * @return result of the operation
+     */
+    public double apply(RangedOperation operation, Matrix matrix, Range range) {
+        checkNotNull(matrix, "matrix is null");
+        checkNotNull(range, "range is null");
+
+        return apply(operation, matrix, range, matrix.getRange(range));
+    }
+
+    /**
+     * Same as {@link #apply(RangedOperation, Matrix, Range)} for a range
+     * whose view was already extracted, the view is reduced as it is.
+     * @param operation operation to apply
+     * @param matrix matrix to reduce
+     * @param range range of the matrix to reduce
+     * @param view view of the range, see {@link Matrix#getRange(Range)}
+     * @return result of the operation
+     */
+    public double apply(RangedOperation operation, Matrix matrix, Range range, MatrixView view) {
+        checkNotNull(operation, "operation is null");
+        checkNotNull(matrix, "matrix is null");
+        checkNotNull(range, "range is null");
+        checkNotNull(view, "view is null");
+
+        if (operation.isIndexed() && !range.isBlock() && matrix.aggregates() != null) {
+            return operation.apply(matrix, range);
+        }
+        // sparse views are reduced in time proportional to the non-zeros
+        if (view.length < threshold || view.isSparse() || operation == RangedOperation.MEDIAN) {
+            return operation.apply(view);
+        }
+
+        int blockLength = Math.max(MIN_BLOCK_LENGTH,
+            view.length / (pool.getParallelism() * BLOCKS_PER_THREAD) + 1);
+        Block root = view.lines == 1
+            ? new Block(operation, view, 0, view.length, blockLength)
+            : new Block(operation, view, 0, view.lines, Math.max(1, blockLength / view.width));
+        Partial result = pool.invoke(root);
+        switch (operation) {
+            case AVERAGE:
+                return result.value() / view.length;
+            case VARIANCE:
+                return result.compensation / view.length;
+            case STANDARD_DEVIATION:
+                return Math.sqrt(result.compensation / view.length);
+            default:
+                return result.value();
+        }
+    }
+
+    /**
+     * Rank the values of a range of the matrix, see {@link Ranking}. Long
+     * dense ranges are split into blocks as for the reductions, every block
+     * is ranked into a heap of its own and the heaps are merged.
+     * Throws IllegalArgumentException if range is not valid for the matrix
+     * or k is not positive.
+     * @param matrix matrix to rank
+     * @param range range of the matrix to rank
+     * @param k number of values to keep
+     * @param largest true to keep the largest values, false the smallest
+     * @return the best values, best first
+     */
+    public Ranking rank(Matrix matrix, Range range, int k, boolean largest) {
+        checkNotNull(matrix, "matrix is null");
+        checkNotNull(range, "range is null");
+        Ranking.check(k);
+
+        MatrixView view = matrix.getRange(range);
+        if (view.length < threshold || view.isSparse()) {
+            return Ranking.of(matrix, range, k, largest);
+        }
+
+        int blockLength = Math.max(MIN_BLOCK_LENGTH,
+            view.length / (pool.getParallelism() * BLOCKS_PER_THREAD) + 1);
+        RankedBlock root = view.lines == 1
+            ? new RankedBlock(view, 0, view.length, blockLength, k, largest)
+            : new RankedBlock(view, 0, view.lines, Math.max(1, blockLength / view.width), k,
+                largest);
+        return Ranking.of(pool.invoke(root), matrix, range);
+    }
+
+    /**
+     * @return minimal number of values reduced in parallel
+     */
+    public int getThreshold() {
+        return threshold;
+    }
+
+    /**
+     * Result of a block, the compensation is used by sums only. Variances
+     * keep the mean as the value, the sum of squared deviations as the
+     * compensation and the number of values reduced.
+     */
+    private static final class Partial {
+        private final double value, compensation;
+        private final long count;
+
+        private Partial(final double value, final double compensation) {
+            this(value, compensation, 0);
+        }
+
+        private Partial(final double value, final double compensation, final long count) {
+            this.value = value;
+            this.compensation = compensation;
+            this.count = count;
+        }
+
+        private double value() {
+            return value + compensation;
+        }
+    }
+
+    /**
+     * Heap of the best values from..to of a single line view, or of lines
+     * from..to of a view of several lines.
+     */
+    private static final class RankedBlock extends RecursiveTask<Ranking.Heap> {
+        private static final long serialVersionUID = 1L;
+
+        private final MatrixView view;
+        private final int from, to, blockLength, k;
+        private final boolean largest;
+
+        private RankedBlock(final MatrixView view, final int from, final int to,
+            final int blockLength, final int k, final boolean largest) {
+            this.view = view;
+            this.from = from;
+            this.to = to;
+            this.blockLength = blockLength;
+            this.k = k;
+            this.largest = largest;
+        }
+
+        @Override
+        protected Ranking.Heap compute() {
+            if (to - from > blockLength) {
+                int middle = (from + to) >>> 1;
+                RankedBlock left = new RankedBlock(view, from, middle, blockLength, k, largest);
+                RankedBlock right = new RankedBlock(view, middle, to, blockLength, k, largest);
+                left.fork();
+                Ranking.Heap second = right.compute();
+                Ranking.Heap first = left.join();
+                Ranking.Heap merged = new Ranking.Heap(
+                    Math.min(k, first.size() + second.size()), largest);
+                merged.offerAll(first);
+                merged.offerAll(second);
+                return merged;
+            }
+
+            boolean single = view.lines == 1;
+            int width = single ? to - from : view.width;
+            Ranking.Heap heap = new Ranking.Heap(
+                (int) Math.min(k, (long) width * (single ? 1 : to - from)), largest);
+            if (single) {
+                heap.offerAll(view.values, view.offset + from * view.stride, width, view.stride,
+                    1, 0, from);
+            } else {
+                heap.offerAll(view.values, view.offset + from * view.lineStride, width,
+                    view.stride, to - from, view.lineStride, from * width);
+            }
+            return heap;
+        }
+    }
+
+    /**
+     * Values from..to of a single line view, or lines from..to of a view of
+     * several lines.
+     */
+    private static final class Block extends RecursiveTask<Partial> {
+        private static final long serialVersionUID = 1L;
+
+        private final RangedOperation operation;
+        private final MatrixView view;
+        private final int from, to, blockLength;
+
+        private Block(final RangedOperation operation, final MatrixView view,
+            final int from, final int to, final int blockLength) {
+            this.operation = operation;
+            this.view = view;
+            this.from = from;
+            this.to = to;
+            this.blockLength = blockLength;
+        }
+
+        @Override
+        protected Partial compute() {
+            if (to - from <= blockLength) {
+                return reduce();
+            }
+
+            int middle = (from + to) >>> 1;
+            Block left = new Block(operation, view, from, middle, blockLength);
+            Block right = new Block(operation, view, middle, to, blockLength);
+            left.fork();
+            Partial second = right.compute();
+            return combine(left.join(), second);
+        }
+
+        private Partial reduce() {
+            boolean single = view.lines == 1;
+            int offset = view.offset + from * (single ? view.stride : view.lineStride);
+            int width = single ? to - from : view.width;
+            int lines = single ? 1 : to - from;
+            switch (operation) {
+                case SUM:
+                case AVERAGE:
+                    return sum(view.values, offset, width, view.stride, lines, view.lineStride);
+                case VARIANCE:
+                case STANDARD_DEVIATION:
+                    return moments(view.values, offset, width, view.stride, lines,
+                        view.lineStride);
+                default:
+                    return new Partial(operation.apply(view.values, offset, width, view.stride,
+                        lines, view.lineStride), 0);
+            }
+        }
+
+        private Partial combine(Partial first, Partial second) {
+            switch (operation) {
+                case SUM:
+                case AVERAGE:
+                    double sum = first.value + second.value;
+                    double error = Math.abs(first.value) >= Math.abs(second.value)
+                        ? (first.value - sum) + second.value
+                        : (second.value - sum) + first.value;
+                    return new Partial(sum,
+                        first.compensation + second.compensation + error);
+                case VARIANCE:
+                case STANDARD_DEVIATION:
+                    long count = first.count + second.count;
+                    double delta = second.value - first.value;
+                    return new Partial(first.value + delta * second.count / count,
+                        first.compensation + second.compensation
+                            + delta * delta * first.count / count * second.count,
+                        count);
+                case PRODUCT:
+                    return new Partial(first.value * second.value, 0);
+                case MINIMUM:
+                    // NaN wins, as in the sequential kernel
+                    return new Partial(first.value < second.value || first.value != first.value
+                        ? first.value : second.value, 0);
+                case MAXIMUM:
+                    return new Partial(first.value > second.value || first.value != first.value
+                        ? first.value : second.value, 0);
+                default:
+                    throw new IllegalStateException("unsupported operation " + operation);
+            }
+        }
+
+        /**
+         * Neumaier summation, the compensation is kept separately.
+         */
+        private static Partial sum(double[] values, int offset, int width, int stride,
+            int lines, int lineStride) {
+            double sum = 0;
+            double compensation = 0;
+            for (int line = 0; line < lines; line++) {
+                for (int i = 0, j = offset + line * lineStride; i < width; i++, j += stride) {
+                    double value = values[j];
+                    double next = sum + value;
+                    if (Math.abs(sum) >= Math.abs(value)) {
+                        compensation += (sum - next) + value;
+                    } else {
+                        compensation += (value - next) + sum;
+                    }
+                    sum = next;
+                }
+            }
+            return new Partial(sum, compensation);
+        }
+
+        /**
+         * Welford's algorithm, as in the sequential kernel.
+         */
+        private static Partial moments(double[] values, int offset, int width, int stride,
+            int lines, int lineStride) {
+            double mean = 0;
+            double squares = 0;
+            long count = 0;
+            for (int line = 0; line < lines; line++) {
+                for (int i = 0, j = offset + line * lineStride; i < width; i++, j += stride) {
+                    double value = values[j];
+                    double delta = value - mean;
+                    mean += delta / ++count;
+                    squares += delta * (value - mean);
+                }
+            }
+            return new Partial(mean, squares, count);
+        }
+    }
+}
@@ -0,0 +1,221 @@
+package sk.bocko.matrixcalc.model;
+
+import static com.google.common.base.Preconditions.checkNotNull;
+import org.apache.http.annotation.ThreadSafe;
+
+/**
+ * Percentiles of the values of a range, e.g. the median is the 50th one.
+ *
+ * The p-th percentile of n values is interpolated linearly between the
+ * values of rank floor(h) and floor(h) + 1 of the sorted values, where
+ * h = (n - 1) * p / 100, so the median of an even number of values is the
+ * average of the middle two. The result is NaN if any of the values is.
+ *
+ * The values are copied to a scratch buffer and the ranks are selected
+ * there by an in-place quickselect, so no sort is done. Each thread keeps
+ * a single buffer for ranges of up to {@link #MAX_KEPT_LENGTH} values,
+ * longer ranges get a buffer of their own which is released after the
+ * selection, so a single large median does not pin its buffer on the
+ * thread. Sparse views copy their non-zeros only, the implicit zeros are
+ * counted.
+ */
+@ThreadSafe
+public final class Percentile {
+    static final int MAX_KEPT_LENGTH = 1 << 16;
+    private static final ThreadLocal<double[]> BUFFER = ThreadLocal.withInitial(() -> new double[0]);
+
+    private Percentile() {
+    }
+
+    /**
+     * Check the percentile, throws IllegalArgumentException if it is not
+     * a number between 0 and 100.
+     * @param p percentile to check
+     * @return the percentile
+     */
+    public static double check(double p) {
+        if (!(0 <= p && p <= 100)) {
+            throw new IllegalArgumentException(
+                String.format("Percentile '%s' is not between 0 and 100.", p));
+        }
+        return p;
+    }
+
+    /**
+     * Select the p-th percentile of a range of the matrix.
+     * Throws IllegalArgumentException if range is not valid for the matrix
+     * or p is not between 0 and 100.
+     * @param matrix matrix to select from
+     * @param range range of the matrix
+     * @param p percentile, 50 for the median
+     * @return the percentile of the values
+     */
+    public static double apply(Matrix matrix, Range range, double p) {
+        checkNotNull(matrix, "matrix is null");
+        checkNotNull(range, "range is null");
+        check(p);
+
+        MatrixView view = matrix.getRange(range);
+        if (view.isSparse()) {
+            return select(view.values, view.indices, view.offset, view.count, view.length,
+                p);
+        }
+        return select(view.values, view.offset, view.width, view.stride, view.lines,
+            view.lineStride, p);
+    }
+
+    /**
+     * Select the p-th percentile of lines of width values, the j-th value of
+     * the i-th line is stored at offset + i * lineStride + j * stride.
+     */
+    static double select(double[] values, int offset, int width, int stride, int lines,
+        int lineStride, double p) {
+        int length = width * lines;
+        double[] buffer = buffer(length);
+        int k = 0;
+        for (int line = 0; line < lines; line++) {
+            for (int i = 0, j = offset + line * lineStride; i < width; i++, j += stride) {
+                double value = values[j];
+                if (value != value) {
+                    return Double.NaN;
+                }
+                buffer[k++] = value;
+            }
+        }
+
+        double h = (length - 1) * p / 100;
+        int rank = (int) h;
+        double lower = select(buffer, 0, length, rank);
+        if (rank + 1 == length || h == rank) {
+            return lower;
+        }
+        // the higher rank is the minimum of the values right of the lower one
+        return interpolate(lower, minimum(buffer, rank + 1, length), h - rank);
+    }
+
+    /**
+     * Select the p-th percentile of a sparse view of length values, whose
+     * count non-zeros are values[offset + k].
+     */
+    static double select(double[] values, int[] indices, int offset, int count, int length,
+        double p) {
+        double[] buffer = buffer(count);
+        // negatives are gathered from the start, positives from the end
+        int negatives = 0;
+        int positives = count;
+        int zeros = length - count;
+        for (int k = offset; k < offset + count; k++) {
+            double value = values[k];
+            if (value < 0) {
+                buffer[negatives++] = value;
+            } else if (value > 0) {
+                buffer[--positives] = value;
+            } else if (value == 0) {
+                zeros++;
+            } else {
+                return Double.NaN;
+            }
+        }
+
+        double h = (length - 1) * p / 100;
+        int rank = (int) h;
+        double lower = rankOf(buffer, negatives, positives, count, zeros, rank);
+        if (rank + 1 == length || h == rank) {
+            return lower;
+        }
+        return interpolate(lower,
+            rankOf(buffer, negatives, positives, count, zeros, rank + 1), h - rank);
+    }
+
+    /**
+     * @return value of the rank among the negatives, the zeros and the
+     * positives gathered in the buffer
+     */
+    private static double rankOf(double[] buffer, int negatives, int positives, int count,
+        int zeros, int rank) {
+        if (rank < negatives) {
+            return select(buffer, 0, negatives, rank);
+        } else if (rank < negatives + zeros) {
+            return 0.0;
+        }
+        return select(buffer, positives, count, positives + rank - negatives - zeros);
+    }
+
+    private static double interpolate(double lower, double higher, double fraction) {
+        return lower + (higher - lower) * fraction;
+    }
+
+    static double[] buffer(int length) {
+        if (length > MAX_KEPT_LENGTH) {
+            return new double[length];
+        }
+        double[] buffer = BUFFER.get();
+        if (buffer.length < length) {
+            buffer = new double[length];
+            BUFFER.set(buffer);
+        }
+        return buffer;
+    }
+
+    /**
+     * Hoare's quickselect with the median of three as the pivot, moves the
+     * value of the rank to its sorted position, lower values to its left
+     * and higher ones to its right.
+     * @return value of rank from..to in the sorted values from..to
+     */
+    private static double select(double[] buffer, int from, int to, int rank) {
+        int left = from;
+        int right = to - 1;
+        while (left < right) {
+            int middle = (left + right) >>> 1;
+            if (buffer[middle] < buffer[left]) {
+                swap(buffer, middle, left);
+            }
+            if (buffer[right] < buffer[left]) {
+                swap(buffer, right, left);
+            }
+            if (buffer[right] < buffer[middle]) {
+                swap(buffer, right, middle);
+            }
+            double pivot = buffer[middle];
+
+            int i = left;
+            int j = right;
+            while (i <= j) {
+                while (buffer[i] < pivot) {
+                    i++;
+                }
+                while (buffer[j] > pivot) {
+                    j--;
+                }
+                if (i <= j) {
+                    swap(buffer, i++, j--);
+                }
+            }
+            if (rank <= j) {
+                right = j;
+            } else if (rank >= i) {
+                left = i;
+            } else {
+                return buffer[rank];
+            }
+        }
+        return buffer[rank];
+    }
+
+    private static double minimum(double[] buffer, int from, int to) {
+        double minimum = buffer[from];
+        for (int i = from + 1; i < to; i++) {
+            if (buffer[i] < minimum) {
+                minimum = buffer[i];
+            }
+        }
+        return minimum;
+    }
+
+    private static void swap(double[] buffer, int i, int j) {
+        double value = buffer[i];
+        buffer[i] = buffer[j];
+        buffer[j] = value;
+    }
+}
@@ -46,6 +46,15 @@ public class Position {
         }
     }
 
+    /**
+     * @param row 1-indexed row
+     * @param column 1-indexed column
+     * @return position of the element
+     */
+    static Position of(int row, int column) {
+        return new Position(row, column);
+    }
+
     public int getRow() {
         return row;
     }
@@ -53,4 +62,12 @@ public class Position {
     public int getColumn() {
         return column;
     }
+
+    /**
+     * @return position in the format of {@link #valueOf(String)}, e.g. 12-25
+     */
+    @Override
+    public String toString() {
+        return row + DELIMITER + column;
+    }
 }
@@ -5,26 +5,41 @@ import org.apache.http.annotation.ThreadSafe;
 
 /**
  * Represents a range in the matrix.
+ *
+ * A range selects rows and columns of the matrix, each side of the
+ * delimiter is a single row or column (e.g. 3), a span of them including
+ * both bounds (e.g. 2:10) or the wildcard selecting all of them. A row
+ * (3-x), a column (x-2) and the whole matrix are answered by aggregate
+ * indexes, other ranges (2:10-4:8, 2:10-x, 3-4:8) are blocks.
  */
 @ThreadSafe
 public final class Range {
     public static final String DELIMITER = "-";
     public static final String WILDCARD = "x";
+    public static final String SPAN = ":";
 
-    private final Optional<Integer> row, column;
+    // indices of the wildcard, actual indices can not be negative
+    private static final int ALL = -1;
 
-    private Range(final Optional<Integer> row, final Optional<Integer> column) {
-        this.row = row;
-        this.column = column;
+    private final int firstRow, lastRow, firstColumn, lastColumn;
+
+    private Range(final int firstRow, final int lastRow,
+        final int firstColumn, final int lastColumn) {
+        this.firstRow = firstRow;
+        this.lastRow = lastRow;
+        this.firstColumn = firstColumn;
+        this.lastColumn = lastColumn;
     }
 
     private Range() {
-        this(Optional.empty(), Optional.empty());
+        this(ALL, ALL, ALL, ALL);
     }
 
     /**
      * Create an instance of {@link Range} class from a given string.
-     * The format if '%d-%d' (e.g. 12-25).
+     * The format is 'rows-columns' where both rows and columns are
+     * '%d', '%d:%d' or 'x' (e.g. 12-x, x-25, 2:10-4:8). At least one side
+     * must be a span or a wildcard and not both sides may be wildcards.
      * @param value range string to parse.
      * Unbounded range is returned if not present.
      * @return {@link Range} object
@@ -47,52 +62,129 @@ public final class Range {
             throw invalidIndex;
         }
 
-        if (WILDCARD.equals(split[1])) {
-            try {
-                int row = Integer.parseInt(split[0]);
-                return new Range(Optional.of(row), Optional.empty());
-            } catch (NumberFormatException ignored) {
-                throw invalidIndex;
+        int[] rows = parseSide(split[0], invalidIndex);
+        int[] columns = parseSide(split[1], invalidIndex);
+        boolean rowsAreSingle = rows[0] != ALL && !split[0].contains(SPAN);
+        boolean columnsAreSingle = columns[0] != ALL && !split[1].contains(SPAN);
+        // 12-25 is a position, x-x is the range without a value
+        if (rowsAreSingle && columnsAreSingle || rows[0] == ALL && columns[0] == ALL) {
+            throw invalidIndex;
+        }
+        return new Range(rows[0], rows[1], columns[0], columns[1]);
+    }
+
+    /**
+     * @param row 1-indexed row
+     * @return range of the whole row
+     */
+    static Range ofRow(int row) {
+        return new Range(row, row, ALL, ALL);
+    }
+
+    /**
+     * @param column 1-indexed column
+     * @return range of the whole column
+     */
+    static Range ofColumn(int column) {
+        return new Range(ALL, ALL, column, column);
+    }
+
+    /**
+     * @return first and last index of the side, {@link #ALL} for the wildcard
+     */
+    private static int[] parseSide(String side, IllegalArgumentException invalidIndex) {
+        if (WILDCARD.equals(side)) {
+            return new int[]{ALL, ALL};
+        }
+
+        try {
+            int separator = side.indexOf(SPAN);
+            if (separator < 0) {
+                int index = Integer.parseInt(side);
+                return new int[]{index, index};
             }
-        } else if (WILDCARD.equals(split[0])) {
-            try {
-                int column = Integer.parseInt(split[1]);
-                return new Range(Optional.empty(), Optional.of(column));
-            } catch (NumberFormatException ignored) {
+            int first = Integer.parseInt(side.substring(0, separator));
+            int last = Integer.parseInt(side.substring(separator + 1));
+            if (first > last) {
                 throw invalidIndex;
             }
+            return new int[]{first, last};
+        } catch (NumberFormatException ignored) {
+            throw invalidIndex;
         }
-        throw invalidIndex;
     }
 
     boolean isWholeMatrix() {
-        return !isRow() && !isColumn();
+        return firstRow == ALL && firstColumn == ALL;
     }
 
     boolean isRow() {
-        return row.isPresent();
+        return firstRow != ALL && firstRow == lastRow && firstColumn == ALL;
     }
 
     boolean isColumn() {
-        return column.isPresent();
+        return firstColumn != ALL && firstColumn == lastColumn && firstRow == ALL;
+    }
+
+    /**
+     * @return true if the range is neither a row, a column nor the whole
+     * matrix, i.e. it is not answered by aggregate indexes
+     */
+    boolean isBlock() {
+        return !isWholeMatrix() && !isRow() && !isColumn();
     }
 
     int getValue() {
         if (isRow()) {
-            return row.get();
+            return firstRow;
         } else if (isColumn()) {
-            return column.get();
+            return firstColumn;
         }
         throw new IllegalStateException("range has no value");
     }
 
+    /**
+     * @return first selected row, 1-indexed
+     */
+    int getFirstRow() {
+        return firstRow == ALL ? 1 : firstRow;
+    }
+
+    /**
+     * @param rows number of rows of the matrix
+     * @return last selected row, 1-indexed
+     */
+    int getLastRow(int rows) {
+        return lastRow == ALL ? rows : lastRow;
+    }
+
+    /**
+     * @return first selected column, 1-indexed
+     */
+    int getFirstColumn() {
+        return firstColumn == ALL ? 1 : firstColumn;
+    }
+
+    /**
+     * @param columns number of columns of the matrix
+     * @return last selected column, 1-indexed
+     */
+    int getLastColumn(int columns) {
+        return lastColumn == ALL ? columns : lastColumn;
+    }
+
     @Override
     public String toString() {
-        if (isRow()) {
-            return getValue() + "-x";
-        } else if (isColumn()) {
-            return "x-" + getValue();
+        if (isWholeMatrix()) {
+            return "unbounded range";
+        }
+        return side(firstRow, lastRow) + DELIMITER + side(firstColumn, lastColumn);
+    }
+
+    private static String side(int first, int last) {
+        if (first == ALL) {
+            return WILDCARD;
         }
-        return "unbounded range";
+        return first == last ? String.valueOf(first) : first + SPAN + last;
     }
 }
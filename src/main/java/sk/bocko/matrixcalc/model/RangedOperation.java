@@ -1,29 +1,208 @@
 package sk.bocko.matrixcalc.model;
 
 import static com.google.common.base.Preconditions.checkNotNull;
-import java.util.Arrays;
-import java.util.function.Function;
+import java.util.function.ToDoubleBiFunction;
 
 /**
  * Supported ranged operations.
+ *
+ * Each operation is a primitive kernel that reduces a strided view of
+ * the matrix storage in plain loops, line after line for blocks, so
+ * nothing is copied or boxed.
+ * Sum, minimum, maximum and average of indexed matrices are looked up in
+ * their {@link AggregateIndex} instead.
+ *
+ * Sparse views are reduced by a second kernel visiting only the non-zeros.
+ * It reduces a single zero in place of every run of implicit zeros, and
+ * keeps reducing zeros into a sum until its compensation settles, so the
+ * result is exactly the one of the dense kernel, signed zeros and NaN
+ * included.
+ *
+ * Variance and standard deviation are the population ones (divided by the
+ * number of values), computed in a single pass by Welford's algorithm.
+ * Sparse views merge all their implicit zeros at once, as described by
+ * Chan et al., so their results may differ from the dense ones in the last
+ * bits. The median is selected by {@link Percentile}.
  */
 public enum RangedOperation {
-    SUM(values -> Arrays.stream(values).sum()),
-    PRODUCT(values -> Arrays.stream(values).reduce((x, y) -> x * y).getAsDouble()),
-    MINIMUM(values -> Arrays.stream(values).min().getAsDouble()),
-    MAXIMUM(values -> Arrays.stream(values).max().getAsDouble()),
-    AVERAGE(values -> Arrays.stream(values).average().getAsDouble());
+    SUM(AggregateIndex::sum) {
+        @Override
+        double apply(double[] values, int offset, int width, int stride, int lines,
+            int lineStride) {
+            return sum(values, offset, width, stride, lines, lineStride);
+        }
+
+        @Override
+        double apply(double[] values, int[] indices, int offset, int count, int length, int base) {
+            return sum(values, indices, offset, count, length, base);
+        }
+    },
+    PRODUCT {
+        @Override
+        double apply(double[] values, int offset, int width, int stride, int lines,
+            int lineStride) {
+            double product = 1;
+            for (int line = 0; line < lines; line++) {
+                for (int i = 0, j = offset + line * lineStride; i < width; i++, j += stride) {
+                    product *= values[j];
+                }
+            }
+            return product;
+        }
+
+        @Override
+        double apply(double[] values, int[] indices, int offset, int count, int length, int base) {
+            double product = 1;
+            int next = base;
+            for (int k = offset; k < offset + count; k++) {
+                if (indices[k] != next) {
+                    product *= 0.0;
+                }
+                product *= values[k];
+                next = indices[k] + 1;
+            }
+            return next != base + length ? product * 0.0 : product;
+        }
+    },
+    MINIMUM(AggregateIndex::minimum) {
+        @Override
+        double apply(double[] values, int offset, int width, int stride, int lines,
+            int lineStride) {
+            double minimum = Double.POSITIVE_INFINITY;
+            for (int line = 0; line < lines; line++) {
+                for (int i = 0, j = offset + line * lineStride; i < width; i++, j += stride) {
+                    double value = values[j];
+                    if (value < minimum) {
+                        minimum = value;
+                    } else if (value != value) { // NaN, same result as Math.min
+                        return Double.NaN;
+                    }
+                }
+            }
+            return minimum;
+        }
+
+        @Override
+        double apply(double[] values, int[] indices, int offset, int count, int length, int base) {
+            double minimum = Double.POSITIVE_INFINITY;
+            int next = base;
+            for (int k = offset; k < offset + count; k++) {
+                if (indices[k] != next && 0.0 < minimum) {
+                    minimum = 0.0;
+                }
+                double value = values[k];
+                if (value < minimum) {
+                    minimum = value;
+                } else if (value != value) {
+                    return Double.NaN;
+                }
+                next = indices[k] + 1;
+            }
+            return next != base + length && 0.0 < minimum ? 0.0 : minimum;
+        }
+    },
+    MAXIMUM(AggregateIndex::maximum) {
+        @Override
+        double apply(double[] values, int offset, int width, int stride, int lines,
+            int lineStride) {
+            double maximum = Double.NEGATIVE_INFINITY;
+            for (int line = 0; line < lines; line++) {
+                for (int i = 0, j = offset + line * lineStride; i < width; i++, j += stride) {
+                    double value = values[j];
+                    if (value > maximum) {
+                        maximum = value;
+                    } else if (value != value) {
+                        return Double.NaN;
+                    }
+                }
+            }
+            return maximum;
+        }
 
-    private final Function<double[], Double> operation;
+        @Override
+        double apply(double[] values, int[] indices, int offset, int count, int length, int base) {
+            double maximum = Double.NEGATIVE_INFINITY;
+            int next = base;
+            for (int k = offset; k < offset + count; k++) {
+                if (indices[k] != next && 0.0 > maximum) {
+                    maximum = 0.0;
+                }
+                double value = values[k];
+                if (value > maximum) {
+                    maximum = value;
+                } else if (value != value) {
+                    return Double.NaN;
+                }
+                next = indices[k] + 1;
+            }
+            return next != base + length && 0.0 > maximum ? 0.0 : maximum;
+        }
+    },
+    AVERAGE((index, range) -> index.sum(range) / index.count(range)) {
+        @Override
+        double apply(double[] values, int offset, int width, int stride, int lines,
+            int lineStride) {
+            return sum(values, offset, width, stride, lines, lineStride) / (width * lines);
+        }
+
+        @Override
+        double apply(double[] values, int[] indices, int offset, int count, int length, int base) {
+            return sum(values, indices, offset, count, length, base) / length;
+        }
+    },
+    VARIANCE {
+        @Override
+        double apply(double[] values, int offset, int width, int stride, int lines,
+            int lineStride) {
+            return variance(values, offset, width, stride, lines, lineStride);
+        }
+
+        @Override
+        double apply(double[] values, int[] indices, int offset, int count, int length, int base) {
+            return variance(values, offset, count, length);
+        }
+    },
+    STANDARD_DEVIATION {
+        @Override
+        double apply(double[] values, int offset, int width, int stride, int lines,
+            int lineStride) {
+            return Math.sqrt(variance(values, offset, width, stride, lines, lineStride));
+        }
 
-    RangedOperation(Function<double[], Double> operation) {
-        this.operation = operation;
+        @Override
+        double apply(double[] values, int[] indices, int offset, int count, int length, int base) {
+            return Math.sqrt(variance(values, offset, count, length));
+        }
+    },
+    MEDIAN {
+        @Override
+        double apply(double[] values, int offset, int width, int stride, int lines,
+            int lineStride) {
+            return Percentile.select(values, offset, width, stride, lines, lineStride, 50);
+        }
+
+        @Override
+        double apply(double[] values, int[] indices, int offset, int count, int length, int base) {
+            return Percentile.select(values, indices, offset, count, length, 50);
+        }
+    };
+
+    // answers a valid range from the aggregate index, null if not indexed
+    private final ToDoubleBiFunction<AggregateIndex, Range> lookup;
+
+    RangedOperation() {
+        this.lookup = null;
+    }
+
+    RangedOperation(ToDoubleBiFunction<AggregateIndex, Range> lookup) {
+        this.lookup = lookup;
     }
 
     /**
      * Obtain an instance from corresponding String value.
      *
-     * @param name name of the operation -> sum, product, min, max, average
+     * @param name name of the operation -> sum, product, min, max, average,
+     * variance, stddev, median
      * @return {@link RangedOperation} instance
      */
     public static RangedOperation from(String name) {
@@ -40,13 +219,152 @@ public enum RangedOperation {
                 return MAXIMUM;
             case "average":
                 return AVERAGE;
+            case "variance":
+                return VARIANCE;
+            case "stddev":
+                return STANDARD_DEVIATION;
+            case "median":
+                return MEDIAN;
             default:
                 throw new IllegalArgumentException(
                     String.format("Unsupported operation '%s'", name));
         }
     }
 
-    public Function<double[], Double> getOperation() {
-        return operation;
+    /**
+     * @return true if the operation is answered from the aggregate index
+     * of indexed matrices, see {@link Matrix#indexed()}
+     */
+    public boolean isIndexed() {
+        return lookup != null;
+    }
+
+    /**
+     * Reduce all the values of a view.
+     * @param view values to reduce
+     * @return result of the operation
+     */
+    public double apply(MatrixView view) {
+        checkNotNull(view, "view is null");
+        if (view.isSparse()) {
+            return apply(view.values, view.indices, view.offset, view.count, view.length, view.base);
+        }
+        return apply(view.values, view.offset, view.width, view.stride,
+            view.lines, view.lineStride);
+    }
+
+    /**
+     * Reduce the values of a range of the matrix. Rows, columns and the
+     * whole of indexed matrices (see {@link Matrix#indexed()}) are answered
+     * from their aggregate index, blocks are reduced in place.
+     * Throws IllegalArgumentException if range is not valid for the matrix.
+     * @param matrix matrix to reduce
+     * @param range range of the matrix to reduce
+     * @return result of the operation
+     */
+    public double apply(Matrix matrix, Range range) {
+        checkNotNull(matrix, "matrix is null");
+        checkNotNull(range, "range is null");
+
+        MatrixView view = matrix.getRange(range);
+        if (lookup != null && !range.isBlock()) {
+            AggregateIndex index = matrix.aggregates();
+            if (index != null) {
+                return lookup.applyAsDouble(index, range);
+            }
+        }
+        return apply(view);
+    }
+
+    /**
+     * Reduce length values stored at offset + i * stride.
+     * @param values storage to read values from
+     * @param offset index of the first value
+     * @param length number of values to reduce
+     * @param stride distance between two consecutive values
+     * @return result of the operation
+     */
+    public double apply(double[] values, int offset, int length, int stride) {
+        return apply(values, offset, length, stride, 1, 0);
+    }
+
+    /**
+     * Reduce lines of width values, the j-th value of the i-th line is
+     * stored at offset + i * lineStride + j * stride.
+     */
+    abstract double apply(double[] values, int offset, int width, int stride, int lines,
+        int lineStride);
+
+    /**
+     * Reduce a sparse view of length values, whose count non-zeros are
+     * values[offset + k] at indices[offset + k] - base.
+     */
+    abstract double apply(double[] values, int[] indices, int offset, int count,
+        int length, int base);
+
+    /**
+     * Compensated summation, see {@link KahanSum}.
+     */
+    private static double sum(double[] values, int offset, int width, int stride, int lines,
+        int lineStride) {
+        KahanSum sum = new KahanSum();
+        for (int line = 0; line < lines; line++) {
+            for (int i = 0, j = offset + line * lineStride; i < width; i++, j += stride) {
+                sum.add(values[j]);
+            }
+        }
+        return sum.value();
+    }
+
+    /**
+     * Welford's running mean and sum of squared deviations.
+     */
+    private static double variance(double[] values, int offset, int width, int stride,
+        int lines, int lineStride) {
+        double mean = 0;
+        double squares = 0;
+        long count = 0;
+        for (int line = 0; line < lines; line++) {
+            for (int i = 0, j = offset + line * lineStride; i < width; i++, j += stride) {
+                double value = values[j];
+                double delta = value - mean;
+                mean += delta / ++count;
+                squares += delta * (value - mean);
+            }
+        }
+        return squares / count;
+    }
+
+    /**
+     * Welford's algorithm over the count non-zeros, merged with the
+     * implicit zeros of a sparse view of length values.
+     */
+    private static double variance(double[] values, int offset, int count, int length) {
+        double mean = 0;
+        double squares = 0;
+        for (int k = offset, n = 1; k < offset + count; k++, n++) {
+            double value = values[k];
+            double delta = value - mean;
+            mean += delta / n;
+            squares += delta * (value - mean);
+        }
+        double zeros = length - count;
+        return (squares + mean * mean * count * zeros / length) / length;
+    }
+
+    /**
+     * Compensated summation of a sparse view in the order of the dense one.
+     */
+    private static double sum(double[] values, int[] indices, int offset, int count,
+        int length, int base) {
+        KahanSum sum = new KahanSum();
+        int expected = base;
+        for (int k = offset; k < offset + count; k++) {
+            sum.addZeros(indices[k] - expected);
+            sum.add(values[k]);
+            expected = indices[k] + 1;
+        }
+        sum.addZeros(base + length - expected);
+        return sum.value();
     }
 }
@@ -0,0 +1,263 @@
+package sk.bocko.matrixcalc.model;
+
+import static com.google.common.base.Preconditions.checkNotNull;
+import org.apache.http.annotation.Immutable;
+import org.apache.http.annotation.NotThreadSafe;
+
+/**
+ * The k largest or smallest values of a range together with their
+ * positions, best first, e.g. the position of the minimum is the first
+ * position of the smallest value.
+ *
+ * A NaN ranks before every number in both orders, as the minimum and the
+ * maximum of values with a NaN are NaN. Equal values rank in row-major
+ * order of their positions, so the first of equal values is kept as by the
+ * {@link RangedOperation} kernels.
+ *
+ * The values are offered to a bounded binary heap of the k best values
+ * seen, whose root is the worst of them, so a range is ranked in
+ * O(n log k) time and O(k) memory. Sparse views offer their non-zeros and
+ * at most k implicit zeros.
+ */
+@Immutable
+public final class Ranking {
+    private final Position[] positions;
+    private final double[] values;
+
+    private Ranking(final Position[] positions, final double[] values) {
+        this.positions = positions;
+        this.values = values;
+    }
+
+    /**
+     * Check the number of values to rank, throws IllegalArgumentException
+     * if it is not positive.
+     * @param k number of values to rank
+     * @return the number
+     */
+    public static int check(int k) {
+        if (k < 1) {
+            throw new IllegalArgumentException(
+                String.format("Number of values '%d' is not positive.", k));
+        }
+        return k;
+    }
+
+    /**
+     * Rank the values of a range of the matrix.
+     * Throws IllegalArgumentException if range is not valid for the matrix
+     * or k is not positive.
+     * @param matrix matrix to rank
+     * @param range range of the matrix to rank
+     * @param k number of values to keep, all values are kept if the range
+     * has fewer of them
+     * @param largest true to keep the largest values, false the smallest
+     * @return the best values, best first
+     */
+    public static Ranking of(Matrix matrix, Range range, int k, boolean largest) {
+        checkNotNull(matrix, "matrix is null");
+        checkNotNull(range, "range is null");
+        check(k);
+
+        MatrixView view = matrix.getRange(range);
+        Heap heap = new Heap(Math.min(k, view.length), largest);
+        if (view.isSparse()) {
+            heap.offerAll(view.values, view.indices, view.offset, view.count, view.length,
+                view.base);
+        } else {
+            heap.offerAll(view.values, view.offset, view.width, view.stride, view.lines,
+                view.lineStride, 0);
+        }
+        return of(heap, matrix, range);
+    }
+
+    /**
+     * @param heap the best values of the view of the range, it is emptied
+     */
+    static Ranking of(Heap heap, Matrix matrix, Range range) {
+        int firstRow = range.getFirstRow();
+        int firstColumn = range.getFirstColumn();
+        int width = range.getLastColumn(matrix.getColumns()) - firstColumn + 1;
+
+        int size = heap.size;
+        Position[] positions = new Position[size];
+        double[] values = new double[size];
+        // the worst one is removed from the root, so the ranking fills from its end
+        for (int i = size - 1; i >= 0; i--) {
+            int index = heap.indices[0];
+            positions[i] = Position.of(firstRow + index / width, firstColumn + index % width);
+            values[i] = heap.values[0];
+            heap.removeRoot();
+        }
+        return new Ranking(positions, values);
+    }
+
+    /**
+     * @return number of ranked values
+     */
+    public int size() {
+        return values.length;
+    }
+
+    /**
+     * @param i rank, 0 for the best value
+     * @return position of the value in the matrix
+     */
+    public Position getPosition(int i) {
+        return positions[i];
+    }
+
+    /**
+     * @param i rank, 0 for the best value
+     * @return the value
+     */
+    public double getValue(int i) {
+        return values[i];
+    }
+
+    /**
+     * Bounded heap of the best values and their indices in a view, the
+     * root is the worst of them.
+     */
+    @NotThreadSafe
+    static final class Heap {
+        private final boolean largest;
+        private final double[] values;
+        private final int[] indices;
+        private int size;
+
+        Heap(final int capacity, final boolean largest) {
+            this.largest = largest;
+            this.values = new double[capacity];
+            this.indices = new int[capacity];
+        }
+
+        /**
+         * Offer lines of width values, the j-th value of the i-th line is
+         * stored at offset + i * lineStride + j * stride and its index in
+         * the view is first + i * width + j.
+         */
+        void offerAll(double[] storage, int offset, int width, int stride, int lines,
+            int lineStride, int first) {
+            int index = first;
+            for (int line = 0; line < lines; line++) {
+                for (int i = 0, j = offset + line * lineStride; i < width; i++, j += stride) {
+                    double value = storage[j];
+                    // most values are rejected by a single comparison with the root
+                    if (size < values.length || isBetter(value, index, values[0], indices[0])) {
+                        offer(value, index);
+                    }
+                    index++;
+                }
+            }
+        }
+
+        /**
+         * Offer a sparse view of length values, whose count non-zeros are
+         * storage[offset + k] at indices[offset + k] - base.
+         */
+        void offerAll(double[] storage, int[] storageIndices, int offset, int count,
+            int length, int base) {
+            int zeros = 0;
+            int next = 0;
+            for (int k = offset; k <= offset + count; k++) {
+                int index = k < offset + count ? storageIndices[k] - base : length;
+                // later zeros rank after the earlier ones
+                for (; next < index && zeros < values.length; next++, zeros++) {
+                    offer(0.0, next);
+                }
+                if (index == length) {
+                    break;
+                }
+                offer(storage[k], index);
+                next = index + 1;
+            }
+        }
+
+        /**
+         * @return number of values in the heap
+         */
+        int size() {
+            return size;
+        }
+
+        /**
+         * Offer all the values of another heap.
+         */
+        void offerAll(Heap other) {
+            for (int i = 0; i < other.size; i++) {
+                offer(other.values[i], other.indices[i]);
+            }
+        }
+
+        private void offer(double value, int index) {
+            if (size < values.length) {
+                // sift up from the new leaf
+                int child = size++;
+                while (child > 0) {
+                    int parent = (child - 1) >>> 1;
+                    if (!isBetter(values[parent], indices[parent], value, index)) {
+                        break;
+                    }
+                    values[child] = values[parent];
+                    indices[child] = indices[parent];
+                    child = parent;
+                }
+                values[child] = value;
+                indices[child] = index;
+            } else if (isBetter(value, index, values[0], indices[0])) {
+                siftDown(value, index);
+            }
+        }
+
+        private void removeRoot() {
+            size--;
+            if (size > 0) {
+                siftDown(values[size], indices[size]);
+            }
+        }
+
+        /**
+         * Place the value to the root and move it down below the better
+         * values.
+         */
+        private void siftDown(double value, int index) {
+            int parent = 0;
+            while (true) {
+                int child = 2 * parent + 1;
+                if (child >= size) {
+                    break;
+                }
+                // the worse child moves up
+                if (child + 1 < size
+                    && isBetter(values[child], indices[child], values[child + 1], indices[child + 1])) {
+                    child++;
+                }
+                if (!isBetter(value, index, values[child], indices[child])) {
+                    break;
+                }
+                values[parent] = values[child];
+                indices[parent] = indices[child];
+                parent = child;
+            }
+            values[parent] = value;
+            indices[parent] = index;
+        }
+
+        /**
+         * @return true if the first value ranks before the second one
+         */
+        private boolean isBetter(double value, int index, double other, int otherIndex) {
+            boolean nan = value != value;
+            boolean otherNan = other != other;
+            if (nan || otherNan) {
+                return nan && (!otherNan || index < otherIndex);
+            }
+            if (value != other) {
+                return largest ? value > other : value < other;
+            }
+            // equal numbers, signed zeros included
+            return index < otherIndex;
+        }
+    }
+}
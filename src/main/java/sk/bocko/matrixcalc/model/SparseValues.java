@@ -0,0 +1,224 @@
+package sk.bocko.matrixcalc.model;
+
+import java.util.Arrays;
+import org.apache.http.annotation.ThreadSafe;
+
+/**
+ * Compressed sparse row storage of a matrix.
+ *
+ * The non-zeros are kept in row-major order with their row-major positions
+ * (row * columns + column), the non-zeros of a row r are at indices
+ * rowPointers[r] until rowPointers[r + 1]. Of the zeros only -0.0 is
+ * stored, so every implicit value is exactly +0.0.
+ *
+ * Columns are answered from a column-major copy of the non-zeros, built on
+ * the first column range, so every range is reduced in time proportional
+ * to its non-zeros.
+ */
+@ThreadSafe
+final class SparseValues {
+    private final int rows, columns;
+    private final int[] rowPointers;
+    private final int[] positions;
+    private final double[] values;
+    private volatile ColumnIndex byColumns;
+
+    private SparseValues(final int rows, final int columns, final int[] rowPointers,
+        final int[] positions, final double[] values) {
+        this.rows = rows;
+        this.columns = columns;
+        this.rowPointers = rowPointers;
+        this.positions = positions;
+        this.values = values;
+    }
+
+    /**
+     * Compress values in row-major order.
+     * @param count number of non-zeros of the values
+     */
+    static SparseValues of(int rows, int columns, double[] dense, int count) {
+        int[] positions = new int[count];
+        double[] values = new double[count];
+        for (int i = 0, k = 0; i < dense.length; i++) {
+            if (isNonZero(dense[i])) {
+                positions[k] = i;
+                values[k++] = dense[i];
+            }
+        }
+        return of(rows, columns, positions, values);
+    }
+
+    /**
+     * @param positions ascending row-major positions of the non-zeros
+     * @param values non-zeros, the arrays are not copied
+     */
+    static SparseValues of(int rows, int columns, int[] positions, double[] values) {
+        int[] rowPointers = new int[rows + 1];
+        for (int position : positions) {
+            rowPointers[position / columns + 1]++;
+        }
+        for (int i = 0; i < rows; i++) {
+            rowPointers[i + 1] += rowPointers[i];
+        }
+        return new SparseValues(rows, columns, rowPointers, positions, values);
+    }
+
+    /**
+     * @return true if the value has to be stored, i.e. it is not +0.0
+     */
+    static boolean isNonZero(double value) {
+        return Double.doubleToRawLongBits(value) != 0;
+    }
+
+    /**
+     * @return approximate number of bytes taken by non-zeros stored by rows
+     * and by columns
+     */
+    static long sizeInBytes(int rows, int columns, int count) {
+        return 2L * (Double.BYTES + Integer.BYTES) * count
+            + (long) Integer.BYTES * (rows + columns + 2);
+    }
+
+    int count() {
+        return values.length;
+    }
+
+    /**
+     * Position must be valid for the matrix, the matrix is 0-indexed.
+     */
+    double get(int row, int column) {
+        int found = Arrays.binarySearch(positions, rowPointers[row], rowPointers[row + 1],
+            row * columns + column);
+        return found < 0 ? 0 : values[found];
+    }
+
+    MatrixView whole() {
+        return new MatrixView(values, positions, 0, values.length, rows * columns, 0);
+    }
+
+    /**
+     * Row must be valid for the matrix, the matrix is 0-indexed.
+     */
+    MatrixView row(int row) {
+        int from = rowPointers[row];
+        return new MatrixView(values, positions, from, rowPointers[row + 1] - from,
+            columns, row * columns);
+    }
+
+    /**
+     * Column must be valid for the matrix, the matrix is 0-indexed.
+     */
+    MatrixView column(int column) {
+        ColumnIndex index = columns();
+        int from = index.pointers[column];
+        return new MatrixView(index.nonZeros, index.rowIndices, from,
+            index.pointers[column + 1] - from, rows, 0);
+    }
+
+    /**
+     * Rows firstRow..lastRow and columns firstColumn..lastColumn, 0-indexed
+     * and excluding the last ones, must be valid for the matrix. Spans of
+     * whole rows share the non-zeros, narrower blocks copy theirs.
+     */
+    MatrixView block(int firstRow, int lastRow, int firstColumn, int lastColumn) {
+        if (firstColumn == 0 && lastColumn == columns) {
+            int from = rowPointers[firstRow];
+            return new MatrixView(values, positions, from, rowPointers[lastRow] - from,
+                (lastRow - firstRow) * columns, firstRow * columns);
+        }
+
+        int width = lastColumn - firstColumn;
+        int lines = lastRow - firstRow;
+        // non-zeros of the i-th line are at bounds[2 * i] until bounds[2 * i + 1]
+        int[] bounds = new int[2 * lines];
+        int count = 0;
+        for (int i = 0; i < lines; i++) {
+            int row = firstRow + i;
+            bounds[2 * i] = search(row, row * columns + firstColumn);
+            bounds[2 * i + 1] = search(row, row * columns + lastColumn);
+            count += bounds[2 * i + 1] - bounds[2 * i];
+        }
+
+        int[] blockIndices = new int[count];
+        double[] blockValues = new double[count];
+        for (int i = 0, target = 0; i < lines; i++) {
+            int shift = (firstRow + i) * columns + firstColumn - i * width;
+            for (int k = bounds[2 * i]; k < bounds[2 * i + 1]; k++, target++) {
+                blockIndices[target] = positions[k] - shift;
+                blockValues[target] = values[k];
+            }
+        }
+        return new MatrixView(blockValues, blockIndices, 0, count, width * lines, 0);
+    }
+
+    /**
+     * @return index of the first non-zero of the row at the position or after it
+     */
+    private int search(int row, int position) {
+        int found = Arrays.binarySearch(positions, rowPointers[row], rowPointers[row + 1],
+            position);
+        return found < 0 ? -found - 1 : found;
+    }
+
+    double[] toDense() {
+        double[] dense = new double[rows * columns];
+        for (int k = 0; k < values.length; k++) {
+            dense[positions[k]] = values[k];
+        }
+        return dense;
+    }
+
+    /**
+     * Fingerprint of the positions and values of the non-zeros. It differs
+     * from the fingerprint of the same values stored densely, which only
+     * costs a miss of the result cache.
+     */
+    Fingerprint fingerprint() {
+        Fingerprint.Builder builder = Fingerprint.builder();
+        for (int k = 0; k < values.length; k++) {
+            builder.addBits(positions[k]);
+            builder.add(values[k]);
+        }
+        return builder.build(rows, columns);
+    }
+
+    private ColumnIndex columns() {
+        ColumnIndex result = byColumns;
+        if (result == null) {
+            synchronized (this) {
+                result = byColumns;
+                if (result == null) {
+                    result = new ColumnIndex();
+                    byColumns = result;
+                }
+            }
+        }
+        return result;
+    }
+
+    /**
+     * The non-zeros in column-major order, with their rows.
+     */
+    private final class ColumnIndex {
+        private final int[] pointers = new int[columns + 1];
+        private final int[] rowIndices = new int[positions.length];
+        private final double[] nonZeros = new double[positions.length];
+
+        private ColumnIndex() {
+            for (int position : positions) {
+                pointers[position % columns + 1]++;
+            }
+            for (int j = 0; j < columns; j++) {
+                pointers[j + 1] += pointers[j];
+            }
+
+            // rows are visited in order, so they are ascending in every column
+            int[] next = Arrays.copyOf(pointers, columns);
+            for (int k = 0; k < positions.length; k++) {
+                int target = next[positions[k] % columns]++;
+                rowIndices[target] = positions[k] / columns;
+                nonZeros[target] = values[k];
+            }
+        }
+    }
+}
@@ -0,0 +1,188 @@
+package sk.bocko.matrixcalc.model;
+
+import static com.google.common.base.Preconditions.checkNotNull;
+import org.apache.http.annotation.Immutable;
+
+/**
+ * Count, sum, product, minimum, maximum, average, variance, standard
+ * deviation and L1 and L2 norms of the values of a range.
+ *
+ * All of them are reduced in a single pass over the range, instead of a
+ * pass per {@link RangedOperation}. Every accumulator follows its kernel
+ * value by value, so every statistic is exactly the result of the
+ * corresponding operation, sparse views included. The norms are compensated sums
+ * of the absolute values and of the squares, the L2 norm is not scaled and
+ * overflows as the sum of the squares does. The median is not included,
+ * it is selected from a copy of the values by {@link Percentile}.
+ */
+@Immutable
+public final class Statistics {
+    private final long count;
+    private final double sum, product, minimum, maximum, variance, l1, l2;
+
+    private Statistics(final Accumulator accumulator) {
+        this.count = accumulator.count + accumulator.zeros;
+        this.sum = accumulator.sum.value();
+        this.product = accumulator.product;
+        this.minimum = accumulator.minimum;
+        this.maximum = accumulator.maximum;
+        this.variance = accumulator.variance();
+        this.l1 = accumulator.absolutes.value();
+        this.l2 = Math.sqrt(accumulator.squares.value());
+    }
+
+    /**
+     * Reduce the values of a range of the matrix.
+     * Throws IllegalArgumentException if range is not valid for the matrix.
+     * @param matrix matrix to reduce
+     * @param range range of the matrix to reduce
+     * @return statistics of the values
+     */
+    public static Statistics of(Matrix matrix, Range range) {
+        checkNotNull(matrix, "matrix is null");
+        checkNotNull(range, "range is null");
+        return of(matrix.getRange(range));
+    }
+
+    /**
+     * Reduce all the values of a view.
+     * @param view values to reduce
+     * @return statistics of the values
+     */
+    public static Statistics of(MatrixView view) {
+        checkNotNull(view, "view is null");
+
+        Accumulator accumulator = new Accumulator();
+        double[] values = view.values;
+        if (view.isSparse()) {
+            int next = view.base;
+            for (int k = view.offset; k < view.offset + view.count; k++) {
+                accumulator.addZeros(view.indices[k] - next);
+                accumulator.add(values[k]);
+                next = view.indices[k] + 1;
+            }
+            accumulator.addZeros(view.base + view.length - next);
+            return new Statistics(accumulator);
+        }
+
+        for (int line = 0; line < view.lines; line++) {
+            for (int i = 0, j = view.offset + line * view.lineStride; i < view.width;
+                 i++, j += view.stride) {
+                accumulator.add(values[j]);
+            }
+        }
+        return new Statistics(accumulator);
+    }
+
+    public long getCount() {
+        return count;
+    }
+
+    public double getSum() {
+        return sum;
+    }
+
+    public double getProduct() {
+        return product;
+    }
+
+    public double getMinimum() {
+        return minimum;
+    }
+
+    public double getMaximum() {
+        return maximum;
+    }
+
+    public double getAverage() {
+        return sum / count;
+    }
+
+    /**
+     * @return population variance, as {@link RangedOperation#VARIANCE}
+     */
+    public double getVariance() {
+        return variance;
+    }
+
+    public double getStandardDeviation() {
+        return Math.sqrt(variance);
+    }
+
+    /**
+     * @return sum of the absolute values
+     */
+    public double getL1() {
+        return l1;
+    }
+
+    /**
+     * @return square root of the sum of the squares
+     */
+    public double getL2() {
+        return l2;
+    }
+
+    /**
+     * Accumulators of all the statistics. Implicit zeros of sparse views are
+     * added a run at a time, as the sparse kernels of the operations do.
+     */
+    private static final class Accumulator {
+        private final KahanSum sum = new KahanSum();
+        private final KahanSum absolutes = new KahanSum();
+        private final KahanSum squares = new KahanSum();
+        // zeros counts the implicit zeros, count all the other values
+        private long count, zeros;
+        private double product = 1;
+        private double minimum = Double.POSITIVE_INFINITY;
+        private double maximum = Double.NEGATIVE_INFINITY;
+        private double mean, deviations;
+
+        private void add(double value) {
+            sum.add(value);
+            absolutes.add(Math.abs(value));
+            squares.add(value * value);
+            product *= value;
+            // a NaN stays, as the kernels stop on it
+            if (value < minimum || value != value && minimum == minimum) {
+                minimum = value;
+            }
+            if (value > maximum || value != value && maximum == maximum) {
+                maximum = value;
+            }
+            // Welford's algorithm
+            double delta = value - mean;
+            mean += delta / ++count;
+            deviations += delta * (value - mean);
+        }
+
+        private void addZeros(int run) {
+            if (run == 0) {
+                return;
+            }
+            sum.addZeros(run);
+            absolutes.addZeros(run);
+            squares.addZeros(run);
+            product *= 0.0;
+            if (0.0 < minimum) {
+                minimum = 0.0;
+            }
+            if (0.0 > maximum) {
+                maximum = 0.0;
+            }
+            zeros += run;
+        }
+
+        /**
+         * Merge the implicit zeros with the other values at once (Chan et
+         * al.), as the sparse kernel does.
+         */
+        private double variance() {
+            if (zeros == 0) {
+                return deviations / count;
+            }
+            long length = count + zeros;
+            return (deviations + mean * mean * count * (double) zeros / length) / length;
+        }
+    }
+}
@@ -0,0 +1,12 @@
+package sk.bocko.matrixcalc.store;
+
+/**
+ * Thrown when there is no stored matrix with requested id.
+ */
+public class MatrixNotFoundException extends RuntimeException {
+    private static final long serialVersionUID = 1L;
+
+    public MatrixNotFoundException(final String id) {
+        super(String.format("Matrix '%s' is not stored.", id));
+    }
+}
@@ -0,0 +1,255 @@
+package sk.bocko.matrixcalc.store;
+
+import static com.google.common.base.Preconditions.checkArgument;
+import static com.google.common.base.Preconditions.checkNotNull;
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import java.util.UUID;
+import java.util.concurrent.atomic.AtomicLong;
+import org.apache.http.annotation.Immutable;
+import org.apache.http.annotation.ThreadSafe;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import sk.bocko.matrixcalc.model.LiveMatrix;
+import sk.bocko.matrixcalc.model.LuDecomposition;
+import sk.bocko.matrixcalc.model.Matrix;
+import sk.bocko.matrixcalc.model.MatrixUpdate;
+
+/**
+ * Keeps uploaded matrices in memory so they can be used by many requests
+ * without being sent and parsed again.
+ *
+ * The store is bounded by the memory taken by the matrix values. When it
+ * is full, the least recently used matrices are evicted.
+ *
+ * Stored matrices are indexed (see {@link Matrix#indexed()}), so repeated
+ * sums, minimums, maximums and averages are answered in constant time,
+ * and dense ones keep their LU decomposition once a system is solved with
+ * them (see {@link #decomposition(String)}). The entry is weighed again
+ * when the decomposition is kept, so it is charged only for matrices
+ * which are actually solved with.
+ *
+ * Stored matrices can be updated in place (see {@link LiveMatrix}). The first
+ * update replaces the stored matrix by an editable one, which is weighed
+ * again, as it keeps dense values and aggregate trees. Matrices with more
+ * elements than allowed are not stored, so neither their editable copies nor
+ * their dense copies can be larger than the limit.
+ */
+@Service
+@ThreadSafe
+public class MatrixStore {
+    private static final long OBJECT_OVERHEAD = 64;
+
+    private final long maxBytes;
+    private final long maxElements;
+    private final AtomicLong usedBytes = new AtomicLong();
+    private final Cache<String, Entry> matrices;
+
+    @Autowired
+    public MatrixStore(@Value("${matrixcalc.store.max-bytes:268435456}") final long maxBytes,
+        @Value("${matrixcalc.matrix.max-elements:67108864}") final long maxElements) {
+        checkArgument(maxBytes > 0, "store capacity must be positive");
+        checkArgument(maxElements > 0, "maximum number of elements must be positive");
+        this.maxBytes = maxBytes;
+        this.maxElements = maxElements;
+        // a single segment keeps the eviction order and the capacity global
+        this.matrices = CacheBuilder.newBuilder()
+            .concurrencyLevel(1)
+            .maximumWeight(maxBytes)
+            .<String, Entry>weigher((id, entry) -> (int) entry.size)
+            .removalListener(removal -> usedBytes.addAndGet(-removal.getValue().size))
+            .build();
+    }
+
+    /**
+     * Store a matrix.
+     * @param matrix matrix to store
+     * @return id of the stored matrix
+     */
+    public String put(Matrix matrix) {
+        checkNotNull(matrix, "matrix is null");
+        if ((long) matrix.getRows() * matrix.getColumns() > maxElements) {
+            throw new IllegalArgumentException(String.format("Matrix %dx%d has too many elements.",
+                matrix.getRows(), matrix.getColumns()));
+        }
+        long size = checkCapacity(sizeInBytes(matrix));
+
+        String id = UUID.randomUUID().toString();
+        usedBytes.addAndGet(size);
+        matrices.put(id, new Entry(LiveMatrix.of(matrix), size, false));
+        return id;
+    }
+
+    /**
+     * Get a stored matrix.
+     * @param id id of the matrix
+     * @return stored matrix with all the updates applied so far
+     * @throws MatrixNotFoundException if there is no matrix with given id
+     */
+    public Matrix get(String id) {
+        return getLive(id).snapshot();
+    }
+
+    /**
+     * Get a stored matrix, so it can be reduced without a snapshot.
+     * @param id id of the matrix
+     * @return stored matrix
+     * @throws MatrixNotFoundException if there is no matrix with given id
+     */
+    public LiveMatrix getLive(String id) {
+        return getEntry(id).matrix;
+    }
+
+    /**
+     * Get the LU decomposition of a stored matrix. The decomposition of
+     * a dense matrix is kept, so its entry is charged for it when it is
+     * computed for the first time. If the entry with the decomposition
+     * would exceed the store capacity, the decomposition is not kept.
+     * Throws IllegalArgumentException if the matrix is not square.
+     * @param id id of the matrix
+     * @return decomposition of the matrix
+     * @throws MatrixNotFoundException if there is no matrix with given id
+     */
+    public LuDecomposition decomposition(String id) {
+        Entry entry = getEntry(id);
+        while (!entry.decomposed && keepsDecomposition(entry.matrix)) {
+            long size = entry.size + sizeOfDecomposition(entry.matrix.getRows());
+            if (size > Math.min(maxBytes, Integer.MAX_VALUE)) {
+                return LuDecomposition.of(entry.matrix.snapshot());
+            }
+            Entry decomposed = new Entry(entry.matrix, size, true);
+            usedBytes.addAndGet(size);
+            // the entry without the decomposition is released by the removal listener
+            if (matrices.asMap().replace(id, entry, decomposed)) {
+                entry = decomposed;
+            } else {
+                usedBytes.addAndGet(-size);
+                entry = getEntry(id);
+            }
+        }
+        return entry.matrix.snapshot().decomposition();
+    }
+
+    /**
+     * Update a stored matrix in place. Throws IllegalArgumentException if
+     * the update does not fit the matrix or the editable matrix exceeds
+     * the store capacity.
+     * @param id id of the matrix
+     * @param update new values of rows and cells
+     * @throws MatrixNotFoundException if there is no matrix with given id
+     */
+    public void update(String id, MatrixUpdate update) {
+        checkNotNull(update, "update is null");
+        Entry entry = getEntry(id);
+        while (!entry.matrix.isEditable()) {
+            // weighed before the dense values and the trees are built
+            long size = sizeOfEditable(entry.matrix.getRows(), entry.matrix.getColumns());
+            if (entry.decomposed) {
+                size += sizeOfDecomposition(entry.matrix.getRows());
+            }
+            checkCapacity(size);
+            Entry replacement = new Entry(entry.matrix.editable(), size, entry.decomposed);
+            usedBytes.addAndGet(size);
+            // the replaced matrix is released by the removal listener
+            if (matrices.asMap().replace(id, entry, replacement)) {
+                entry = replacement;
+            } else {
+                usedBytes.addAndGet(-size);
+                entry = getEntry(id);
+            }
+        }
+        entry.matrix.update(update);
+    }
+
+    /**
+     * Remove a stored matrix.
+     * @param id id of the matrix
+     * @throws MatrixNotFoundException if there is no matrix with given id
+     */
+    public void remove(String id) {
+        checkNotNull(id, "id is null");
+        if (matrices.asMap().remove(id) == null) {
+            throw new MatrixNotFoundException(id);
+        }
+    }
+
+    /**
+     * @return approximate number of bytes taken by stored matrices
+     */
+    public long usedBytes() {
+        matrices.cleanUp();
+        return usedBytes.get();
+    }
+
+    /**
+     * @return number of stored matrices
+     */
+    public long size() {
+        return matrices.size();
+    }
+
+    private Entry getEntry(String id) {
+        checkNotNull(id, "id is null");
+        Entry entry = matrices.getIfPresent(id);
+        if (entry == null) {
+            throw new MatrixNotFoundException(id);
+        }
+        return entry;
+    }
+
+    private long checkCapacity(long size) {
+        // the weight of a single entry must fit into an int
+        if (size > Math.min(maxBytes, Integer.MAX_VALUE)) {
+            throw new IllegalArgumentException(String.format(
+                "Matrix of %d bytes exceeds the store capacity of %d bytes.", size, maxBytes));
+        }
+        return size;
+    }
+
+    static long sizeInBytes(LiveMatrix matrix) {
+        return matrix.isEditable()
+            ? sizeOfEditable(matrix.getRows(), matrix.getColumns())
+            : sizeInBytes(matrix.snapshot());
+    }
+
+    private static long sizeOfEditable(int rows, int columns) {
+        // snapshots are indexed as well
+        return OBJECT_OVERHEAD + LiveMatrix.sizeInBytes(rows, columns)
+            + Double.BYTES * 3 * ((long) rows + columns);
+    }
+
+    static long sizeInBytes(Matrix matrix) {
+        long rows = matrix.getRows();
+        long columns = matrix.getColumns();
+        // values plus sum, minimum and maximum of every row and column
+        return OBJECT_OVERHEAD + matrix.sizeInBytes() + Double.BYTES * 3 * (rows + columns);
+    }
+
+    static long sizeOfDecomposition(long rows) {
+        // factors of all the values and the pivots
+        return OBJECT_OVERHEAD + Double.BYTES * rows * rows + Integer.BYTES * rows;
+    }
+
+    private static boolean keepsDecomposition(LiveMatrix matrix) {
+        // factors of sparse matrices are not kept, see Matrix#decomposition()
+        return matrix.getRows() == matrix.getColumns()
+            && (matrix.isEditable() || !matrix.snapshot().isSparse());
+    }
+
+    /**
+     * Stored matrix with the weight it was charged when it was stored.
+     */
+    @Immutable
+    private static final class Entry {
+        private final LiveMatrix matrix;
+        private final long size;
+        private final boolean decomposed;
+
+        private Entry(final LiveMatrix matrix, final long size, final boolean decomposed) {
+            this.matrix = matrix;
+            this.size = size;
+            this.decomposed = decomposed;
+        }
+    }
+}
@@ -1,5 +1,12 @@
 package sk.bocko.matrixcalc;
 
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.util.concurrent.ForkJoinPool;
+import org.json.JSONArray;
+import sk.bocko.matrixcalc.model.Matrix;
+import sk.bocko.matrixcalc.model.ParallelReduction;
+
 public final class TestUtils {
 
     private TestUtils() {
@@ -13,6 +20,25 @@ public final class TestUtils {
         return "{\"matrix\":[[1,2],[3.4,4]]}";
     }
 
+    public static Matrix aMatrix() {
+        return Matrix.from(new JSONArray("[[1,2],[3.4,4]]"));
+    }
+
+    /**
+     * @return the matrix of {@link #aBody()} in application/x-matrix
+     */
+    public static byte[] aBinaryBody() {
+        return ByteBuffer.allocate(8 + 4 * 8)
+            .order(ByteOrder.LITTLE_ENDIAN)
+            .putInt(2).putInt(2)
+            .putDouble(1).putDouble(2).putDouble(3.4).putDouble(4)
+            .array();
+    }
+
+    public static ParallelReduction aReduction() {
+        return new ParallelReduction(ForkJoinPool.commonPool(), 1 << 18);
+    }
+
     public static String aBinaryOperation() {
         return "add";
     }
@@ -0,0 +1,78 @@
+package sk.bocko.matrixcalc.cache;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.is;
+import static org.hamcrest.Matchers.not;
+import static org.hamcrest.Matchers.sameInstance;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.ExpectedException;
+import sk.bocko.matrixcalc.model.Expression;
+
+public class ExpressionCacheTest {
+
+    @Rule
+    public final ExpectedException thrown = ExpectedException.none();
+
+    @Test
+    public void testGetShouldCompileOnlyOnceForEqualText() {
+        // given
+        ExpressionCache cache = new ExpressionCache(10);
+
+        // when
+        Expression first = cache.get("sum(1-x) + 2-2");
+        Expression second = cache.get("sum(1-x) + 2-2");
+
+        // then
+        assertThat(second, is(sameInstance(first)));
+        assertThat(cache.stats().hitCount(), is(1L));
+        assertThat(cache.stats().missCount(), is(1L));
+    }
+
+    @Test
+    public void testGetShouldEvictWhenFull() {
+        // given
+        ExpressionCache cache = new ExpressionCache(1);
+        Expression first = cache.get("1-1");
+
+        // when
+        cache.get("2-2");
+        Expression again = cache.get("1-1");
+
+        // then
+        assertThat(cache.size(), is(1L));
+        assertThat(again, is(not(sameInstance(first))));
+    }
+
+    @Test
+    public void testGetShouldNotCacheInvalidExpression() {
+        // given
+        ExpressionCache cache = new ExpressionCache(10);
+        try {
+            cache.get("1-1 +");
+        } catch (IllegalArgumentException ignored) {
+            // expected
+        }
+
+        // then
+        thrown.expect(IllegalArgumentException.class);
+        thrown.expectMessage("'1-1 +' is not a valid expression: unexpected end");
+
+        // when
+        try {
+            cache.get("1-1 +");
+        } finally {
+            assertThat(cache.size(), is(0L));
+        }
+    }
+
+    @Test
+    public void testConstructorShouldThrowWhenSizeIsNegative() {
+        // then
+        thrown.expect(IllegalArgumentException.class);
+        thrown.expectMessage("cache size is negative");
+
+        // when
+        new ExpressionCache(-1);
+    }
+}
@@ -0,0 +1,122 @@
+package sk.bocko.matrixcalc.cache;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.is;
+import static org.hamcrest.Matchers.sameInstance;
+import java.util.concurrent.atomic.AtomicInteger;
+import org.json.JSONObject;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.ExpectedException;
+import static sk.bocko.matrixcalc.TestUtils.aMatrix;
+import sk.bocko.matrixcalc.model.Matrix;
+
+public class ResultCacheTest {
+
+    @Rule
+    public final ExpectedException thrown = ExpectedException.none();
+
+    @Test
+    public void testGetShouldCalculateOnlyOnceForEqualMatrices() {
+        // given
+        ResultCache cache = new ResultCache(10, 60);
+        AtomicInteger calculations = new AtomicInteger();
+
+        // when
+        JSONObject first = cache.get(aMatrix(), () -> {
+            calculations.incrementAndGet();
+            return new JSONObject().put("result", 1);
+        }, "sum", "1-x");
+        JSONObject second = cache.get(aMatrix(), () -> {
+            calculations.incrementAndGet();
+            return new JSONObject().put("result", 2);
+        }, "sum", "1-x");
+
+        // then
+        assertThat(calculations.get(), is(1));
+        assertThat(second, is(sameInstance(first)));
+        assertThat(cache.stats().hitCount(), is(1L));
+        assertThat(cache.stats().missCount(), is(1L));
+    }
+
+    @Test
+    public void testGetShouldCalculateForDifferentArguments() {
+        // given
+        ResultCache cache = new ResultCache(10, 60);
+        Matrix matrix = aMatrix();
+
+        // when
+        cache.get(matrix, () -> new JSONObject().put("result", 1), "sum", "1-x");
+        JSONObject actual = cache.get(matrix,
+            () -> new JSONObject().put("result", 2), "sum", "x-1");
+
+        // then
+        assertThat(actual.getInt("result"), is(2));
+        assertThat(cache.stats().missCount(), is(2L));
+    }
+
+    @Test
+    public void testGetShouldDistinguishNullArgument() {
+        // given
+        ResultCache cache = new ResultCache(10, 60);
+        Matrix matrix = aMatrix();
+
+        // when
+        cache.get(matrix, () -> new JSONObject().put("result", 1), "sum", null);
+        JSONObject actual = cache.get(matrix,
+            () -> new JSONObject().put("result", 2), "sum", "null");
+
+        // then
+        assertThat(actual.getInt("result"), is(2));
+    }
+
+    @Test
+    public void testGetShouldNotCacheExceptions() {
+        // given
+        ResultCache cache = new ResultCache(10, 60);
+        Matrix matrix = aMatrix();
+        try {
+            cache.get(matrix, () -> {
+                throw new IllegalArgumentException("failed");
+            }, "sum");
+        } catch (IllegalArgumentException expected) {
+            // expected
+        }
+
+        // when
+        JSONObject actual = cache.get(matrix,
+            () -> new JSONObject().put("result", 1), "sum");
+
+        // then
+        assertThat(actual.getInt("result"), is(1));
+        assertThat(cache.size(), is(1L));
+    }
+
+    @Test
+    public void testGetShouldEvictWhenFull() {
+        // given
+        ResultCache cache = new ResultCache(1, 60);
+        Matrix matrix = aMatrix();
+
+        // when
+        cache.get(matrix, () -> new JSONObject().put("result", 1), "sum");
+        cache.get(matrix, () -> new JSONObject().put("result", 2), "product");
+
+        // then
+        assertThat(cache.size(), is(1L));
+        assertThat(cache.stats().evictionCount(), is(1L));
+    }
+
+    @Test
+    public void testGetShouldThrowWhenNullMatrix() {
+        // given
+        ResultCache cache = new ResultCache(10, 60);
+
+        // then
+        thrown.expect(NullPointerException.class);
+        thrown.expectMessage("matrix is null");
+
+        // when
+        cache.get(null, JSONObject::new, "sum");
+    }
+}
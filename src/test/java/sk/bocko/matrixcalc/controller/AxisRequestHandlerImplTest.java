@@ -0,0 +1,68 @@
+package sk.bocko.matrixcalc.controller;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.core.Is.is;
+import org.json.JSONArray;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.ExpectedException;
+import sk.bocko.matrixcalc.metrics.StageMetrics;
+import sk.bocko.matrixcalc.model.Matrix;
+
+public class AxisRequestHandlerImplTest {
+
+    @Rule
+    public ExpectedException thrown = ExpectedException.none();
+
+    private final AxisRequestHandlerImpl testee = new AxisRequestHandlerImpl(new StageMetrics());
+
+    @Test
+    public void testHandleShouldReduceEveryRow() {
+        // given
+        final Matrix matrix = Matrix.from(new JSONArray("[[1,2],[3.4,4]]"));
+
+        // when
+        Matrix actual = testee.handle(matrix, "rows", "max");
+
+        // then
+        assertThat(actual.getMatrix(), is(new double[][]{{2}, {4}}));
+    }
+
+    @Test
+    public void testHandleShouldReduceEveryColumn() {
+        // given
+        final Matrix matrix = Matrix.from(new JSONArray("[[1,2],[3,4]]"));
+
+        // when
+        Matrix actual = testee.handle(matrix, "columns", "average");
+
+        // then
+        assertThat(actual.getMatrix(), is(new double[][]{{2, 3}}));
+    }
+
+    @Test
+    public void testHandleShouldThrowWhenUnknownAxis() {
+        // given
+        final Matrix matrix = Matrix.from(new JSONArray("[[1,2],[3,4]]"));
+
+        // then
+        thrown.expect(IllegalArgumentException.class);
+        thrown.expectMessage("Unsupported axis 'x'");
+
+        // when
+        testee.handle(matrix, "x", "sum");
+    }
+
+    @Test
+    public void testHandleShouldThrowWhenResultIsNotFinite() {
+        // given
+        final Matrix matrix = Matrix.from(new JSONArray("[[1e300,1],[1e300,1]]"));
+
+        // then
+        thrown.expect(IllegalArgumentException.class);
+        thrown.expectMessage("result is not a finite number");
+
+        // when
+        testee.handle(matrix, "columns", "product");
+    }
+}
@@ -0,0 +1,83 @@
+package sk.bocko.matrixcalc.controller;
+
+import java.io.IOException;
+import java.nio.charset.Charset;
+import org.apache.commons.io.IOUtils;
+import org.apache.http.client.methods.CloseableHttpResponse;
+import org.apache.http.client.methods.HttpPost;
+import org.apache.http.entity.StringEntity;
+import org.apache.http.impl.client.CloseableHttpClient;
+import org.apache.http.impl.client.HttpClientBuilder;
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.is;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.springframework.boot.test.SpringApplicationConfiguration;
+import org.springframework.boot.test.WebIntegrationTest;
+import org.springframework.http.HttpStatus;
+import org.springframework.test.context.junit4.SpringJUnit4ClassRunner;
+import sk.bocko.matrixcalc.Application;
+
+@RunWith(SpringJUnit4ClassRunner.class)
+@SpringApplicationConfiguration(classes = Application.class)
+@WebIntegrationTest("server.port:8888")
+public class BatchControllerIntegrationTest {
+
+    private static final String URL = "http://localhost:8888/rest/batch";
+
+    @Test
+    public void testProcessShouldReturnResultsAndErrorsInOrder() throws IOException {
+        // given
+        String content = "{\"operations\": ["
+            + "{\"operation\":\"sum\",\"range\":\"1-x\"},"
+            + "{\"operation\":\"multiply\",\"first\":\"1-1\",\"second\":\"2-2\"},"
+            + "{\"operation\":\"min\",\"range\":\"x-3\"}],"
+            + "\"matrix\":[[1,2.1],[3.3,4]]}";
+
+        // when
+        CloseableHttpResponse actual = execute(content);
+
+        // then
+        assertThat(actual.getStatusLine().getStatusCode(), is(HttpStatus.OK.value()));
+        assertThat(IOUtils.toString(actual.getEntity().getContent()),
+            is("{\"results\":[{\"result\":3.1},{\"result\":4},"
+                + "{\"error\":\"The 'x-3' range is not valid for the matrix.\"}]}"));
+    }
+
+    @Test
+    public void testProcessReturnsErrorResponseWhenOperationsAreMissing() throws IOException {
+        // when
+        CloseableHttpResponse actual = execute("{\"matrix\":[[1,2.1],[3.3,4]]}");
+
+        // then
+        assertThat(actual.getStatusLine().getStatusCode(), is(HttpStatus.UNPROCESSABLE_ENTITY.value()));
+        assertThat(IOUtils.toString(actual.getEntity().getContent()),
+            is("{\"error\":\"Operations are not present in request body.\"}"));
+    }
+
+    @Test
+    public void testProcessReturnsErrorResponseWhenMatrixIsMissing() throws IOException {
+        // when
+        CloseableHttpResponse actual = execute("{\"operations\":[]}");
+
+        // then
+        assertThat(actual.getStatusLine().getStatusCode(), is(HttpStatus.UNPROCESSABLE_ENTITY.value()));
+        assertThat(IOUtils.toString(actual.getEntity().getContent()),
+            is("{\"error\":\"Matrix is not present in request body.\"}"));
+    }
+
+    private CloseableHttpResponse execute(String content) {
+        CloseableHttpClient client = HttpClientBuilder.create().build();
+        HttpPost request = new HttpPost(URL);
+        request.setHeader("Content-Type", "application/json");
+        request.setEntity(new StringEntity(content, Charset.forName("UTF-8")));
+
+        try {
+            return client.execute(request);
+        } catch (IOException e) {
+            String message = String.format("Exception thrown while calling "
+                + "request %s", request);
+            throw new IllegalStateException(message, e);
+        }
+    }
+}
@@ -0,0 +1,185 @@
+package sk.bocko.matrixcalc.controller;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.core.Is.is;
+import org.json.JSONArray;
+import org.json.JSONObject;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.ExpectedException;
+import static sk.bocko.matrixcalc.TestUtils.aMatrix;
+import static sk.bocko.matrixcalc.TestUtils.aReduction;
+import sk.bocko.matrixcalc.cache.ExpressionCache;
+import sk.bocko.matrixcalc.metrics.StageMetrics;
+import sk.bocko.matrixcalc.model.Matrix;
+
+public class BatchRequestHandlerImplTest {
+
+    @Rule
+    public ExpectedException thrown = ExpectedException.none();
+
+    private final BatchRequestHandlerImpl testee = new BatchRequestHandlerImpl(
+        new BinaryOperationRequestHandlerImpl(), new RangedOperationRequestHandler(aReduction(), new StageMetrics()),
+        new ExpressionRequestHandlerImpl(new ExpressionCache(10), aReduction(), new StageMetrics()), 3);
+
+    @Test
+    public void testHandleShouldReturnResultsInOrder() {
+        // given
+        JSONArray operations = new JSONArray("["
+            + "{\"operation\":\"sum\",\"range\":\"2-x\"},"
+            + "{\"operation\":\"add\",\"first\":\"1-2\",\"second\":\"2-1\"},"
+            + "{\"operation\":\"max\"}]");
+
+        // when
+        JSONObject actual = testee.handle(aMatrix(), operations);
+
+        // then
+        assertThat(actual.toString(),
+            is("{\"results\":[{\"result\":7.4},{\"result\":5.4},{\"result\":4}]}"));
+    }
+
+    @Test
+    public void testHandleShouldSelectPercentiles() {
+        // given
+        JSONArray operations = new JSONArray("["
+            + "{\"operation\":\"percentile\",\"p\":50},"
+            + "{\"operation\":\"median\",\"range\":\"x-1\"},"
+            + "{\"operation\":\"percentile\",\"range\":\"x-1\"}]");
+
+        // when
+        JSONObject actual = testee.handle(aMatrix(), operations);
+
+        // then
+        assertThat(actual.toString(), is("{\"results\":[{\"result\":2.7},{\"result\":2.2},"
+            + "{\"error\":\"Argument 'p' is not present.\"}]}"));
+    }
+
+    @Test
+    public void testHandleShouldReturnStatistics() {
+        // given
+        JSONArray operations = new JSONArray("[{\"operation\":\"stats\",\"range\":\"1-x\"}]");
+
+        // when
+        JSONObject actual = testee.handle(aMatrix(), operations);
+
+        // then
+        JSONObject result = actual.getJSONArray("results").getJSONObject(0).getJSONObject("result");
+        assertThat(result.getDouble("sum"), is(3d));
+        assertThat(result.getDouble("product"), is(2d));
+    }
+
+    @Test
+    public void testHandleShouldRankValues() {
+        // given
+        JSONArray operations = new JSONArray("["
+            + "{\"operation\":\"argmax\"},"
+            + "{\"operation\":\"topk\",\"k\":1,\"range\":\"1-x\"},"
+            + "{\"operation\":\"topk\"}]");
+
+        // when
+        JSONObject actual = testee.handle(aMatrix(), operations);
+
+        // then
+        assertThat(actual.toString(), is("{\"results\":[{\"result\":\"2-2\"},"
+            + "{\"result\":[{\"position\":\"1-2\",\"value\":2}]},"
+            + "{\"error\":\"Argument 'k' is not present.\"}]}"));
+    }
+
+    @Test
+    public void testHandleShouldEvaluateExpressions() {
+        // given
+        JSONArray operations = new JSONArray("["
+            + "{\"operation\":\"eval\",\"expression\":\"2-2 * (1-1 + sum(x-2))\"},"
+            + "{\"operation\":\"eval\"}]");
+
+        // when
+        JSONObject actual = testee.handle(aMatrix(), operations);
+
+        // then
+        assertThat(actual.toString(), is("{\"results\":[{\"result\":28},"
+            + "{\"error\":\"Argument 'expression' is not present.\"}]}"));
+    }
+
+    @Test
+    public void testHandleShouldReturnErrorsOfOperationsInOrder() {
+        // given
+        JSONArray operations = new JSONArray("["
+            + "{\"operation\":\"sum\",\"range\":\"3-x\"},"
+            + "{\"operation\":\"pow\",\"first\":\"1-1\",\"second\":\"1-1\"},"
+            + "{\"operation\":\"divide\",\"first\":\"1-1\"}]");
+
+        // when
+        JSONObject actual = testee.handle(aMatrix(), operations);
+
+        // then
+        JSONArray results = actual.getJSONArray("results");
+        assertThat(results.getJSONObject(0).getString("error"),
+            is("The '3-x' range is not valid for the matrix."));
+        assertThat(results.getJSONObject(1).getString("error"),
+            is("Unsupported operation 'pow'"));
+        assertThat(results.getJSONObject(2).getString("error"),
+            is("Argument 'second' is not present."));
+    }
+
+    @Test
+    public void testHandleShouldReturnErrorWhenOperationIsNotObject() {
+        // given
+        JSONArray operations = new JSONArray("[\"sum\", {}]");
+
+        // when
+        JSONObject actual = testee.handle(aMatrix(), operations);
+
+        // then
+        JSONArray results = actual.getJSONArray("results");
+        assertThat(results.getJSONObject(0).getString("error"),
+            is("Operation 0 is not a json object."));
+        assertThat(results.getJSONObject(1).getString("error"),
+            is("Operation is not present."));
+    }
+
+    @Test
+    public void testHandleShouldGiveSameResultsForSharedColumnTraversal() {
+        // given
+        Matrix matrix = Matrix.from(new JSONArray("[[0.1,0.2,0.3],[0.4,0.5,0.6]]"));
+        JSONArray operations = new JSONArray("["
+            + "{\"operation\":\"sum\",\"range\":\"x-1\"},"
+            + "{\"operation\":\"average\",\"range\":\"x-3\"},"
+            + "{\"operation\":\"min\"}]");
+        RangedOperationRequestHandler unary = new RangedOperationRequestHandler(aReduction(), new StageMetrics());
+
+        // when
+        JSONObject actual = testee.handle(matrix, operations);
+
+        // then
+        JSONArray results = actual.getJSONArray("results");
+        assertThat(results.getJSONObject(0).toString(),
+            is(unary.handle(matrix, "x-1", "sum").toString()));
+        assertThat(results.getJSONObject(1).toString(),
+            is(unary.handle(matrix, "x-3", "average").toString()));
+        assertThat(results.getJSONObject(2).toString(),
+            is(unary.handle(matrix, null, "min").toString()));
+    }
+
+    @Test
+    public void testHandleShouldThrowWhenOperationsAreMissing() {
+        // then
+        thrown.expect(IllegalArgumentException.class);
+        thrown.expectMessage("Operations are not present in request body.");
+
+        // when
+        testee.handle(aMatrix(), null);
+    }
+
+    @Test
+    public void testHandleShouldThrowWhenTooManyOperations() {
+        // given
+        JSONArray operations = new JSONArray("[{},{},{},{}]");
+
+        // then
+        thrown.expect(IllegalArgumentException.class);
+        thrown.expectMessage("Batch of 4 operations exceeds the limit of 3 operations.");
+
+        // when
+        testee.handle(aMatrix(), operations);
+    }
+}
@@ -1,11 +1,14 @@
 package sk.bocko.matrixcalc.controller;
 
 import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
 import java.nio.charset.Charset;
 import org.apache.commons.io.IOUtils;
 import org.apache.http.HttpEntity;
 import org.apache.http.client.methods.CloseableHttpResponse;
 import org.apache.http.client.methods.HttpRequestBase;
+import org.apache.http.entity.ByteArrayEntity;
 import org.apache.http.entity.StringEntity;
 import org.apache.http.impl.client.CloseableHttpClient;
 import org.apache.http.impl.client.HttpClientBuilder;
@@ -21,6 +24,7 @@ import org.springframework.http.HttpStatus;
 import org.springframework.test.context.junit4.SpringJUnit4ClassRunner;
 import sk.bocko.matrixcalc.Application;
 import sk.bocko.matrixcalc.HttpGetWithEntity;
+import static sk.bocko.matrixcalc.TestUtils.aBinaryBody;
 import static sk.bocko.matrixcalc.TestUtils.aBody;
 import static sk.bocko.matrixcalc.TestUtils.anOperandIndex;
 import static sk.bocko.matrixcalc.TestUtils.aBinaryOperation;
@@ -67,7 +71,7 @@ public class BinaryOperationControllerIntegrationTest {
         assertThat(actualStatusCode, is(expectedStatusCode));
 
         String actualContent = IOUtils.toString(actual.getEntity().getContent());
-        String expectedContent = "{\"error\":\"Matrix is not present in request body [{\\\"attribute\\\": \\\"value\\\"}].\"}";
+        String expectedContent = "{\"error\":\"Matrix is not present in request body.\"}";
         assertThat(actualContent, is(expectedContent));
     }
 
@@ -241,6 +245,25 @@ public class BinaryOperationControllerIntegrationTest {
         assertThat(actualContent, is(expectedContent));
     }
 
+    @Test
+    public void testProcessShouldHandleColumnDivisionCorrectly() throws Exception {
+        // given
+        final String body = "{\"matrix\":[[1,2],[3.3,4]]}";
+        final String firstRange = "x-1";
+        final String secondRange = "x-2";
+        final String operation = "divide";
+
+        // when
+        CloseableHttpResponse actual = makeRequest(body, operation, firstRange, secondRange);
+
+        //then
+        assertThat(actual.getStatusLine().getStatusCode(), is(HttpStatus.OK.value()));
+
+        String actualContent = IOUtils.toString(actual.getEntity().getContent());
+        String expectedContent = "{\"result\":[0.5,0.825]}";
+        assertThat(actualContent, is(expectedContent));
+    }
+
     @Test
     public void testProcessShouldReturnErrorWhenInvalidMatrix() throws Exception {
         // given
@@ -295,6 +318,24 @@ public class BinaryOperationControllerIntegrationTest {
         assertThat(actualContent, is(expectedContent));
     }
 
+    @Test
+    public void testProcessShouldReturnBinaryRangeResultWhenAccepted() throws IOException {
+        // given
+        HttpGetWithEntity request = new HttpGetWithEntity(URL + "add/1-x/2-x");
+        request.setHeader("Content-Type", "application/x-matrix");
+        request.setHeader("Accept", "application/x-matrix");
+        request.setEntity(new ByteArrayEntity(aBinaryBody()));
+
+        // when
+        CloseableHttpResponse actual = HttpClientBuilder.create().build().execute(request);
+
+        // then
+        assertThat(actual.getStatusLine().getStatusCode(), is(HttpStatus.OK.value()));
+        byte[] expected = ByteBuffer.allocate(8 + 2 * 8).order(ByteOrder.LITTLE_ENDIAN)
+            .putInt(1).putInt(2).putDouble(4.4).putDouble(6).array();
+        assertThat(IOUtils.toByteArray(actual.getEntity().getContent()), is(expected));
+    }
+
     private CloseableHttpResponse makeRequest(String content, String operation, String firstOperandIndex, String secondOperandIndex) {
         String params = firstOperandIndex + "/" + secondOperandIndex;
         HttpRequestBase request = createRequest(content, operation, params);
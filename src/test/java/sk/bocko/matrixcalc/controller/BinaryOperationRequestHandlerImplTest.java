@@ -2,12 +2,13 @@ package sk.bocko.matrixcalc.controller;
 
 import static org.hamcrest.MatcherAssert.assertThat;
 import static org.hamcrest.core.Is.is;
-import org.json.JSONException;
+import org.json.JSONArray;
 import org.json.JSONObject;
 import org.junit.Rule;
 import org.junit.Test;
 import org.junit.rules.ExpectedException;
-import static sk.bocko.matrixcalc.TestUtils.aBody;
+import sk.bocko.matrixcalc.model.Matrix;
+import static sk.bocko.matrixcalc.TestUtils.aMatrix;
 import static sk.bocko.matrixcalc.TestUtils.anOperandIndex;
 import static sk.bocko.matrixcalc.TestUtils.aBinaryOperation;
 
@@ -21,13 +22,13 @@ public class BinaryOperationRequestHandlerImplTest {
     @Test
     public void testHandleShouldHandleAdditionCorrectly() throws Exception {
         // given
-        final String body = "{\"matrix\":[[1,2.1],[3.3,4]]}";
+        final Matrix matrix = Matrix.from(new JSONArray("[[1,2.1],[3.3,4]]"));
         final String firstOperandIndex = "1-2"; // 2.1
         final String secondOperandIndex = "2-1"; // 3.3
         final String operation = "add";
 
         // when
-        JSONObject actual = testee.handle(body, firstOperandIndex, secondOperandIndex, operation);
+        JSONObject actual = testee.handle(matrix, firstOperandIndex, secondOperandIndex, operation);
 
         //then
         final JSONObject expected = new JSONObject().put("result", 5.4);
@@ -37,13 +38,13 @@ public class BinaryOperationRequestHandlerImplTest {
     @Test
     public void testHandleShouldHandleSubtractionCorrectly() throws Exception {
         // given
-        final String body = "{\"matrix\":[[1,2],[3.4,4]]}";
+        final Matrix matrix = Matrix.from(new JSONArray("[[1,2],[3.4,4]]"));
         final String firstOperandIndex = "1-2"; // 2
         final String secondOperandIndex = "2-1"; // 3.4
         final String operation = "subtract";
 
         // when
-        JSONObject actual = testee.handle(body, firstOperandIndex, secondOperandIndex, operation);
+        JSONObject actual = testee.handle(matrix, firstOperandIndex, secondOperandIndex, operation);
 
         //then
         final JSONObject expected = new JSONObject().put("result", -1.4);
@@ -53,13 +54,13 @@ public class BinaryOperationRequestHandlerImplTest {
     @Test
     public void testHandleShouldHandleMultiplicationCorrectly() throws Exception {
         // given
-        final String body = "{\"matrix\":[[1,2],[3.4,4]]}";
+        final Matrix matrix = Matrix.from(new JSONArray("[[1,2],[3.4,4]]"));
         final String firstOperandIndex = "1-2"; // 2
         final String secondOperandIndex = "2-1"; // 3.4
         final String operation = "multiply";
 
         // when
-        JSONObject actual = testee.handle(body, firstOperandIndex, secondOperandIndex, operation);
+        JSONObject actual = testee.handle(matrix, firstOperandIndex, secondOperandIndex, operation);
 
         //then
         final JSONObject expected = new JSONObject().put("result", 6.8);
@@ -69,13 +70,13 @@ public class BinaryOperationRequestHandlerImplTest {
     @Test
     public void testHandleShouldHandleDivisionCorrectly() throws Exception {
         // given
-        final String body = "{\"matrix\":[[1,2],[3.4,4]]}";
+        final Matrix matrix = Matrix.from(new JSONArray("[[1,2],[3.4,4]]"));
         final String firstOperandIndex = "1-2"; // 2
         final String secondOperandIndex = "2-2"; // 4
         final String operation = "divide";
 
         // when
-        JSONObject actual = testee.handle(body, firstOperandIndex, secondOperandIndex, operation);
+        JSONObject actual = testee.handle(matrix, firstOperandIndex, secondOperandIndex, operation);
 
         //then
         final JSONObject expected = new JSONObject().put("result", 0.5);
@@ -83,15 +84,42 @@ public class BinaryOperationRequestHandlerImplTest {
     }
 
     @Test
-    public void testHandleShouldThrowWhenInvalidMatrix() throws Exception {
+    public void testHandleShouldAddRowsElementWise() throws Exception {
         // given
-        final String body = "{\"matrix\": 42";
+        final Matrix matrix = Matrix.from(new JSONArray("[[1,2.5],[3,4]]"));
+        final String firstRange = "1-x";
+        final String secondRange = "2-x";
+        final String operation = "add";
+
+        // when
+        JSONObject actual = testee.handle(matrix, firstRange, secondRange, operation);
+
+        //then
+        final JSONObject expected = new JSONObject().put("result", new JSONArray("[4,6.5]"));
+        assertThat(actual.toString(), is(expected.toString()));
+    }
+
+    @Test
+    public void testHandleShouldThrowWhenElementWiseResultIsInfinite() throws Exception {
+        // given
+        final Matrix matrix = Matrix.from(new JSONArray("[[1,2],[3,0]]"));
+
+        // then
+        thrown.expect(IllegalArgumentException.class);
+        thrown.expectMessage("result is not a finite number");
 
+        // when
+        testee.handle(matrix, "x-1", "x-2", "divide");
+    }
+
+    @Test
+    public void testHandleShouldThrowWhenNullMatrix() throws Exception {
         // then
-        thrown.expect(JSONException.class);
+        thrown.expect(NullPointerException.class);
+        thrown.expectMessage("matrix is null");
 
         // when
-        testee.handle(body, anOperandIndex(), anOperandIndex(), aBinaryOperation());
+        testee.handle(null, anOperandIndex(), anOperandIndex(), aBinaryOperation());
     }
 
     @Test
@@ -104,14 +132,14 @@ public class BinaryOperationRequestHandlerImplTest {
         thrown.expectMessage(String.format("Unsupported operation '%s'", invalid));
 
         // when
-        testee.handle(aBody(), anOperandIndex(), anOperandIndex(), invalid);
+        testee.handle(aMatrix(), anOperandIndex(), anOperandIndex(), invalid);
     }
 
     @Test
     public void testHandleShouldThrowWhenResultIsInfinite() throws Exception {
         // given
-        final String body = "{\"matrix\":[[1," + Double.MAX_VALUE + "]," +
-            "[" + Double.MAX_VALUE + ",4]]}";
+        final Matrix matrix = Matrix.from(new JSONArray("[[1," + Double.MAX_VALUE + "]," +
+            "[" + Double.MAX_VALUE + ",4]]"));
         final String firstOperandIndex = "1-2"; // Double.MAX_VALUE
         final String secondOperandIndex = "2-1"; // Double.MAX_VALUE
         final String operation = "add";
@@ -121,13 +149,13 @@ public class BinaryOperationRequestHandlerImplTest {
         thrown.expectMessage("result is not a finite number");
 
         // when
-        testee.handle(body, firstOperandIndex, secondOperandIndex, operation);
+        testee.handle(matrix, firstOperandIndex, secondOperandIndex, operation);
     }
 
     @Test
     public void testHandleShouldThrowWhenDivisionByZero() throws Exception {
         // given
-        final String body = "{\"matrix\":[[1,2],[3.4,0]]}";
+        final Matrix matrix = Matrix.from(new JSONArray("[[1,2],[3.4,0]]"));
         final String firstOperandIndex = "1-2"; // 2
         final String zero = "2-2"; // 0
         final String operation = "divide";
@@ -137,6 +165,6 @@ public class BinaryOperationRequestHandlerImplTest {
         thrown.expectMessage("result is not a finite number");
 
         // when
-        testee.handle(body, firstOperandIndex, zero, operation);
+        testee.handle(matrix, firstOperandIndex, zero, operation);
     }
 }
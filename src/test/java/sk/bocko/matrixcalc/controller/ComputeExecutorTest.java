@@ -0,0 +1,135 @@
+package sk.bocko.matrixcalc.controller;
+
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.hasProperty;
+import static org.hamcrest.Matchers.instanceOf;
+import static org.hamcrest.Matchers.is;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.ExpectedException;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.web.context.request.async.DeferredResult;
+
+public class ComputeExecutorTest {
+
+    @Rule
+    public final ExpectedException thrown = ExpectedException.none();
+
+    @Test
+    public void testSubmitShouldSetResultOfWork() {
+        // given
+        ComputeExecutor testee = new ComputeExecutor(Runnable::run, 1, 1000);
+
+        // when
+        DeferredResult<String> actual = testee.submit(() -> "done");
+
+        // then
+        assertThat(actual.getResult(), is("done"));
+    }
+
+    @Test
+    public void testSubmitShouldSetExceptionOfWorkAsErrorResult() {
+        // given
+        ComputeExecutor testee = new ComputeExecutor(Runnable::run, 1, 1000);
+
+        // when
+        DeferredResult<String> actual = testee.submit(() -> {
+            throw new IllegalArgumentException("failed");
+        });
+
+        // then
+        assertThat(actual.getResult(), is(instanceOf(IllegalArgumentException.class)));
+    }
+
+    @Test
+    public void testSubmitShouldSkipWorkWhenResultIsAlreadySet() throws InterruptedException {
+        // given
+        ThreadPoolExecutor pool = new ThreadPoolExecutor(1, 1, 0, TimeUnit.MILLISECONDS,
+            new ArrayBlockingQueue<>(1));
+        ComputeExecutor testee = new ComputeExecutor(pool, 1, 1000);
+        CountDownLatch release = new CountDownLatch(1);
+        AtomicBoolean done = new AtomicBoolean();
+        try {
+            testee.submit(() -> release.await(10, TimeUnit.SECONDS));
+            DeferredResult<Boolean> queued = testee.submit(() -> done.getAndSet(true));
+
+            // when the queued work expires before it starts
+            queued.setErrorResult(new ComputeSaturatedException(1, null));
+            release.countDown();
+            pool.shutdown();
+            pool.awaitTermination(10, TimeUnit.SECONDS);
+
+            // then
+            assertThat(done.get(), is(false));
+            assertThat(queued.getResult(), is(instanceOf(ComputeSaturatedException.class)));
+        } finally {
+            release.countDown();
+            pool.shutdown();
+        }
+    }
+
+    @Test
+    public void testTimeoutShouldInterruptWorkAndSetTimeoutError() throws InterruptedException {
+        // given
+        ThreadPoolExecutor pool = new ThreadPoolExecutor(1, 1, 0, TimeUnit.MILLISECONDS,
+            new ArrayBlockingQueue<>(1));
+        ComputeExecutor testee = new ComputeExecutor(pool, 1, 1000);
+        CountDownLatch started = new CountDownLatch(1);
+        CountDownLatch interrupted = new CountDownLatch(1);
+        try {
+            DeferredResult<Boolean> actual = testee.submit(() -> {
+                started.countDown();
+                try {
+                    return new CountDownLatch(1).await(10, TimeUnit.SECONDS);
+                } catch (InterruptedException e) {
+                    interrupted.countDown();
+                    throw e;
+                }
+            });
+            started.await(10, TimeUnit.SECONDS);
+
+            // when the request times out, as the async request processing would do
+            Runnable timeout = (Runnable) ReflectionTestUtils.getField(actual, "timeoutCallback");
+            timeout.run();
+
+            // then
+            assertThat(interrupted.await(10, TimeUnit.SECONDS), is(true));
+            assertThat(actual.getResult(), is(instanceOf(ComputeTimeoutException.class)));
+        } finally {
+            pool.shutdown();
+        }
+    }
+
+    @Test
+    public void testSubmitShouldRejectWhenPoolIsSaturated() throws InterruptedException {
+        // given
+        ThreadPoolExecutor pool = new ThreadPoolExecutor(1, 1, 0, TimeUnit.MILLISECONDS,
+            new ArrayBlockingQueue<>(1));
+        ComputeExecutor testee = new ComputeExecutor(pool, 2, 1000);
+        CountDownLatch started = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        try {
+            testee.submit(() -> {
+                started.countDown();
+                return release.await(10, TimeUnit.SECONDS);
+            });
+            started.await(10, TimeUnit.SECONDS);
+            testee.submit(() -> true);
+
+            // then
+            thrown.expect(ComputeSaturatedException.class);
+            thrown.expect(hasProperty("retryAfterSeconds", is(2)));
+
+            // when
+            testee.submit(() -> true);
+        } finally {
+            release.countDown();
+            pool.shutdown();
+        }
+    }
+}
@@ -0,0 +1,86 @@
+package sk.bocko.matrixcalc.controller;
+
+import java.io.IOException;
+import java.net.URLEncoder;
+import java.nio.charset.Charset;
+import org.apache.commons.io.IOUtils;
+import org.apache.http.client.methods.CloseableHttpResponse;
+import org.apache.http.entity.StringEntity;
+import org.apache.http.impl.client.CloseableHttpClient;
+import org.apache.http.impl.client.HttpClientBuilder;
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.is;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.springframework.boot.test.SpringApplicationConfiguration;
+import org.springframework.boot.test.WebIntegrationTest;
+import org.springframework.http.HttpStatus;
+import org.springframework.test.context.junit4.SpringJUnit4ClassRunner;
+import sk.bocko.matrixcalc.Application;
+import sk.bocko.matrixcalc.HttpGetWithEntity;
+
+@RunWith(SpringJUnit4ClassRunner.class)
+@SpringApplicationConfiguration(classes = Application.class)
+@WebIntegrationTest("server.port:8888")
+public class ExpressionControllerIntegrationTest {
+
+    private static final String URL = "http://localhost:8888/rest/eval";
+
+    @Test
+    public void testProcessShouldEvaluateExpression() throws IOException {
+        // when
+        CloseableHttpResponse actual = makeRequest("{\"matrix\":[[1,2],[3,4]]}",
+            "(1-1 + 2-2) / 2-1 * sum(1-x)");
+
+        // then
+        assertThat(actual.getStatusLine().getStatusCode(), is(HttpStatus.OK.value()));
+        assertThat(IOUtils.toString(actual.getEntity().getContent()), is("{\"result\":5}"));
+    }
+
+    @Test
+    public void testProcessReturnsErrorResponseWhenExpressionIsNotValid() throws IOException {
+        // when
+        CloseableHttpResponse actual = makeRequest("{\"matrix\":[[1,2],[3,4]]}", "1-1 * (2-2");
+
+        // then
+        assertThat(actual.getStatusLine().getStatusCode(), is(HttpStatus.UNPROCESSABLE_ENTITY.value()));
+        assertThat(IOUtils.toString(actual.getEntity().getContent()),
+            is("{\"error\":\"'1-1 * (2-2' is not a valid expression: unexpected end\"}"));
+    }
+
+    @Test
+    public void testProcessReturnsErrorResponseWhenPositionIsOutOfRange() throws IOException {
+        // when
+        CloseableHttpResponse actual = makeRequest("{\"matrix\":[[1,2],[3,4]]}", "1-3");
+
+        // then
+        assertThat(actual.getStatusLine().getStatusCode(), is(HttpStatus.UNPROCESSABLE_ENTITY.value()));
+        assertThat(IOUtils.toString(actual.getEntity().getContent()),
+            is("{\"error\":\"The '1-3' position is out-of-range for the matrix.\"}"));
+    }
+
+    @Test
+    public void testProcessReturnsErrorResponseWhenMatrixIsMissing() throws IOException {
+        // when
+        CloseableHttpResponse actual = makeRequest("", "1-1");
+
+        // then
+        assertThat(actual.getStatusLine().getStatusCode(), is(HttpStatus.UNPROCESSABLE_ENTITY.value()));
+        assertThat(IOUtils.toString(actual.getEntity().getContent()),
+            is("{\"error\":\"Matrix is not present in request body.\"}"));
+    }
+
+    private CloseableHttpResponse makeRequest(String content, String expression) {
+        CloseableHttpClient client = HttpClientBuilder.create().build();
+
+        try {
+            HttpGetWithEntity request = new HttpGetWithEntity(
+                URL + "?expression=" + URLEncoder.encode(expression, "UTF-8"));
+            request.setHeader("Content-Type", "application/json");
+            request.setEntity(new StringEntity(content, Charset.forName("UTF-8")));
+            return client.execute(request);
+        } catch (IOException e) {
+            throw new IllegalStateException("Exception thrown while evaluating " + expression, e);
+        }
+    }
+}
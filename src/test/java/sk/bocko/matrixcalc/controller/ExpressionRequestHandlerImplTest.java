@@ -0,0 +1,66 @@
+package sk.bocko.matrixcalc.controller;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.core.Is.is;
+import org.json.JSONArray;
+import org.json.JSONObject;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.ExpectedException;
+import static sk.bocko.matrixcalc.TestUtils.aMatrix;
+import static sk.bocko.matrixcalc.TestUtils.aReduction;
+import sk.bocko.matrixcalc.cache.ExpressionCache;
+import sk.bocko.matrixcalc.metrics.StageMetrics;
+import sk.bocko.matrixcalc.model.Matrix;
+
+public class ExpressionRequestHandlerImplTest {
+
+    @Rule
+    public ExpectedException thrown = ExpectedException.none();
+
+    private final ExpressionRequestHandlerImpl testee = new ExpressionRequestHandlerImpl(
+        new ExpressionCache(10), aReduction(), new StageMetrics());
+
+    @Test
+    public void testHandleShouldEvaluateExpression() {
+        // given
+        final Matrix matrix = Matrix.from(new JSONArray("[[1,2],[3,4]]"));
+
+        // when
+        JSONObject actual = testee.handle(matrix, "(1-1 + 2-2) / 2-1 * sum(1-x)");
+
+        // then
+        final JSONObject expected = new JSONObject().put("result", 5d);
+        assertThat(actual.toString(), is(expected.toString()));
+    }
+
+    @Test
+    public void testHandleShouldThrowWhenResultIsNotFinite() {
+        // then
+        thrown.expect(IllegalArgumentException.class);
+        thrown.expectMessage("result is not a finite number");
+
+        // when
+        testee.handle(aMatrix(), "1-1 / (2-2 - 4)");
+    }
+
+    @Test
+    public void testHandleShouldThrowWhenExpressionIsMissing() {
+        // then
+        thrown.expect(IllegalArgumentException.class);
+        thrown.expectMessage("Expression is not present.");
+
+        // when
+        testee.handle(aMatrix(), null);
+    }
+
+    @Test
+    public void testHandleShouldThrowWhenNullMatrix() {
+        // then
+        thrown.expect(NullPointerException.class);
+        thrown.expectMessage("matrix is null");
+
+        // when
+        testee.handle(null, "1-1");
+    }
+}
@@ -0,0 +1,126 @@
+package sk.bocko.matrixcalc.controller;
+
+import java.io.IOException;
+import java.nio.charset.Charset;
+import org.apache.commons.io.IOUtils;
+import org.apache.http.client.methods.CloseableHttpResponse;
+import org.apache.http.client.methods.HttpPost;
+import org.apache.http.entity.StringEntity;
+import org.apache.http.impl.client.CloseableHttpClient;
+import org.apache.http.impl.client.HttpClientBuilder;
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.is;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.SpringApplicationConfiguration;
+import org.springframework.boot.test.WebIntegrationTest;
+import org.springframework.http.HttpStatus;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+import org.springframework.test.context.junit4.SpringJUnit4ClassRunner;
+import sk.bocko.matrixcalc.Application;
+
+@RunWith(SpringJUnit4ClassRunner.class)
+@SpringApplicationConfiguration(classes = Application.class)
+@WebIntegrationTest("server.port:8888")
+public class LinearAlgebraControllerIntegrationTest {
+
+    private static final String URL = "http://localhost:8888/rest/";
+
+    @Autowired
+    private ThreadPoolTaskExecutor streamingPool;
+
+    @Test
+    public void testDeterminantShouldReturnDeterminant() throws IOException {
+        // when
+        CloseableHttpResponse actual = execute("determinant", "{\"matrix\":[[2,0],[0,4]]}");
+
+        // then
+        assertThat(actual.getStatusLine().getStatusCode(), is(HttpStatus.OK.value()));
+        assertThat(IOUtils.toString(actual.getEntity().getContent()), is("{\"result\":8}"));
+    }
+
+    @Test
+    public void testInverseShouldReturnInverse() throws IOException {
+        // when
+        CloseableHttpResponse actual = execute("inverse", "{\"matrix\":[[2,0],[0,4]]}");
+
+        // then
+        assertThat(actual.getStatusLine().getStatusCode(), is(HttpStatus.OK.value()));
+        assertThat(IOUtils.toString(actual.getEntity().getContent()),
+            is("{\"result\":[[0.5,0],[0,0.25]]}"));
+    }
+
+    @Test
+    public void testInverseShouldBeWrittenByStreamingPool() throws IOException {
+        // given
+        long submitted = streamingPool.getThreadPoolExecutor().getTaskCount();
+
+        // when
+        CloseableHttpResponse actual = execute("inverse", "{\"matrix\":[[2,0],[0,4]]}");
+
+        // then
+        assertThat(IOUtils.toString(actual.getEntity().getContent()),
+            is("{\"result\":[[0.5,0],[0,0.25]]}"));
+        assertThat(streamingPool.getThreadPoolExecutor().getTaskCount() > submitted, is(true));
+    }
+
+    @Test
+    public void testSolveShouldReturnSolution() throws IOException {
+        // when
+        CloseableHttpResponse actual = execute("solve",
+            "{\"matrix\":[[2,0],[0,4]],\"b\":[[2],[8]]}");
+
+        // then
+        assertThat(actual.getStatusLine().getStatusCode(), is(HttpStatus.OK.value()));
+        assertThat(IOUtils.toString(actual.getEntity().getContent()),
+            is("{\"result\":[[1],[2]]}"));
+    }
+
+    @Test
+    public void testSolveReturnsErrorResponseWhenSingular() throws IOException {
+        // when
+        CloseableHttpResponse actual = execute("solve",
+            "{\"matrix\":[[1,2],[2,4]],\"b\":[[1],[2]]}");
+
+        // then
+        assertThat(actual.getStatusLine().getStatusCode(), is(HttpStatus.UNPROCESSABLE_ENTITY.value()));
+        assertThat(IOUtils.toString(actual.getEntity().getContent()),
+            is("{\"error\":\"Matrix is singular.\"}"));
+    }
+
+    @Test
+    public void testDeterminantReturnsErrorResponseWhenNotSquare() throws IOException {
+        // when
+        CloseableHttpResponse actual = execute("determinant", "{\"matrix\":[[1,2]]}");
+
+        // then
+        assertThat(actual.getStatusLine().getStatusCode(), is(HttpStatus.UNPROCESSABLE_ENTITY.value()));
+        assertThat(IOUtils.toString(actual.getEntity().getContent()),
+            is("{\"error\":\"Matrix 1x2 is not square.\"}"));
+    }
+
+    @Test
+    public void testInverseReturnsNotFoundWhenMatrixIsNotStored() throws IOException {
+        // when
+        CloseableHttpResponse actual = execute("inverse", "{\"matrix\":\"unknown\"}");
+
+        // then
+        assertThat(actual.getStatusLine().getStatusCode(), is(HttpStatus.NOT_FOUND.value()));
+    }
+
+    private CloseableHttpResponse execute(String operation, String content) {
+        CloseableHttpClient client = HttpClientBuilder.create().build();
+        HttpPost request = new HttpPost(URL + operation);
+        request.setHeader("Content-Type", "application/json");
+        request.setEntity(new StringEntity(content, Charset.forName("UTF-8")));
+
+        try {
+            return client.execute(request);
+        } catch (IOException e) {
+            String message = String.format("Exception thrown while calling "
+                + "request %s", request);
+            throw new IllegalStateException(message, e);
+        }
+    }
+}
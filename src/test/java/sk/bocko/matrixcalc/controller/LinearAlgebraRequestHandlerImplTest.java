@@ -0,0 +1,81 @@
+package sk.bocko.matrixcalc.controller;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.closeTo;
+import static org.hamcrest.Matchers.is;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.ExpectedException;
+import sk.bocko.matrixcalc.io.MatrixJsonReader;
+import sk.bocko.matrixcalc.io.MatrixOperands;
+import sk.bocko.matrixcalc.model.Matrix;
+import sk.bocko.matrixcalc.store.MatrixStore;
+
+public class LinearAlgebraRequestHandlerImplTest {
+
+    @Rule
+    public final ExpectedException thrown = ExpectedException.none();
+
+    private final MatrixStore store = new MatrixStore(1 << 20, 1 << 20);
+    private final LinearAlgebraRequestHandlerImpl testee = new LinearAlgebraRequestHandlerImpl(store);
+
+    @Test
+    public void testDeterminantShouldUseInlineMatrix() throws IOException {
+        // when
+        double actual = testee.determinant(operands("{\"matrix\":[[1,2],[3,4]]}"));
+
+        // then
+        assertThat(actual, is(closeTo(-2, 1e-12)));
+    }
+
+    @Test
+    public void testSolveShouldReuseDecompositionOfStoredMatrix() throws IOException {
+        // given
+        String id = store.put(Matrix.from(new double[][]{{2, 0}, {0, 4}}));
+        testee.solve(operands("{\"matrix\":\"" + id + "\",\"b\":[[2],[8]]}"));
+
+        // when
+        Matrix actual = testee.solve(operands("{\"matrix\":\"" + id + "\",\"b\":[[4,1],[4,1]]}"));
+
+        // then
+        assertThat(actual.getMatrix(), is(new double[][]{{2, 0.5}, {1, 0.25}}));
+        assertThat(store.decomposition(id) == store.decomposition(id), is(true));
+    }
+
+    @Test
+    public void testInverseShouldInvertMatrix() throws IOException {
+        // when
+        Matrix actual = testee.inverse(operands("{\"matrix\":[[2,0],[0,4]]}"));
+
+        // then
+        assertThat(actual.getMatrix(), is(new double[][]{{0.5, 0}, {0, 0.25}}));
+    }
+
+    @Test
+    public void testSolveShouldFailWhenSideIsMissing() throws IOException {
+        // then
+        thrown.expect(IllegalArgumentException.class);
+        thrown.expectMessage("Operand 'b' is not present.");
+
+        // when
+        testee.solve(operands("{\"matrix\":[[1]]}"));
+    }
+
+    @Test
+    public void testDeterminantShouldFailWhenOutOfRange() throws IOException {
+        // then
+        thrown.expect(IllegalArgumentException.class);
+        thrown.expectMessage("Determinant is out of the range of double.");
+
+        // when
+        testee.determinant(operands("{\"matrix\":[[1e200,0],[0,1e200]]}"));
+    }
+
+    private static MatrixOperands operands(String json) throws IOException {
+        return MatrixJsonReader.readOperands(
+            new ByteArrayInputStream(json.getBytes(StandardCharsets.UTF_8)));
+    }
+}
@@ -0,0 +1,76 @@
+package sk.bocko.matrixcalc.controller;
+
+import java.nio.charset.StandardCharsets;
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.is;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.ExpectedException;
+import org.springframework.core.MethodParameter;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.web.context.request.ServletWebRequest;
+import sk.bocko.matrixcalc.io.MatrixOperands;
+
+public class MatrixArgumentResolverTest {
+    private static final String OPERANDS = "{\"left\":[[1,2]]}";
+
+    @Rule
+    public final ExpectedException thrown = ExpectedException.none();
+
+    private final MatrixArgumentResolver testee =
+        new MatrixArgumentResolver(new MatrixHttpMessageConverter(), 1000, 16);
+
+    @Test
+    public void testResolveShouldReceiveBodyWithinLimit() throws Exception {
+        // when
+        OperandsBody actual = (OperandsBody) resolve(aRequest(OPERANDS, false));
+
+        // then
+        MatrixOperands operands = actual.read();
+        assertThat(operands.getMatrix("left").getMatrix(), is(new double[][]{{1, 2}}));
+    }
+
+    @Test
+    public void testResolveShouldRejectBodyWhoseLengthExceedsLimit() throws Exception {
+        // then
+        thrown.expect(IllegalArgumentException.class);
+        thrown.expectMessage("Request body is larger than 16 bytes.");
+
+        // when
+        resolve(aRequest(OPERANDS + "       ", false));
+    }
+
+    @Test
+    public void testResolveShouldRejectBodyOfUnknownLengthWhenItExceedsLimit() throws Exception {
+        // then
+        thrown.expect(IllegalArgumentException.class);
+        thrown.expectMessage("Request body is larger than 16 bytes.");
+
+        // when
+        resolve(aRequest(OPERANDS + "       ", true));
+    }
+
+    private Object resolve(MockHttpServletRequest request) throws Exception {
+        MethodParameter parameter = new MethodParameter(MatrixArgumentResolverTest.class
+            .getDeclaredMethod("operands", OperandsBody.class), 0);
+        return testee.resolveArgument(parameter, null, new ServletWebRequest(request), null);
+    }
+
+    private static MockHttpServletRequest aRequest(String body, boolean chunked) {
+        MockHttpServletRequest request = chunked
+            ? new MockHttpServletRequest() {
+                @Override
+                public long getContentLengthLong() {
+                    return -1;
+                }
+            }
+            : new MockHttpServletRequest();
+        request.setContentType("application/json");
+        request.setContent(body.getBytes(StandardCharsets.UTF_8));
+        return request;
+    }
+
+    @SuppressWarnings("unused")
+    private static void operands(OperandsBody body) {
+    }
+}
@@ -0,0 +1,232 @@
+package sk.bocko.matrixcalc.controller;
+
+import java.io.IOException;
+import java.net.URLEncoder;
+import java.nio.charset.Charset;
+import org.apache.commons.io.IOUtils;
+import org.apache.http.client.methods.CloseableHttpResponse;
+import org.apache.http.client.methods.HttpDelete;
+import org.apache.http.client.methods.HttpGet;
+import org.apache.http.client.methods.HttpPatch;
+import org.apache.http.client.methods.HttpPost;
+import org.apache.http.client.methods.HttpRequestBase;
+import org.apache.http.entity.StringEntity;
+import org.apache.http.impl.client.CloseableHttpClient;
+import org.apache.http.impl.client.HttpClientBuilder;
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.is;
+import org.json.JSONObject;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.springframework.boot.test.SpringApplicationConfiguration;
+import org.springframework.boot.test.WebIntegrationTest;
+import org.springframework.http.HttpStatus;
+import org.springframework.test.context.junit4.SpringJUnit4ClassRunner;
+import sk.bocko.matrixcalc.Application;
+
+@RunWith(SpringJUnit4ClassRunner.class)
+@SpringApplicationConfiguration(classes = Application.class)
+@WebIntegrationTest("server.port:8888")
+public class MatrixStoreControllerIntegrationTest {
+
+    private static final String URL = "http://localhost:8888/rest/matrices";
+
+    @Test
+    public void testStoreShouldReturnIdOfStoredMatrix() throws IOException {
+        // when
+        CloseableHttpResponse actual = store("{\"matrix\":[[1,2.1],[3.3,4]]}");
+
+        // then
+        assertThat(actual.getStatusLine().getStatusCode(), is(HttpStatus.CREATED.value()));
+        JSONObject content = new JSONObject(IOUtils.toString(actual.getEntity().getContent()));
+        assertThat(content.has("id"), is(true));
+    }
+
+    @Test
+    public void testStoreReturnsErrorResponseWhenMatrixIsMissing() throws IOException {
+        // when
+        CloseableHttpResponse actual = store("{\"attribute\": \"value\"}");
+
+        // then
+        assertThat(actual.getStatusLine().getStatusCode(), is(HttpStatus.UNPROCESSABLE_ENTITY.value()));
+        String actualContent = IOUtils.toString(actual.getEntity().getContent());
+        assertThat(actualContent, is("{\"error\":\"Matrix is not present in request body.\"}"));
+    }
+
+    @Test
+    public void testProcessShouldHandleOperationsOnStoredMatrix() throws IOException {
+        // given
+        String id = storedMatrixId("{\"matrix\":[[1,2.1],[3.3,4]]}");
+
+        // when
+        CloseableHttpResponse addition = execute(new HttpGet(URL + "/" + id + "/add/1-2/2-1"));
+        CloseableHttpResponse sum = execute(new HttpGet(URL + "/" + id + "/sum?range=1-x"));
+
+        // then
+        assertThat(addition.getStatusLine().getStatusCode(), is(HttpStatus.OK.value()));
+        assertThat(IOUtils.toString(addition.getEntity().getContent()), is("{\"result\":5.4}"));
+        assertThat(sum.getStatusLine().getStatusCode(), is(HttpStatus.OK.value()));
+        assertThat(IOUtils.toString(sum.getEntity().getContent()), is("{\"result\":3.1}"));
+    }
+
+    @Test
+    public void testProcessShouldHandleStatisticsOnStoredMatrix() throws IOException {
+        // given
+        String id = storedMatrixId("{\"matrix\":[[1,2.1],[3.3,4]]}");
+
+        // when
+        CloseableHttpResponse median = execute(new HttpGet(URL + "/" + id + "/median"));
+        CloseableHttpResponse percentile = execute(new HttpGet(URL + "/" + id + "/percentile?p=100&range=1-x"));
+
+        // then
+        assertThat(IOUtils.toString(median.getEntity().getContent()), is("{\"result\":2.7}"));
+        assertThat(percentile.getStatusLine().getStatusCode(), is(HttpStatus.OK.value()));
+        assertThat(IOUtils.toString(percentile.getEntity().getContent()), is("{\"result\":2.1}"));
+    }
+
+    @Test
+    public void testProcessShouldRankValuesOfStoredMatrix() throws IOException {
+        // given
+        String id = storedMatrixId("{\"matrix\":[[1,2.1],[3.3,4]]}");
+
+        // when
+        CloseableHttpResponse argmin = execute(new HttpGet(URL + "/" + id + "/argmin?range=x-2"));
+        CloseableHttpResponse top = execute(new HttpGet(URL + "/" + id + "/topk?k=1"));
+
+        // then
+        assertThat(argmin.getStatusLine().getStatusCode(), is(HttpStatus.OK.value()));
+        assertThat(IOUtils.toString(argmin.getEntity().getContent()), is("{\"result\":\"1-2\"}"));
+        assertThat(IOUtils.toString(top.getEntity().getContent()),
+            is("{\"result\":[{\"position\":\"2-2\",\"value\":4}]}"));
+    }
+
+    @Test
+    public void testProcessShouldEvaluateExpressionOnStoredMatrix() throws IOException {
+        // given
+        String id = storedMatrixId("{\"matrix\":[[1,2.5],[3,4]]}");
+
+        // when
+        CloseableHttpResponse actual = execute(new HttpGet(URL + "/" + id
+            + "/eval?expression=" + URLEncoder.encode("2-1 * (1-2 + max(x-1))", "UTF-8")));
+
+        // then
+        assertThat(actual.getStatusLine().getStatusCode(), is(HttpStatus.OK.value()));
+        assertThat(IOUtils.toString(actual.getEntity().getContent()), is("{\"result\":16.5}"));
+    }
+
+    @Test
+    public void testProcessShouldReturnStatisticsOfStoredMatrix() throws IOException {
+        // given
+        String id = storedMatrixId("{\"matrix\":[[1,2.1],[3.3,4]]}");
+
+        // when
+        CloseableHttpResponse actual = execute(new HttpGet(URL + "/" + id + "/stats?range=x-1"));
+
+        // then
+        assertThat(actual.getStatusLine().getStatusCode(), is(HttpStatus.OK.value()));
+        JSONObject result = new JSONObject(IOUtils.toString(actual.getEntity().getContent()))
+            .getJSONObject("result");
+        assertThat(result.getDouble("sum"), is(4.3));
+        assertThat(result.getDouble("max"), is(3.3));
+    }
+
+    @Test
+    public void testProcessReturnsNotFoundWhenMatrixIsRemoved() throws IOException {
+        // given
+        String id = storedMatrixId("{\"matrix\":[[1,2.1],[3.3,4]]}");
+        CloseableHttpResponse removal = execute(new HttpDelete(URL + "/" + id));
+
+        // when
+        CloseableHttpResponse actual = execute(new HttpGet(URL + "/" + id + "/max"));
+
+        // then
+        assertThat(removal.getStatusLine().getStatusCode(), is(HttpStatus.NO_CONTENT.value()));
+        assertThat(actual.getStatusLine().getStatusCode(), is(HttpStatus.NOT_FOUND.value()));
+        String actualContent = IOUtils.toString(actual.getEntity().getContent());
+        String expectedContent = String.format("{\"error\":\"Matrix '%s' is not stored.\"}", id);
+        assertThat(actualContent, is(expectedContent));
+    }
+
+    @Test
+    public void testProcessBinaryReturnsNotFoundWhenMatrixIsRemoved() throws IOException {
+        // given
+        String id = storedMatrixId("{\"matrix\":[[1,2.1],[3.3,4]]}");
+        execute(new HttpDelete(URL + "/" + id));
+
+        // when
+        CloseableHttpResponse actual = execute(new HttpGet(URL + "/" + id + "/add/1-2/2-1"));
+
+        // then
+        assertThat(actual.getStatusLine().getStatusCode(), is(HttpStatus.NOT_FOUND.value()));
+        String actualContent = IOUtils.toString(actual.getEntity().getContent());
+        String expectedContent = String.format("{\"error\":\"Matrix '%s' is not stored.\"}", id);
+        assertThat(actualContent, is(expectedContent));
+    }
+
+    @Test
+    public void testUpdateShouldChangeStoredMatrix() throws IOException {
+        // given
+        String id = storedMatrixId("{\"matrix\":[[1,2.1],[3.3,4]]}");
+
+        // when
+        CloseableHttpResponse update = update(id, "{\"cells\":[[1,2,7]],\"rows\":[[2,[0,1]]]}");
+        CloseableHttpResponse sum = execute(new HttpGet(URL + "/" + id + "/sum?range=1-x"));
+        CloseableHttpResponse max = execute(new HttpGet(URL + "/" + id + "/max?range=x-2"));
+        CloseableHttpResponse addition = execute(new HttpGet(URL + "/" + id + "/add/1-2/2-1"));
+
+        // then
+        assertThat(update.getStatusLine().getStatusCode(), is(HttpStatus.NO_CONTENT.value()));
+        assertThat(IOUtils.toString(sum.getEntity().getContent()), is("{\"result\":8}"));
+        assertThat(IOUtils.toString(max.getEntity().getContent()), is("{\"result\":7}"));
+        assertThat(IOUtils.toString(addition.getEntity().getContent()), is("{\"result\":7}"));
+    }
+
+    @Test
+    public void testUpdateReturnsUnprocessableEntityWhenCellIsOutOfMatrix() throws IOException {
+        // given
+        String id = storedMatrixId("{\"matrix\":[[1,2.1],[3.3,4]]}");
+
+        // when
+        CloseableHttpResponse actual = update(id, "{\"cells\":[[1,1,0],[3,1,0]]}");
+        CloseableHttpResponse sum = execute(new HttpGet(URL + "/" + id + "/sum?range=1-x"));
+
+        // then
+        assertThat(actual.getStatusLine().getStatusCode(),
+            is(HttpStatus.UNPROCESSABLE_ENTITY.value()));
+        String actualContent = IOUtils.toString(actual.getEntity().getContent());
+        assertThat(actualContent,
+            is("{\"error\":\"The '3-1' position is out-of-range for the matrix.\"}"));
+        assertThat(IOUtils.toString(sum.getEntity().getContent()), is("{\"result\":3.1}"));
+    }
+
+    private String storedMatrixId(String content) throws IOException {
+        CloseableHttpResponse response = store(content);
+        return new JSONObject(IOUtils.toString(response.getEntity().getContent())).getString("id");
+    }
+
+    private CloseableHttpResponse store(String content) {
+        HttpPost request = new HttpPost(URL);
+        request.setHeader("Content-Type", "application/json");
+        request.setEntity(new StringEntity(content, Charset.forName("UTF-8")));
+        return execute(request);
+    }
+
+    private CloseableHttpResponse update(String id, String content) {
+        HttpPatch request = new HttpPatch(URL + "/" + id);
+        request.setHeader("Content-Type", "application/json");
+        request.setEntity(new StringEntity(content, Charset.forName("UTF-8")));
+        return execute(request);
+    }
+
+    private CloseableHttpResponse execute(HttpRequestBase request) {
+        CloseableHttpClient client = HttpClientBuilder.create().build();
+
+        try {
+            return client.execute(request);
+        } catch (IOException e) {
+            String message = String.format("Exception thrown while calling "
+                + "request %s", request);
+            throw new IllegalStateException(message, e);
+        }
+    }
+}
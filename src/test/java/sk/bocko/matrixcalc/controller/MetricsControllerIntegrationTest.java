@@ -0,0 +1,87 @@
+package sk.bocko.matrixcalc.controller;
+
+import java.io.IOException;
+import java.nio.charset.Charset;
+import org.apache.commons.io.IOUtils;
+import org.apache.http.client.methods.CloseableHttpResponse;
+import org.apache.http.client.methods.HttpGet;
+import org.apache.http.client.methods.HttpRequestBase;
+import org.apache.http.entity.StringEntity;
+import org.apache.http.impl.client.CloseableHttpClient;
+import org.apache.http.impl.client.HttpClientBuilder;
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.containsString;
+import static org.hamcrest.Matchers.is;
+import static org.hamcrest.Matchers.startsWith;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.springframework.boot.test.SpringApplicationConfiguration;
+import org.springframework.boot.test.WebIntegrationTest;
+import org.springframework.http.HttpStatus;
+import org.springframework.test.context.junit4.SpringJUnit4ClassRunner;
+import sk.bocko.matrixcalc.Application;
+import sk.bocko.matrixcalc.HttpGetWithEntity;
+
+@RunWith(SpringJUnit4ClassRunner.class)
+@SpringApplicationConfiguration(classes = Application.class)
+@WebIntegrationTest("server.port:8888")
+public class MetricsControllerIntegrationTest {
+
+    private static final String URL = "http://localhost:8888/";
+
+    @Test
+    public void testMetricsShouldContainStagesOfRangedOperation() throws IOException {
+        // given
+        // a matrix of its own, so the result is not in the cache
+        String content = String.format("{\"matrix\":[[%s,2],[3,4]]}", System.nanoTime());
+        HttpGetWithEntity operation = new HttpGetWithEntity(URL + "rest/max?range=1-x");
+        operation.setHeader("Content-Type", "application/json");
+        operation.setEntity(new StringEntity(content, Charset.forName("UTF-8")));
+        assertThat(execute(operation).getStatusLine().getStatusCode(), is(HttpStatus.OK.value()));
+
+        // when
+        CloseableHttpResponse actual = execute(new HttpGet(URL + "metrics"));
+
+        // then
+        assertThat(actual.getStatusLine().getStatusCode(), is(HttpStatus.OK.value()));
+        assertThat(actual.getFirstHeader("Content-Type").getValue(), startsWith("text/plain"));
+        String text = IOUtils.toString(actual.getEntity().getContent());
+        for (String stage : new String[] {"parse", "extract", "reduce", "serialize"}) {
+            assertThat(text, containsString("matrixcalc_stage_latency_seconds_count{stage=\""
+                + stage + "\",operation=\"max\",size=\"1e1\"}"));
+        }
+    }
+
+    @Test
+    public void testMetricsShouldContainSerializationOfEveryRangedOperation() throws IOException {
+        // given
+        String content = String.format("{\"matrix\":[[%s,2],[3,4]]}", System.nanoTime());
+        for (String query : new String[] {"percentile?p=50", "stats", "argmax", "topk?k=2"}) {
+            HttpGetWithEntity operation = new HttpGetWithEntity(URL + "rest/" + query);
+            operation.setHeader("Content-Type", "application/json");
+            operation.setEntity(new StringEntity(content, Charset.forName("UTF-8")));
+            assertThat(execute(operation).getStatusLine().getStatusCode(), is(HttpStatus.OK.value()));
+        }
+
+        // when
+        CloseableHttpResponse actual = execute(new HttpGet(URL + "metrics"));
+
+        // then
+        String text = IOUtils.toString(actual.getEntity().getContent());
+        for (String name : new String[] {"percentile", "stats", "argmax", "topk"}) {
+            assertThat(text, containsString("matrixcalc_stage_latency_seconds_count{stage=\"serialize\""
+                + ",operation=\"" + name + "\",size=\"1e1\"}"));
+        }
+    }
+
+    private CloseableHttpResponse execute(HttpRequestBase request) {
+        CloseableHttpClient client = HttpClientBuilder.create().build();
+        try {
+            return client.execute(request);
+        } catch (IOException e) {
+            String message = String.format("Exception thrown while calling "
+                + "request %s", request);
+            throw new IllegalStateException(message, e);
+        }
+    }
+}
@@ -0,0 +1,109 @@
+package sk.bocko.matrixcalc.controller;
+
+import java.io.IOException;
+import java.nio.charset.Charset;
+import org.apache.commons.io.IOUtils;
+import org.apache.http.client.methods.CloseableHttpResponse;
+import org.apache.http.client.methods.HttpPost;
+import org.apache.http.entity.StringEntity;
+import org.apache.http.impl.client.CloseableHttpClient;
+import org.apache.http.impl.client.HttpClientBuilder;
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.is;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.springframework.boot.test.SpringApplicationConfiguration;
+import org.springframework.boot.test.WebIntegrationTest;
+import org.springframework.http.HttpStatus;
+import org.springframework.test.context.junit4.SpringJUnit4ClassRunner;
+import sk.bocko.matrixcalc.Application;
+
+@RunWith(SpringJUnit4ClassRunner.class)
+@SpringApplicationConfiguration(classes = Application.class)
+@WebIntegrationTest("server.port:8888")
+public class MultiplicationControllerIntegrationTest {
+
+    private static final String URL = "http://localhost:8888/rest/matmul";
+
+    @Test
+    public void testProcessShouldReturnProduct() throws IOException {
+        // when
+        CloseableHttpResponse actual = execute("{\"left\":[[1,2],[3,4]],\"right\":[[5,1],[6,0]]}");
+
+        // then
+        assertThat(actual.getStatusLine().getStatusCode(), is(HttpStatus.OK.value()));
+        assertThat(IOUtils.toString(actual.getEntity().getContent()),
+            is("{\"result\":[[17,1],[39,3]]}"));
+    }
+
+    @Test
+    public void testProcessReturnsErrorResponseWhenMatricesDoNotFit() throws IOException {
+        // when
+        CloseableHttpResponse actual = execute("{\"left\":[[1,2],[3,4]],\"right\":[[5,6]]}");
+
+        // then
+        assertThat(actual.getStatusLine().getStatusCode(), is(HttpStatus.UNPROCESSABLE_ENTITY.value()));
+        assertThat(IOUtils.toString(actual.getEntity().getContent()),
+            is("{\"error\":\"Matrices 2x2 and 1x2 can not be multiplied.\"}"));
+    }
+
+    @Test
+    public void testProcessReturnsErrorResponseWhenProductIsTooLarge() throws IOException {
+        // when
+        CloseableHttpResponse actual = execute("{\"left\":{\"rows\":46000,\"cols\":1,\"entries\":[]},"
+            + "\"right\":{\"rows\":1,\"cols\":46000,\"entries\":[]}}");
+
+        // then
+        assertThat(actual.getStatusLine().getStatusCode(), is(HttpStatus.UNPROCESSABLE_ENTITY.value()));
+        assertThat(IOUtils.toString(actual.getEntity().getContent()),
+            is("{\"error\":\"Product 46000x46000 is too large.\"}"));
+    }
+
+    @Test
+    public void testProcessReturnsErrorResponseWhenProductIsNotFinite() throws IOException {
+        // when
+        CloseableHttpResponse actual = execute("{\"left\":[[1e308,1e308]],\"right\":[[10],[10]]}");
+
+        // then
+        assertThat(actual.getStatusLine().getStatusCode(), is(HttpStatus.UNPROCESSABLE_ENTITY.value()));
+        assertThat(IOUtils.toString(actual.getEntity().getContent()),
+            is("{\"error\":\"result is not a finite number\"}"));
+    }
+
+    @Test
+    public void testProcessReturnsNotFoundWhenMatrixIsNotStored() throws IOException {
+        // when
+        CloseableHttpResponse actual = execute("{\"left\":\"unknown\",\"right\":[[5,6]]}");
+
+        // then
+        assertThat(actual.getStatusLine().getStatusCode(), is(HttpStatus.NOT_FOUND.value()));
+        assertThat(IOUtils.toString(actual.getEntity().getContent()),
+            is("{\"error\":\"Matrix 'unknown' is not stored.\"}"));
+    }
+
+    @Test
+    public void testProcessReturnsErrorResponseWhenBodyIsEmpty() throws IOException {
+        // when
+        CloseableHttpResponse actual = execute("");
+
+        // then
+        assertThat(actual.getStatusLine().getStatusCode(), is(HttpStatus.UNPROCESSABLE_ENTITY.value()));
+        assertThat(IOUtils.toString(actual.getEntity().getContent()),
+            is("{\"error\":\"Operands are not present in request body.\"}"));
+    }
+
+    private CloseableHttpResponse execute(String content) {
+        CloseableHttpClient client = HttpClientBuilder.create().build();
+        HttpPost request = new HttpPost(URL);
+        request.setHeader("Content-Type", "application/json");
+        request.setEntity(new StringEntity(content, Charset.forName("UTF-8")));
+
+        try {
+            return client.execute(request);
+        } catch (IOException e) {
+            String message = String.format("Exception thrown while calling "
+                + "request %s", request);
+            throw new IllegalStateException(message, e);
+        }
+    }
+}
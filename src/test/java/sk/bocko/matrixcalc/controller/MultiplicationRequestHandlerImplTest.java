@@ -0,0 +1,73 @@
+package sk.bocko.matrixcalc.controller;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.ForkJoinPool;
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.is;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.ExpectedException;
+import sk.bocko.matrixcalc.io.MatrixJsonReader;
+import sk.bocko.matrixcalc.io.MatrixOperands;
+import sk.bocko.matrixcalc.model.Matrix;
+import sk.bocko.matrixcalc.model.MatrixMultiplication;
+import sk.bocko.matrixcalc.store.MatrixNotFoundException;
+import sk.bocko.matrixcalc.store.MatrixStore;
+
+public class MultiplicationRequestHandlerImplTest {
+
+    @Rule
+    public final ExpectedException thrown = ExpectedException.none();
+
+    private final MatrixStore store = new MatrixStore(1 << 20, 1 << 20);
+    private final MultiplicationRequestHandlerImpl testee = new MultiplicationRequestHandlerImpl(
+        store, new MatrixMultiplication(ForkJoinPool.commonPool(), 1 << 20, 1 << 20));
+
+    @Test
+    public void testHandleShouldMultiplyInlineAndStoredMatrices() throws IOException {
+        // given
+        String id = store.put(Matrix.from(new double[][]{{5}, {6}}));
+
+        // when
+        Matrix actual = testee.handle(operands("{\"left\":[[1,2],[3,4]],\"right\":\"" + id + "\"}"));
+
+        // then
+        assertThat(actual.getMatrix(), is(new double[][]{{17}, {39}}));
+    }
+
+    @Test
+    public void testHandleShouldFailWhenOperandIsMissing() throws IOException {
+        // then
+        thrown.expect(IllegalArgumentException.class);
+        thrown.expectMessage("Operand 'right' is not present.");
+
+        // when
+        testee.handle(operands("{\"left\":[[1,2],[3,4]]}"));
+    }
+
+    @Test
+    public void testHandleShouldFailWhenOperandIsNotMatrixNorId() throws IOException {
+        // then
+        thrown.expect(IllegalArgumentException.class);
+        thrown.expectMessage("Operand 'left' is neither a matrix nor an id of a stored matrix.");
+
+        // when
+        testee.handle(operands("{\"left\":12,\"right\":[[1]]}"));
+    }
+
+    @Test
+    public void testHandleShouldFailWhenMatrixIsNotStored() throws IOException {
+        // then
+        thrown.expect(MatrixNotFoundException.class);
+
+        // when
+        testee.handle(operands("{\"left\":\"unknown\",\"right\":[[1]]}"));
+    }
+
+    private static MatrixOperands operands(String json) throws IOException {
+        return MatrixJsonReader.readOperands(
+            new ByteArrayInputStream(json.getBytes(StandardCharsets.UTF_8)));
+    }
+}
@@ -1,26 +1,36 @@
 package sk.bocko.matrixcalc.controller;
 
 import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
 import java.nio.charset.Charset;
+import java.util.Arrays;
 import org.apache.commons.io.IOUtils;
 import org.apache.http.HttpEntity;
 import org.apache.http.client.methods.CloseableHttpResponse;
 import org.apache.http.client.methods.HttpRequestBase;
+import org.apache.http.entity.ByteArrayEntity;
 import org.apache.http.entity.StringEntity;
 import org.apache.http.impl.client.CloseableHttpClient;
 import org.apache.http.impl.client.HttpClientBuilder;
 import static org.hamcrest.MatcherAssert.assertThat;
 import static org.hamcrest.Matchers.is;
+import static org.hamcrest.Matchers.startsWith;
+import org.json.JSONArray;
+import org.json.JSONObject;
 import org.junit.Rule;
 import org.junit.Test;
 import org.junit.rules.ExpectedException;
 import org.junit.runner.RunWith;
+import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.SpringApplicationConfiguration;
 import org.springframework.boot.test.WebIntegrationTest;
 import org.springframework.http.HttpStatus;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
 import org.springframework.test.context.junit4.SpringJUnit4ClassRunner;
 import sk.bocko.matrixcalc.Application;
 import sk.bocko.matrixcalc.HttpGetWithEntity;
+import static sk.bocko.matrixcalc.TestUtils.aBinaryBody;
 import static sk.bocko.matrixcalc.TestUtils.aRange;
 import static sk.bocko.matrixcalc.TestUtils.anUnaryOperation;
 
@@ -34,6 +44,9 @@ public class RangedOperationControllerIntegrationTest {
     @Rule
     public ExpectedException thrown = ExpectedException.none();
 
+    @Autowired
+    private ThreadPoolTaskExecutor streamingPool;
+
     @Test
     public void testProcessReturnsErrorResponseWhenContentIsEmpty() throws IOException {
         // given
@@ -66,7 +79,7 @@ public class RangedOperationControllerIntegrationTest {
         assertThat(actualStatusCode, is(expectedStatusCode));
 
         String actualContent = IOUtils.toString(actual.getEntity().getContent());
-        String expectedContent = "{\"error\":\"Matrix is not present in request body [{\\\"attribute\\\": \\\"value\\\"}].\"}";
+        String expectedContent = "{\"error\":\"Matrix is not present in request body.\"}";
         assertThat(actualContent, is(expectedContent));
     }
 
@@ -182,6 +195,42 @@ public class RangedOperationControllerIntegrationTest {
         assertThat(actualContent, is(expectedContent));
     }
 
+    @Test
+    public void testProcessShouldHandleMinimumOfEntriesWithImplicitZeros() throws Exception {
+        // given
+        final String body = "{\"matrix\":{\"rows\":100,\"cols\":100,\"entries\":[[1,1,2],[1,100,3]]}}";
+        final String argument = "1-x";
+        final String operation = "min";
+
+        // when
+        CloseableHttpResponse actual = makeRequest(body, operation, argument);
+
+        //then
+        assertThat(actual.getStatusLine().getStatusCode(), is(HttpStatus.OK.value()));
+
+        String actualContent = IOUtils.toString(actual.getEntity().getContent());
+        String expectedContent = "{\"result\":0}";
+        assertThat(actualContent, is(expectedContent));
+    }
+
+    @Test
+    public void testProcessShouldHandleSumOfBlock() throws Exception {
+        // given
+        final String body = "{\"matrix\":[[1,2,3],[4,5,6],[7,8,9]]}";
+        final String argument = "2:3-1:2";
+        final String operation = "sum";
+
+        // when
+        CloseableHttpResponse actual = makeRequest(body, operation, argument);
+
+        //then
+        assertThat(actual.getStatusLine().getStatusCode(), is(HttpStatus.OK.value()));
+
+        String actualContent = IOUtils.toString(actual.getEntity().getContent());
+        String expectedContent = "{\"result\":24}";
+        assertThat(actualContent, is(expectedContent));
+    }
+
     @Test
     public void testProcessShouldHandleProductCorrectly() throws Exception {
         // given
@@ -254,6 +303,239 @@ public class RangedOperationControllerIntegrationTest {
         assertThat(actualContent, is(expectedContent));
     }
 
+    @Test
+    public void testProcessShouldHandleVarianceCorrectly() throws Exception {
+        // when
+        CloseableHttpResponse actual = makeRequest("{\"matrix\":[[1,2],[3,5]]}", "variance", "x-2");
+
+        //then
+        assertThat(actual.getStatusLine().getStatusCode(), is(HttpStatus.OK.value()));
+        assertThat(IOUtils.toString(actual.getEntity().getContent()), is("{\"result\":2.25}"));
+    }
+
+    @Test
+    public void testMedianShouldReduceEveryColumnWhenAxisIsGiven() throws IOException {
+        // when
+        CloseableHttpResponse actual = makeParamsRequest("{\"matrix\":[[1,8],[3,4],[2,6]]}",
+            "median", "?axis=columns");
+
+        // then
+        assertThat(actual.getStatusLine().getStatusCode(), is(HttpStatus.OK.value()));
+        assertThat(IOUtils.toString(actual.getEntity().getContent()), is("{\"result\":[2,6]}"));
+    }
+
+    @Test
+    public void testPercentileShouldSelectFromRange() throws IOException {
+        // when
+        CloseableHttpResponse actual = makeParamsRequest("{\"matrix\":[[1,2],[3,4]]}",
+            "percentile", "?p=25&range=x-1");
+
+        // then
+        assertThat(actual.getStatusLine().getStatusCode(), is(HttpStatus.OK.value()));
+        assertThat(IOUtils.toString(actual.getEntity().getContent()), is("{\"result\":1.5}"));
+    }
+
+    @Test
+    public void testPercentileReturnsErrorResponseWhenPercentileIsOutOfBounds() throws IOException {
+        // when
+        CloseableHttpResponse actual = makeParamsRequest("{\"matrix\":[[1,2],[3,4]]}",
+            "percentile", "?p=101");
+
+        // then
+        assertThat(actual.getStatusLine().getStatusCode(), is(HttpStatus.UNPROCESSABLE_ENTITY.value()));
+        assertThat(IOUtils.toString(actual.getEntity().getContent()),
+            is("{\"error\":\"Percentile '101.0' is not between 0 and 100.\"}"));
+    }
+
+    @Test
+    public void testStatsShouldReturnAllStatisticsOfRange() throws IOException {
+        // when
+        CloseableHttpResponse actual = makeParamsRequest("{\"matrix\":[[1,2],[3,4]]}",
+            "stats", "?range=2-x");
+
+        // then
+        assertThat(actual.getStatusLine().getStatusCode(), is(HttpStatus.OK.value()));
+        JSONObject result = new JSONObject(IOUtils.toString(actual.getEntity().getContent()))
+            .getJSONObject("result");
+        assertThat(result.getInt("count"), is(2));
+        assertThat(result.getDouble("sum"), is(7d));
+        assertThat(result.getDouble("min"), is(3d));
+        assertThat(result.getDouble("max"), is(4d));
+        assertThat(result.getDouble("average"), is(3.5));
+        assertThat(result.getDouble("l1"), is(7d));
+        assertThat(result.getDouble("l2"), is(5d));
+    }
+
+    @Test
+    public void testArgmaxShouldReturnPositionOfMaximum() throws IOException {
+        // when
+        CloseableHttpResponse actual = makeParamsRequest("{\"matrix\":[[1,2],[3,4]]}", "argmax", "");
+
+        // then
+        assertThat(actual.getStatusLine().getStatusCode(), is(HttpStatus.OK.value()));
+        assertThat(IOUtils.toString(actual.getEntity().getContent()), is("{\"result\":\"2-2\"}"));
+    }
+
+    @Test
+    public void testTopkShouldReturnLargestValuesOfRange() throws IOException {
+        // when
+        CloseableHttpResponse actual = makeParamsRequest("{\"matrix\":[[1,2],[3,4]]}",
+            "topk", "?k=2&range=x-1");
+
+        // then
+        assertThat(actual.getStatusLine().getStatusCode(), is(HttpStatus.OK.value()));
+        assertThat(IOUtils.toString(actual.getEntity().getContent()),
+            is("{\"result\":[{\"position\":\"2-1\",\"value\":3},{\"position\":\"1-1\",\"value\":1}]}"));
+    }
+
+    @Test
+    public void testTopkReturnsErrorResponseWhenKIsNotPositive() throws IOException {
+        // when
+        CloseableHttpResponse actual = makeParamsRequest("{\"matrix\":[[1,2],[3,4]]}",
+            "topk", "?k=0");
+
+        // then
+        assertThat(actual.getStatusLine().getStatusCode(), is(HttpStatus.UNPROCESSABLE_ENTITY.value()));
+        assertThat(IOUtils.toString(actual.getEntity().getContent()),
+            is("{\"error\":\"Number of values '0' is not positive.\"}"));
+    }
+
+    @Test
+    public void testSumShouldReduceEveryRowWhenAxisIsGiven() throws IOException {
+        // when
+        CloseableHttpResponse actual = makeParamsRequest("{\"matrix\":[[1,2],[3,4]]}", "sum", "?axis=rows");
+
+        // then
+        assertThat(actual.getStatusLine().getStatusCode(), is(HttpStatus.OK.value()));
+        assertThat(actual.getFirstHeader("Content-Type").getValue(), startsWith("application/json"));
+        assertThat(IOUtils.toString(actual.getEntity().getContent()), is("{\"result\":[3,7]}"));
+    }
+
+    @Test
+    public void testAxisResponseShouldBeWrittenByStreamingPool() throws IOException {
+        // given
+        long submitted = streamingPool.getThreadPoolExecutor().getTaskCount();
+
+        // when
+        CloseableHttpResponse actual = makeParamsRequest("{\"matrix\":[[1,2],[3,4]]}", "sum", "?axis=columns");
+
+        // then
+        assertThat(IOUtils.toString(actual.getEntity().getContent()), is("{\"result\":[4,6]}"));
+        assertThat(streamingPool.getThreadPoolExecutor().getTaskCount() > submitted, is(true));
+    }
+
+    @Test
+    public void testMaxShouldReturnBinaryRowVectorWhenAxisIsColumns() throws IOException {
+        // when
+        CloseableHttpResponse actual = makeBinaryRequest(aBinaryBody(), "max?axis=columns",
+            "application/x-matrix");
+
+        // then
+        assertThat(actual.getStatusLine().getStatusCode(), is(HttpStatus.OK.value()));
+        byte[] expected = ByteBuffer.allocate(24).order(ByteOrder.LITTLE_ENDIAN)
+            .putInt(1).putInt(2).putDouble(3.4).putDouble(4).array();
+        assertThat(IOUtils.toByteArray(actual.getEntity().getContent()), is(expected));
+    }
+
+    @Test
+    public void testAxisShouldStreamLongVectorInChunks() throws IOException {
+        // given
+        double[][] row = new double[1][20000];
+        Arrays.fill(row[0], 0.5);
+        String body = new JSONObject().put("matrix", new JSONArray(row)).toString();
+
+        // when
+        CloseableHttpResponse actual = makeParamsRequest(body, "average", "?axis=columns");
+
+        // then
+        assertThat(actual.getStatusLine().getStatusCode(), is(HttpStatus.OK.value()));
+        assertThat(actual.getFirstHeader("Transfer-Encoding").getValue(), is("chunked"));
+        JSONArray result = new JSONObject(IOUtils.toString(actual.getEntity().getContent()))
+            .getJSONArray("result");
+        assertThat(result.length(), is(20000));
+        assertThat(result.getDouble(19999), is(0.5));
+    }
+
+    @Test
+    public void testAxisReturnsErrorResponseWhenRangeIsGiven() throws IOException {
+        // when
+        CloseableHttpResponse actual = makeParamsRequest("{\"matrix\":[[1,2],[3,4]]}", "sum",
+            "?axis=rows&range=1-x");
+
+        // then
+        assertThat(actual.getStatusLine().getStatusCode(), is(HttpStatus.UNPROCESSABLE_ENTITY.value()));
+        assertThat(IOUtils.toString(actual.getEntity().getContent()),
+            is("{\"error\":\"Range can not be combined with axis.\"}"));
+    }
+
+    @Test
+    public void testAxisReturnsErrorResponseWhenAxisIsUnknown() throws IOException {
+        // when
+        CloseableHttpResponse actual = makeParamsRequest("{\"matrix\":[[1,2],[3,4]]}", "sum", "?axis=depth");
+
+        // then
+        assertThat(actual.getStatusLine().getStatusCode(), is(HttpStatus.UNPROCESSABLE_ENTITY.value()));
+        assertThat(IOUtils.toString(actual.getEntity().getContent()),
+            is("{\"error\":\"Unsupported axis 'depth'\"}"));
+    }
+
+    @Test
+    public void testSumShouldAcceptBinaryMatrixAndReturnJson() throws IOException {
+        // when
+        CloseableHttpResponse actual = makeBinaryRequest(aBinaryBody(), "sum?range=x-1", null);
+
+        // then
+        assertThat(actual.getStatusLine().getStatusCode(), is(HttpStatus.OK.value()));
+        assertThat(actual.getFirstHeader("Content-Type").getValue(), startsWith("application/json"));
+        assertThat(IOUtils.toString(actual.getEntity().getContent()), is("{\"result\":4.4}"));
+    }
+
+    @Test
+    public void testSumShouldReturnBinaryMatrixWhenAccepted() throws IOException {
+        // when
+        CloseableHttpResponse actual = makeBinaryRequest(aBinaryBody(), "sum?range=2-x",
+            "application/x-matrix");
+
+        // then
+        assertThat(actual.getStatusLine().getStatusCode(), is(HttpStatus.OK.value()));
+        assertThat(actual.getFirstHeader("Content-Type").getValue(), startsWith("application/x-matrix"));
+        byte[] expected = ByteBuffer.allocate(16).order(ByteOrder.LITTLE_ENDIAN)
+            .putInt(1).putInt(1).putDouble(7.4).array();
+        assertThat(IOUtils.toByteArray(actual.getEntity().getContent()), is(expected));
+    }
+
+    @Test
+    public void testSumReturnsErrorResponseWhenBinaryMatrixIsTruncated() throws IOException {
+        // given
+        byte[] body = aBinaryBody();
+        byte[] truncated = Arrays.copyOf(body, body.length - 8);
+
+        // when
+        CloseableHttpResponse actual = makeBinaryRequest(truncated, "sum",
+            "application/x-matrix, application/json");
+
+        // then
+        assertThat(actual.getStatusLine().getStatusCode(), is(HttpStatus.UNPROCESSABLE_ENTITY.value()));
+        String actualContent = IOUtils.toString(actual.getEntity().getContent());
+        assertThat(actualContent, is("{\"error\":\"Matrix 2x2 needs 40 bytes, but the body has 32 bytes.\"}"));
+    }
+
+    private CloseableHttpResponse makeBinaryRequest(byte[] content, String path, String accept) {
+        HttpGetWithEntity request = new HttpGetWithEntity(URL + path);
+        request.setHeader("Content-Type", "application/x-matrix");
+        if (accept != null) {
+            request.setHeader("Accept", accept);
+        }
+        request.setEntity(new ByteArrayEntity(content));
+        CloseableHttpClient client = HttpClientBuilder.create().build();
+
+        try {
+            return client.execute(request);
+        } catch (IOException e) {
+            throw new IllegalStateException("Exception thrown while calling " + path, e);
+        }
+    }
+
     private CloseableHttpResponse makeRequest(String content, String operation, String argument) {
         String params = "?range=" + argument;
         HttpRequestBase request = createRequest(content, operation, params);
@@ -268,6 +550,17 @@ public class RangedOperationControllerIntegrationTest {
         }
     }
 
+    private CloseableHttpResponse makeParamsRequest(String content, String operation, String params) {
+        HttpRequestBase request = createRequest(content, operation, params);
+        CloseableHttpClient client = HttpClientBuilder.create().build();
+
+        try {
+            return client.execute(request);
+        } catch (IOException e) {
+            throw new IllegalStateException("Exception thrown while calling " + operation + params, e);
+        }
+    }
+
     private HttpRequestBase createRequest(String content, String operation, String urlParams) {
         HttpGetWithEntity request = new HttpGetWithEntity(URL + operation + urlParams);
 
@@ -2,12 +2,15 @@ package sk.bocko.matrixcalc.controller;
 
 import static org.hamcrest.MatcherAssert.assertThat;
 import static org.hamcrest.core.Is.is;
-import org.json.JSONException;
+import org.json.JSONArray;
 import org.json.JSONObject;
 import org.junit.Rule;
 import org.junit.Test;
 import org.junit.rules.ExpectedException;
-import static sk.bocko.matrixcalc.TestUtils.aBody;
+import sk.bocko.matrixcalc.metrics.StageMetrics;
+import sk.bocko.matrixcalc.model.Matrix;
+import static sk.bocko.matrixcalc.TestUtils.aMatrix;
+import static sk.bocko.matrixcalc.TestUtils.aReduction;
 import static sk.bocko.matrixcalc.TestUtils.aRange;
 import static sk.bocko.matrixcalc.TestUtils.anUnaryOperation;
 
@@ -16,17 +19,17 @@ public class RangedOperationRequestHandlerTest {
     @Rule
     public ExpectedException thrown = ExpectedException.none();
 
-    private final RangedOperationRequestHandler testee = new RangedOperationRequestHandler();
+    private final RangedOperationRequestHandler testee = new RangedOperationRequestHandler(aReduction(), new StageMetrics());
 
     @Test
     public void testHandleShouldHandleSumCorrectly() {
         // given
-        final String body = "{\"matrix\":[[1,2],[3.4,4]]}";
+        final Matrix matrix = Matrix.from(new JSONArray("[[1,2],[3.4,4]]"));
         final String range = "2-x";
         final String operation = "sum";
 
         // when
-        JSONObject actual = testee.handle(body, range, operation);
+        JSONObject actual = testee.handle(matrix, range, operation);
 
         // then
         final JSONObject expected = new JSONObject().put("result", 7.4d);
@@ -36,12 +39,12 @@ public class RangedOperationRequestHandlerTest {
     @Test
     public void testHandleShouldHandleProductCorrectly() {
         // given
-        final String body = "{\"matrix\":[[1,2],[3.4,4]]}";
+        final Matrix matrix = Matrix.from(new JSONArray("[[1,2],[3.4,4]]"));
         final String range = "x-2";
         final String operation = "product";
 
         // when
-        JSONObject actual = testee.handle(body, range, operation);
+        JSONObject actual = testee.handle(matrix, range, operation);
 
         // then
         final JSONObject expected = new JSONObject().put("result", 8d);
@@ -51,12 +54,12 @@ public class RangedOperationRequestHandlerTest {
     @Test
     public void testHandleShouldHandleMinimumCorrectly() {
         // given
-        final String body = "{\"matrix\":[[1,2],[3.4,4]]}";
+        final Matrix matrix = Matrix.from(new JSONArray("[[1,2],[3.4,4]]"));
         final String range = "x-1";
         final String operation = "min";
 
         // when
-        JSONObject actual = testee.handle(body, range, operation);
+        JSONObject actual = testee.handle(matrix, range, operation);
 
         // then
         final JSONObject expected = new JSONObject().put("result", 1d);
@@ -66,12 +69,12 @@ public class RangedOperationRequestHandlerTest {
     @Test
     public void testHandleShouldHandleMaximumCorrectly() {
         // given
-        final String body = "{\"matrix\":[[1,2],[3.4,4]]}";
+        final Matrix matrix = Matrix.from(new JSONArray("[[1,2],[3.4,4]]"));
         final String range = "1-x";
         final String operation = "max";
 
         // when
-        JSONObject actual = testee.handle(body, range, operation);
+        JSONObject actual = testee.handle(matrix, range, operation);
 
         // then
         final JSONObject expected = new JSONObject().put("result", 2d);
@@ -79,23 +82,129 @@ public class RangedOperationRequestHandlerTest {
     }
 
     @Test
-    public void testHandleShouldThrowWhenInvalidMatrix() {
+    public void testHandleShouldHandleStandardDeviationCorrectly() {
         // given
-        final String invalid = "{\"matrix\":'invalid'}";
+        final Matrix matrix = Matrix.from(new JSONArray("[[1,2],[3,5]]"));
+        final String range = "x-2";
+        final String operation = "stddev";
+
+        // when
+        JSONObject actual = testee.handle(matrix, range, operation);
+
+        // then
+        final JSONObject expected = new JSONObject().put("result", 1.5d);
+        assertThat(actual.toString(), is(expected.toString()));
+    }
+
+    @Test
+    public void testHandlePercentileShouldInterpolateBetweenValues() {
+        // given
+        final Matrix matrix = Matrix.from(new JSONArray("[[1,2],[3.4,4]]"));
+
+        // when
+        JSONObject actual = testee.handlePercentile(matrix, null, 75);
+
+        // then
+        final JSONObject expected = new JSONObject().put("result", 3.55d);
+        assertThat(actual.toString(), is(expected.toString()));
+    }
+
+    @Test
+    public void testHandlePercentileShouldThrowWhenPercentileIsNegative() {
+        // then
+        thrown.expect(IllegalArgumentException.class);
+        thrown.expectMessage("Percentile '-1.0' is not between 0 and 100.");
+
+        // when
+        testee.handlePercentile(aMatrix(), null, -1);
+    }
+
+    @Test
+    public void testHandleStatisticsShouldReturnAllStatistics() {
+        // given
+        final Matrix matrix = Matrix.from(new JSONArray("[[1,2],[3,4]]"));
+
+        // when
+        JSONObject actual = testee.handleStatistics(matrix, "x-2").getJSONObject("result");
+
+        // then
+        assertThat(actual.getLong("count"), is(2L));
+        assertThat(actual.getDouble("sum"), is(6d));
+        assertThat(actual.getDouble("product"), is(8d));
+        assertThat(actual.getDouble("min"), is(2d));
+        assertThat(actual.getDouble("max"), is(4d));
+        assertThat(actual.getDouble("average"), is(3d));
+        assertThat(actual.getDouble("variance"), is(1d));
+        assertThat(actual.getDouble("stddev"), is(1d));
+        assertThat(actual.getDouble("l1"), is(6d));
+        assertThat(actual.getDouble("l2"), is(Math.sqrt(20)));
+    }
+
+    @Test
+    public void testHandleStatisticsShouldReturnNullWhenStatisticIsNotFinite() {
+        // given
+        final Matrix matrix = Matrix.from(new JSONArray("[[1e200,1e200]]"));
+
+        // when
+        JSONObject actual = testee.handleStatistics(matrix, null).getJSONObject("result");
+
+        // then
+        assertThat(actual.isNull("product"), is(true));
+        assertThat(actual.getDouble("sum"), is(2e200));
+    }
+
+    @Test
+    public void testHandlePositionShouldReturnFirstPositionOfExtreme() {
+        // given
+        final Matrix matrix = Matrix.from(new JSONArray("[[4,1,4],[1,3,2]]"));
+
+        // when
+        JSONObject minimum = testee.handlePosition(matrix, null, "argmin");
+        JSONObject maximum = testee.handlePosition(matrix, "2-x", "argmax");
+
+        // then
+        assertThat(minimum.toString(), is("{\"result\":\"1-2\"}"));
+        assertThat(maximum.toString(), is("{\"result\":\"2-2\"}"));
+    }
+
+    @Test
+    public void testHandlePositionShouldThrowWhenOperationIsNotSupported() {
+        // then
+        thrown.expect(IllegalArgumentException.class);
+        thrown.expectMessage("Unsupported operation 'argsum'");
+
+        // when
+        testee.handlePosition(aMatrix(), null, "argsum");
+    }
+
+    @Test
+    public void testHandleTopShouldReturnLargestValuesWithPositions() {
+        // given
+        final Matrix matrix = Matrix.from(new JSONArray("[[4,1,4],[1,3,2]]"));
+
+        // when
+        JSONObject actual = testee.handleTop(matrix, null, 3);
+
+        // then
+        assertThat(actual.toString(), is("{\"result\":[{\"position\":\"1-1\",\"value\":4},"
+            + "{\"position\":\"1-3\",\"value\":4},{\"position\":\"2-2\",\"value\":3}]}"));
+    }
 
+    @Test
+    public void testHandleTopShouldThrowWhenKIsNotPositive() {
         // then
-        thrown.expect(JSONException.class);
-        thrown.expectMessage("not a JSONArray.");
+        thrown.expect(IllegalArgumentException.class);
+        thrown.expectMessage("Number of values '-2' is not positive.");
 
         // when
-        testee.handle(invalid, aRange(), anUnaryOperation());
+        testee.handleTop(aMatrix(), null, -2);
     }
 
     @Test
     public void testHandleShouldThrowWhenNullMatrix() {
         // then
         thrown.expect(NullPointerException.class);
-        thrown.expectMessage("request body is null");
+        thrown.expectMessage("matrix is null");
 
         // when
         testee.handle(null, aRange(), anUnaryOperation());
@@ -111,7 +220,7 @@ public class RangedOperationRequestHandlerTest {
         thrown.expectMessage(String.format("'%s' is not a valid range", invalid));
 
         // when
-        testee.handle(aBody(), invalid, anUnaryOperation());
+        testee.handle(aMatrix(), invalid, anUnaryOperation());
     }
 
     @Test
@@ -124,7 +233,7 @@ public class RangedOperationRequestHandlerTest {
         thrown.expectMessage(String.format("Unsupported operation '%s'", invalid));
 
         // when
-        testee.handle(aBody(), anUnaryOperation(), invalid);
+        testee.handle(aMatrix(), anUnaryOperation(), invalid);
     }
 
     @Test
@@ -134,7 +243,7 @@ public class RangedOperationRequestHandlerTest {
         thrown.expectMessage("name of the operation is null");
 
         // when
-        testee.handle(aBody(), anUnaryOperation(), null);
+        testee.handle(aMatrix(), anUnaryOperation(), null);
     }
 
 }
@@ -0,0 +1,170 @@
+package sk.bocko.matrixcalc.io;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.is;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.ExpectedException;
+import sk.bocko.matrixcalc.model.Matrix;
+
+public class MatrixBinaryFormatTest {
+
+    @Rule
+    public final ExpectedException thrown = ExpectedException.none();
+
+    @Test
+    public void testReadShouldDecodeLittleEndianValues() throws Exception {
+        // given
+        byte[] body = encode(2, 2, 1, 2.3, -4.5, 6);
+
+        // when
+        Matrix actual = MatrixBinaryFormat.read(new ByteArrayInputStream(body), body.length);
+
+        // then
+        assertThat(actual.getMatrix(), is(new double[][]{{1, 2.3}, {-4.5, 6}}));
+        assertThat(actual.fingerprint(), is(Matrix.from(actual.getMatrix()).fingerprint()));
+    }
+
+    @Test
+    public void testReadShouldDecodeValuesAcrossBuffers() throws Exception {
+        // given
+        double[] values = new double[3 * 1000];
+        for (int i = 0; i < values.length; i++) {
+            values[i] = i / 7d;
+        }
+        byte[] body = encode(3, 1000, values);
+
+        // when
+        Matrix actual = MatrixBinaryFormat.read(new ByteArrayInputStream(body), -1);
+
+        // then
+        assertThat(actual.getRows(), is(3));
+        assertThat(actual.getMatrix()[2][999], is(values[2999]));
+    }
+
+    @Test
+    public void testReadShouldGrowStorageWhenLengthIsUnknown() throws Exception {
+        // given
+        double[] values = new double[300 * 400];
+        for (int i = 0; i < values.length; i++) {
+            values[i] = i / 3d;
+        }
+        byte[] body = encode(300, 400, values);
+
+        // when
+        Matrix actual = MatrixBinaryFormat.read(new ByteArrayInputStream(body), -1);
+
+        // then
+        assertThat(actual.getMatrix()[299][399], is(values[values.length - 1]));
+        assertThat(actual.fingerprint(), is(Matrix.from(300, 400, values).fingerprint()));
+    }
+
+    @Test
+    public void testReadShouldNotTrustHeaderWhenLengthIsUnknown() throws Exception {
+        // given a header of 1.6 billion values followed by two of them
+        byte[] body = encode(40000, 40000, 1, 2);
+
+        // then
+        thrown.expect(IllegalArgumentException.class);
+        thrown.expectMessage("Matrix 40000x40000 ends after 2 values.");
+
+        // when
+        MatrixBinaryFormat.read(new ByteArrayInputStream(body), -1);
+    }
+
+    @Test
+    public void testWriteShouldBeReadBack() throws Exception {
+        // given
+        Matrix matrix = Matrix.from(new double[][]{{1, 2}, {3.4, 4}, {-5, 6e100}});
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+
+        // when
+        MatrixBinaryFormat.write(matrix, out);
+
+        // then
+        byte[] body = out.toByteArray();
+        assertThat(body.length, is(8 + 6 * 8));
+        Matrix actual = MatrixBinaryFormat.read(new ByteArrayInputStream(body), body.length);
+        assertThat(actual.getMatrix(), is(matrix.getMatrix()));
+    }
+
+    @Test
+    public void testReadShouldThrowWhenValuesAreMissing() throws Exception {
+        // given
+        byte[] body = encode(2, 2, 1, 2, 3);
+
+        // then
+        thrown.expect(IllegalArgumentException.class);
+        thrown.expectMessage("Matrix 2x2 ends after 3 values.");
+
+        // when
+        MatrixBinaryFormat.read(new ByteArrayInputStream(body), -1);
+    }
+
+    @Test
+    public void testReadShouldThrowWhenContentLengthDoesNotMatch() throws Exception {
+        // given
+        byte[] body = encode(100000, 100000);
+
+        // then
+        thrown.expect(IllegalArgumentException.class);
+        thrown.expectMessage("Matrix 100000x100000 is too large.");
+
+        // when
+        MatrixBinaryFormat.read(new ByteArrayInputStream(body), body.length);
+    }
+
+    @Test
+    public void testReadShouldThrowWhenBodyIsTooShortForMatrix() throws Exception {
+        // given
+        byte[] body = encode(1000, 1000);
+
+        // then
+        thrown.expect(IllegalArgumentException.class);
+        thrown.expectMessage("Matrix 1000x1000 needs 8000008 bytes, but the body has 8 bytes.");
+
+        // when
+        MatrixBinaryFormat.read(new ByteArrayInputStream(body), body.length);
+    }
+
+    @Test
+    public void testReadShouldThrowWhenTrailingBytes() throws Exception {
+        // given
+        byte[] body = encode(1, 1, 1, 2);
+
+        // then
+        thrown.expect(IllegalArgumentException.class);
+        thrown.expectMessage("Matrix 1x1 is followed by unexpected bytes.");
+
+        // when
+        MatrixBinaryFormat.read(new ByteArrayInputStream(body), -1);
+    }
+
+    @Test
+    public void testReadShouldThrowWhenNoRows() throws Exception {
+        // given
+        byte[] body = encode(0, 2);
+
+        // then
+        thrown.expect(IllegalArgumentException.class);
+        thrown.expectMessage("Matrix 0x2 is not valid.");
+
+        // when
+        MatrixBinaryFormat.read(new ByteArrayInputStream(body), body.length);
+    }
+
+    static byte[] encode(int rows, int columns, double... values) {
+        ByteBuffer buffer = ByteBuffer.allocate(8 + 8 * values.length)
+            .order(ByteOrder.LITTLE_ENDIAN)
+            .putInt(rows)
+            .putInt(columns);
+        for (double value : values) {
+            buffer.putDouble(value);
+        }
+        return buffer.array();
+    }
+}
@@ -0,0 +1,323 @@
+package sk.bocko.matrixcalc.io;
+
+import java.io.ByteArrayInputStream;
+import java.nio.charset.StandardCharsets;
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.is;
+import static org.hamcrest.Matchers.nullValue;
+import org.json.JSONException;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.ExpectedException;
+import sk.bocko.matrixcalc.model.Matrix;
+import sk.bocko.matrixcalc.model.Position;
+
+public class MatrixJsonReaderTest {
+
+    @Rule
+    public final ExpectedException thrown = ExpectedException.none();
+
+    @Test
+    public void testReadShouldSucceedWhenStandardMatrix() throws Exception {
+        // given
+        String json = "{\"matrix\":[[1,2.3],[4.5,6]]}";
+
+        // when
+        Matrix actual = MatrixJsonReader.read(json);
+
+        //then
+        final double[][] expected = new double[][]{{1, 2.3}, {4.5, 6}};
+        assertThat(actual.getMatrix(), is(expected));
+    }
+
+    @Test
+    public void testReadShouldSucceedFromStream() throws Exception {
+        // given
+        String json = "{\"other\": {\"nested\": [1, \"two\"]},\n \"matrix\" : [ [ -1e3 , 0.25 ] ] }";
+        ByteArrayInputStream stream = new ByteArrayInputStream(json.getBytes(StandardCharsets.UTF_8));
+
+        // when
+        Matrix actual = MatrixJsonReader.read(stream);
+
+        //then
+        final double[][] expected = new double[][]{{-1000, 0.25}};
+        assertThat(actual.getMatrix(), is(expected));
+    }
+
+    @Test
+    public void testReadShouldSucceedWhenLongRow() throws Exception {
+        // given
+        StringBuilder json = new StringBuilder("{\"matrix\":[[0");
+        for (int i = 1; i < 100; i++) {
+            json.append(',').append(i);
+        }
+        json.append("]]}");
+
+        // when
+        Matrix actual = MatrixJsonReader.read(json.toString());
+
+        //then
+        assertThat(actual.getMatrix()[0].length, is(100));
+        assertThat(actual.getMatrix()[0][99], is(99d));
+    }
+
+    @Test
+    public void testReadShouldComputeFingerprint() throws Exception {
+        // given
+        String json = "{\"matrix\":[[1,2.3,-4],[4.5,6,0]]}";
+
+        // when
+        Matrix actual = MatrixJsonReader.read(json);
+
+        //then
+        Matrix expected = Matrix.from(actual.getMatrix());
+        assertThat(actual.fingerprint(), is(expected.fingerprint()));
+    }
+
+    @Test
+    public void testReadRequestShouldKeepOtherMembers() throws Exception {
+        // given
+        String json = "{\"name\": \"caf\u00e9\", \"matrix\":[[1,2]],\n"
+            + " \"operations\" : [ {\"operation\":\"sum\"}, 1.5e2 ], \"flag\":true}";
+        ByteArrayInputStream stream = new ByteArrayInputStream(json.getBytes(StandardCharsets.UTF_8));
+
+        // when
+        MatrixRequest actual = MatrixJsonReader.readRequest(stream);
+
+        //then
+        assertThat(actual.getMatrix().getMatrix(), is(new double[][]{{1, 2}}));
+        assertThat(actual.getMembers().getString("name"), is("caf\u00e9"));
+        assertThat(actual.getMembers().getJSONArray("operations").toString(),
+            is("[{\"operation\":\"sum\"},150]"));
+        assertThat(actual.getMembers().getBoolean("flag"), is(true));
+    }
+
+    @Test
+    public void testReadOperandsShouldReadArrayMembersAsMatrices() throws Exception {
+        // given
+        String json = "{\"left\": [[1,2],[3,4]], \"right\": \"abc\", \"other\": [[5]]}";
+        ByteArrayInputStream stream = new ByteArrayInputStream(json.getBytes(StandardCharsets.UTF_8));
+
+        // when
+        MatrixOperands actual = MatrixJsonReader.readOperands(stream);
+
+        // then
+        assertThat(actual.getMatrix("left").getMatrix(), is(new double[][]{{1, 2}, {3, 4}}));
+        assertThat(actual.getMatrix("other").getMatrix(), is(new double[][]{{5}}));
+        assertThat(actual.getMatrix("right"), is(nullValue()));
+        assertThat(actual.getMembers().getString("right"), is("abc"));
+    }
+
+    @Test
+    public void testReadOperandsShouldRejectDuplicateMatrix() throws Exception {
+        // given
+        String json = "{\"left\": \"abc\", \"left\": [[1]]}";
+        ByteArrayInputStream stream = new ByteArrayInputStream(json.getBytes(StandardCharsets.UTF_8));
+
+        // then
+        thrown.expect(JSONException.class);
+        thrown.expectMessage("Duplicate key \"left\"");
+
+        // when
+        MatrixJsonReader.readOperands(stream);
+    }
+
+    @Test
+    public void testReadShouldReadEntries() throws Exception {
+        // given
+        String json = "{\"matrix\": {\"entries\": [[2,1,3.5], [1,2,\"-1\"]], \"rows\": 2, \"cols\": 3}}";
+
+        // when
+        Matrix actual = MatrixJsonReader.read(json);
+
+        // then
+        assertThat(actual.getMatrix(), is(new double[][]{{0, -1, 0}, {3.5, 0, 0}}));
+    }
+
+    @Test
+    public void testReadOperandsShouldReadEntries() throws Exception {
+        // given
+        String json = "{\"left\": {\"rows\": 100, \"cols\": 100, \"entries\": [[100,100,1]]}}";
+        ByteArrayInputStream stream = new ByteArrayInputStream(json.getBytes(StandardCharsets.UTF_8));
+
+        // when
+        Matrix actual = MatrixJsonReader.readOperands(stream).getMatrix("left");
+
+        // then
+        assertThat(actual.isSparse(), is(true));
+        assertThat(actual.valueAtPosition(Position.valueOf("100-100")), is(1.0));
+    }
+
+    @Test
+    public void testReadShouldThrowWhenEntryIsNotTriple() throws Exception {
+        //then
+        thrown.expect(JSONException.class);
+        thrown.expectMessage("JSONArray[1] is not a [row, column, value] entry.");
+
+        // when
+        MatrixJsonReader.read("{\"matrix\": {\"rows\": 2, \"cols\": 2, \"entries\": [[1,1,1], [1.5,1,1]]}}");
+    }
+
+    @Test
+    public void testReadShouldThrowWhenDimensionIsMissing() throws Exception {
+        //then
+        thrown.expect(JSONException.class);
+        thrown.expectMessage("JSONObject[\"cols\"] not found.");
+
+        // when
+        MatrixJsonReader.read("{\"matrix\": {\"rows\": 2, \"entries\": []}}");
+    }
+
+    @Test
+    public void testReadShouldThrowWhenDimensionIsNotInt() throws Exception {
+        //then
+        thrown.expect(JSONException.class);
+        thrown.expectMessage("JSONObject[\"rows\"] is not a non-negative int.");
+
+        // when
+        MatrixJsonReader.read("{\"matrix\": {\"rows\": -2, \"cols\": 2, \"entries\": []}}");
+    }
+
+    @Test
+    public void testReadShouldThrowWhenEntriesDescribeTooManyElements() throws Exception {
+        //then
+        thrown.expect(IllegalArgumentException.class);
+        thrown.expectMessage("Matrix 2000000000x1 has too many elements.");
+
+        // when
+        MatrixJsonReader.read("{\"matrix\": {\"rows\": 2000000000, \"cols\": 1, \"entries\": []}}");
+    }
+
+    @Test
+    public void testReadOperandsShouldThrowWhenEntriesExceedGivenLimit() throws Exception {
+        // given
+        String json = "{\"left\": {\"rows\": 100, \"cols\": 100, \"entries\": [[1, 1, 2]]}}";
+
+        //then
+        thrown.expect(IllegalArgumentException.class);
+        thrown.expectMessage("Matrix 100x100 has too many elements.");
+
+        // when
+        MatrixJsonReader.readOperands(
+            new ByteArrayInputStream(json.getBytes(StandardCharsets.UTF_8)), 1000);
+    }
+
+    @Test
+    public void testReadShouldKeepMatrixWithFewNonZerosSparse() throws Exception {
+        // given
+        StringBuilder json = new StringBuilder("{\"matrix\": [");
+        for (int i = 0; i < 20; i++) {
+            json.append(i == 0 ? "[" : ",[");
+            for (int j = 0; j < 20; j++) {
+                json.append(j == 0 ? "" : ",").append(i == j ? 1 : 0);
+            }
+            json.append("]");
+        }
+        json.append("]}");
+
+        // when
+        Matrix actual = MatrixJsonReader.read(json.toString());
+
+        // then
+        assertThat(actual.isSparse(), is(true));
+        assertThat(actual.valueAtPosition(Position.valueOf("7-7")), is(1.0));
+    }
+
+    @Test
+    public void testParseDoubleShouldMatchJdk() throws Exception {
+        // given
+        String[] numbers = {"0", "-0", "1", "2.1", "3.3", "0.1", "123456789012345",
+            "1234567890123456789", "1e22", "1e23", "1.7976931348623157E308",
+            "4.9e-324", "-2.5E-3", ".5", "1.", "1d", "NaN", "Infinity"};
+
+        for (String number : numbers) {
+            // when
+            byte[] bytes = number.getBytes(StandardCharsets.US_ASCII);
+            double actual = MatrixJsonReader.parseDouble(bytes, bytes.length);
+
+            // then
+            assertThat(number, Double.doubleToRawLongBits(actual),
+                is(Double.doubleToRawLongBits(Double.parseDouble(number))));
+        }
+    }
+
+    @Test
+    public void testReadShouldThrowWhenMatrixIsMissing() throws Exception {
+        //then
+        thrown.expect(IllegalArgumentException.class);
+        thrown.expectMessage("Matrix is not present in request body.");
+
+        // when
+        MatrixJsonReader.read("{\"attribute\": \"value\"}");
+    }
+
+    @Test
+    public void testReadShouldThrowWhenNotJson() throws Exception {
+        //then
+        thrown.expect(JSONException.class);
+        thrown.expectMessage("A JSONObject text must begin with '{' at 1 [character 2 line 1]");
+
+        // when
+        MatrixJsonReader.read("not a json");
+    }
+
+    @Test
+    public void testReadShouldThrowWhenMatrixIsNotArray() throws Exception {
+        //then
+        thrown.expect(JSONException.class);
+        thrown.expectMessage("JSONObject[\"matrix\"] is not a JSONArray.");
+
+        // when
+        MatrixJsonReader.read("{\"matrix\":'invalid'}");
+    }
+
+    @Test
+    public void testReadShouldThrowWhenObjectIsNotClosed() throws Exception {
+        //then
+        thrown.expect(JSONException.class);
+        thrown.expectMessage("Expected a ',' or '}' at 14 [character 15 line 1]");
+
+        // when
+        MatrixJsonReader.read("{\"matrix\": 42");
+    }
+
+    @Test
+    public void testReadShouldThrowWhenRowIsNotArray() throws Exception {
+        //then
+        thrown.expect(JSONException.class);
+        thrown.expectMessage("JSONArray[0] is not a JSONArray.");
+
+        // when
+        MatrixJsonReader.read("{\"matrix\": [1, 2]}");
+    }
+
+    @Test
+    public void testReadShouldThrowWhenElementIsNotNumeric() throws Exception {
+        //then
+        thrown.expect(JSONException.class);
+        thrown.expectMessage("JSONArray[1] is not a number.");
+
+        // when
+        MatrixJsonReader.read("{\"matrix\": [[1, a],[3, 4]]}");
+    }
+
+    @Test
+    public void testReadShouldThrowWhenMatrixIsEmpty() throws Exception {
+        //then
+        thrown.expect(IllegalArgumentException.class);
+        thrown.expectMessage("matrix is empty");
+
+        // when
+        MatrixJsonReader.read("{\"matrix\": []}");
+    }
+
+    @Test
+    public void testReadShouldThrowWhenMatrixIsNotRectangular() throws Exception {
+        //then
+        thrown.expect(IllegalArgumentException.class);
+        thrown.expectMessage("Matrix [[1.0, 2.0], [3.0, 4.0, 5.0], [6.0]] is not rectangular.");
+
+        // when
+        MatrixJsonReader.read("{\"matrix\": [[1, 2], [3, 4, 5], [6]]}");
+    }
+}
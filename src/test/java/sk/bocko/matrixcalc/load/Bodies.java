@@ -0,0 +1,72 @@
+package sk.bocko.matrixcalc.load;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import org.json.JSONArray;
+import org.json.JSONObject;
+import sk.bocko.matrixcalc.io.MatrixBinaryFormat;
+import sk.bocko.matrixcalc.model.Matrix;
+
+/**
+ * Request bodies prepared before the load starts, so the clients spend
+ * their time on the requests only.
+ */
+final class Bodies {
+    private final List<String> json = new ArrayList<>();
+    private final List<String> batches = new ArrayList<>();
+    private final List<byte[]> binary = new ArrayList<>();
+    private final List<String> storedIds = new ArrayList<>();
+
+    /**
+     * @param count number of distinct matrices
+     * @param rows rows of every matrix
+     * @param columns columns of every matrix
+     */
+    Bodies(int count, int rows, int columns) throws IOException {
+        Random random = new Random(42);
+        for (int i = 0; i < count; i++) {
+            double[] values = new double[rows * columns];
+            for (int j = 0; j < values.length; j++) {
+                values[j] = random.nextInt(100000) / 100.0;
+            }
+            Matrix matrix = Matrix.from(rows, columns, values);
+            JSONArray array = new JSONArray(matrix.getMatrix());
+
+            json.add(new JSONObject().put("matrix", array).toString());
+            batches.add(new JSONObject().put("matrix", array)
+                .put("operations", new JSONArray()
+                    .put(new JSONObject().put("operation", "sum").put("range", "1-x"))
+                    .put(new JSONObject().put("operation", "max").put("range", "x-1"))
+                    .put(new JSONObject().put("operation", "average"))
+                    .put(new JSONObject().put("operation", "add")
+                        .put("first", "1-1").put("second", "2-2")))
+                .toString());
+            ByteArrayOutputStream out = new ByteArrayOutputStream();
+            MatrixBinaryFormat.write(matrix, out);
+            binary.add(out.toByteArray());
+        }
+    }
+
+    String json(Random random) {
+        return json.get(random.nextInt(json.size()));
+    }
+
+    String batch(Random random) {
+        return batches.get(random.nextInt(batches.size()));
+    }
+
+    byte[] binary(Random random) {
+        return binary.get(random.nextInt(binary.size()));
+    }
+
+    void addStoredId(String id) {
+        storedIds.add(id);
+    }
+
+    List<String> storedIds() {
+        return storedIds;
+    }
+}
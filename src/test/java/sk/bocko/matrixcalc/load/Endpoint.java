@@ -0,0 +1,87 @@
+package sk.bocko.matrixcalc.load;
+
+import java.util.List;
+import java.util.Random;
+import org.apache.http.client.methods.HttpGet;
+import org.apache.http.client.methods.HttpPost;
+import org.apache.http.client.methods.HttpUriRequest;
+import org.apache.http.entity.ByteArrayEntity;
+import org.apache.http.entity.ContentType;
+import org.apache.http.entity.StringEntity;
+import sk.bocko.matrixcalc.HttpGetWithEntity;
+import sk.bocko.matrixcalc.io.MatrixBinaryFormat;
+
+/**
+ * Requests sent by the {@link LoadTest}, each one with a random matrix of
+ * the prepared {@link Bodies}.
+ */
+enum Endpoint {
+    SUM("sum") {
+        @Override
+        HttpUriRequest request(String url, Bodies bodies, Random random) {
+            return json(new HttpGetWithEntity(url + "/rest/sum?range=1-x"), bodies.json(random));
+        }
+    },
+    AVERAGE("average") {
+        @Override
+        HttpUriRequest request(String url, Bodies bodies, Random random) {
+            return json(new HttpGetWithEntity(url + "/rest/average"), bodies.json(random));
+        }
+    },
+    ADD("add") {
+        @Override
+        HttpUriRequest request(String url, Bodies bodies, Random random) {
+            return json(new HttpGetWithEntity(url + "/rest/add/1-x/2-x"), bodies.json(random));
+        }
+    },
+    BINARY_SUM("binary-sum") {
+        @Override
+        HttpUriRequest request(String url, Bodies bodies, Random random) {
+            HttpGetWithEntity request = new HttpGetWithEntity(url + "/rest/sum?range=x-1");
+            request.setHeader("Accept", MatrixBinaryFormat.MEDIA_TYPE);
+            request.setEntity(new ByteArrayEntity(bodies.binary(random),
+                ContentType.create(MatrixBinaryFormat.MEDIA_TYPE)));
+            return request;
+        }
+    },
+    BATCH("batch") {
+        @Override
+        HttpUriRequest request(String url, Bodies bodies, Random random) {
+            return json(new HttpPost(url + "/rest/batch"), bodies.batch(random));
+        }
+    },
+    STORED_SUM("stored-sum") {
+        @Override
+        HttpUriRequest request(String url, Bodies bodies, Random random) {
+            List<String> ids = bodies.storedIds();
+            return new HttpGet(url + "/rest/matrices/" + ids.get(random.nextInt(ids.size()))
+                + "/sum?range=x-1");
+        }
+    };
+
+    private final String label;
+
+    Endpoint(final String label) {
+        this.label = label;
+    }
+
+    abstract HttpUriRequest request(String url, Bodies bodies, Random random);
+
+    String label() {
+        return label;
+    }
+
+    static Endpoint fromLabel(String label) {
+        for (Endpoint endpoint : values()) {
+            if (endpoint.label.equals(label)) {
+                return endpoint;
+            }
+        }
+        throw new IllegalArgumentException(String.format("Unknown endpoint '%s'.", label));
+    }
+
+    private static HttpUriRequest json(HttpPost request, String body) {
+        request.setEntity(new StringEntity(body, ContentType.APPLICATION_JSON));
+        return request;
+    }
+}
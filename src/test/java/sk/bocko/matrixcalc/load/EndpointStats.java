@@ -0,0 +1,79 @@
+package sk.bocko.matrixcalc.load;
+
+import java.util.concurrent.atomic.LongAdder;
+import org.json.JSONObject;
+import sk.bocko.matrixcalc.metrics.LatencyHistogram;
+
+/**
+ * Results of one endpoint: latencies and errors of the mixed load and the
+ * allocation measured while the endpoint was loaded alone.
+ */
+final class EndpointStats {
+    private static final double NANOS_PER_MILLI = 1e6;
+    private static final double[] QUANTILES = {0.5, 0.99, 0.999};
+
+    private final Endpoint endpoint;
+    private final LatencyHistogram latencies = new LatencyHistogram();
+    private final LongAdder errors = new LongAdder();
+    private long allocatedBytes;
+    private long allocationRequests;
+    private double allocationSeconds;
+
+    EndpointStats(final Endpoint endpoint) {
+        this.endpoint = endpoint;
+    }
+
+    void record(long nanos, boolean error) {
+        latencies.record(nanos);
+        if (error) {
+            errors.increment();
+        }
+    }
+
+    void setAllocation(long bytes, long requests, double seconds) {
+        this.allocatedBytes = bytes;
+        this.allocationRequests = requests;
+        this.allocationSeconds = seconds;
+    }
+
+    long requests() {
+        return latencies.count();
+    }
+
+    double errorRate() {
+        long requests = requests();
+        return requests == 0 ? 0 : (double) errors.sum() / requests;
+    }
+
+    JSONObject toJson(double seconds) {
+        long[] quantiles = latencies.valuesAtQuantiles(QUANTILES);
+        return new JSONObject()
+            .put("endpoint", endpoint.label())
+            .put("requests", requests())
+            .put("throughput", requests() / seconds)
+            .put("p50Millis", quantiles[0] / NANOS_PER_MILLI)
+            .put("p99Millis", quantiles[1] / NANOS_PER_MILLI)
+            .put("p999Millis", quantiles[2] / NANOS_PER_MILLI)
+            .put("errorRate", errorRate())
+            .put("allocatedBytesPerRequest", allocationRequests == 0
+                ? 0 : allocatedBytes / allocationRequests)
+            .put("allocationMegabytesPerSecond", allocationSeconds == 0
+                ? 0 : allocatedBytes / allocationSeconds / (1 << 20));
+    }
+
+    static String header() {
+        return String.format("%-12s %10s %10s %9s %9s %9s %8s %12s %10s",
+            "endpoint", "requests", "req/s", "p50 ms", "p99 ms", "p999 ms",
+            "errors", "alloc B/req", "alloc MB/s");
+    }
+
+    String row(double seconds) {
+        JSONObject json = toJson(seconds);
+        return String.format("%-12s %10d %10.1f %9.3f %9.3f %9.3f %7.2f%% %12d %10.1f",
+            endpoint.label(), json.getLong("requests"), json.getDouble("throughput"),
+            json.getDouble("p50Millis"), json.getDouble("p99Millis"),
+            json.getDouble("p999Millis"), 100 * json.getDouble("errorRate"),
+            json.getLong("allocatedBytesPerRequest"),
+            json.getDouble("allocationMegabytesPerSecond"));
+    }
+}
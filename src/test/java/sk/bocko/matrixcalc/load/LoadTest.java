@@ -0,0 +1,268 @@
+package sk.bocko.matrixcalc.load;
+
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
+import java.io.File;
+import java.io.IOException;
+import java.lang.management.ManagementFactory;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Function;
+import org.apache.commons.io.FileUtils;
+import org.apache.http.HttpStatus;
+import org.apache.http.client.methods.CloseableHttpResponse;
+import org.apache.http.client.methods.HttpPost;
+import org.apache.http.entity.ContentType;
+import org.apache.http.entity.StringEntity;
+import org.apache.http.impl.client.CloseableHttpClient;
+import org.apache.http.impl.client.HttpClients;
+import org.apache.http.impl.conn.PoolingHttpClientConnectionManager;
+import org.apache.http.util.EntityUtils;
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.is;
+import static org.hamcrest.Matchers.lessThanOrEqualTo;
+import org.json.JSONArray;
+import org.json.JSONObject;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.test.SpringApplicationConfiguration;
+import org.springframework.boot.test.WebIntegrationTest;
+import org.springframework.test.context.junit4.SpringJUnit4ClassRunner;
+import sk.bocko.matrixcalc.Application;
+
+/**
+ * End-to-end load test of the web layer. Boots the application on a random
+ * port and drives a weighted mix of requests from concurrent clients over
+ * a pooled http client, then reports throughput, latency percentiles and
+ * error rate of every endpoint under the mixed load, and the allocation of
+ * the server per request, measured while each endpoint is loaded alone.
+ *
+ * Not part of the default build, run it with
+ * mvn test -Pload-test [-Dload.clients=32 -Dload.seconds=60 ...],
+ * see the load.* system properties below. Application properties, e.g.
+ * -Dmatrixcalc.cache.max-entries=0, are passed to the application.
+ * The report is printed and written to target/load-test-report.json.
+ */
+@RunWith(SpringJUnit4ClassRunner.class)
+@SpringApplicationConfiguration(classes = Application.class)
+@WebIntegrationTest(randomPort = true)
+public class LoadTest {
+    private static final int CLIENTS = Integer.getInteger("load.clients", 16);
+    private static final int WARMUP_SECONDS = Integer.getInteger("load.warmup-seconds", 5);
+    private static final int SECONDS = Integer.getInteger("load.seconds", 20);
+    private static final int ALLOCATION_SECONDS = Integer.getInteger("load.allocation-seconds", 3);
+    private static final String MIX = System.getProperty("load.mix",
+        "sum:4,average:1,add:2,binary-sum:1,batch:1,stored-sum:2");
+    private static final String SHAPE = System.getProperty("load.shape", "100x100");
+    private static final int MATRICES = Integer.getInteger("load.matrices", 64);
+    private static final double MAX_ERROR_RATE =
+        Double.parseDouble(System.getProperty("load.max-error-rate", "0.01"));
+    private static final File REPORT = new File("target/load-test-report.json");
+
+    @Value("${local.server.port}")
+    private int port;
+
+    private String url;
+    private CloseableHttpClient client;
+    private Bodies bodies;
+
+    @Before
+    public void setUp() throws IOException {
+        url = "http://localhost:" + port;
+        PoolingHttpClientConnectionManager connections = new PoolingHttpClientConnectionManager();
+        connections.setMaxTotal(CLIENTS);
+        connections.setDefaultMaxPerRoute(CLIENTS);
+        client = HttpClients.custom().setConnectionManager(connections).build();
+
+        int separator = SHAPE.indexOf('x');
+        bodies = new Bodies(MATRICES, Integer.parseInt(SHAPE.substring(0, separator)),
+            Integer.parseInt(SHAPE.substring(separator + 1)));
+        for (int i = 0; i < MATRICES; i++) {
+            HttpPost store = new HttpPost(url + "/rest/matrices");
+            store.setEntity(new StringEntity(bodies.json(new Random(i)), ContentType.APPLICATION_JSON));
+            try (CloseableHttpResponse response = client.execute(store)) {
+                assertThat(response.getStatusLine().getStatusCode(), is(HttpStatus.SC_CREATED));
+                bodies.addStoredId(new JSONObject(EntityUtils.toString(response.getEntity()))
+                    .getString("id"));
+            }
+        }
+    }
+
+    @After
+    public void tearDown() throws IOException {
+        client.close();
+    }
+
+    @Test
+    public void testLoad() throws Exception {
+        Map<Endpoint, Integer> weights = parseMix(MIX);
+        Map<Endpoint, EndpointStats> stats = new EnumMap<>(Endpoint.class);
+        weights.keySet().forEach(endpoint -> stats.put(endpoint, new EndpointStats(endpoint)));
+        Endpoint[] wheel = wheel(weights);
+
+        run(WARMUP_SECONDS, random -> wheel[random.nextInt(wheel.length)], null);
+        run(SECONDS, random -> wheel[random.nextInt(wheel.length)], stats);
+        for (Endpoint endpoint : weights.keySet()) {
+            Phase phase = run(ALLOCATION_SECONDS, random -> endpoint, null);
+            stats.get(endpoint).setAllocation(phase.serverAllocatedBytes, phase.requests,
+                ALLOCATION_SECONDS);
+        }
+
+        report(stats);
+        for (EndpointStats endpoint : stats.values()) {
+            assertThat(endpoint.errorRate(), lessThanOrEqualTo(MAX_ERROR_RATE));
+        }
+    }
+
+    /**
+     * Send requests from all clients for the given time.
+     * @param stats where to record the requests, null to only count them
+     */
+    private Phase run(int seconds, Function<Random, Endpoint> chooser,
+        Map<Endpoint, EndpointStats> stats) throws InterruptedException {
+        ExecutorService clients = Executors.newFixedThreadPool(CLIENTS,
+            new ThreadFactoryBuilder().setNameFormat("load-client-%d").build());
+        Set<Long> clientThreads = ConcurrentHashMap.newKeySet();
+        LongAdder requests = new LongAdder();
+        Map<Long, Long> before = allocatedBytes();
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(seconds);
+        List<Future<?>> results = new ArrayList<>();
+        for (int i = 0; i < CLIENTS; i++) {
+            results.add(clients.submit(() -> {
+                clientThreads.add(Thread.currentThread().getId());
+                Random random = ThreadLocalRandom.current();
+                while (System.nanoTime() < deadline) {
+                    Endpoint endpoint = chooser.apply(random);
+                    boolean error = false;
+                    long start = System.nanoTime();
+                    try (CloseableHttpResponse response =
+                             client.execute(endpoint.request(url, bodies, random))) {
+                        EntityUtils.consume(response.getEntity());
+                        error = response.getStatusLine().getStatusCode() >= 300;
+                    } catch (IOException e) {
+                        error = true;
+                    }
+                    long nanos = System.nanoTime() - start;
+                    requests.increment();
+                    if (stats != null) {
+                        stats.get(endpoint).record(nanos, error);
+                    }
+                }
+                return null;
+            }));
+        }
+        for (Future<?> result : results) {
+            try {
+                result.get();
+            } catch (ExecutionException e) {
+                throw new IllegalStateException("Load client failed.", e.getCause());
+            }
+        }
+        Map<Long, Long> after = allocatedBytes();
+        clients.shutdown();
+        clients.awaitTermination(1, TimeUnit.MINUTES);
+
+        long serverAllocation = 0;
+        for (Map.Entry<Long, Long> thread : after.entrySet()) {
+            if (!clientThreads.contains(thread.getKey())) {
+                serverAllocation += thread.getValue() - before.getOrDefault(thread.getKey(), 0L);
+            }
+        }
+        return new Phase(requests.sum(), serverAllocation);
+    }
+
+    private void report(Map<Endpoint, EndpointStats> stats) throws IOException {
+        StringBuilder table = new StringBuilder(String.format(
+            "%nLoad test: %d clients, %d s, matrices %s, mix %s%n", CLIENTS, SECONDS, SHAPE, MIX))
+            .append(EndpointStats.header()).append('\n');
+        JSONArray endpoints = new JSONArray();
+        long total = 0;
+        for (EndpointStats endpoint : stats.values()) {
+            table.append(endpoint.row(SECONDS)).append('\n');
+            endpoints.put(endpoint.toJson(SECONDS));
+            total += endpoint.requests();
+        }
+        table.append(String.format("total %d requests, %.1f req/s%n", total, (double) total / SECONDS));
+        System.out.print(table);
+
+        JSONObject json = new JSONObject()
+            .put("clients", CLIENTS)
+            .put("seconds", SECONDS)
+            .put("shape", SHAPE)
+            .put("mix", MIX)
+            .put("throughput", (double) total / SECONDS)
+            .put("endpoints", endpoints);
+        FileUtils.writeStringToFile(REPORT, json.toString(2), StandardCharsets.UTF_8.name());
+    }
+
+    /**
+     * @param mix label:weight pairs, e.g. sum:4,add:1
+     */
+    private static Map<Endpoint, Integer> parseMix(String mix) {
+        Map<Endpoint, Integer> weights = new EnumMap<>(Endpoint.class);
+        for (String item : mix.split(",")) {
+            String[] parts = item.trim().split(":");
+            weights.put(Endpoint.fromLabel(parts[0]),
+                parts.length > 1 ? Integer.parseInt(parts[1]) : 1);
+        }
+        return weights;
+    }
+
+    /**
+     * @return every endpoint repeated by its weight, a uniform choice from it
+     * follows the weights
+     */
+    private static Endpoint[] wheel(Map<Endpoint, Integer> weights) {
+        List<Endpoint> wheel = new ArrayList<>();
+        weights.forEach((endpoint, weight) -> {
+            for (int i = 0; i < weight; i++) {
+                wheel.add(endpoint);
+            }
+        });
+        return wheel.toArray(new Endpoint[wheel.size()]);
+    }
+
+    /**
+     * @return bytes allocated by every live thread since its start,
+     * threads which end meanwhile are not counted
+     */
+    private static Map<Long, Long> allocatedBytes() {
+        com.sun.management.ThreadMXBean threads =
+            (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+        long[] ids = threads.getAllThreadIds();
+        long[] allocated = threads.getThreadAllocatedBytes(ids);
+        Map<Long, Long> result = new HashMap<>();
+        for (int i = 0; i < ids.length; i++) {
+            if (allocated[i] >= 0) {
+                result.put(ids[i], allocated[i]);
+            }
+        }
+        return result;
+    }
+
+    private static final class Phase {
+        private final long requests;
+        private final long serverAllocatedBytes;
+
+        private Phase(final long requests, final long serverAllocatedBytes) {
+            this.requests = requests;
+            this.serverAllocatedBytes = serverAllocatedBytes;
+        }
+    }
+}
@@ -0,0 +1,152 @@
+package sk.bocko.matrixcalc.log;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.is;
+import static org.hamcrest.Matchers.startsWith;
+import com.google.common.base.Strings;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import org.json.JSONObject;
+import org.junit.Test;
+import org.springframework.mock.web.MockHttpServletRequest;
+
+public class RequestLoggerTest {
+    private final List<AccessLogEntry> written = new ArrayList<>();
+    private AccessLog accessLog;
+
+    @Test
+    public void testLogSuccessfulResponseShouldKeepShortBody() {
+        // given
+        RequestLogger logger = aLogger(new AccessLog(8, 16, 1, written::add));
+
+        // when
+        logger.logSuccessfulResponse(aRequest(), "Matrix{rows=2}", new JSONObject().put("result", 3));
+
+        // then
+        JSONObject actual = single();
+        assertThat(actual.getString("outcome"), is("success"));
+        assertThat(actual.getString("method"), is("GET"));
+        assertThat(actual.getString("path"), is("/rest/sum/x-x"));
+        assertThat(actual.getString("body"), is("Matrix{rows=2}"));
+        assertThat(actual.getString("response"), is("{\"result\":3}"));
+        assertThat(actual.has("bodyHash"), is(false));
+    }
+
+    @Test
+    public void testLogSuccessfulResponseShouldTruncateAndHashLongBody() {
+        // given
+        RequestLogger logger = aLogger(new AccessLog(8, 16, 1, written::add));
+        String body = Strings.repeat("0123456789", 10);
+
+        // when
+        logger.logSuccessfulResponse(aRequest(), body, "ok");
+
+        // then
+        JSONObject actual = single();
+        assertThat(actual.getString("body"), is("0123456789012345"));
+        assertThat(actual.getInt("bodyLength"), is(100));
+        assertThat(actual.getString("bodyHash").length(), is(32));
+        assertThat(actual.getString("response"), is("ok"));
+    }
+
+    @Test
+    public void testLogSuccessfulResponseShouldSkipUnsampledRequests() {
+        // given
+        AccessLog accessLog = new AccessLog(8, 16, 0, written::add);
+        RequestLogger logger = aLogger(accessLog);
+
+        // when
+        logger.logSuccessfulResponse(aRequest(), "body", "response");
+
+        // then
+        assertThat(accessLog.drain(), is(0));
+    }
+
+    @Test
+    public void testLogErrorShouldIgnoreSampling() {
+        // given
+        RequestLogger logger = aLogger(new AccessLog(8, 16, 0, written::add));
+        String message = Strings.repeat("message ", 10);
+
+        // when
+        logger.logError(aRequest(), new IllegalArgumentException(message));
+
+        // then
+        JSONObject actual = single();
+        assertThat(actual.getString("outcome"), is("error"));
+        assertThat(actual.getString("exception"), is(IllegalArgumentException.class.getName()));
+        assertThat(actual.getString("message"), is(message));
+    }
+
+    @Test
+    public void testPublishShouldDropEntriesWhenFull() {
+        // given
+        AccessLog accessLog = new AccessLog(2, 16, 1, written::add);
+        RequestLogger logger = aLogger(accessLog);
+
+        // when
+        for (int i = 0; i < 5; i++) {
+            logger.logSuccessfulResponse(aRequest(), "body", "response");
+        }
+
+        // then
+        assertThat(accessLog.drain(), is(2));
+        assertThat(accessLog.dropped(), is(3L));
+    }
+
+    @Test
+    public void testStartShouldWriteEntriesInBackground() throws InterruptedException {
+        // given
+        List<String> threads = new ArrayList<>();
+        AccessLog accessLog = new AccessLog(8, 16, 1,
+            entry -> threads.add(Thread.currentThread().getName()));
+        accessLog.start();
+
+        // when
+        aLogger(accessLog).logSuccessfulResponse(aRequest(), "body", "response");
+        accessLog.stop();
+
+        // then
+        assertThat(threads.size(), is(1));
+        assertThat(threads.get(0), startsWith("access-log"));
+    }
+
+    @Test
+    public void testPublishShouldWakeUpIdleWriter() throws InterruptedException {
+        // given
+        CountDownLatch written = new CountDownLatch(2);
+        AccessLog accessLog = new AccessLog(8, 16, 1, entry -> written.countDown());
+        accessLog.start();
+        try {
+            aLogger(accessLog).logSuccessfulResponse(aRequest(), "body", "response");
+            Thread.sleep(50);
+
+            // when
+            aLogger(accessLog).logSuccessfulResponse(aRequest(), "body", "response");
+
+            // then
+            assertThat(written.await(10, TimeUnit.SECONDS), is(true));
+        } finally {
+            accessLog.stop();
+        }
+    }
+
+    private JSONObject single() {
+        assertThat(accessLog.drain(), is(1));
+        return written.get(0).toJson();
+    }
+
+    private RequestLogger aLogger(AccessLog log) {
+        accessLog = log;
+        return new RequestLogger(RequestLoggerTest.class, log);
+    }
+
+    private static MockHttpServletRequest aRequest() {
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", "/rest/sum/x-x");
+        request.setServletPath("/rest/sum/x-x");
+        request.addHeader("content-type", "application/json");
+        return request;
+    }
+}
@@ -0,0 +1,99 @@
+package sk.bocko.matrixcalc.log;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.is;
+import static org.hamcrest.Matchers.nullValue;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.ExpectedException;
+
+public class RingBufferTest {
+    private static final int PRODUCERS = 4;
+    private static final int PER_PRODUCER = 10000;
+
+    @Rule
+    public final ExpectedException thrown = ExpectedException.none();
+
+    @Test
+    public void testPollShouldReturnElementsInOrderOverManyLaps() {
+        // given
+        RingBuffer<Integer> buffer = new RingBuffer<>(4);
+        List<Integer> actual = new ArrayList<>();
+
+        // when
+        for (int i = 0; i < 10; i++) {
+            buffer.offer(2 * i);
+            buffer.offer(2 * i + 1);
+            actual.add(buffer.poll());
+            actual.add(buffer.poll());
+        }
+
+        // then
+        for (int i = 0; i < 20; i++) {
+            assertThat(actual.get(i), is(i));
+        }
+        assertThat(buffer.poll(), is(nullValue()));
+    }
+
+    @Test
+    public void testOfferShouldRejectWhenFull() {
+        // given
+        RingBuffer<Integer> buffer = new RingBuffer<>(2);
+        buffer.offer(1);
+        buffer.offer(2);
+
+        // when
+        boolean actual = buffer.offer(3);
+
+        // then
+        assertThat(actual, is(false));
+        assertThat(buffer.poll(), is(1));
+        assertThat(buffer.offer(3), is(true));
+    }
+
+    @Test
+    public void testConstructorShouldRejectCapacityWhichIsNotPowerOfTwo() {
+        // then
+        thrown.expect(IllegalArgumentException.class);
+
+        // when
+        new RingBuffer<Integer>(3);
+    }
+
+    @Test
+    public void testConcurrentProducersShouldNotLoseElements() throws InterruptedException {
+        // given
+        RingBuffer<Integer> buffer = new RingBuffer<>(256);
+        List<Thread> producers = new ArrayList<>();
+        for (int p = 0; p < PRODUCERS; p++) {
+            int first = p * PER_PRODUCER;
+            producers.add(new Thread(() -> {
+                for (int i = first; i < first + PER_PRODUCER; i++) {
+                    while (!buffer.offer(i)) {
+                        Thread.yield();
+                    }
+                }
+            }));
+        }
+        Set<Integer> actual = new HashSet<>();
+
+        // when
+        producers.forEach(Thread::start);
+        while (actual.size() < PRODUCERS * PER_PRODUCER) {
+            Integer element = buffer.poll();
+            if (element != null) {
+                assertThat(actual.add(element), is(true));
+            }
+        }
+        for (Thread producer : producers) {
+            producer.join();
+        }
+
+        // then
+        assertThat(buffer.poll(), is(nullValue()));
+    }
+}
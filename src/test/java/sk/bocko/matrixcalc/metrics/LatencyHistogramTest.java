@@ -0,0 +1,97 @@
+package sk.bocko.matrixcalc.metrics;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.greaterThanOrEqualTo;
+import static org.hamcrest.Matchers.is;
+import static org.hamcrest.Matchers.lessThanOrEqualTo;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.ExpectedException;
+
+public class LatencyHistogramTest {
+
+    @Rule
+    public final ExpectedException thrown = ExpectedException.none();
+
+    @Test
+    public void testIndexShouldBeWithinEquivalentValues() {
+        for (long value = 0; value < 1_000_000; value += 7) {
+            // when
+            int index = LatencyHistogram.index(value);
+
+            // then
+            assertThat(LatencyHistogram.lowestEquivalentValue(index), lessThanOrEqualTo(value));
+            assertThat(LatencyHistogram.highestEquivalentValue(index), greaterThanOrEqualTo(value));
+        }
+    }
+
+    @Test
+    public void testHighestEquivalentValueShouldBeWithinRelativeError() {
+        // given
+        long value = 123_456_789;
+
+        // when
+        long actual = LatencyHistogram.highestEquivalentValue(LatencyHistogram.index(value));
+
+        // then
+        assertThat((double) (actual - value) / value, lessThanOrEqualTo(1.0 / 32));
+    }
+
+    @Test
+    public void testValuesAtQuantilesShouldReturnRecordedValues() {
+        // given
+        LatencyHistogram histogram = new LatencyHistogram();
+        for (int i = 1; i <= 1000; i++) {
+            histogram.record(i * 1000L);
+        }
+
+        // when
+        long[] actual = histogram.valuesAtQuantiles(0.5, 0.99, 1);
+
+        // then
+        assertThat(histogram.count(), is(1000L));
+        assertThat(histogram.sum(), is(500_500_000L));
+        assertWithinError(actual[0], 500_000);
+        assertWithinError(actual[1], 990_000);
+        assertWithinError(actual[2], 1_000_000);
+    }
+
+    @Test
+    public void testValuesAtQuantilesShouldReturnZerosWhenEmpty() {
+        // when
+        long[] actual = new LatencyHistogram().valuesAtQuantiles(0.5, 0.99);
+
+        // then
+        assertThat(actual[0], is(0L));
+        assertThat(actual[1], is(0L));
+    }
+
+    @Test
+    public void testRecordShouldClampLargeValues() {
+        // given
+        LatencyHistogram histogram = new LatencyHistogram();
+
+        // when
+        histogram.record(Long.MAX_VALUE);
+
+        // then
+        assertThat(histogram.valuesAtQuantiles(1)[0], is(LatencyHistogram.MAX_VALUE));
+    }
+
+    @Test
+    public void testValuesAtQuantilesShouldRejectDescendingQuantiles() {
+        // given
+        LatencyHistogram histogram = new LatencyHistogram();
+
+        // then
+        thrown.expect(IllegalArgumentException.class);
+
+        // when
+        histogram.valuesAtQuantiles(0.9, 0.5);
+    }
+
+    private static void assertWithinError(long actual, long expected) {
+        assertThat(actual, greaterThanOrEqualTo(expected));
+        assertThat(actual, lessThanOrEqualTo(expected + expected / 32));
+    }
+}
@@ -0,0 +1,54 @@
+package sk.bocko.matrixcalc.metrics;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.containsString;
+import static org.hamcrest.Matchers.is;
+import static org.hamcrest.Matchers.not;
+import static org.hamcrest.Matchers.sameInstance;
+import org.junit.Test;
+import static sk.bocko.matrixcalc.TestUtils.aMatrix;
+
+public class StageMetricsTest {
+
+    @Test
+    public void testSizeBucketShouldBeDecadeOfElements() {
+        assertThat(StageMetrics.sizeBucket(1), is(0));
+        assertThat(StageMetrics.sizeBucket(10), is(1));
+        assertThat(StageMetrics.sizeBucket(11), is(2));
+        assertThat(StageMetrics.sizeBucket(16_000_000), is(8));
+        assertThat(StageMetrics.sizeBucket(Long.MAX_VALUE), is(10));
+    }
+
+    @Test
+    public void testHistogramShouldBeSharedBySameStageOperationAndSize() {
+        // given
+        StageMetrics metrics = new StageMetrics();
+
+        // when
+        LatencyHistogram first = metrics.histogram(Stage.REDUCE, "sum", 50);
+        LatencyHistogram second = metrics.histogram(Stage.REDUCE, "sum", 100);
+
+        // then
+        assertThat(second, is(sameInstance(first)));
+        assertThat(metrics.histogram(Stage.REDUCE, "sum", 101), is(not(sameInstance(first))));
+        assertThat(metrics.histogram(Stage.PARSE, "sum", 100), is(not(sameInstance(first))));
+    }
+
+    @Test
+    public void testToPrometheusTextShouldContainRecordedStages() {
+        // given
+        StageMetrics metrics = new StageMetrics();
+        metrics.record(Stage.PARSE, "sum", aMatrix(), System.nanoTime());
+        metrics.record(Stage.PARSE, "sum", aMatrix(), System.nanoTime());
+
+        // when
+        String actual = metrics.toPrometheusText();
+
+        // then
+        String labels = "stage=\"parse\",operation=\"sum\",size=\"1e1\"";
+        assertThat(actual, containsString("# TYPE matrixcalc_stage_latency_seconds summary\n"));
+        assertThat(actual, containsString("matrixcalc_stage_latency_seconds{" + labels + ",quantile=\"0.99\"} "));
+        assertThat(actual, containsString("matrixcalc_stage_latency_seconds_count{" + labels + "} 2\n"));
+        assertThat(actual, not(containsString("stage=\"reduce\"")));
+    }
+}
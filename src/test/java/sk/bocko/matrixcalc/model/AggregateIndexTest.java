@@ -0,0 +1,105 @@
+package sk.bocko.matrixcalc.model;
+
+import java.util.Optional;
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.is;
+import org.junit.Test;
+
+public class AggregateIndexTest {
+    private static final double[] VALUES = {
+        1, -2, 3,
+        4.5, 0.1, -6,
+        0.2, 8, 0.3};
+
+    @Test
+    public void testShouldMatchLinearReductionOfRows() {
+        // given
+        Matrix matrix = Matrix.from(3, 3, VALUES);
+        AggregateIndex testee = AggregateIndex.of(3, 3, VALUES);
+
+        for (int row = 1; row <= 3; row++) {
+            // when
+            Range range = Range.valueOf(Optional.of(row + "-x"));
+            MatrixView view = matrix.getRange(range);
+
+            // then
+            assertThat(testee.sum(range), is(RangedOperation.SUM.apply(view)));
+            assertThat(testee.minimum(range), is(RangedOperation.MINIMUM.apply(view)));
+            assertThat(testee.maximum(range), is(RangedOperation.MAXIMUM.apply(view)));
+            assertThat(testee.count(range), is(3));
+        }
+    }
+
+    @Test
+    public void testShouldMatchLinearReductionOfColumns() {
+        // given
+        Matrix matrix = Matrix.from(3, 3, VALUES);
+        AggregateIndex testee = AggregateIndex.of(3, 3, VALUES);
+
+        for (int column = 1; column <= 3; column++) {
+            // when
+            Range range = Range.valueOf(Optional.of("x-" + column));
+            MatrixView view = matrix.getRange(range);
+
+            // then
+            assertThat(testee.sum(range), is(RangedOperation.SUM.apply(view)));
+            assertThat(testee.minimum(range), is(RangedOperation.MINIMUM.apply(view)));
+            assertThat(testee.maximum(range), is(RangedOperation.MAXIMUM.apply(view)));
+            assertThat(testee.count(range), is(3));
+        }
+    }
+
+    @Test
+    public void testShouldMatchLinearReductionOfWholeMatrix() {
+        // given
+        Matrix matrix = Matrix.from(3, 3, VALUES);
+        AggregateIndex testee = AggregateIndex.of(3, 3, VALUES);
+        Range range = Range.valueOf(Optional.empty());
+
+        // when
+        MatrixView view = matrix.getRange(range);
+
+        // then
+        assertThat(testee.sum(range), is(RangedOperation.SUM.apply(view)));
+        assertThat(testee.minimum(range), is(-6d));
+        assertThat(testee.maximum(range), is(8d));
+        assertThat(testee.count(range), is(9));
+    }
+
+    @Test
+    public void testShouldPropagateNaN() {
+        // given
+        double[] values = {1, Double.NaN, 3, 4};
+        AggregateIndex testee = AggregateIndex.of(2, 2, values);
+
+        // then
+        assertThat(testee.minimum(Range.valueOf(Optional.of("1-x"))), is(Double.NaN));
+        assertThat(testee.maximum(Range.valueOf(Optional.of("x-2"))), is(Double.NaN));
+        assertThat(testee.maximum(Range.valueOf(Optional.empty())), is(Double.NaN));
+        assertThat(testee.minimum(Range.valueOf(Optional.of("2-x"))), is(3d));
+    }
+
+    @Test
+    public void testShouldMatchIndexOfSparseMatrix() {
+        // given
+        double[] values = new double[16 * 20];
+        values[0] = 1.5;
+        values[21] = -2;
+        values[47] = Double.NaN;
+        values[300] = 0.1;
+        Matrix sparse = Matrix.from(16, 20, values).compact();
+        AggregateIndex dense = AggregateIndex.of(16, 20, values);
+
+        // when
+        AggregateIndex actual = sparse.indexed().aggregates();
+
+        // then
+        for (String range : new String[]{null, "1-x", "2-x", "3-x", "16-x", "x-1", "x-2", "x-8", "x-20"}) {
+            Range parsed = Range.valueOf(Optional.ofNullable(range));
+            assertThat(actual.sum(parsed), is(dense.sum(parsed)));
+            assertThat(actual.minimum(parsed), is(dense.minimum(parsed)));
+            assertThat(actual.maximum(parsed), is(dense.maximum(parsed)));
+            assertThat(actual.count(parsed), is(dense.count(parsed)));
+        }
+    }
+}
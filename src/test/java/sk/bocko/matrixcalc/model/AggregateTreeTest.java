@@ -0,0 +1,75 @@
+package sk.bocko.matrixcalc.model;
+
+import java.util.BitSet;
+import java.util.Random;
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.is;
+import org.junit.Test;
+
+public class AggregateTreeTest {
+
+    @Test
+    public void testReduceShouldAgreeWithLinearReduction() {
+        // given
+        Random random = new Random(3);
+        int rows = 37;
+        int columns = 29;
+        double[] values = randomValues(random, rows * columns);
+        double[] columnMajor = new double[values.length];
+        for (int i = 0; i < values.length; i++) {
+            columnMajor[i % columns * rows + i / columns] = values[i];
+        }
+
+        for (boolean byColumns : new boolean[]{false, true}) {
+            AggregateTree testee = new AggregateTree(rows, columns, byColumns, values);
+            double[] ordered = byColumns ? columnMajor : values;
+            for (int n = 0; n < 200; n++) {
+                int from = random.nextInt(values.length);
+                int to = from + 1 + random.nextInt(values.length - from);
+
+                // when
+                AggregateTree.Aggregate actual = new AggregateTree.Aggregate();
+                testee.reduce(values, from, to, actual);
+
+                // then
+                double sum = RangedOperation.SUM.apply(ordered, from, to - from, 1);
+                assertThat(actual.sum(), is(sum));
+                assertThat(actual.minimum(),
+                    is(RangedOperation.MINIMUM.apply(ordered, from, to - from, 1)));
+                assertThat(actual.maximum(),
+                    is(RangedOperation.MAXIMUM.apply(ordered, from, to - from, 1)));
+            }
+        }
+    }
+
+    @Test
+    public void testUpdateShouldPropagateChangedLeaves() {
+        // given
+        double[] values = new double[50 * 50];
+        AggregateTree testee = new AggregateTree(50, 50, true, values);
+        values[49 * 50 + 10] = -3;
+        values[7] = Double.NaN;
+        BitSet changed = new BitSet();
+        changed.set(testee.leafOf(49, 10));
+        changed.set(testee.leafOf(0, 7));
+
+        // when
+        testee.update(values, changed);
+
+        // then
+        AggregateTree.Aggregate column = new AggregateTree.Aggregate();
+        testee.reduce(values, 10 * 50, 11 * 50, column);
+        assertThat(column.minimum(), is(-3.0));
+        AggregateTree.Aggregate whole = new AggregateTree.Aggregate();
+        testee.reduce(values, 0, values.length, whole);
+        assertThat(Double.isNaN(whole.maximum()), is(true));
+    }
+
+    private static double[] randomValues(Random random, int length) {
+        double[] values = new double[length];
+        for (int i = 0; i < length; i++) {
+            values[i] = (random.nextDouble() - 0.3) * Math.pow(10, random.nextInt(12));
+        }
+        return values;
+    }
+}
@@ -0,0 +1,116 @@
+package sk.bocko.matrixcalc.model;
+
+import java.util.Random;
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.is;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.ExpectedException;
+
+public class AxisTest {
+
+    @Rule
+    public ExpectedException thrown = ExpectedException.none();
+
+    @Test
+    public void testShouldCreateEnumFromString() {
+        // when
+        Axis rows = Axis.from("rows");
+        Axis columns = Axis.from("columns");
+
+        // then
+        assertThat(rows, is(Axis.ROWS));
+        assertThat(columns, is(Axis.COLUMNS));
+    }
+
+    @Test
+    public void testShouldThrowWhenUnknownAxis() {
+        // then
+        thrown.expect(IllegalArgumentException.class);
+        thrown.expectMessage("Unsupported axis 'diagonal'");
+
+        // when
+        Axis.from("diagonal");
+    }
+
+    @Test
+    public void testApplyShouldReduceEveryRowToColumnVector() {
+        // given
+        Matrix matrix = Matrix.from(2, 3, new double[]{1, 2, 3, 4, 5, 6});
+
+        // when
+        Matrix actual = Axis.ROWS.apply(RangedOperation.SUM, matrix);
+
+        // then
+        assertThat(actual.getMatrix(), is(new double[][]{{6}, {15}}));
+    }
+
+    @Test
+    public void testApplyShouldReduceEveryColumnToRowVector() {
+        // given
+        Matrix matrix = Matrix.from(2, 3, new double[]{1, 2, 3, 4, 5, 6});
+
+        // when
+        Matrix actual = Axis.COLUMNS.apply(RangedOperation.PRODUCT, matrix);
+
+        // then
+        assertThat(actual.getMatrix(), is(new double[][]{{4, 10, 18}}));
+    }
+
+    @Test
+    public void testApplyShouldGiveSameResultsAsRanges() {
+        // given
+        double[] special = {-0.0, 0.0, Double.NaN, Double.NEGATIVE_INFINITY, 1e300, 1e-300};
+        for (long seed = 0; seed < 20; seed++) {
+            Random random = new Random(seed);
+            double[] values = new double[17 * 23];
+            for (int i = 0; i < values.length; i++) {
+                values[i] = random.nextInt(50) == 0
+                    ? special[random.nextInt(special.length)]
+                    : (random.nextDouble() - 0.3) * Math.pow(10, random.nextInt(12));
+            }
+            Matrix dense = Matrix.from(17, 23, values);
+
+            for (Matrix matrix : new Matrix[]{dense, dense.indexed()}) {
+                for (RangedOperation operation : RangedOperation.values()) {
+                    // when
+                    Matrix rows = Axis.ROWS.apply(operation, matrix);
+                    Matrix columns = Axis.COLUMNS.apply(operation, matrix);
+
+                    // then
+                    for (int i = 0; i < 17; i++) {
+                        assertThat(operation + " of row " + i + " with seed " + seed,
+                            rows.getRange(Range.ofRow(i + 1)).get(0),
+                            is(operation.apply(dense, Range.ofRow(i + 1))));
+                    }
+                    for (int j = 0; j < 23; j++) {
+                        assertThat(operation + " of column " + j + " with seed " + seed,
+                            columns.getRange(Range.ofColumn(j + 1)).get(0),
+                            is(operation.apply(dense, Range.ofColumn(j + 1))));
+                    }
+                }
+            }
+        }
+    }
+
+    @Test
+    public void testApplyShouldReduceSparseMatrix() {
+        // given
+        double[] values = new double[20 * 20];
+        values[21] = 3;
+        values[399] = -2;
+        Matrix dense = Matrix.from(20, 20, values);
+        Matrix sparse = dense.compact();
+
+        for (RangedOperation operation : RangedOperation.values()) {
+            for (Axis axis : Axis.values()) {
+                // when
+                Matrix actual = axis.apply(operation, sparse);
+
+                // then
+                assertThat(operation + " of " + axis,
+                    actual.getMatrix(), is(axis.apply(operation, dense).getMatrix()));
+            }
+        }
+    }
+}
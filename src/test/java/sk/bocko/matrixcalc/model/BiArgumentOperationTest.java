@@ -1,5 +1,6 @@
 package sk.bocko.matrixcalc.model;
 
+import java.util.Optional;
 import static org.hamcrest.MatcherAssert.assertThat;
 import static org.hamcrest.core.Is.is;
 import org.junit.Rule;
@@ -86,4 +87,71 @@ public class BiArgumentOperationTest {
         // when
         from(null);
     }
+
+    @Test
+    public void testApplyShouldCalculatePairOfOperands() {
+        // when
+        double actual = DIVISION.apply(1, 4);
+
+        //then
+        assertThat(actual, is(0.25));
+    }
+
+    @Test
+    public void testApplyShouldCombineViewsElementWise() {
+        // given
+        Matrix matrix = Matrix.from(new double[][]{{1, 2}, {3, 4}});
+        MatrixView row = matrix.getRange(Range.valueOf(Optional.of("1-x")));
+        MatrixView column = matrix.getRange(Range.valueOf(Optional.of("x-2")));
+
+        // when
+        double[] actual = SUBTRACTION.apply(row, column);
+
+        //then
+        double[] expected = {1 - 2, 2 - 4};
+        assertThat(actual, is(expected));
+    }
+
+    @Test
+    public void testApplyShouldCombineMatricesElementWise() {
+        // given
+        Matrix first = Matrix.from(new double[][]{{1, 2}, {3, 4}});
+        Matrix second = Matrix.from(new double[][]{{2, 2}, {0.5, 4}});
+
+        // when
+        Matrix actual = MULTIPLICATION.apply(first, second);
+
+        //then
+        double[][] expected = {{2, 4}, {1.5, 16}};
+        assertThat(actual.getMatrix(), is(expected));
+    }
+
+    @Test
+    public void testApplyShouldThrowWhenViewsHaveDifferentLength() {
+        // given
+        Matrix matrix = Matrix.from(new double[][]{{1, 2, 3}, {4, 5, 6}});
+        MatrixView row = matrix.getRange(Range.valueOf(Optional.of("1-x")));
+        MatrixView column = matrix.getRange(Range.valueOf(Optional.of("x-1")));
+
+        // then
+        thrown.expect(IllegalArgumentException.class);
+        thrown.expectMessage("Ranges with 3 and 2 elements can not be combined.");
+
+        // when
+        ADDITION.apply(row, column);
+    }
+
+    @Test
+    public void testApplyShouldThrowWhenMatricesHaveDifferentSize() {
+        // given
+        Matrix first = Matrix.from(new double[][]{{1, 2}, {3, 4}});
+        Matrix second = Matrix.from(new double[][]{{1, 2}});
+
+        // then
+        thrown.expect(IllegalArgumentException.class);
+        thrown.expectMessage("Matrices 2x2 and 1x2 can not be combined.");
+
+        // when
+        ADDITION.apply(first, second);
+    }
 }
@@ -0,0 +1,177 @@
+package sk.bocko.matrixcalc.model;
+
+import java.util.Optional;
+import java.util.concurrent.ForkJoinPool;
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.is;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.ExpectedException;
+
+public class ExpressionTest {
+    private static final Matrix MATRIX = Matrix.from(new double[][]{{1, 2, 3}, {4, 5, 6}});
+
+    @Rule
+    public final ExpectedException thrown = ExpectedException.none();
+
+    @Test
+    public void testEvaluateShouldApplyOperatorsByPrecedence() {
+        // given
+        Expression expression = Expression.compile("(1-1 + 2-3) * 1-2 - 2-2 / 1-2");
+
+        // when
+        double actual = expression.evaluate(MATRIX);
+
+        // then
+        assertThat(actual, is(11.5));
+    }
+
+    @Test
+    public void testEvaluateShouldTellCellsFromSubtractions() {
+        // when
+        double cell = Expression.compile("2-1").evaluate(MATRIX);
+        double subtraction = Expression.compile("2 - 1").evaluate(MATRIX);
+        double chained = Expression.compile("2-3-1-1").evaluate(MATRIX);
+
+        // then
+        assertThat(cell, is(4.0));
+        assertThat(subtraction, is(1.0));
+        assertThat(chained, is(5.0));
+    }
+
+    @Test
+    public void testEvaluateShouldReduceRanges() {
+        // given
+        Expression expression = Expression.compile("sum(2-x) / average() + max(1:2-2:3) * -min(x-3)");
+
+        // when
+        double actual = expression.evaluate(MATRIX);
+
+        // then
+        double expected = RangedOperation.SUM.apply(MATRIX, Range.valueOf(Optional.of("2-x")))
+            / RangedOperation.AVERAGE.apply(MATRIX, Range.valueOf(Optional.empty()))
+            + 6 * -3;
+        assertThat(actual, is(expected));
+    }
+
+    @Test
+    public void testEvaluateShouldAgreeWithParallelReduction() {
+        // given
+        double[] values = new double[200 * 300];
+        for (int i = 0; i < values.length; i++) {
+            values[i] = Math.sin(i);
+        }
+        Matrix matrix = Matrix.from(200, 300, values);
+        Expression expression = Expression.compile("sum(3:150-x) * 2-7 - max() / median(x-9)");
+
+        // when
+        double actual = expression.evaluate(matrix, new ParallelReduction(ForkJoinPool.commonPool(), 1000));
+
+        // then
+        assertThat(actual, is(expression.evaluate(matrix)));
+    }
+
+    @Test
+    public void testCompileShouldFoldNumbers() {
+        // when
+        double actual = Expression.compile("-(1.5 + 2.5e1) * 2 / 4").evaluate(MATRIX);
+
+        // then
+        assertThat(actual, is(-13.25));
+    }
+
+    @Test
+    public void testCompileShouldKeepText() {
+        // when
+        Expression actual = Expression.compile(" 1-1 +2 ");
+
+        // then
+        assertThat(actual.toString(), is(" 1-1 +2 "));
+    }
+
+    @Test
+    public void testCompileShouldThrowWhenOperandIsMissing() {
+        // then
+        thrown.expect(IllegalArgumentException.class);
+        thrown.expectMessage("'1-1 + * 2' is not a valid expression: unexpected '*' at 7");
+
+        // when
+        Expression.compile("1-1 + * 2");
+    }
+
+    @Test
+    public void testCompileShouldThrowWhenParenthesisIsNotClosed() {
+        // then
+        thrown.expect(IllegalArgumentException.class);
+        thrown.expectMessage("'(1-1 + 2' is not a valid expression: unexpected end");
+
+        // when
+        Expression.compile("(1-1 + 2");
+    }
+
+    @Test
+    public void testCompileShouldThrowWhenOperationIsNotSupported() {
+        // then
+        thrown.expect(IllegalArgumentException.class);
+        thrown.expectMessage("Unsupported operation 'total'");
+
+        // when
+        Expression.compile("total(1-x)");
+    }
+
+    @Test
+    public void testCompileShouldThrowWhenRangeIsNotValid() {
+        // then
+        thrown.expect(IllegalArgumentException.class);
+        thrown.expectMessage("'x-x' is not a valid range");
+
+        // when
+        Expression.compile("sum(x-x)");
+    }
+
+    @Test
+    public void testCompileShouldThrowWhenRangeIsNotAnArgument() {
+        // then
+        thrown.expect(IllegalArgumentException.class);
+        thrown.expectMessage("'1-x' is not a valid position");
+
+        // when
+        Expression.compile("1-x + 1");
+    }
+
+    @Test
+    public void testCompileShouldThrowWhenNumberIsNotValid() {
+        // then
+        thrown.expect(IllegalArgumentException.class);
+        thrown.expectMessage("'1..5' is not a number");
+
+        // when
+        Expression.compile("1..5");
+    }
+
+    @Test
+    public void testCompileShouldThrowWhenExpressionIsTooLong() {
+        // given
+        StringBuilder text = new StringBuilder("1");
+        while (text.length() <= Expression.MAX_LENGTH) {
+            text.append("+1");
+        }
+
+        // then
+        thrown.expect(IllegalArgumentException.class);
+        thrown.expectMessage("exceeds the limit of 1000 characters.");
+
+        // when
+        Expression.compile(text.toString());
+    }
+
+    @Test
+    public void testEvaluateShouldThrowWhenPositionIsOutOfRange() {
+        // then
+        thrown.expect(IllegalArgumentException.class);
+        thrown.expectMessage("The '3-1' position is out-of-range for the matrix.");
+
+        // when
+        Expression.compile("1-1 + 3-1").evaluate(MATRIX);
+    }
+}
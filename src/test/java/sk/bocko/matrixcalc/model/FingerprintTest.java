@@ -0,0 +1,81 @@
+package sk.bocko.matrixcalc.model;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.is;
+import static org.hamcrest.Matchers.not;
+import org.junit.Test;
+
+public class FingerprintTest {
+
+    @Test
+    public void testOfShouldBeEqualForEqualValues() {
+        // given
+        double[] values = {1, 2, 3.4, 4, 5};
+
+        // when
+        Fingerprint first = Fingerprint.of(1, 5, values);
+        Fingerprint second = Fingerprint.of(1, 5, values.clone());
+
+        // then
+        assertThat(first, is(second));
+        assertThat(first.hashCode(), is(second.hashCode()));
+        assertThat(first.toString(), is(second.toString()));
+    }
+
+    @Test
+    public void testOfShouldDifferForDifferentValues() {
+        // when
+        Fingerprint first = Fingerprint.of(2, 2, new double[]{1, 2, 3, 4});
+        Fingerprint second = Fingerprint.of(2, 2, new double[]{1, 2, 3, 4.000001});
+
+        // then
+        assertThat(first, is(not(second)));
+    }
+
+    @Test
+    public void testOfShouldDifferForDifferentShapes() {
+        // given
+        double[] values = {1, 2, 3, 4, 5, 6};
+
+        // when
+        Fingerprint first = Fingerprint.of(2, 3, values);
+        Fingerprint second = Fingerprint.of(3, 2, values);
+
+        // then
+        assertThat(first, is(not(second)));
+    }
+
+    @Test
+    public void testOfShouldDifferForTrailingZero() {
+        // when
+        Fingerprint first = Fingerprint.of(1, 3, new double[]{1, 2, 0});
+        Fingerprint second = Fingerprint.of(1, 2, new double[]{1, 2});
+
+        // then
+        assertThat(first, is(not(second)));
+    }
+
+    @Test
+    public void testBuilderShouldMatchOf() {
+        // given
+        double[] values = {1, -2, 3.4, Double.NaN, 0};
+        Fingerprint.Builder builder = Fingerprint.builder();
+
+        // when
+        for (double value : values) {
+            builder.add(value);
+        }
+
+        // then
+        assertThat(builder.build(1, 5), is(Fingerprint.of(1, 5, values)));
+    }
+
+    @Test
+    public void testToStringShouldBe32HexDigits() {
+        // when
+        String actual = Fingerprint.of(1, 1, new double[]{1}).toString();
+
+        // then
+        assertThat(actual.matches("[0-9a-f]{32}"), is(true));
+    }
+}
@@ -0,0 +1,75 @@
+package sk.bocko.matrixcalc.model;
+
+import java.math.BigDecimal;
+import java.util.Random;
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.is;
+import org.junit.Test;
+
+public class KahanSumTest {
+
+    @Test
+    public void testAddZerosShouldEqualAddingEveryZero() {
+        // given
+        KahanSum expected = new KahanSum();
+        KahanSum actual = new KahanSum();
+        for (double value : new double[]{1e16, 1.5, -3.25, 1e-3}) {
+            expected.add(value);
+            actual.add(value);
+        }
+
+        // when
+        for (int i = 0; i < 1000; i++) {
+            expected.add(0.0);
+        }
+        actual.addZeros(1000);
+
+        // then
+        assertThat(Double.doubleToRawLongBits(actual.value()),
+            is(Double.doubleToRawLongBits(expected.value())));
+    }
+
+    @Test
+    public void testSumShouldNotDependOnOrder() {
+        // given
+        Random random = new Random(7);
+        double[] values = new double[5000];
+        BigDecimal exact = BigDecimal.ZERO;
+        for (int i = 0; i < values.length; i++) {
+            values[i] = (random.nextDouble() - 0.5) * Math.pow(10, random.nextInt(12));
+            exact = exact.add(new BigDecimal(values[i]));
+        }
+
+        // when
+        KahanSum forward = new KahanSum();
+        KahanSum backward = new KahanSum();
+        for (int i = 0; i < values.length; i++) {
+            forward.add(values[i]);
+            backward.add(values[values.length - 1 - i]);
+        }
+
+        // then
+        assertThat(forward.value(), is(exact.doubleValue()));
+        assertThat(backward.value(), is(exact.doubleValue()));
+    }
+
+    @Test
+    public void testArraySumsShouldEqualSingleSum() {
+        // given
+        Random random = new Random(5);
+        KahanSum expected = new KahanSum();
+        double[] sums = new double[3];
+        double[] compensations = new double[3];
+
+        // when
+        for (int i = 0; i < 10000; i++) {
+            double value = random.nextDouble() * Math.pow(10, random.nextInt(20));
+            expected.add(value);
+            KahanSum.add(sums, compensations, 1, value);
+        }
+
+        // then
+        assertThat(sums[1] + compensations[1], is(expected.value()));
+        assertThat(sums[0], is(0.0));
+    }
+}
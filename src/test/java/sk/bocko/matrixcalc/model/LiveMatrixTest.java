@@ -0,0 +1,228 @@
+package sk.bocko.matrixcalc.model;
+
+import java.util.Optional;
+import java.util.Random;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicBoolean;
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.is;
+import org.json.JSONObject;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.ExpectedException;
+
+public class LiveMatrixTest {
+
+    @Rule
+    public ExpectedException thrown = ExpectedException.none();
+
+    @Test
+    public void testApplyShouldSeeUpdatedValues() {
+        // given
+        Random random = new Random(11);
+        double[] values = new double[40 * 30];
+        for (int i = 0; i < values.length; i++) {
+            values[i] = random.nextDouble() * 100 - 50;
+        }
+        LiveMatrix testee = LiveMatrix.of(Matrix.from(40, 30, values.clone())).editable();
+
+        // when
+        testee.update(MatrixUpdate.from(new JSONObject(
+            "{\"rows\":[[3,[" + repeat("1.5", 30) + "]]],"
+                + "\"cells\":[[40,30,-1000],[1,1,77],[1,1,99]]}")));
+
+        // then
+        for (int j = 0; j < 30; j++) {
+            values[2 * 30 + j] = 1.5;
+        }
+        values[values.length - 1] = -1000;
+        values[0] = 99;
+        Matrix expected = Matrix.from(40, 30, values);
+        for (String range : new String[]{null, "3-x", "40-x", "x-1", "x-30", "2:5-x",
+            "x-4:17", "3:39-2:29", "2:39-5:6", "1-1:30"}) {
+            Range parsed = Range.valueOf(Optional.ofNullable(range));
+            for (RangedOperation operation : RangedOperation.values()) {
+                assertThat(operation + " of " + range, testee.apply(operation, parsed),
+                    is(operation.apply(expected, parsed)));
+            }
+        }
+        assertThat(testee.snapshot().getMatrix(), is(expected.getMatrix()));
+    }
+
+    @Test
+    public void testSumShouldNotChangeWhenMatrixIsMadeEditable() {
+        // given
+        Random random = new Random(13);
+        double[] values = new double[60 * 50];
+        for (int i = 0; i < values.length; i++) {
+            values[i] = (random.nextDouble() - 0.5) * Math.pow(10, random.nextInt(10));
+        }
+        LiveMatrix stored = LiveMatrix.of(Matrix.from(60, 50, values));
+        LiveMatrix testee = stored.editable();
+
+        // when
+        testee.update(MatrixUpdate.from(new JSONObject("{\"cells\":[[1,1," + values[0] + "]]}")));
+
+        // then
+        for (String range : new String[]{null, "7-x", "x-13", "2:60-x", "x-3:50", "5:55-4:46"}) {
+            Range parsed = Range.valueOf(Optional.ofNullable(range));
+            assertThat("sum of " + range, testee.apply(RangedOperation.SUM, parsed),
+                is(stored.apply(RangedOperation.SUM, parsed)));
+        }
+    }
+
+    @Test
+    public void testReadShouldSeeUpdatedValuesWithoutSnapshot() {
+        // given
+        LiveMatrix testee = LiveMatrix.of(Matrix.from(2, 2, new double[]{1, 2, 3, 4})).editable();
+        Matrix before = testee.snapshot();
+
+        // when
+        testee.update(MatrixUpdate.from(new JSONObject("{\"cells\":[[2,2,-4]]}")));
+
+        // then
+        assertThat(testee.read(matrix -> matrix.getMatrix()), is(new double[][]{{1, 2}, {3, -4}}));
+        assertThat(before.getMatrix(), is(new double[][]{{1, 2}, {3, 4}}));
+    }
+
+    @Test
+    public void testUpdateShouldNotChangeEarlierSnapshot() {
+        // given
+        Matrix matrix = Matrix.from(2, 2, new double[]{1, 2, 3, 4});
+        LiveMatrix testee = LiveMatrix.of(matrix).editable();
+        Matrix before = testee.snapshot();
+
+        // when
+        testee.update(MatrixUpdate.from(new JSONObject("{\"cells\":[[1,1,10]]}")));
+
+        // then
+        assertThat(before.getMatrix(), is(new double[][]{{1, 2}, {3, 4}}));
+        assertThat(matrix.getMatrix(), is(new double[][]{{1, 2}, {3, 4}}));
+        assertThat(testee.snapshot().getMatrix(), is(new double[][]{{10, 2}, {3, 4}}));
+    }
+
+    @Test
+    public void testEditableShouldDensifySparseMatrix() {
+        // given
+        double[] values = new double[20 * 20];
+        values[45] = 5;
+        LiveMatrix testee = LiveMatrix.of(Matrix.from(20, 20, values).compact()).editable();
+
+        // when
+        testee.update(MatrixUpdate.from(new JSONObject("{\"cells\":[[20,20,-2]]}")));
+
+        // then
+        assertThat(testee.apply(RangedOperation.SUM, Range.valueOf(Optional.empty())), is(3.0));
+        assertThat(testee.snapshot().valueAtPosition(Position.valueOf("3-6")), is(5.0));
+    }
+
+    @Test
+    public void testUpdateShouldChangeNothingWhenCellIsOutOfMatrix() {
+        // given
+        LiveMatrix testee = LiveMatrix.of(Matrix.from(2, 2, new double[]{1, 2, 3, 4})).editable();
+
+        // then
+        thrown.expect(IllegalArgumentException.class);
+        thrown.expectMessage("The '3-1' position is out-of-range for the matrix.");
+
+        // when
+        try {
+            testee.update(MatrixUpdate.from(new JSONObject("{\"cells\":[[1,1,10],[3,1,0]]}")));
+        } finally {
+            assertThat(testee.snapshot().getMatrix(), is(new double[][]{{1, 2}, {3, 4}}));
+        }
+    }
+
+    @Test
+    public void testUpdateShouldThrowWhenNotEditable() {
+        // given
+        LiveMatrix testee = LiveMatrix.of(Matrix.from(1, 1, new double[]{1}));
+
+        // then
+        thrown.expect(IllegalStateException.class);
+        thrown.expectMessage("matrix is not editable");
+
+        // when
+        testee.update(MatrixUpdate.from(new JSONObject("{\"cells\":[[1,1,10]]}")));
+    }
+
+    @Test
+    public void testApplyShouldThrowWhenRangeIsNotValid() {
+        // given
+        LiveMatrix testee = LiveMatrix.of(Matrix.from(2, 2, new double[4])).editable();
+
+        // then
+        thrown.expect(IllegalArgumentException.class);
+        thrown.expectMessage("The '1:3-x' range is not valid for the matrix.");
+
+        // when
+        testee.apply(RangedOperation.MAXIMUM, Range.valueOf(Optional.of("1:3-x")));
+    }
+
+    @Test
+    public void testReadersShouldSeeConsistentValuesWhileMatrixIsUpdated() throws Exception {
+        // given
+        int rows = 40;
+        int columns = 30;
+        LiveMatrix testee = LiveMatrix.of(Matrix.from(rows, columns, new double[rows * columns]))
+            .editable();
+        StringBuilder allRows = new StringBuilder();
+        for (int i = 1; i <= rows; i++) {
+            allRows.append(i > 1 ? "," : "").append("[").append(i).append(",[")
+                .append(repeat("VALUE", columns)).append("]]");
+        }
+        String template = "{\"rows\":[" + allRows + "]}";
+        Range whole = Range.valueOf(Optional.empty());
+        AtomicBoolean done = new AtomicBoolean();
+        ExecutorService readers = Executors.newFixedThreadPool(2);
+
+        // when
+        Future<Integer> sums = readers.submit(() -> {
+            int checked = 0;
+            while (!done.get()) {
+                // every update sets all the values to the same integer
+                double sum = testee.apply(RangedOperation.SUM, whole);
+                assertThat("sum " + sum, sum % (rows * columns), is(0.0));
+                checked++;
+            }
+            return checked;
+        });
+        Future<Integer> statistics = readers.submit(() -> {
+            int checked = 0;
+            while (!done.get()) {
+                Statistics actual = checked % 2 == 0
+                    ? Statistics.of(testee.snapshot(), whole)
+                    : testee.read(matrix -> Statistics.of(matrix, whole));
+                assertThat(actual.getMinimum(), is(actual.getMaximum()));
+                assertThat(actual.getSum(), is(actual.getMinimum() * rows * columns));
+                assertThat(actual.getVariance(), is(0.0));
+                checked++;
+            }
+            return checked;
+        });
+        try {
+            for (int value = 1; value <= 500; value++) {
+                testee.update(MatrixUpdate.from(new JSONObject(
+                    template.replace("VALUE", String.valueOf(value)))));
+            }
+        } finally {
+            done.set(true);
+            readers.shutdown();
+        }
+
+        // then
+        assertThat(sums.get() > 0, is(true));
+        assertThat(statistics.get() > 0, is(true));
+        assertThat(testee.apply(RangedOperation.SUM, whole), is(500.0 * rows * columns));
+    }
+
+    private static String repeat(String value, int count) {
+        StringBuilder builder = new StringBuilder(value);
+        for (int i = 1; i < count; i++) {
+            builder.append(',').append(value);
+        }
+        return builder.toString();
+    }
+}
@@ -0,0 +1,141 @@
+package sk.bocko.matrixcalc.model;
+
+import java.util.Random;
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.closeTo;
+import static org.hamcrest.Matchers.is;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.ExpectedException;
+
+public class LuDecompositionTest {
+
+    @Rule
+    public final ExpectedException thrown = ExpectedException.none();
+
+    @Test
+    public void testDeterminantShouldIncludeSignOfPermutation() {
+        // given
+        // the first pivot swaps the rows
+        Matrix matrix = Matrix.from(new double[][]{{1, 2}, {3, 4}});
+
+        // when
+        double actual = LuDecomposition.of(matrix).determinant();
+
+        // then
+        assertThat(actual, is(closeTo(-2, 1e-12)));
+    }
+
+    @Test
+    public void testDeterminantShouldBeZeroWhenSingular() {
+        // given
+        Matrix matrix = Matrix.from(new double[][]{{1, 2, 3}, {2, 4, 6}, {0, 0, 1}});
+
+        // when
+        LuDecomposition actual = LuDecomposition.of(matrix);
+
+        // then
+        assertThat(actual.isSingular(), is(true));
+        assertThat(actual.determinant(), is(0.0));
+    }
+
+    @Test
+    public void testSolveShouldSolveEverySideAcrossBlocks() {
+        // given
+        int n = 2 * LuDecomposition.BLOCK + 7;
+        Matrix a = aMatrix(n, n, 1);
+        Matrix x = aMatrix(n, 3, 2);
+        Matrix b = multiply(a, x);
+
+        // when
+        Matrix actual = LuDecomposition.of(a).solve(b);
+
+        // then
+        assertClose(actual.getMatrix(), x.getMatrix(), 1e-9);
+    }
+
+    @Test
+    public void testInverseShouldGiveIdentityWhenMultiplied() {
+        // given
+        int n = LuDecomposition.BLOCK + 3;
+        Matrix a = aMatrix(n, n, 3);
+
+        // when
+        Matrix actual = multiply(a, LuDecomposition.of(a).inverse());
+
+        // then
+        double[][] identity = new double[n][n];
+        for (int i = 0; i < n; i++) {
+            identity[i][i] = 1;
+        }
+        assertClose(actual.getMatrix(), identity, 1e-9);
+    }
+
+    @Test
+    public void testOfShouldThrowWhenNotSquare() {
+        // then
+        thrown.expect(IllegalArgumentException.class);
+        thrown.expectMessage("Matrix 2x3 is not square.");
+
+        // when
+        LuDecomposition.of(aMatrix(2, 3, 4));
+    }
+
+    @Test
+    public void testSolveShouldThrowWhenSingular() {
+        // given
+        LuDecomposition decomposition = LuDecomposition.of(
+            Matrix.from(new double[][]{{1, 2}, {2, 4}}));
+
+        // then
+        thrown.expect(IllegalArgumentException.class);
+        thrown.expectMessage("Matrix is singular.");
+
+        // when
+        decomposition.solve(Matrix.from(new double[][]{{1}, {2}}));
+    }
+
+    @Test
+    public void testSolveShouldThrowWhenSideDoesNotFit() {
+        // given
+        LuDecomposition decomposition = LuDecomposition.of(aMatrix(2, 2, 5));
+
+        // then
+        thrown.expect(IllegalArgumentException.class);
+        thrown.expectMessage("Right-hand side 3x1 does not fit a 2x2 matrix.");
+
+        // when
+        decomposition.solve(aMatrix(3, 1, 6));
+    }
+
+    private static void assertClose(double[][] actual, double[][] expected, double error) {
+        for (int i = 0; i < expected.length; i++) {
+            for (int j = 0; j < expected[i].length; j++) {
+                assertThat(actual[i][j], is(closeTo(expected[i][j], error)));
+            }
+        }
+    }
+
+    private static Matrix multiply(Matrix left, Matrix right) {
+        double[][] a = left.getMatrix();
+        double[][] b = right.getMatrix();
+        double[][] c = new double[a.length][b[0].length];
+        for (int i = 0; i < a.length; i++) {
+            for (int p = 0; p < b.length; p++) {
+                for (int j = 0; j < b[0].length; j++) {
+                    c[i][j] += a[i][p] * b[p][j];
+                }
+            }
+        }
+        return Matrix.from(c);
+    }
+
+    private static Matrix aMatrix(int rows, int columns, long seed) {
+        Random random = new Random(seed);
+        double[] values = new double[rows * columns];
+        for (int i = 0; i < values.length; i++) {
+            values[i] = random.nextDouble() - 0.5;
+        }
+        return Matrix.from(rows, columns, values);
+    }
+}
@@ -0,0 +1,124 @@
+package sk.bocko.matrixcalc.model;
+
+import java.util.Random;
+import java.util.concurrent.ForkJoinPool;
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.is;
+import org.junit.AfterClass;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.ExpectedException;
+
+public class MatrixMultiplicationTest {
+    private static final ForkJoinPool POOL = new ForkJoinPool(4);
+
+    @Rule
+    public final ExpectedException thrown = ExpectedException.none();
+
+    @AfterClass
+    public static void shutdownPool() {
+        POOL.shutdown();
+    }
+
+    @Test
+    public void testApplyShouldMultiplySmallMatrices() {
+        // given
+        Matrix left = Matrix.from(new double[][]{{1, 2}, {3, 4}});
+        Matrix right = Matrix.from(new double[][]{{5}, {6}});
+
+        // when
+        Matrix actual = new MatrixMultiplication(POOL, 1000, 1 << 20).apply(left, right);
+
+        // then
+        assertThat(actual.getMatrix(), is(new double[][]{{17}, {39}}));
+    }
+
+    @Test
+    public void testApplyShouldEqualTripleLoopAcrossBlocks() {
+        // given
+        // crosses the depth and width blocks and leaves a remainder of rows
+        Matrix left = aMatrix(67, 2 * MatrixMultiplication.DEPTH_BLOCK + 3, 1);
+        Matrix right = aMatrix(2 * MatrixMultiplication.DEPTH_BLOCK + 3,
+            MatrixMultiplication.WIDTH_BLOCK + 5, 2);
+
+        // when
+        Matrix sequential = new MatrixMultiplication(POOL, Long.MAX_VALUE, 1 << 20)
+            .apply(left, right);
+        Matrix parallel = new MatrixMultiplication(POOL, 1, 1 << 20).apply(left, right);
+
+        // then
+        double[][] expected = tripleLoop(left.getMatrix(), right.getMatrix());
+        assertThat(sequential.getMatrix(), is(expected));
+        assertThat(parallel.getMatrix(), is(expected));
+    }
+
+    @Test
+    public void testApplyShouldRejectIncompatibleMatrices() {
+        // given
+        Matrix left = aMatrix(2, 3, 1);
+        Matrix right = aMatrix(2, 3, 2);
+
+        // then
+        thrown.expect(IllegalArgumentException.class);
+        thrown.expectMessage("Matrices 2x3 and 2x3 can not be multiplied.");
+
+        // when
+        new MatrixMultiplication(POOL, 1000, 1 << 20).apply(left, right);
+    }
+
+    @Test
+    public void testApplyShouldRejectProductWithTooManyElements() {
+        // given
+        Matrix column = aMatrix(46000, 1, 1);
+        Matrix row = aMatrix(1, 46000, 2);
+
+        // then
+        thrown.expect(IllegalArgumentException.class);
+        thrown.expectMessage("Product 46000x46000 is too large.");
+
+        // when
+        new MatrixMultiplication(POOL, 1000, 1 << 26).apply(column, row);
+    }
+
+    @Test
+    public void testPackShouldStorePanelsContiguously() {
+        // given
+        int k = MatrixMultiplication.DEPTH_BLOCK + 1;
+        int n = 2;
+        double[] b = new double[k * n];
+        for (int i = 0; i < b.length; i++) {
+            b[i] = i;
+        }
+
+        // when
+        double[] actual = MatrixMultiplication.pack(b, k, n);
+
+        // then
+        // the first panel holds the first DEPTH_BLOCK rows, the second one the last row
+        assertThat(actual[0], is(0.0));
+        assertThat(actual[2 * MatrixMultiplication.DEPTH_BLOCK - 1],
+            is(b[2 * MatrixMultiplication.DEPTH_BLOCK - 1]));
+        assertThat(actual[b.length - 1], is(b[b.length - 1]));
+    }
+
+    private static double[][] tripleLoop(double[][] a, double[][] b) {
+        double[][] c = new double[a.length][b[0].length];
+        for (int i = 0; i < a.length; i++) {
+            for (int p = 0; p < b.length; p++) {
+                for (int j = 0; j < b[0].length; j++) {
+                    c[i][j] += a[i][p] * b[p][j];
+                }
+            }
+        }
+        return c;
+    }
+
+    private static Matrix aMatrix(int rows, int columns, long seed) {
+        Random random = new Random(seed);
+        double[] values = new double[rows * columns];
+        for (int i = 0; i < values.length; i++) {
+            values[i] = random.nextDouble() - 0.5;
+        }
+        return Matrix.from(rows, columns, values);
+    }
+}
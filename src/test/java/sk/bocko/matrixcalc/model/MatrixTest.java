@@ -81,6 +81,31 @@ public class MatrixTest {
         Matrix.from(matrix);
     }
 
+    @Test
+    public void testMatrixFromValuesShouldSucceedWhenRowMajorValues() {
+        // given
+        double[] values = {1, 2, 3, 4, 5, 6};
+
+        // when
+        Matrix actual = Matrix.from(2, 3, values);
+
+        //then
+        final double[][] expected = new double[][]{{1, 2, 3}, {4, 5, 6}};
+        assertThat(actual.getMatrix(), is(expected));
+        assertThat(actual.getRows(), is(2));
+        assertThat(actual.getColumns(), is(3));
+    }
+
+    @Test
+    public void testMatrixFromValuesShouldThrowWhenSizeDoesNotMatch() {
+        //then
+        thrown.expect(IllegalArgumentException.class);
+        thrown.expectMessage("matrix 2x2 does not have 3 values");
+
+        // when
+        Matrix.from(2, 2, new double[]{1, 2, 3});
+    }
+
     @Test
     public void testValueAtPositionShouldReturnCorrectElement() {
         // given
@@ -157,13 +182,27 @@ public class MatrixTest {
         Range range = Range.valueOf(Optional.empty());
 
         // when
-        double[] actual = matrix.getRange(range);
+        double[] actual = matrix.getRange(range).toArray();
 
         //then
         double[] expected = {1, 2.3, 4.5, 6};
         assertThat(Arrays.asList(actual), containsInAnyOrder(expected));
     }
 
+    @Test
+    public void testGetRangeShouldReturnWholeMatrixInRowMajorOrderWhenNotSquare() throws Exception {
+        // given
+        Matrix matrix = Matrix.from(new JSONArray("[[1,2,3],[4,5,6]]"));
+        Range range = Range.valueOf(Optional.empty());
+
+        // when
+        double[] actual = matrix.getRange(range).toArray();
+
+        //then
+        double[] expected = {1, 2, 3, 4, 5, 6};
+        assertThat(actual, is(expected));
+    }
+
     @Test
     public void testGetRangeShouldReturnCorrectRow() throws Exception {
         // given
@@ -171,7 +210,7 @@ public class MatrixTest {
         Range range = Range.valueOf(Optional.of("2-x"));
 
         // when
-        double[] actual = matrix.getRange(range);
+        double[] actual = matrix.getRange(range).toArray();
 
         //then
         double[] expected = {4.1, 5, 6};
@@ -185,13 +224,65 @@ public class MatrixTest {
         Range range = Range.valueOf(Optional.of("x-3"));
 
         // when
-        double[] actual = matrix.getRange(range);
+        double[] actual = matrix.getRange(range).toArray();
 
         //then
         double[] expected = {3,6};
         assertThat(Arrays.asList(actual), containsInAnyOrder(expected));
     }
 
+    @Test
+    public void testGetRangeShouldReturnBlockInRowMajorOrder() throws Exception {
+        // given
+        Matrix matrix = Matrix.from(new JSONArray("[[1,2,3,4],[5,6,7,8],[9,10,11,12]]"));
+        Range range = Range.valueOf(Optional.of("2:3-2:3"));
+
+        // when
+        MatrixView actual = matrix.getRange(range);
+
+        //then
+        double[] expected = {6, 7, 10, 11};
+        assertThat(actual.toArray(), is(expected));
+        assertThat(actual.values == matrix.denseValues(), is(true));
+    }
+
+    @Test
+    public void testGetRangeShouldReturnBlockOfSparseMatrix() throws Exception {
+        // given
+        double[] values = new double[20 * 20];
+        values[21] = 1;
+        values[45] = 2;
+        values[58] = 3;
+        values[399] = 4;
+        Matrix dense = Matrix.from(20, 20, values);
+        Matrix sparse = dense.compact();
+
+        for (String range : new String[]{"2:3-x", "2:3-2:6", "x-6:20", "3-1:19"}) {
+            Range parsed = Range.valueOf(Optional.of(range));
+
+            // when
+            double[] actual = sparse.getRange(parsed).toArray();
+
+            //then
+            assertThat(range, actual, is(dense.getRange(parsed).toArray()));
+        }
+    }
+
+    @Test
+    public void testGetRangeShouldThrowWhenBlockOutOfRange() throws Exception {
+        // given
+        Matrix matrix = Matrix.from(new JSONArray("[[1,2.1,3],[4.1,5,6]]"));
+        Range outOfRange = Range.valueOf(Optional.of("1:3-x"));
+
+        //then
+        thrown.expect(IllegalArgumentException.class);
+        thrown.expectMessage(String.format(
+            "The '%s' range is not valid for the matrix.", outOfRange));
+
+        // when
+        matrix.getRange(outOfRange);
+    }
+
     @Test
     public void testGetRangeShouldThrowWhenRowOutOfRange() throws Exception {
         // given
@@ -221,4 +312,106 @@ public class MatrixTest {
         // when
         matrix.getRange(outOfRange);
     }
+
+    @Test
+    public void testDecompositionShouldBeKeptByIndexedMatrix() {
+        // given
+        Matrix matrix = Matrix.from(new double[][]{{1, 2}, {3, 4}});
+        Matrix indexed = matrix.indexed();
+
+        // then
+        assertThat(matrix.decomposition() == matrix.decomposition(), is(false));
+        assertThat(indexed.decomposition() == indexed.decomposition(), is(true));
+    }
+
+    @Test
+    public void testCompactShouldKeepMatrixWithFewNonZerosSparse() {
+        // given
+        double[] values = new double[20 * 20];
+        values[0] = 1;
+        values[21] = -0.0;
+        values[399] = 4;
+        Matrix dense = Matrix.from(20, 20, values);
+
+        // when
+        Matrix actual = dense.compact();
+
+        // then
+        assertThat(actual.isSparse(), is(true));
+        assertThat(actual.getMatrix(), is(dense.getMatrix()));
+        assertThat(actual.valueAtPosition(Position.valueOf("2-2")), is(-0.0));
+        assertThat(actual.valueAtPosition(Position.valueOf("20-20")), is(4.0));
+        assertThat(actual.valueAtPosition(Position.valueOf("20-19")), is(0.0));
+        assertThat(actual.getRange(Range.valueOf(Optional.of("x-20"))).toArray(),
+            is(dense.getRange(Range.valueOf(Optional.of("x-20"))).toArray()));
+        assertThat(actual.sizeInBytes() < dense.sizeInBytes(), is(true));
+    }
+
+    @Test
+    public void testCompactShouldKeepDenseMatrix() {
+        // given
+        double[] values = new double[20 * 20];
+        Arrays.fill(values, 0, 41, 1);
+        Matrix dense = Matrix.from(20, 20, values);
+
+        // when
+        Matrix actual = dense.compact();
+
+        // then
+        assertThat(actual == dense, is(true));
+    }
+
+    @Test
+    public void testFromEntriesShouldPlaceEntriesInAnyOrder() {
+        // given
+        int[] rows = {3, 1, 2};
+        int[] columns = {1, 2, 2};
+        double[] values = {5, 1, 0};
+
+        // when
+        Matrix actual = Matrix.fromEntries(3, 2, rows, columns, values, 3);
+
+        // then
+        assertThat(actual.getMatrix(), is(new double[][]{{0, 1}, {0, 0}, {5, 0}}));
+    }
+
+    @Test
+    public void testFromEntriesShouldBeSparseWhenLarge() {
+        // when
+        Matrix actual = Matrix.fromEntries(100, 100, new int[]{50}, new int[]{50}, new double[]{2}, 1);
+
+        // then
+        assertThat(actual.isSparse(), is(true));
+        assertThat(actual.valueAtPosition(Position.valueOf("50-50")), is(2.0));
+    }
+
+    @Test
+    public void testFromEntriesShouldThrowWhenPositionIsGivenTwice() {
+        //then
+        thrown.expect(IllegalArgumentException.class);
+        thrown.expectMessage("The '2-1' position is given more than once.");
+
+        // when
+        Matrix.fromEntries(2, 2, new int[]{2, 1, 2}, new int[]{1, 1, 1}, new double[]{1, 2, 3}, 3);
+    }
+
+    @Test
+    public void testFromEntriesShouldThrowWhenPositionIsOutOfRange() {
+        //then
+        thrown.expect(IllegalArgumentException.class);
+        thrown.expectMessage("The '3-1' position is out-of-range for the matrix.");
+
+        // when
+        Matrix.fromEntries(2, 2, new int[]{3}, new int[]{1}, new double[]{1}, 1);
+    }
+
+    @Test
+    public void testFromEntriesShouldThrowWhenMatrixHasTooManyElements() {
+        //then
+        thrown.expect(IllegalArgumentException.class);
+        thrown.expectMessage("Matrix 100000x100000 has too many elements.");
+
+        // when
+        Matrix.fromEntries(100000, 100000, new int[0], new int[0], new double[0], 0);
+    }
 }
@@ -0,0 +1,76 @@
+package sk.bocko.matrixcalc.model;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.is;
+import org.json.JSONException;
+import org.json.JSONObject;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.ExpectedException;
+
+public class MatrixUpdateTest {
+
+    @Rule
+    public ExpectedException thrown = ExpectedException.none();
+
+    @Test
+    public void testFromShouldReadRowsAndCells() {
+        // given
+        JSONObject json = new JSONObject("{\"rows\":[[2,[1,2]]],\"cells\":[[1,2,5.5]]}");
+
+        // when
+        MatrixUpdate actual = MatrixUpdate.from(json);
+
+        // then
+        assertThat(actual.rowCount(), is(1));
+        assertThat(actual.row(0), is(2));
+        assertThat(actual.rowValues(0), is(new double[]{1, 2}));
+        assertThat(actual.cellCount(), is(1));
+        assertThat(actual.cellRow(0), is(1));
+        assertThat(actual.cellColumn(0), is(2));
+        assertThat(actual.cellValue(0), is(5.5));
+    }
+
+    @Test
+    public void testFromShouldThrowWhenUpdateIsEmpty() {
+        // then
+        thrown.expect(IllegalArgumentException.class);
+        thrown.expectMessage("Update has neither \"rows\" nor \"cells\".");
+
+        // when
+        MatrixUpdate.from(new JSONObject("{\"matrix\":[[1]]}"));
+    }
+
+    @Test
+    public void testFromShouldThrowWhenCellIsNotEntry() {
+        // then
+        thrown.expect(JSONException.class);
+        thrown.expectMessage("JSONArray[1] is not a [row, column, value] entry.");
+
+        // when
+        MatrixUpdate.from(new JSONObject("{\"cells\":[[1,1,1],[1,1]]}"));
+    }
+
+    @Test
+    public void testFromShouldThrowWhenRowHasNoValues() {
+        // then
+        thrown.expect(JSONException.class);
+        thrown.expectMessage("JSONArray[0] is not a [row, values] update.");
+
+        // when
+        MatrixUpdate.from(new JSONObject("{\"rows\":[[1,2]]}"));
+    }
+
+    @Test
+    public void testValidateShouldThrowWhenRowLengthDiffers() {
+        // given
+        MatrixUpdate update = MatrixUpdate.from(new JSONObject("{\"rows\":[[1,[1,2,3]]]}"));
+
+        // then
+        thrown.expect(IllegalArgumentException.class);
+        thrown.expectMessage("Row 1 has 3 values, but the matrix has 2 columns.");
+
+        // when
+        update.validate(2, 2);
+    }
+}
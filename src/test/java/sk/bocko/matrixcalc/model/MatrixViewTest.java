@@ -0,0 +1,89 @@
+package sk.bocko.matrixcalc.model;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.is;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.ExpectedException;
+
+public class MatrixViewTest {
+
+    @Rule
+    public final ExpectedException thrown = ExpectedException.none();
+
+    @Test
+    public void testGetShouldWalkStridedValues() {
+        // given
+        double[] values = {1, 2, 3, 4, 5, 6};
+        MatrixView column = new MatrixView(values, 1, 2, 3);
+
+        // when
+        double first = column.get(0);
+        double second = column.get(1);
+
+        // then
+        assertThat(column.length(), is(2));
+        assertThat(first, is(2d));
+        assertThat(second, is(5d));
+    }
+
+    @Test
+    public void testToArrayShouldCopyStridedValues() {
+        // given
+        double[] values = {1, 2, 3, 4, 5, 6};
+        MatrixView column = new MatrixView(values, 2, 2, 3);
+
+        // when
+        double[] actual = column.toArray();
+
+        // then
+        double[] expected = {3, 6};
+        assertThat(actual, is(expected));
+    }
+
+    @Test
+    public void testBlockViewShouldWalkLines() {
+        // given
+        double[] values = {1, 2, 3, 4, 5, 6, 7, 8, 9, 10, 11, 12};
+        // rows 2..3 and columns 2..3 of a 3x4 matrix
+        MatrixView block = new MatrixView(values, 5, 2, 1, 2, 4);
+
+        // when
+        double[] actual = block.toArray();
+
+        // then
+        double[] expected = {6, 7, 10, 11};
+        assertThat(block.length(), is(4));
+        assertThat(block.get(2), is(10d));
+        assertThat(actual, is(expected));
+        assertThat(block.toDense().toArray(), is(expected));
+    }
+
+    @Test
+    public void testGetShouldThrowWhenIndexOutOfView() {
+        // given
+        MatrixView row = new MatrixView(new double[]{1, 2, 3, 4}, 2, 2, 1);
+
+        // then
+        thrown.expect(IndexOutOfBoundsException.class);
+
+        // when
+        row.get(2);
+    }
+
+    @Test
+    public void testSparseViewShouldFillImplicitZeros() {
+        // given
+        // non-zeros at indices 1 and 3 of a view based at 10
+        MatrixView view = new MatrixView(new double[]{7, 5, 6, 7}, new int[]{0, 11, 13, 20}, 1, 2, 4, 10);
+
+        // then
+        assertThat(view.isSparse(), is(true));
+        assertThat(view.get(0), is(0.0));
+        assertThat(view.get(1), is(5.0));
+        assertThat(view.get(3), is(6.0));
+        assertThat(view.toArray(), is(new double[]{0, 5, 0, 6}));
+        assertThat(view.toDense().toArray(), is(new double[]{0, 5, 0, 6}));
+        assertThat(view.toDense().isSparse(), is(false));
+    }
+}
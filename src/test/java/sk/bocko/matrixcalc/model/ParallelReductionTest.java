@@ -0,0 +1,164 @@
+package sk.bocko.matrixcalc.model;
+
+import java.util.Arrays;
+import java.util.Optional;
+import java.util.Random;
+import java.util.concurrent.ForkJoinPool;
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.closeTo;
+import static org.hamcrest.Matchers.is;
+import org.junit.AfterClass;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.ExpectedException;
+
+public class ParallelReductionTest {
+    private static final ForkJoinPool POOL = new ForkJoinPool(4);
+    private static final Range WHOLE = Range.valueOf(Optional.empty());
+
+    @Rule
+    public final ExpectedException thrown = ExpectedException.none();
+
+    private final ParallelReduction testee = new ParallelReduction(POOL, 1000);
+
+    @AfterClass
+    public static void shutdownPool() {
+        POOL.shutdown();
+    }
+
+    @Test
+    public void testApplyShouldAgreeWithSequentialReduction() {
+        // given
+        Matrix matrix = aMatrix(300, 400, 42);
+
+        for (RangedOperation operation : RangedOperation.values()) {
+            for (Range range : new Range[]{WHOLE, Range.valueOf(Optional.of("x-7")),
+                Range.valueOf(Optional.of("20:290-x")), Range.valueOf(Optional.of("x-3:390")),
+                Range.valueOf(Optional.of("2:299-5:395"))}) {
+                if (operation == RangedOperation.PRODUCT) {
+                    continue;
+                }
+                // when
+                double actual = testee.apply(operation, matrix, range);
+
+                // then
+                double expected = operation.apply(matrix, range);
+                assertThat(operation + " " + range, actual,
+                    closeTo(expected, Math.abs(expected) * 1e-12));
+            }
+        }
+    }
+
+    @Test
+    public void testRankShouldAgreeWithSequentialRanking() {
+        // given
+        Matrix matrix = aMatrix(300, 400, 43);
+
+        for (Range range : new Range[]{WHOLE, Range.valueOf(Optional.of("x-7")),
+            Range.valueOf(Optional.of("2:299-5:395"))}) {
+            for (boolean largest : new boolean[]{true, false}) {
+                // when
+                Ranking actual = testee.rank(matrix, range, 50, largest);
+
+                // then
+                Ranking expected = Ranking.of(matrix, range, 50, largest);
+                assertThat(actual.size(), is(expected.size()));
+                for (int i = 0; i < actual.size(); i++) {
+                    assertThat(range + " " + largest, actual.getPosition(i).toString(),
+                        is(expected.getPosition(i).toString()));
+                }
+            }
+        }
+    }
+
+    @Test
+    public void testApplyShouldAgreeWithSequentialProduct() {
+        // given
+        double[] values = new double[100000];
+        Random random = new Random(7);
+        for (int i = 0; i < values.length; i++) {
+            values[i] = 1 + (random.nextDouble() - 0.5) * 1e-3;
+        }
+        Matrix matrix = Matrix.from(100, 1000, values);
+
+        // when
+        double actual = testee.apply(RangedOperation.PRODUCT, matrix, WHOLE);
+
+        // then
+        double expected = RangedOperation.PRODUCT.apply(matrix, WHOLE);
+        assertThat(actual, closeTo(expected, Math.abs(expected) * 1e-9));
+    }
+
+    @Test
+    public void testApplyShouldCompensateRoundingErrorsAcrossBlocks() {
+        // given
+        double[] values = new double[1 << 17];
+        Arrays.fill(values, 0.1);
+        Matrix matrix = Matrix.from(1, values.length, values);
+
+        // when
+        double actual = testee.apply(RangedOperation.SUM, matrix, WHOLE);
+
+        // then
+        assertThat(actual, is(RangedOperation.SUM.apply(matrix, WHOLE)));
+    }
+
+    @Test
+    public void testApplyShouldPropagateNaN() {
+        // given
+        double[] values = new double[1 << 17];
+        values[values.length - 3] = Double.NaN;
+        Matrix matrix = Matrix.from(1, values.length, values);
+
+        // then
+        assertThat(testee.apply(RangedOperation.MINIMUM, matrix, WHOLE), is(Double.NaN));
+        assertThat(testee.apply(RangedOperation.MAXIMUM, matrix, WHOLE), is(Double.NaN));
+    }
+
+    @Test
+    public void testApplyShouldUseIndexOfIndexedMatrix() {
+        // given
+        Matrix matrix = aMatrix(300, 400, 1).indexed();
+
+        // when
+        double actual = testee.apply(RangedOperation.SUM, matrix, WHOLE);
+
+        // then
+        assertThat(actual, is(RangedOperation.SUM.apply(matrix, WHOLE)));
+    }
+
+    @Test
+    public void testApplyShouldReduceExtractedView() {
+        // given
+        Matrix matrix = aMatrix(300, 400, 2);
+        Range range = Range.valueOf(Optional.of("2:299-5:395"));
+        MatrixView view = matrix.getRange(range);
+
+        for (RangedOperation operation : RangedOperation.values()) {
+            // when
+            double actual = testee.apply(operation, matrix, range, view);
+
+            // then
+            assertThat(operation.toString(), actual, is(testee.apply(operation, matrix, range)));
+        }
+    }
+
+    @Test
+    public void testApplyShouldThrowWhenRangeIsNotValid() {
+        // then
+        thrown.expect(IllegalArgumentException.class);
+        thrown.expectMessage("The 'x-401' range is not valid for the matrix.");
+
+        // when
+        testee.apply(RangedOperation.SUM, aMatrix(300, 400, 1), Range.valueOf(Optional.of("x-401")));
+    }
+
+    private static Matrix aMatrix(int rows, int columns, long seed) {
+        Random random = new Random(seed);
+        double[] values = new double[rows * columns];
+        for (int i = 0; i < values.length; i++) {
+            values[i] = (random.nextDouble() - 0.3) * Math.pow(10, random.nextInt(12));
+        }
+        return Matrix.from(rows, columns, values);
+    }
+}
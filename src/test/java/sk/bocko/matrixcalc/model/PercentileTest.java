@@ -0,0 +1,137 @@
+package sk.bocko.matrixcalc.model;
+
+import java.util.Arrays;
+import java.util.Optional;
+import java.util.Random;
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.is;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.ExpectedException;
+
+public class PercentileTest {
+    private static final Range WHOLE = Range.valueOf(Optional.empty());
+
+    @Rule
+    public final ExpectedException thrown = ExpectedException.none();
+
+    @Test
+    public void testApplyShouldAgreeWithSortedValues() {
+        // given
+        Random random = new Random(5);
+        for (int length : new int[]{1, 2, 3, 10, 101, 1000}) {
+            double[] values = new double[length];
+            for (int i = 0; i < length; i++) {
+                // few distinct values, so ranks are shared
+                values[i] = random.nextInt(length / 3 + 2) - length / 6;
+            }
+            Matrix matrix = Matrix.from(1, length, values);
+            double[] sorted = values.clone();
+            Arrays.sort(sorted);
+
+            for (double p : new double[]{0, 1, 25, 50, 62.5, 99, 100}) {
+                // when
+                double actual = Percentile.apply(matrix, WHOLE, p);
+
+                // then
+                double h = (length - 1) * p / 100;
+                int rank = (int) h;
+                double expected = rank + 1 < length
+                    ? sorted[rank] + (sorted[rank + 1] - sorted[rank]) * (h - rank)
+                    : sorted[rank];
+                assertThat(p + " of " + length, actual, is(expected));
+            }
+        }
+    }
+
+    @Test
+    public void testApplyShouldSelectFromBlock() {
+        // given
+        Matrix matrix = Matrix.from(new double[][]{{9, 1, 8}, {2, 7, 3}, {6, 4, 5}});
+
+        // when
+        double actual = Percentile.apply(matrix, Range.valueOf(Optional.of("2:3-2:3")), 50);
+
+        // then
+        assertThat(actual, is(4.5));
+    }
+
+    @Test
+    public void testSparseViewsShouldGiveSameResultsAsDenseViews() {
+        // given
+        for (long seed = 0; seed < 20; seed++) {
+            Random random = new Random(seed);
+            double[] values = new double[20 * 30];
+            for (int i = 0; i < 40; i++) {
+                values[random.nextInt(values.length)] = random.nextDouble() - 0.3;
+            }
+            Matrix dense = Matrix.from(20, 30, values);
+            Matrix sparse = dense.compact();
+            assertThat(sparse.isSparse(), is(true));
+
+            for (String range : new String[]{null, "1-x", "x-13", "2:9-x", "3:17-2:29"}) {
+                Range parsed = Range.valueOf(Optional.ofNullable(range));
+                for (double p : new double[]{0, 3, 50, 97.5, 100}) {
+                    // when
+                    double actual = Percentile.apply(sparse, parsed, p);
+
+                    // then
+                    assertThat(p + " of " + range + " with seed " + seed,
+                        actual, is(Percentile.apply(dense, parsed, p)));
+                }
+            }
+        }
+    }
+
+    @Test
+    public void testApplyShouldPropagateNaN() {
+        // given
+        Matrix matrix = Matrix.from(1, 3, new double[]{1, Double.NaN, 3});
+
+        // when
+        double actual = Percentile.apply(matrix, WHOLE, 10);
+
+        // then
+        assertThat(Double.isNaN(actual), is(true));
+    }
+
+    @Test
+    public void testApplyShouldThrowWhenPercentileIsOutOfBounds() {
+        // given
+        Matrix matrix = Matrix.from(1, 3, new double[]{1, 2, 3});
+
+        // then
+        thrown.expect(IllegalArgumentException.class);
+        thrown.expectMessage("Percentile '100.5' is not between 0 and 100.");
+
+        // when
+        Percentile.apply(matrix, WHOLE, 100.5);
+    }
+
+    @Test
+    public void testBufferShouldBeKeptOnlyForShortRanges() {
+        // when
+        double[] kept = Percentile.buffer(Percentile.MAX_KEPT_LENGTH);
+        double[] released = Percentile.buffer(Percentile.MAX_KEPT_LENGTH + 1);
+
+        // then
+        assertThat(Percentile.buffer(10) == kept, is(true));
+        assertThat(Percentile.buffer(Percentile.MAX_KEPT_LENGTH + 1) == released, is(false));
+    }
+
+    @Test
+    public void testApplyShouldSelectFromRangeLongerThanKeptBuffer() {
+        // given
+        int length = Percentile.MAX_KEPT_LENGTH + 3;
+        double[] values = new double[length];
+        for (int i = 0; i < length; i++) {
+            values[i] = length - i;
+        }
+
+        // when
+        double actual = Percentile.apply(Matrix.from(1, length, values), WHOLE, 50);
+
+        // then
+        assertThat(actual, is((length + 1) / 2.0));
+    }
+}
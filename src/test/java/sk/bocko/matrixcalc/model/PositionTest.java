@@ -24,6 +24,20 @@ public class PositionTest {
         assertThat(actual.getColumn(), is(25));
     }
 
+    @Test
+    public void testToStringShouldBeParsedToSamePosition() {
+        // given
+        Position position = Position.of(3, 14);
+
+        // when
+        Position actual = Position.valueOf(position.toString());
+
+        // then
+        assertThat(position.toString(), is("3-14"));
+        assertThat(actual.getRow(), is(3));
+        assertThat(actual.getColumn(), is(14));
+    }
+
     @Test
     public void testValueOfShouldThrowWhenRowIsDecimal() {
         // given
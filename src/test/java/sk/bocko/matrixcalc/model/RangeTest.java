@@ -56,6 +56,80 @@ public class RangeTest {
         assertThat(actual.isRow(), is(false));
     }
 
+    @Test
+    public void testShouldCreateRangeInstanceForBlock() throws Exception {
+        // given
+        Optional<String> range = Optional.of("2:10-4:8");
+
+        // when
+        Range actual = Range.valueOf(range);
+
+        //then
+        assertThat(actual.isBlock(), is(true));
+        assertThat(actual.isRow(), is(false));
+        assertThat(actual.isColumn(), is(false));
+        assertThat(actual.isWholeMatrix(), is(false));
+        assertThat(actual.getFirstRow(), is(2));
+        assertThat(actual.getLastRow(20), is(10));
+        assertThat(actual.getFirstColumn(), is(4));
+        assertThat(actual.getLastColumn(20), is(8));
+        assertThat(actual.toString(), is("2:10-4:8"));
+    }
+
+    @Test
+    public void testShouldCreateRangeInstanceForSpanOfRows() throws Exception {
+        // given
+        Optional<String> range = Optional.of("2:10-x");
+
+        // when
+        Range actual = Range.valueOf(range);
+
+        //then
+        assertThat(actual.isBlock(), is(true));
+        assertThat(actual.getFirstColumn(), is(1));
+        assertThat(actual.getLastColumn(20), is(20));
+        assertThat(actual.toString(), is("2:10-x"));
+    }
+
+    @Test
+    public void testShouldCreateRowWhenSpanHasSingleRow() throws Exception {
+        // given
+        Optional<String> range = Optional.of("3:3-x");
+
+        // when
+        Range actual = Range.valueOf(range);
+
+        //then
+        assertThat(actual.isRow(), is(true));
+        assertThat(actual.getValue(), is(3));
+    }
+
+    @Test
+    public void testCreateInstanceShouldThrowWhenSpanIsReversed() throws Exception {
+        // given
+        Optional<String> invalid = Optional.of("3:2-x");
+
+        //then
+        thrown.expect(IllegalArgumentException.class);
+        thrown.expectMessage(String.format("'%s' is not a valid range", invalid.get()));
+
+        // when
+        Range.valueOf(invalid);
+    }
+
+    @Test
+    public void testCreateInstanceShouldThrowWhenSpanIsIncomplete() throws Exception {
+        // given
+        Optional<String> invalid = Optional.of("2:-x");
+
+        //then
+        thrown.expect(IllegalArgumentException.class);
+        thrown.expectMessage(String.format("'%s' is not a valid range", invalid.get()));
+
+        // when
+        Range.valueOf(invalid);
+    }
+
     @Test
     public void testCreateInstanceShouldThrowWhenIndexCalledOnWholeMatrixRange() throws Exception {
         // given
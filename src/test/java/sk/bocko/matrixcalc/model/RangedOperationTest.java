@@ -1,15 +1,22 @@
 package sk.bocko.matrixcalc.model;
 
+import java.util.Arrays;
+import java.util.Optional;
+import java.util.Random;
 import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.closeTo;
 import static org.hamcrest.core.Is.is;
 import org.junit.Rule;
 import org.junit.Test;
 import org.junit.rules.ExpectedException;
 import static sk.bocko.matrixcalc.model.RangedOperation.AVERAGE;
 import static sk.bocko.matrixcalc.model.RangedOperation.MAXIMUM;
+import static sk.bocko.matrixcalc.model.RangedOperation.MEDIAN;
 import static sk.bocko.matrixcalc.model.RangedOperation.MINIMUM;
 import static sk.bocko.matrixcalc.model.RangedOperation.PRODUCT;
+import static sk.bocko.matrixcalc.model.RangedOperation.STANDARD_DEVIATION;
 import static sk.bocko.matrixcalc.model.RangedOperation.SUM;
+import static sk.bocko.matrixcalc.model.RangedOperation.VARIANCE;
 
 public class RangedOperationTest {
 
@@ -76,6 +83,19 @@ public class RangedOperationTest {
         assertThat(actual, is(AVERAGE));
     }
 
+    @Test
+    public void testShouldCreateEnumFromStringForStatistics() {
+        // when
+        RangedOperation variance = RangedOperation.from("variance");
+        RangedOperation deviation = RangedOperation.from("stddev");
+        RangedOperation median = RangedOperation.from("median");
+
+        //then
+        assertThat(variance, is(VARIANCE));
+        assertThat(deviation, is(STANDARD_DEVIATION));
+        assertThat(median, is(MEDIAN));
+    }
+
     @Test
     public void testShouldThrowWhenUnknownRangeOperation() {
         // given
@@ -99,4 +119,242 @@ public class RangedOperationTest {
         RangedOperation.from(null);
     }
 
+    @Test
+    public void testSumShouldReduceStridedValues() {
+        // given
+        double[] column = {1, 2, 3, 4.5, 5, 6}; // second column of 2x3 matrix
+
+        // when
+        double actual = SUM.apply(column, 1, 2, 3);
+
+        //then
+        assertThat(actual, is(7d));
+    }
+
+    @Test
+    public void testProductShouldReduceStridedValues() {
+        // given
+        double[] column = {1, 2, 3, 4.5, 5, 6};
+
+        // when
+        double actual = PRODUCT.apply(column, 0, 2, 3);
+
+        //then
+        assertThat(actual, is(4.5d));
+    }
+
+    @Test
+    public void testMinimumShouldReduceStridedValues() {
+        // given
+        double[] row = {1, 2, 3, 4.5, -5, 6};
+
+        // when
+        double actual = MINIMUM.apply(row, 3, 3, 1);
+
+        //then
+        assertThat(actual, is(-5d));
+    }
+
+    @Test
+    public void testMaximumShouldReduceStridedValues() {
+        // given
+        double[] row = {1, 2, 3, 4.5, -5, 6};
+
+        // when
+        double actual = MAXIMUM.apply(row, 0, 3, 1);
+
+        //then
+        assertThat(actual, is(3d));
+    }
+
+    @Test
+    public void testAverageShouldReduceStridedValues() {
+        // given
+        double[] column = {1, 2, 3, 4.5, 5, 6};
+
+        // when
+        double actual = AVERAGE.apply(column, 2, 2, 3);
+
+        //then
+        assertThat(actual, is(4.5d));
+    }
+
+    @Test
+    public void testVarianceShouldReduceStridedValues() {
+        // given
+        double[] column = {2, 0, 4, 0, 4, 0, 4, 0, 5, 0, 5, 0, 7, 0, 9, 0};
+
+        // when
+        double variance = VARIANCE.apply(column, 0, 8, 2);
+        double deviation = STANDARD_DEVIATION.apply(column, 0, 8, 2);
+
+        //then
+        assertThat(variance, is(4d));
+        assertThat(deviation, is(2d));
+    }
+
+    @Test
+    public void testVarianceShouldNotCancelLargeMean() {
+        // given
+        double[] values = {1e9 + 4, 1e9 + 7, 1e9 + 13, 1e9 + 16};
+
+        // when
+        double actual = VARIANCE.apply(values, 0, values.length, 1);
+
+        //then
+        assertThat(actual, is(22.5d));
+    }
+
+    @Test
+    public void testMedianShouldAverageMiddleValues() {
+        // given
+        double[] row = {9, 1, 8, 2, 7, 3};
+
+        // when
+        double even = MEDIAN.apply(row, 0, 6, 1);
+        double odd = MEDIAN.apply(row, 0, 5, 1);
+
+        //then
+        assertThat(even, is(5d));
+        assertThat(odd, is(7d));
+    }
+
+    @Test
+    public void testSumShouldCompensateRoundingErrors() {
+        // given
+        double[] values = new double[10];
+        Arrays.fill(values, 0.1);
+
+        // when
+        double actual = SUM.apply(values, 0, values.length, 1);
+
+        //then
+        assertThat(actual, is(1d));
+    }
+
+    @Test
+    public void testApplyShouldGiveSameResultForIndexedMatrix() {
+        // given
+        double[] values = {0.1, 0.2, 0.3, 0.4, 0.5, 0.6};
+        Matrix plain = Matrix.from(2, 3, values);
+        Matrix indexed = plain.indexed();
+
+        for (String range : new String[]{"1-x", "2-x", "x-1", "x-3"}) {
+            Range matrixRange = Range.valueOf(Optional.of(range));
+            for (RangedOperation operation : RangedOperation.values()) {
+                // when
+                double actual = operation.apply(indexed, matrixRange);
+
+                //then
+                assertThat(actual, is(operation.apply(plain, matrixRange)));
+            }
+        }
+    }
+
+    @Test
+    public void testBlockShouldGiveSameResultAsItsCopy() {
+        // given
+        Random random = new Random(7);
+        double[] values = new double[9 * 11];
+        for (int i = 0; i < values.length; i++) {
+            values[i] = (random.nextDouble() - 0.3) * Math.pow(10, random.nextInt(12));
+        }
+        Matrix matrix = Matrix.from(9, 11, values).indexed();
+
+        for (String range : new String[]{"2:5-3:7", "1:9-x", "x-2:10", "4-2:3", "3:8-6"}) {
+            Range parsed = Range.valueOf(Optional.of(range));
+            double[] copy = matrix.getRange(parsed).toArray();
+            for (RangedOperation operation : RangedOperation.values()) {
+                // when
+                double actual = operation.apply(matrix, parsed);
+
+                // then
+                assertThat(operation + " of " + range,
+                    actual, is(operation.apply(copy, 0, copy.length, 1)));
+            }
+        }
+    }
+
+    @Test
+    public void testApplyShouldThrowWhenBlockIsNotValidForMatrix() {
+        // given
+        Matrix matrix = Matrix.from(2, 3, new double[6]);
+
+        // then
+        thrown.expect(IllegalArgumentException.class);
+        thrown.expectMessage("The '1:2-3:4' range is not valid for the matrix.");
+
+        // when
+        SUM.apply(matrix, Range.valueOf(Optional.of("1:2-3:4")));
+    }
+
+    @Test
+    public void testApplyShouldThrowWhenRangeIsNotValidForIndexedMatrix() {
+        // given
+        Matrix indexed = Matrix.from(2, 3, new double[6]).indexed();
+
+        // then
+        thrown.expect(IllegalArgumentException.class);
+        thrown.expectMessage("The '3-x' range is not valid for the matrix.");
+
+        // when
+        SUM.apply(indexed, Range.valueOf(Optional.of("3-x")));
+    }
+
+    @Test
+    public void testSparseViewsShouldGiveSameResultsAsDenseViews() {
+        // given
+        double[] special = {-0.0, Double.NaN, Double.POSITIVE_INFINITY, 1e300, -1e-300, 0.1, -3};
+        for (long seed = 0; seed < 50; seed++) {
+            Random random = new Random(seed);
+            double[] values = new double[20 * 30];
+            for (int i = 0; i < 30; i++) {
+                values[random.nextInt(values.length)] = random.nextInt(4) == 0
+                    ? special[random.nextInt(special.length)]
+                    : random.nextDouble() - 0.5;
+            }
+            Matrix dense = Matrix.from(20, 30, values);
+            Matrix sparse = dense.compact();
+            assertThat(sparse.isSparse(), is(true));
+
+            for (String range : new String[]{null, "1-x", "7-x", "20-x", "x-1", "x-13", "x-30",
+                "2:9-x", "1:20-x", "x-4:11", "3:17-2:29", "5-1:30", "12:20-30"}) {
+                Range parsed = Range.valueOf(Optional.ofNullable(range));
+                for (RangedOperation operation : RangedOperation.values()) {
+                    // when
+                    double actual = operation.apply(sparse, parsed);
+
+                    // then
+                    double expected = operation.apply(dense, parsed);
+                    String reason = operation + " of " + range + " with seed " + seed;
+                    // variances merge the implicit zeros at once, see RangedOperation
+                    if ((operation == VARIANCE || operation == STANDARD_DEVIATION)
+                        && Double.isFinite(expected)) {
+                        assertThat(reason, actual, closeTo(expected, expected * 1e-12));
+                    } else {
+                        assertThat(reason, actual, is(expected));
+                    }
+                }
+            }
+        }
+    }
+
+    @Test
+    public void testSparseViewShouldReduceImplicitZeros() {
+        // given
+        double[] values = new double[16 * 16];
+        values[3] = 2;
+        values[5] = -1;
+        Matrix matrix = Matrix.from(16, 16, values).compact();
+        Range firstRow = Range.valueOf(Optional.of("1-x"));
+
+        // then
+        assertThat(MINIMUM.apply(matrix, firstRow), is(-1.0));
+        assertThat(MAXIMUM.apply(matrix, firstRow), is(2.0));
+        assertThat(PRODUCT.apply(matrix, firstRow), is(-0.0));
+        assertThat(SUM.apply(matrix, firstRow), is(1.0));
+        assertThat(AVERAGE.apply(matrix, firstRow), is(1.0 / 16));
+        assertThat(MEDIAN.apply(matrix, firstRow), is(0.0));
+        assertThat(VARIANCE.apply(matrix, firstRow), closeTo(5.0 / 16 - 1.0 / 256, 1e-15));
+    }
 }
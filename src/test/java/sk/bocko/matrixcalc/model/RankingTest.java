@@ -0,0 +1,161 @@
+package sk.bocko.matrixcalc.model;
+
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.Optional;
+import java.util.Random;
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.is;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.ExpectedException;
+
+public class RankingTest {
+    private static final Range WHOLE = Range.valueOf(Optional.empty());
+
+    @Rule
+    public final ExpectedException thrown = ExpectedException.none();
+
+    @Test
+    public void testOfShouldKeepLargestValuesInOrder() {
+        // given
+        Matrix matrix = Matrix.from(new double[][]{{1, 7, 3}, {7, 5, 2}});
+
+        // when
+        Ranking actual = Ranking.of(matrix, WHOLE, 3, true);
+
+        // then
+        assertThat(actual.size(), is(3));
+        assertThat(actual.getPosition(0).toString(), is("1-2"));
+        assertThat(actual.getPosition(1).toString(), is("2-1"));
+        assertThat(actual.getPosition(2).toString(), is("2-2"));
+        assertThat(actual.getValue(2), is(5.0));
+    }
+
+    @Test
+    public void testOfShouldAgreeWithSortedValues() {
+        // given
+        Random random = new Random(17);
+        double[] values = new double[13 * 17];
+        for (int i = 0; i < values.length; i++) {
+            values[i] = random.nextInt(40) - 20;
+        }
+        Matrix matrix = Matrix.from(13, 17, values);
+
+        for (String range : new String[]{null, "3-x", "x-5", "2:11-3:9", "4:6-x"}) {
+            Range parsed = Range.valueOf(Optional.ofNullable(range));
+            for (boolean largest : new boolean[]{true, false}) {
+                for (int k : new int[]{1, 5, 40, 1000}) {
+                    // when
+                    Ranking actual = Ranking.of(matrix, parsed, k, largest);
+
+                    // then
+                    Integer[] expected = sortedIndices(matrix.getRange(parsed).toArray(), largest);
+                    assertThat(actual.size(), is(Math.min(k, expected.length)));
+                    int firstRow = parsed.getFirstRow();
+                    int firstColumn = parsed.getFirstColumn();
+                    int width = parsed.getLastColumn(17) - firstColumn + 1;
+                    for (int i = 0; i < actual.size(); i++) {
+                        Position position = actual.getPosition(i);
+                        int index = (position.getRow() - firstRow) * width
+                            + position.getColumn() - firstColumn;
+                        assertThat(range + " " + largest + " " + k, index, is(expected[i]));
+                    }
+                }
+            }
+        }
+    }
+
+    @Test
+    public void testOfShouldFindExtremesOfOperations() {
+        // given
+        Random random = new Random(19);
+        double[] values = new double[30 * 20];
+        for (int i = 0; i < values.length; i++) {
+            values[i] = random.nextGaussian();
+        }
+        Matrix matrix = Matrix.from(30, 20, values);
+
+        // when
+        Ranking minimum = Ranking.of(matrix, WHOLE, 1, false);
+        Ranking maximum = Ranking.of(matrix, WHOLE, 1, true);
+
+        // then
+        assertThat(minimum.getValue(0), is(RangedOperation.MINIMUM.apply(matrix, WHOLE)));
+        assertThat(matrix.valueAtPosition(minimum.getPosition(0)), is(minimum.getValue(0)));
+        assertThat(maximum.getValue(0), is(RangedOperation.MAXIMUM.apply(matrix, WHOLE)));
+        assertThat(matrix.valueAtPosition(maximum.getPosition(0)), is(maximum.getValue(0)));
+    }
+
+    @Test
+    public void testOfShouldRankFirstNaNFirst() {
+        // given
+        Matrix matrix = Matrix.from(1, 5, new double[]{1, Double.NaN, -5, Double.NaN, 9});
+
+        // when
+        Ranking minimum = Ranking.of(matrix, WHOLE, 1, false);
+        Ranking top = Ranking.of(matrix, WHOLE, 3, true);
+
+        // then
+        assertThat(minimum.getPosition(0).toString(), is("1-2"));
+        assertThat(top.getPosition(0).toString(), is("1-2"));
+        assertThat(top.getPosition(1).toString(), is("1-4"));
+        assertThat(top.getValue(2), is(9.0));
+    }
+
+    @Test
+    public void testSparseViewsShouldGiveSameRankingAsDenseViews() {
+        // given
+        for (long seed = 0; seed < 20; seed++) {
+            Random random = new Random(seed);
+            double[] values = new double[20 * 30];
+            for (int i = 0; i < 30; i++) {
+                values[random.nextInt(values.length)] = random.nextInt(10) - 5;
+            }
+            Matrix dense = Matrix.from(20, 30, values);
+            Matrix sparse = dense.compact();
+            assertThat(sparse.isSparse(), is(true));
+
+            for (String range : new String[]{null, "1-x", "x-13", "2:9-x", "3:17-2:29"}) {
+                Range parsed = Range.valueOf(Optional.ofNullable(range));
+                for (boolean largest : new boolean[]{true, false}) {
+                    // when
+                    Ranking actual = Ranking.of(sparse, parsed, 40, largest);
+
+                    // then
+                    Ranking expected = Ranking.of(dense, parsed, 40, largest);
+                    assertThat(actual.size(), is(expected.size()));
+                    for (int i = 0; i < actual.size(); i++) {
+                        assertThat(range + " with seed " + seed, actual.getPosition(i).toString(),
+                            is(expected.getPosition(i).toString()));
+                        assertThat(actual.getValue(i), is(expected.getValue(i)));
+                    }
+                }
+            }
+        }
+    }
+
+    @Test
+    public void testOfShouldThrowWhenKIsNotPositive() {
+        // then
+        thrown.expect(IllegalArgumentException.class);
+        thrown.expectMessage("Number of values '0' is not positive.");
+
+        // when
+        Ranking.of(Matrix.from(1, 1, new double[]{1}), WHOLE, 0, true);
+    }
+
+    /**
+     * @return indices of the values, best first, equal values by index
+     */
+    private static Integer[] sortedIndices(double[] values, boolean largest) {
+        Integer[] indices = new Integer[values.length];
+        for (int i = 0; i < indices.length; i++) {
+            indices[i] = i;
+        }
+        Comparator<Integer> byValue = Comparator.comparingDouble(i -> values[i]);
+        Arrays.sort(indices, (largest ? byValue.reversed() : byValue)
+            .thenComparing(Comparator.naturalOrder()));
+        return indices;
+    }
+}
@@ -0,0 +1,131 @@
+package sk.bocko.matrixcalc.model;
+
+import java.util.Optional;
+import java.util.Random;
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.is;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.ExpectedException;
+import static sk.bocko.matrixcalc.model.RangedOperation.AVERAGE;
+import static sk.bocko.matrixcalc.model.RangedOperation.MAXIMUM;
+import static sk.bocko.matrixcalc.model.RangedOperation.MINIMUM;
+import static sk.bocko.matrixcalc.model.RangedOperation.PRODUCT;
+import static sk.bocko.matrixcalc.model.RangedOperation.STANDARD_DEVIATION;
+import static sk.bocko.matrixcalc.model.RangedOperation.SUM;
+import static sk.bocko.matrixcalc.model.RangedOperation.VARIANCE;
+
+public class StatisticsTest {
+
+    @Rule
+    public final ExpectedException thrown = ExpectedException.none();
+
+    @Test
+    public void testOfShouldComputeAllStatistics() {
+        // given
+        Matrix matrix = Matrix.from(new double[][]{{1, -2}, {3, 4}});
+
+        // when
+        Statistics actual = Statistics.of(matrix, Range.valueOf(Optional.empty()));
+
+        // then
+        assertThat(actual.getCount(), is(4L));
+        assertThat(actual.getSum(), is(6.0));
+        assertThat(actual.getProduct(), is(-24.0));
+        assertThat(actual.getMinimum(), is(-2.0));
+        assertThat(actual.getMaximum(), is(4.0));
+        assertThat(actual.getAverage(), is(1.5));
+        assertThat(actual.getVariance(), is(5.25));
+        assertThat(actual.getL1(), is(10.0));
+        assertThat(actual.getL2(), is(Math.sqrt(30)));
+    }
+
+    @Test
+    public void testOfShouldAgreeWithOperations() {
+        // given
+        Random random = new Random(13);
+        double[] values = new double[9 * 11];
+        for (int i = 0; i < values.length; i++) {
+            values[i] = (random.nextDouble() - 0.3) * Math.pow(10, random.nextInt(6));
+        }
+        Matrix matrix = Matrix.from(9, 11, values);
+
+        for (String range : new String[]{null, "2-x", "x-3", "2:5-3:7", "1:9-x", "4-2:3"}) {
+            Range parsed = Range.valueOf(Optional.ofNullable(range));
+
+            // when
+            Statistics actual = Statistics.of(matrix, parsed);
+
+            // then
+            assertAgreesWithOperations(actual, matrix, parsed, range);
+        }
+    }
+
+    @Test
+    public void testSparseViewsShouldGiveSameResultsAsOperations() {
+        // given
+        double[] special = {-0.0, Double.NaN, Double.POSITIVE_INFINITY, 1e300, -1e-300, 0.1, -3};
+        for (long seed = 0; seed < 50; seed++) {
+            Random random = new Random(seed);
+            double[] values = new double[20 * 30];
+            for (int i = 0; i < 30; i++) {
+                values[random.nextInt(values.length)] = random.nextInt(4) == 0
+                    ? special[random.nextInt(special.length)]
+                    : random.nextDouble() - 0.5;
+            }
+            Matrix sparse = Matrix.from(20, 30, values).compact();
+            assertThat(sparse.isSparse(), is(true));
+
+            for (String range : new String[]{null, "1-x", "20-x", "x-1", "x-30", "2:9-x",
+                "3:17-2:29", "12:20-30"}) {
+                Range parsed = Range.valueOf(Optional.ofNullable(range));
+
+                // when
+                Statistics actual = Statistics.of(sparse, parsed);
+
+                // then
+                assertAgreesWithOperations(actual, sparse, parsed, range + " with seed " + seed);
+            }
+        }
+    }
+
+    @Test
+    public void testOfShouldKeepNaN() {
+        // given
+        Matrix matrix = Matrix.from(1, 3, new double[]{Double.NaN, 1, -1});
+
+        // when
+        Statistics actual = Statistics.of(matrix, Range.valueOf(Optional.empty()));
+
+        // then
+        assertThat(Double.isNaN(actual.getMinimum()), is(true));
+        assertThat(Double.isNaN(actual.getMaximum()), is(true));
+        assertThat(actual.getCount(), is(3L));
+    }
+
+    @Test
+    public void testOfShouldThrowWhenRangeIsNotValid() {
+        // given
+        Matrix matrix = Matrix.from(2, 3, new double[6]);
+
+        // then
+        thrown.expect(IllegalArgumentException.class);
+        thrown.expectMessage("The '1:2-3:4' range is not valid for the matrix.");
+
+        // when
+        Statistics.of(matrix, Range.valueOf(Optional.of("1:2-3:4")));
+    }
+
+    private static void assertAgreesWithOperations(Statistics actual, Matrix matrix,
+        Range range, String reason) {
+        assertThat(reason, actual.getCount(), is((long) matrix.getRange(range).length()));
+        assertThat(reason, actual.getSum(), is(SUM.apply(matrix, range)));
+        assertThat(reason, actual.getProduct(), is(PRODUCT.apply(matrix, range)));
+        assertThat(reason, actual.getMinimum(), is(MINIMUM.apply(matrix, range)));
+        assertThat(reason, actual.getMaximum(), is(MAXIMUM.apply(matrix, range)));
+        assertThat(reason, actual.getAverage(), is(AVERAGE.apply(matrix, range)));
+        assertThat(reason, actual.getVariance(), is(VARIANCE.apply(matrix, range)));
+        assertThat(reason, actual.getStandardDeviation(),
+            is(STANDARD_DEVIATION.apply(matrix, range)));
+    }
+}
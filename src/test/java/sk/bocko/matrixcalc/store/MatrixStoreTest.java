@@ -0,0 +1,194 @@
+package sk.bocko.matrixcalc.store;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.is;
+import org.json.JSONObject;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.ExpectedException;
+import sk.bocko.matrixcalc.model.LuDecomposition;
+import sk.bocko.matrixcalc.model.Matrix;
+import sk.bocko.matrixcalc.model.MatrixUpdate;
+
+public class MatrixStoreTest {
+
+    @Rule
+    public final ExpectedException thrown = ExpectedException.none();
+
+    @Test
+    public void testGetShouldReturnStoredMatrix() {
+        // given
+        MatrixStore testee = new MatrixStore(1 << 20, 1 << 20);
+        Matrix matrix = aMatrix(2);
+
+        // when
+        String id = testee.put(matrix);
+
+        // then
+        assertThat(testee.get(id).getMatrix(), is(matrix.getMatrix()));
+        assertThat(testee.usedBytes(), is(MatrixStore.sizeInBytes(matrix)));
+    }
+
+    @Test
+    public void testPutShouldEvictLeastRecentlyUsedMatrixWhenFull() {
+        // given
+        Matrix matrix = aMatrix(64); // 32 KiB
+        MatrixStore testee = new MatrixStore(3 * MatrixStore.sizeInBytes(matrix), 1 << 20);
+        String first = testee.put(matrix);
+        String second = testee.put(matrix);
+        testee.get(first);
+
+        // when
+        String third = testee.put(matrix);
+        String fourth = testee.put(matrix);
+
+        // then
+        assertThat(testee.size(), is(3L));
+        assertThat(testee.get(first).getMatrix(), is(matrix.getMatrix()));
+        assertThat(testee.get(third).getMatrix(), is(matrix.getMatrix()));
+        assertThat(testee.get(fourth).getMatrix(), is(matrix.getMatrix()));
+
+        thrown.expect(MatrixNotFoundException.class);
+        testee.get(second);
+    }
+
+    @Test
+    public void testPutShouldThrowWhenMatrixExceedsCapacity() {
+        // given
+        MatrixStore testee = new MatrixStore(1024, 1 << 20);
+
+        // then
+        thrown.expect(IllegalArgumentException.class);
+        thrown.expectMessage("exceeds the store capacity of 1024 bytes");
+
+        // when
+        testee.put(aMatrix(32));
+    }
+
+    @Test
+    public void testPutShouldThrowWhenMatrixHasTooManyElements() {
+        // given
+        MatrixStore testee = new MatrixStore(1 << 20, 1000);
+
+        // then
+        thrown.expect(IllegalArgumentException.class);
+        thrown.expectMessage("Matrix 100x100 has too many elements.");
+
+        // when
+        testee.put(Matrix.fromEntries(100, 100, new int[]{50}, new int[]{50}, new double[]{2}, 1));
+    }
+
+    @Test
+    public void testRemoveShouldReleaseMatrix() {
+        // given
+        MatrixStore testee = new MatrixStore(1 << 20, 1 << 20);
+        String id = testee.put(aMatrix(2));
+
+        // when
+        testee.remove(id);
+
+        // then
+        assertThat(testee.usedBytes(), is(0L));
+        thrown.expect(MatrixNotFoundException.class);
+        thrown.expectMessage(String.format("Matrix '%s' is not stored.", id));
+        testee.get(id);
+    }
+
+    @Test
+    public void testPutShouldWeighSparseMatrixByItsNonZeros() {
+        // given
+        Matrix sparse = Matrix.fromEntries(1000, 1000, new int[]{1}, new int[]{1}, new double[]{1}, 1);
+
+        // when
+        long actual = MatrixStore.sizeInBytes(sparse);
+
+        // then
+        assertThat(actual < 64 * 1024, is(true));
+    }
+
+    @Test
+    public void testUpdateShouldChangeMatrixAndWeighItsTrees() {
+        // given
+        MatrixStore testee = new MatrixStore(1 << 20, 1 << 20);
+        String id = testee.put(aMatrix(4));
+        long frozen = testee.usedBytes();
+
+        // when
+        testee.update(id, MatrixUpdate.from(new JSONObject("{\"cells\":[[4,4,2.5]]}")));
+
+        // then
+        assertThat(testee.get(id).getMatrix()[3][3], is(2.5));
+        assertThat(testee.usedBytes(), is(MatrixStore.sizeInBytes(testee.getLive(id))));
+        assertThat(testee.usedBytes() > frozen, is(true));
+    }
+
+    @Test
+    public void testDecompositionShouldChargeEntryWhenItIsKept() {
+        // given
+        MatrixStore testee = new MatrixStore(1 << 20, 1 << 20);
+        Matrix matrix = Matrix.from(new double[][]{{2, 0}, {0, 4}});
+        String id = testee.put(matrix);
+
+        // when
+        LuDecomposition first = testee.decomposition(id);
+        LuDecomposition second = testee.decomposition(id);
+
+        // then
+        assertThat(first == second, is(true));
+        assertThat(testee.usedBytes(),
+            is(MatrixStore.sizeInBytes(matrix) + MatrixStore.sizeOfDecomposition(2)));
+    }
+
+    @Test
+    public void testDecompositionShouldNotBeKeptWhenItExceedsCapacity() {
+        // given
+        Matrix matrix = aMatrix(16);
+        MatrixStore testee = new MatrixStore(MatrixStore.sizeInBytes(matrix), 1 << 20);
+        String id = testee.put(matrix);
+
+        // when
+        LuDecomposition first = testee.decomposition(id);
+        LuDecomposition second = testee.decomposition(id);
+
+        // then
+        assertThat(first == second, is(false));
+        assertThat(testee.usedBytes(), is(MatrixStore.sizeInBytes(matrix)));
+    }
+
+    @Test
+    public void testUpdateShouldThrowWhenEditableMatrixExceedsCapacity() {
+        // given
+        MatrixStore testee = new MatrixStore(1 << 20, 1 << 20);
+        String id = testee.put(Matrix.fromEntries(1000, 1000, new int[]{1}, new int[]{1}, new double[]{1}, 1));
+        long used = testee.usedBytes();
+
+        // then
+        thrown.expect(IllegalArgumentException.class);
+        thrown.expectMessage("exceeds the store capacity of 1048576 bytes");
+
+        // when
+        try {
+            testee.update(id, MatrixUpdate.from(new JSONObject("{\"cells\":[[2,2,1]]}")));
+        } finally {
+            assertThat(testee.getLive(id).isEditable(), is(false));
+            assertThat(testee.usedBytes(), is(used));
+        }
+    }
+
+    @Test
+    public void testUpdateShouldThrowWhenMatrixIsNotStored() {
+        // given
+        MatrixStore testee = new MatrixStore(1 << 20, 1 << 20);
+
+        // then
+        thrown.expect(MatrixNotFoundException.class);
+        thrown.expectMessage("Matrix 'missing' is not stored.");
+
+        // when
+        testee.update("missing", MatrixUpdate.from(new JSONObject("{\"cells\":[]}")));
+    }
+
+    private Matrix aMatrix(int size) {
+        return Matrix.from(size, size, new double[size * size]);
+    }
+}